@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.coordination.lease.kubernetes
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicLong
+
+import scala.concurrent.Await
+import scala.concurrent.duration._
+import scala.jdk.CollectionConverters._
+
+import akka.actor.ActorSystem
+import akka.coordination.lease.kubernetes.internal.KubernetesJsonSupport
+import akka.coordination.lease.kubernetes.internal.LeaseCustomResource
+import akka.coordination.lease.scaladsl.LeaseProvider
+import akka.http.scaladsl.Http
+import akka.http.scaladsl.model.StatusCodes
+import akka.http.scaladsl.server.Directives._
+import akka.http.scaladsl.server.Route
+import akka.stream.scaladsl.Sink
+import akka.stream.scaladsl.Source
+import com.typesafe.config.ConfigFactory
+
+/**
+ * Load test of many leases held by one node, against a fake API server on localhost that keeps the leases in memory.
+ * Acquires 1000 and 5000 leases, with and without aligned heartbeats, and then reports the requests per second that
+ * the API server receives and the latency of the heartbeats, from creating the update until the API server received
+ * it, and the longest time between two heartbeats of a lease.
+ *
+ * Run with e.g. `akka-management-bench-jmh/runMain akka.coordination.lease.kubernetes.KubernetesLeaseLoadTest 1000`
+ */
+object KubernetesLeaseLoadTest {
+
+  private val HeartbeatInterval = 2.seconds
+  private val MeasuredHeartbeats = 5
+
+  def main(args: Array[String]): Unit = {
+    val leaseCounts = if (args.isEmpty) List(1000, 5000) else args.toList.map(_.toInt)
+    for {
+      leaseCount <- leaseCounts
+      alignHeartbeats <- List(false, true)
+    } run(leaseCount, alignHeartbeats)
+  }
+
+  private def run(leaseCount: Int, alignHeartbeats: Boolean): Unit = {
+    val apiServerSystem = ActorSystem("FakeApiServer", ConfigFactory.parseString("akka.loglevel = WARNING"))
+    val apiServer = new FakeApiServer
+    val binding =
+      Await.result(
+        Http()(apiServerSystem).newServerAt("127.0.0.1", 0).bind(Route.toFunction(apiServer.route)(apiServerSystem)),
+        10.seconds)
+
+    implicit val system: ActorSystem = ActorSystem(
+      "KubernetesLeaseLoadTest",
+      ConfigFactory.parseString(s"""
+        akka.loglevel = WARNING
+        akka.coordination.lease.kubernetes {
+          api-service-host = 127.0.0.1
+          api-service-port = ${binding.localAddress.getPort}
+          secure-api-server = off
+          namespace = bench
+          heartbeat-interval = ${HeartbeatInterval.toMillis}ms
+          heartbeat-timeout = 60s
+          align-heartbeats = $alignHeartbeats
+        }
+        """).withFallback(ConfigFactory.load()))
+
+    try {
+      val leases = (1 to leaseCount).map { n =>
+        LeaseProvider(system).getLease(s"lease-$n", KubernetesLease.configPath, "load-test")
+      }
+      // like shards that are allocated over time, rather than all at the same moment
+      val acquired = Await.result(Source(leases).mapAsyncUnordered(64)(_.acquire()).runWith(Sink.seq), 5.minutes)
+      require(acquired.size == leaseCount && acquired.forall(identity), "All leases should be acquired")
+
+      // the first heartbeats of each lease can still be affected by the acquiring
+      Thread.sleep(HeartbeatInterval.toMillis)
+      apiServer.reset()
+      val measuring = HeartbeatInterval * MeasuredHeartbeats
+      Thread.sleep(measuring.toMillis)
+
+      val latencies = apiServer.heartbeatLatencies.asScala.toVector.sorted
+      def percentile(p: Double): Long = if (latencies.isEmpty) 0 else latencies(((latencies.size - 1) * p).toInt)
+      println(
+        f"leases: $leaseCount%5d, aligned heartbeats: $alignHeartbeats%-5s, " +
+        f"API requests/s: ${apiServer.requests.get().toDouble / measuring.toSeconds}%7.1f, " +
+        s"heartbeat latency ms p50: ${percentile(0.5)}, p99: ${percentile(0.99)}, max: ${percentile(1.0)}, " +
+        s"longest time between heartbeats ms: ${apiServer.longestHeartbeatGapMillis()}")
+    } finally {
+      Await.result(system.terminate(), 30.seconds)
+      Await.result(apiServerSystem.terminate(), 30.seconds)
+    }
+  }
+
+  /**
+   * Keeps the leases in memory, with the optimistic concurrency of the Kubernetes API server.
+   */
+  private final class FakeApiServer extends KubernetesJsonSupport {
+    private val leases = new ConcurrentHashMap[String, LeaseCustomResource]
+    private val versions = new AtomicLong
+    private val lastHeartbeats = new ConcurrentHashMap[String, java.lang.Long]
+    private val heartbeatGaps = new ConcurrentHashMap[String, java.lang.Long]
+
+    val requests = new AtomicLong
+    val heartbeatLatencies = new ConcurrentLinkedQueue[Long]
+
+    def reset(): Unit = {
+      requests.set(0)
+      heartbeatLatencies.clear()
+      heartbeatGaps.clear()
+    }
+
+    def longestHeartbeatGapMillis(): Long =
+      heartbeatGaps.values().asScala.map(_.longValue).maxOption.getOrElse(0L)
+
+    val route: Route =
+      path("apis" / "akka.io" / "v1" / "namespaces" / Segment / "leases" / Segment) { (_, name) =>
+        requests.incrementAndGet()
+        concat(
+          get {
+            Option(leases.get(name)) match {
+              case Some(lease) => complete(lease)
+              case None        => complete(StatusCodes.NotFound)
+            }
+          },
+          post {
+            entity(as[LeaseCustomResource]) { lease =>
+              val created = withNewVersion(lease)
+              if (leases.putIfAbsent(name, created) eq null) complete(StatusCodes.Created -> created)
+              else complete(StatusCodes.Conflict)
+            }
+          },
+          put {
+            entity(as[LeaseCustomResource]) { lease =>
+              val current = leases.get(name)
+              val updated = withNewVersion(lease)
+              if ((current ne null) && current.metadata.resourceVersion == lease.metadata.resourceVersion &&
+                  leases.replace(name, current, updated)) {
+                recordHeartbeat(name, lease)
+                complete(updated)
+              } else complete(StatusCodes.Conflict)
+            }
+          })
+      }
+
+    private def withNewVersion(lease: LeaseCustomResource): LeaseCustomResource =
+      lease.copy(metadata = lease.metadata.copy(resourceVersion = Some(versions.incrementAndGet().toString)))
+
+    private def recordHeartbeat(name: String, lease: LeaseCustomResource): Unit = {
+      val now = System.currentTimeMillis()
+      heartbeatLatencies.add(now - lease.spec.time)
+      val previous = lastHeartbeats.put(name, now)
+      if (previous ne null) heartbeatGaps.merge(name, now - previous, (a, b) => math.max(a, b))
+    }
+  }
+}
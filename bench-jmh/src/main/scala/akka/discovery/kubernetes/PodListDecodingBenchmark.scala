@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.discovery.kubernetes
+
+import java.util.concurrent.TimeUnit
+
+import scala.collection.immutable
+
+import akka.discovery.ServiceDiscovery.ResolvedTarget
+import akka.util.ByteString
+import org.openjdk.jmh.annotations._
+import spray.json.JsonParser
+import spray.json.ParserInput
+
+/**
+ * Compares decoding a pod list response into the full spray-json AST with the streaming [[PodListDecoder]], on
+ * synthetic pod lists where each pod has a realistically sized spec, and with decoding the EndpointSlices of the same
+ * pods, which the `endpoint-slices` mode lists instead of the pods.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = Array("-Xms1g", "-Xmx1g"))
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+class PodListDecodingBenchmark {
+
+  @Param(Array("1000", "10000"))
+  var podCount: Int = _
+
+  var payload: ByteString = _
+  var endpointSlicesPayload: ByteString = _
+
+  @Setup
+  def setup(): Unit = {
+    payload = ByteString(PodListDecodingBenchmark.podListJson(podCount))
+    endpointSlicesPayload = ByteString(PodListDecodingBenchmark.endpointSliceListJson(podCount))
+  }
+
+  @Benchmark
+  def sprayJson(): immutable.Seq[ResolvedTarget] = {
+    // what the spray-json unmarshaller does
+    val podList = JsonFormat.podListFormat.read(JsonParser(ParserInput(payload.toArray[Byte])))
+    PodListDecodingBenchmark.targets(podList)
+  }
+
+  @Benchmark
+  def streaming(): immutable.Seq[ResolvedTarget] =
+    PodListDecodingBenchmark.targets(PodListDecoder.decode(payload))
+
+  @Benchmark
+  def endpointSlices(): immutable.Seq[ResolvedTarget] = {
+    val endpointSliceList =
+      JsonFormat.endpointSliceListFormat.read(JsonParser(ParserInput(endpointSlicesPayload.toArray[Byte])))
+    KubernetesApiServiceDiscovery.endpointSliceTargets(
+      endpointSliceList,
+      Some("management"),
+      "default",
+      "cluster.local",
+      true,
+      true)
+  }
+}
+
+object PodListDecodingBenchmark {
+
+  def targets(podList: PodList): immutable.Seq[ResolvedTarget] =
+    KubernetesApiServiceDiscovery.targets(podList, Some("management"), "default", "cluster.local", true, None, true)
+
+  def podListJson(podCount: Int): String =
+    (0 until podCount).iterator
+      .map(pod)
+      .mkString("""{"kind":"PodList","apiVersion":"v1","metadata":{"resourceVersion":"123456"},"items":[""", ",", "]}")
+
+  // the EndpointSlice controller puts up to 100 endpoints in a slice
+  def endpointSliceListJson(podCount: Int): String =
+    (0 until podCount)
+      .grouped(100)
+      .map(endpointSlice)
+      .mkString(
+        """{"kind":"EndpointSliceList","apiVersion":"discovery.k8s.io/v1","metadata":{"resourceVersion":"123456"},"items":[""",
+        ",",
+        "]}")
+
+  private def endpointSlice(pods: Seq[Int]): String = {
+    val endpoints = pods.map { n =>
+      s"""{"addresses":["${ip(n)}"],"conditions":{"ready":true,"serving":true,"terminating":false},
+         |"nodeName":"node-${n % 50}","targetRef":{"kind":"Pod","namespace":"default","name":"app-7f854bcc78-$n",
+         |"uid":"b58dbc88-3651-4fb4-8408-${"%012d".format(n)}"}}""".stripMargin
+    }
+    s"""{
+       |"metadata":{
+       |  "name":"app-${pods.head}","generateName":"app-","namespace":"default",
+       |  "labels":{"endpointslice.kubernetes.io/managed-by":"endpointslice-controller.k8s.io","kubernetes.io/service-name":"app"}
+       |},
+       |"addressType":"IPv4",
+       |"endpoints":[${endpoints.mkString(",")}],
+       |"ports":[{"name":"management","protocol":"TCP","port":8558},{"name":"http","protocol":"TCP","port":8080}]
+       |}""".stripMargin
+  }
+
+  private def ip(n: Int): String = s"10.${(n >> 16) & 255}.${(n >> 8) & 255}.${n & 255}"
+
+  private def pod(n: Int): String = {
+    val ip = PodListDecodingBenchmark.ip(n)
+    val env = (0 until 30).map(i => s"""{"name":"ENV_VAR_$i","value":"some-configuration-value-$i-for-pod-$n"}""")
+    val volumes = (0 until 5).map(i => s"""{"name":"volume-$i","configMap":{"name":"config-$i","defaultMode":420}}""")
+    val mounts = (0 until 5).map(i => s"""{"name":"volume-$i","mountPath":"/etc/config-$i","readOnly":true}""")
+    s"""{
+       |"metadata":{
+       |  "name":"app-7f854bcc78-$n","generateName":"app-7f854bcc78-","namespace":"default",
+       |  "uid":"b58dbc88-3651-4fb4-8408-${"%012d".format(n)}","resourceVersion":"${100000 + n}",
+       |  "creationTimestamp":"2025-01-01T00:00:00Z",
+       |  "labels":{"app":"app","pod-template-hash":"7f854bcc78","version":"1.0.0"},
+       |  "annotations":{"prometheus.io/scrape":"true","prometheus.io/port":"9001","kubectl.kubernetes.io/restartedAt":"2025-01-01T00:00:00Z"},
+       |  "ownerReferences":[{"apiVersion":"apps/v1","kind":"ReplicaSet","name":"app-7f854bcc78","uid":"8d1c6c1e","controller":true,"blockOwnerDeletion":true}]
+       |},
+       |"spec":{
+       |  "volumes":[${volumes.mkString(",")}],
+       |  "containers":[{
+       |    "name":"app","image":"registry.example.com/app:1.0.0",
+       |    "ports":[
+       |      {"name":"remoting","containerPort":25520,"protocol":"TCP"},
+       |      {"name":"management","containerPort":8558,"protocol":"TCP"},
+       |      {"name":"http","containerPort":8080,"protocol":"TCP"}],
+       |    "env":[${env.mkString(",")}],
+       |    "resources":{"limits":{"memory":"1Gi"},"requests":{"cpu":"1","memory":"1Gi"}},
+       |    "volumeMounts":[${mounts.mkString(",")}],
+       |    "readinessProbe":{"httpGet":{"path":"/ready","port":"management","scheme":"HTTP"},"periodSeconds":10},
+       |    "livenessProbe":{"httpGet":{"path":"/alive","port":"management","scheme":"HTTP"},"periodSeconds":10},
+       |    "terminationMessagePath":"/dev/termination-log","imagePullPolicy":"IfNotPresent"
+       |  }],
+       |  "restartPolicy":"Always","terminationGracePeriodSeconds":30,"dnsPolicy":"ClusterFirst",
+       |  "serviceAccountName":"default","nodeName":"node-${n % 50}","schedulerName":"default-scheduler",
+       |  "tolerations":[{"key":"node.kubernetes.io/not-ready","operator":"Exists","effect":"NoExecute","tolerationSeconds":300}]
+       |},
+       |"status":{
+       |  "phase":"Running",
+       |  "conditions":[
+       |    {"type":"Initialized","status":"True","lastProbeTime":null,"lastTransitionTime":"2025-01-01T00:00:00Z"},
+       |    {"type":"Ready","status":"True","lastProbeTime":null,"lastTransitionTime":"2025-01-01T00:00:00Z"},
+       |    {"type":"ContainersReady","status":"True","lastProbeTime":null,"lastTransitionTime":"2025-01-01T00:00:00Z"},
+       |    {"type":"PodScheduled","status":"True","lastProbeTime":null,"lastTransitionTime":"2025-01-01T00:00:00Z"}],
+       |  "hostIP":"192.168.0.${n % 50}","podIP":"$ip","podIPs":[{"ip":"$ip"}],"startTime":"2025-01-01T00:00:00Z",
+       |  "containerStatuses":[{
+       |    "name":"app","state":{"running":{"startedAt":"2025-01-01T00:00:00Z"}},"lastState":{},"ready":true,
+       |    "restartCount":0,"image":"registry.example.com/app:1.0.0","imageID":"docker-pullable://registry.example.com/app@sha256:0123456789abcdef",
+       |    "containerID":"containerd://0123456789abcdef","started":true}],
+       |  "qosClass":"Burstable"
+       |}
+       |}""".stripMargin
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.cluster
+
+import java.lang.management.ManagementFactory
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.locks.LockSupport
+
+import scala.concurrent.Await
+import scala.concurrent.duration._
+
+import akka.actor.ActorSystem
+import akka.actor.Address
+import akka.cluster.Cluster
+import akka.cluster.ClusterEvent
+import akka.cluster.Member
+import akka.cluster.MemberStatus
+import akka.cluster.UniqueAddress
+import akka.stream.OverflowStrategy
+import akka.stream.scaladsl.Sink
+import akka.stream.scaladsl.Source
+import akka.util.Version
+import com.typesafe.config.ConfigFactory
+import org.openjdk.jmh.annotations._
+
+/**
+ * 100 subscribers of `/cluster/domain-events` during the churn of 200 members, that join, become up, leave, exit and
+ * are removed. Compares a cluster subscription and encoding of the events per subscriber, as the route did before,
+ * with the shared subscription and encoding of [[ClusterDomainEventHub]]. Measures the time until all subscribers have
+ * received the bytes of all events, and the process CPU time (the `cpuMillis` counter).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = Array("-Xms1g", "-Xmx1g"))
+@Warmup(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+class ClusterDomainEventsBenchmark {
+  import ClusterDomainEventsBenchmark._
+
+  @Param(Array("false", "true"))
+  var sharedHub: Boolean = _
+
+  implicit var system: ActorSystem = _
+  var received: AtomicLong = _
+  var churn: Vector[ClusterEvent.MemberEvent] = _
+
+  @Setup
+  def setup(): Unit = {
+    system = ActorSystem("ClusterDomainEventsBenchmark", config)
+    received = new AtomicLong
+    churn = churnEvents(system.name)
+
+    val subscribers = Vector.fill(Subscribers)(new AtomicLong)
+    subscribers.foreach { subscriberReceived =>
+      val events = if (sharedHub) sharedSubscription() else ownSubscription()
+      events.runWith(Sink.foreach { _ =>
+        subscriberReceived.incrementAndGet()
+        received.incrementAndGet()
+      })
+    }
+    // the subscribers attach asynchronously, wait until each of them receives events
+    val deadline = 30.seconds.fromNow
+    while (!subscribers.forall(_.get() > 0)) {
+      require(deadline.hasTimeLeft(), "Subscribers didn't attach")
+      system.eventStream.publish(churn.head)
+      Thread.sleep(10)
+    }
+  }
+
+  @TearDown
+  def tearDown(): Unit =
+    Await.result(system.terminate(), 30.seconds)
+
+  @Benchmark
+  def membershipChurn(counters: CpuCounters): Long = {
+    val cpuBefore = processCpuNanos()
+    val expected = received.get() + churn.size.toLong * Subscribers
+    churn.foreach(system.eventStream.publish)
+    // not spinning, which would count as CPU time of the subscribers
+    while (received.get() < expected) LockSupport.parkNanos(50000)
+    counters.cpuMillis += (processCpuNanos() - cpuBefore).nanos.toMillis
+    received.get()
+  }
+
+  private def sharedSubscription(): Source[Any, Any] =
+    ClusterDomainEventHub(system).events(List(classOf[ClusterEvent.MemberEvent]))
+
+  // what the route did for each subscriber before the shared hub
+  private def ownSubscription(): Source[Any, Any] =
+    Source
+      .actorRef[ClusterEvent.ClusterDomainEvent](
+        completionMatcher = PartialFunction.empty,
+        failureMatcher = PartialFunction.empty,
+        bufferSize = SubscriberBufferSize,
+        overflowStrategy = OverflowStrategy.fail)
+      .mapConcat(event => ClusterDomainEventServerSentEventEncoder.encode(event).toList)
+      .map(ClusterDomainEventHub.encode)
+      .mapMaterializedValue { actorRef =>
+        Cluster(system)
+          .subscribe(actorRef, ClusterEvent.InitialStateAsEvents, classOf[ClusterEvent.MemberEvent])
+      }
+}
+
+object ClusterDomainEventsBenchmark {
+
+  val Subscribers = 100
+  val ChurnMembers = 200
+  val SubscriberBufferSize = 2048
+
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  class CpuCounters {
+    var cpuMillis: Long = _
+
+    @Setup(Level.Iteration)
+    def reset(): Unit = cpuMillis = 0
+  }
+
+  // the buffers hold all events of a churn, so that no subscriber fails
+  private val config =
+    ConfigFactory.parseString(s"""
+      akka.loglevel = WARNING
+      akka.actor.provider = cluster
+      akka.remote.artery.canonical.hostname = 127.0.0.1
+      akka.remote.artery.canonical.port = 0
+      akka.management.cluster.domain-events.subscriber-buffer-size = $SubscriberBufferSize
+      """).withFallback(ConfigFactory.load())
+
+  private def churnEvents(systemName: String): Vector[ClusterEvent.MemberEvent] =
+    (1 to ChurnMembers).toVector.flatMap { n =>
+      val uniqueAddress = UniqueAddress(Address("akka", systemName, "10.0.0.1", 2552 + n), n.toLong)
+      val joining = Member(uniqueAddress, Set("dc-default"), Version.Zero)
+      val up = joining.copyUp(n)
+      val leaving = up.copy(MemberStatus.Leaving)
+      val exiting = leaving.copy(MemberStatus.Exiting)
+      Vector(
+        ClusterEvent.MemberJoined(joining),
+        ClusterEvent.MemberUp(up),
+        ClusterEvent.MemberLeft(leaving),
+        ClusterEvent.MemberExited(exiting),
+        ClusterEvent.MemberRemoved(exiting.copy(MemberStatus.Removed), MemberStatus.Exiting))
+    }
+
+  private def processCpuNanos(): Long =
+    ManagementFactory.getOperatingSystemMXBean.asInstanceOf[com.sun.management.OperatingSystemMXBean].getProcessCpuTime
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.cluster.bootstrap
+
+import java.lang.management.ManagementFactory
+import java.util.concurrent.atomic.AtomicLong
+
+import scala.concurrent.Await
+import scala.concurrent.Future
+import scala.concurrent.duration._
+
+import akka.actor.ActorSystem
+import akka.cluster.Cluster
+import akka.cluster.MemberStatus
+import akka.discovery.ServiceDiscovery.ResolvedTarget
+import akka.http.scaladsl.Http
+import akka.http.scaladsl.server.Route
+import akka.management.metrics.ManagementMetrics
+import akka.management.cluster.bootstrap.SimulatedDiscovery.Scenario
+import akka.management.cluster.bootstrap.contactpoint.HttpClusterBootstrapRoutes
+import com.typesafe.config.Config
+import com.typesafe.config.ConfigFactory
+
+/**
+ * Simulates the bootstrap of a new cluster of 10, 50 and 100 nodes, each an actor system in this JVM with its
+ * contact point on localhost, that discover each other with the in-memory [[SimulatedDiscovery]]. For each
+ * [[SimulatedDiscovery.Scenario]] it reports the time from starting the bootstraps until all nodes are members of
+ * one cluster, the number of HTTP requests to the contact points, the number of discovery lookups and the process
+ * CPU time.
+ *
+ * The bootstrap settings are the defaults, except that all nodes are required as contact points, so the times
+ * include the `stable-margin`. All nodes share the CPUs of the machine and the number of probes grows with the square
+ * of the number of nodes, so only compare numbers from the same machine.
+ *
+ * Run with e.g. `akka-management-bench-jmh/runMain akka.management.cluster.bootstrap.ClusterBootstrapSimulation`,
+ * optionally followed by node counts and scenario names, e.g. `50 partial flapping`.
+ */
+object ClusterBootstrapSimulation {
+
+  val Scenarios: List[Scenario] = List(
+    Scenario("baseline"),
+    Scenario("latency", latency = 500.millis),
+    Scenario("partial", registrationSpread = 10.seconds),
+    Scenario("flapping", flapping = 10.seconds, flapProbability = 0.1, failureProbability = 0.1))
+
+  private val FormationTimeout = 3.minutes
+
+  def main(args: Array[String]): Unit = {
+    val (counts, names) = args.toList.partition(_.forall(Character.isDigit))
+    val nodeCounts = if (counts.isEmpty) List(10, 50, 100) else counts.map(_.toInt)
+    val scenarios = if (names.isEmpty) Scenarios else Scenarios.filter(scenario => names.contains(scenario.name))
+    for {
+      scenario <- scenarios
+      nodeCount <- nodeCounts
+    } run(scenario, nodeCount)
+  }
+
+  private def run(scenario: Scenario, nodeCount: Int): Unit = {
+    val probeRequests = new AtomicLong
+    val systems = Vector.fill(nodeCount)(ActorSystem("ClusterBootstrapSimulation", config(nodeCount)))
+    try {
+      val contactPoints = systems.map { system =>
+        val bootstrap = ClusterBootstrap(system)
+        val routes = new HttpClusterBootstrapRoutes(bootstrap.settings).routes
+        val countedRoutes: Route = { ctx =>
+          probeRequests.incrementAndGet()
+          routes(ctx)
+        }
+        val binding =
+          Await.result(
+            Http()(system).newServerAt("127.0.0.1", 0).bind(Route.toFunction(countedRoutes)(system)),
+            10.seconds)
+        val port = binding.localAddress.getPort
+        bootstrap.setSelfContactPoint(s"http://127.0.0.1:$port")
+        ResolvedTarget("127.0.0.1", Some(port), None)
+      }
+
+      SimulatedDiscovery.start(scenario, contactPoints)
+      val cpuBefore = processCpuNanos()
+      val startedAt = System.nanoTime()
+      systems.foreach(ClusterBootstrap(_).start())
+      val formed = awaitFormed(systems, FormationTimeout.fromNow)
+      val elapsed = (System.nanoTime() - startedAt).nanos
+      val cpu = (processCpuNanos() - cpuBefore).nanos
+
+      val formation =
+        if (formed) f"formed in ms: ${elapsed.toMillis}%6d"
+        else s"NOT formed within ${FormationTimeout.toSeconds}s, largest cluster: ${largestCluster(systems)}"
+      println(
+        f"scenario: ${scenario.name}%-8s, nodes: $nodeCount%3d, $formation, " +
+        f"probe requests: ${probeRequests.get()}%6d (${probeRequests.get().toDouble / nodeCount}%.1f per node), " +
+        f"failed probes: ${failedProbes(systems)}%5d, discovery lookups: ${SimulatedDiscovery.lookupCount}%5d, " +
+        f"CPU ms: ${cpu.toMillis}%6d")
+    } finally {
+      import scala.concurrent.ExecutionContext.Implicits.global
+      Await.result(Future.traverse(systems)(_.terminate()), 1.minute)
+    }
+  }
+
+  private def awaitFormed(systems: Vector[ActorSystem], deadline: Deadline): Boolean = {
+    def formed = systems.forall { system =>
+      val members = Cluster(system).state.members
+      members.size == systems.size && members.forall(_.status == MemberStatus.Up)
+    }
+    while (!formed && deadline.hasTimeLeft()) Thread.sleep(100)
+    formed
+  }
+
+  private def largestCluster(systems: Vector[ActorSystem]): Int =
+    systems.map(Cluster(_).state.members.size).max
+
+  private def failedProbes(systems: Vector[ActorSystem]): Long =
+    systems.map { system =>
+      ManagementMetrics(system)
+        .counter(
+          "akka_management_bootstrap_probes",
+          "Contact point probes by result, a not-modified result answers a long polling probe",
+          "result" -> "failed")
+        .count
+    }.sum
+
+  private def config(nodeCount: Int): Config =
+    ConfigFactory.parseString(s"""
+      akka.loglevel = WARNING
+      akka.actor.provider = cluster
+      # many actor systems in one JVM
+      akka.actor.default-dispatcher.fork-join-executor.parallelism-max = 2
+      akka.actor.internal-dispatcher.fork-join-executor.parallelism-max = 2
+      akka.remote.artery.canonical.hostname = 127.0.0.1
+      akka.remote.artery.canonical.port = 0
+      akka.remote.artery.advanced.buffer-pool-size = 16
+      akka.remote.artery.advanced.large-buffer-pool-size = 4
+      akka.cluster.jmx.multi-mbeans-in-same-jvm = on
+      akka.discovery.simulated.class = "akka.management.cluster.bootstrap.SimulatedDiscovery"
+      akka.management.cluster.bootstrap.contact-point-discovery {
+        discovery-method = simulated
+        service-name = simulation
+        required-contact-point-nr = $nodeCount
+      }
+      # all contact points are on the same host, with different ports
+      akka.management.cluster.bootstrap.contact-point.filter-on-fallback-port = off
+      """).withFallback(ConfigFactory.load())
+
+  private def processCpuNanos(): Long =
+    ManagementFactory.getOperatingSystemMXBean.asInstanceOf[com.sun.management.OperatingSystemMXBean].getProcessCpuTime
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.cluster.bootstrap
+
+import java.util.concurrent.ThreadLocalRandom
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicReference
+
+import scala.collection.immutable
+import scala.concurrent.Future
+import scala.concurrent.duration._
+
+import akka.actor.ExtendedActorSystem
+import akka.discovery.Lookup
+import akka.discovery.ServiceDiscovery
+import akka.discovery.ServiceDiscovery.Resolved
+import akka.discovery.ServiceDiscovery.ResolvedTarget
+import akka.pattern.after
+
+/**
+ * An in-memory discovery method for [[ClusterBootstrapSimulation]]. It resolves any lookup to the contact points of
+ * the running simulation, as seen through its [[SimulatedDiscovery.Scenario]]: with latency, with contact points
+ * that are registered over time, with contact points that come and go, and with failed lookups.
+ */
+final class SimulatedDiscovery(system: ExtendedActorSystem) extends ServiceDiscovery {
+  import SimulatedDiscovery._
+
+  override def lookup(lookup: Lookup, resolveTimeout: FiniteDuration): Future[Resolved] = {
+    lookups.incrementAndGet()
+    val simulation = current.get()
+    require(simulation ne null, "No simulation is running")
+    val result = simulation.resolve(lookup.serviceName)
+    val latency = simulation.scenario.latency
+    if (latency == Duration.Zero) result
+    else {
+      // between half and one and a half times the latency
+      val delay = (latency.toNanos * (0.5 + ThreadLocalRandom.current().nextDouble())).toLong.nanos
+      after(delay, system.scheduler)(result)(system.dispatcher)
+    }
+  }
+}
+
+object SimulatedDiscovery {
+
+  /**
+   * @param latency the average latency of a lookup
+   * @param registrationSpread the contact points are registered in random order over this time after the start,
+   *                           like pods that become ready one by one
+   * @param flapping for this time after the start, each contact point is left out of a lookup with the
+   *                 `flapProbability`, like endpoints that are not yet consistent across the DNS servers
+   * @param failureProbability the probability that a lookup fails, like a rate limited API server
+   */
+  final case class Scenario(
+      name: String,
+      latency: FiniteDuration = Duration.Zero,
+      registrationSpread: FiniteDuration = Duration.Zero,
+      flapping: FiniteDuration = Duration.Zero,
+      flapProbability: Double = 0.0,
+      failureProbability: Double = 0.0)
+
+  private final class Simulation(
+      val scenario: Scenario,
+      registrations: immutable.Seq[(ResolvedTarget, Long)],
+      startedAt: Long) {
+
+    def resolve(serviceName: String): Future[Resolved] = {
+      val random = ThreadLocalRandom.current()
+      if (random.nextDouble() < scenario.failureProbability)
+        Future.failed(new RuntimeException("Simulated lookup failure"))
+      else {
+        val elapsed = System.nanoTime() - startedAt
+        val flapping = elapsed < scenario.flapping.toNanos
+        val targets = registrations.collect {
+          case (target, registeredAfter)
+              if elapsed >= registeredAfter && !(flapping && random.nextDouble() < scenario.flapProbability) =>
+            target
+        }
+        Future.successful(Resolved(serviceName, targets))
+      }
+    }
+  }
+
+  private val current = new AtomicReference[Simulation]
+
+  private val lookups = new AtomicLong
+
+  /**
+   * Resolves the lookups of all systems to the given contact points, as seen through the scenario, from now on.
+   */
+  def start(scenario: Scenario, contactPoints: immutable.Seq[ResolvedTarget]): Unit = {
+    val random = ThreadLocalRandom.current()
+    val spread = scenario.registrationSpread.toNanos
+    val registrations = contactPoints.map { target =>
+      target -> (if (spread == 0) 0L else random.nextLong(spread))
+    }
+    lookups.set(0)
+    current.set(new Simulation(scenario, registrations, System.nanoTime()))
+  }
+
+  /**
+   * The number of lookups since the simulation was started.
+   */
+  def lookupCount: Long = lookups.get()
+}
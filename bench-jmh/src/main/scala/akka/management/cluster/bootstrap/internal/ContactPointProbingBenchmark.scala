@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.cluster.bootstrap.internal
+
+import java.lang.management.ManagementFactory
+import java.util.concurrent.TimeUnit
+
+import scala.concurrent.Await
+import scala.concurrent.Promise
+import scala.concurrent.duration._
+
+import akka.Done
+import akka.actor.Actor
+import akka.actor.ActorSystem
+import akka.actor.Props
+import akka.discovery.ServiceDiscovery.ResolvedTarget
+import akka.event.NoLogging
+import akka.http.scaladsl.Http
+import akka.http.scaladsl.model.Uri
+import akka.management.cluster.bootstrap.ClusterBootstrapSettings
+import akka.management.cluster.bootstrap.contactpoint.HttpClusterBootstrapRoutes
+import akka.management.cluster.bootstrap.internal.BootstrapCoordinator.Protocol.ObtainedHttpSeedNodesObservation
+import akka.management.cluster.bootstrap.internal.BootstrapCoordinator.Protocol.ProbingFailed
+import com.typesafe.config.ConfigFactory
+import org.openjdk.jmh.annotations._
+
+/**
+ * Probes 50 to 200 contact points on localhost until each of them has been observed a few times, over the HTTP/1.1
+ * host connection pool or over one HTTP/2 connection per contact point. Each invocation starts new probes, so it
+ * measures the time and the process CPU time (the `cpuMillis` counter) of the probing of a bootstrap, from
+ * connecting to the steady state.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = Array("-Xms1g", "-Xmx1g"))
+@Warmup(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+class ContactPointProbingBenchmark {
+  import ContactPointProbingBenchmark._
+
+  @Param(Array("50", "200"))
+  var contactPointCount: Int = _
+
+  @Param(Array("false", "true"))
+  var http2: Boolean = _
+
+  implicit var system: ActorSystem = _
+  var settings: ClusterBootstrapSettings = _
+  var contactPoints: Seq[(ResolvedTarget, Uri)] = _
+
+  @Setup
+  def setup(): Unit = {
+    system = ActorSystem("ContactPointProbingBenchmark", config(http2))
+    settings = ClusterBootstrapSettings(system.settings.config, NoLogging)
+    val routes = new HttpClusterBootstrapRoutes(settings).routes
+    contactPoints = (1 to contactPointCount).map { _ =>
+      val binding = Await.result(Http().newServerAt("127.0.0.1", 0).bind(routes), 10.seconds)
+      val port = binding.localAddress.getPort
+      ResolvedTarget("127.0.0.1", Some(port), None) -> Uri(s"http://127.0.0.1:$port")
+    }
+  }
+
+  @TearDown
+  def tearDown(): Unit =
+    Await.result(system.terminate(), 30.seconds)
+
+  @Benchmark
+  def probeContactPoints(counters: CpuCounters): Done = {
+    val cpuBefore = processCpuNanos()
+    val done = Promise[Done]()
+    system.actorOf(Props(new ProbingParent(settings, contactPoints, ObservationsPerContactPoint, done)))
+    val result = Await.result(done.future, 60.seconds)
+    counters.cpuMillis += (processCpuNanos() - cpuBefore).nanos.toMillis
+    result
+  }
+}
+
+object ContactPointProbingBenchmark {
+
+  val ObservationsPerContactPoint = 5
+
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  class CpuCounters {
+    var cpuMillis: Long = _
+
+    @Setup(Level.Iteration)
+    def reset(): Unit = cpuMillis = 0
+  }
+
+  private def config(http2: Boolean) =
+    ConfigFactory.parseString(s"""
+      akka.loglevel = WARNING
+      akka.actor.provider = cluster
+      akka.remote.artery.canonical.hostname = 127.0.0.1
+      akka.remote.artery.canonical.port = 0
+      akka.http.server.enable-http2 = on
+      akka.management.cluster.bootstrap.contact-point {
+        http2 = $http2
+        probe-interval = 10ms
+      }
+      """).withFallback(ConfigFactory.load())
+
+  private def processCpuNanos(): Long =
+    ManagementFactory.getOperatingSystemMXBean.asInstanceOf[com.sun.management.OperatingSystemMXBean].getProcessCpuTime
+
+  /** Stands in for the bootstrap coordinator, stops the probes when all contact points have been observed. */
+  private final class ProbingParent(
+      settings: ClusterBootstrapSettings,
+      contactPoints: Seq[(ResolvedTarget, Uri)],
+      observations: Int,
+      done: Promise[Done])
+      extends Actor {
+
+    private var remaining = contactPoints.map { case (contactPoint, _) => contactPoint -> observations }.toMap
+
+    override def preStart(): Unit =
+      contactPoints.foreach {
+        case (contactPoint, baseUri) =>
+          context.actorOf(HttpContactPointBootstrap.props(settings, contactPoint, baseUri))
+      }
+
+    override def receive: Receive = {
+      case observation: ObtainedHttpSeedNodesObservation =>
+        val contactPoint = observation.contactPoint
+        remaining.get(contactPoint).foreach { n =>
+          remaining = if (n <= 1) remaining - contactPoint else remaining.updated(contactPoint, n - 1)
+        }
+        if (remaining.isEmpty) {
+          done.trySuccess(Done)
+          context.stop(self)
+        }
+
+      case ProbingFailed(contactPoint, cause) =>
+        done.tryFailure(new IllegalStateException(s"Probing [$contactPoint] failed", cause))
+        context.stop(self)
+    }
+  }
+}
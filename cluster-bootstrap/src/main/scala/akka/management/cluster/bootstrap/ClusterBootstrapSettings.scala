@@ -145,6 +145,18 @@ final class ClusterBootstrapSettings(config: Config, log: LoggingAdapter) {
       contactPointConfig.getDouble("probe-interval-jitter")
 
     val httpMaxSeedNodesToExpose: Int = 5
+
+    val http2: Boolean =
+      contactPointConfig.getBoolean("http2")
+
+    object longPolling {
+      private val longPollingConfig = contactPointConfig.getConfig("long-polling")
+
+      val enabled: Boolean = longPollingConfig.getBoolean("enabled")
+
+      val timeout: FiniteDuration =
+        longPollingConfig.getDuration("timeout", TimeUnit.MILLISECONDS).millis
+    }
   }
 
   /** Java API */
@@ -153,12 +165,26 @@ final class ClusterBootstrapSettings(config: Config, log: LoggingAdapter) {
   /** Java API */
   def getContactPointProbingFailureTimeout: java.time.Duration = contactPoint.probingFailureTimeout.toJava
 
+  /** Java API */
+  def getContactPointHttp2: Boolean = contactPoint.http2
+
+  /** Java API */
+  def getContactPointLongPollingEnabled: Boolean = contactPoint.longPolling.enabled
+
+  /** Java API */
+  def getContactPointLongPollingTimeout: java.time.Duration = contactPoint.longPolling.timeout.toJava
+
   object joinDecider {
     val implClass: String = bootConfig.getString("join-decider.class")
+
+    val statefulSetPodName: Option[String] = bootConfig.optValue("join-decider.stateful-set.pod-name")
   }
 
   /** Java API */
   def getJoinDeciderImplClass: String = joinDecider.implClass
+
+  /** Java API */
+  def getJoinDeciderStatefulSetPodName: Optional[String] = joinDecider.statefulSetPodName.toJava
 }
 
 object ClusterBootstrapSettings {
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.cluster.bootstrap
+
+import scala.concurrent.Future
+import scala.util.Try
+
+import akka.actor.ActorSystem
+import akka.annotation.InternalApi
+import akka.discovery.ServiceDiscovery.ResolvedTarget
+
+/**
+ * Join decider for nodes that run as the pods of a Kubernetes StatefulSet, which have stable names with an ordinal,
+ * e.g. `my-app-0`, `my-app-1`.
+ *
+ * The node with ordinal 0 joins "self", whether or not it has the lowest address, as soon as all discovered contact
+ * points, including itself, are pods of the StatefulSet and have replied without seed nodes, without waiting for the
+ * `required-contact-point-nr` or the `stable-margin`. That also lets the first pod form the cluster when the pods are
+ * started one by one, with the `OrderedReady` pod management policy. When a discovered contact point is not a pod of
+ * the StatefulSet the node with ordinal 0 also requires the `required-contact-point-nr` and the `stable-margin`. The
+ * other nodes join it as soon as probing it returns its address as seed node. If any of the contact-points returns a
+ * list of seed nodes it joins the existing cluster immediately, also the node with ordinal 0.
+ *
+ * When the node with ordinal 0 is not running the decision of the [[LowestAddressJoinDecider]] is the fallback,
+ * with the contact point with the lowest ordinal instead of the lowest address when the ordinals of all contact points
+ * are known. The ordinal of a contact point is taken from the first label of its host name, e.g.
+ * `my-app-1.my-app.default.svc.cluster.local`, which is how the pods of a StatefulSet resolve with the Kubernetes API
+ * discovery when `stateful-set-service` is defined, and with DNS discovery of the headless service of the StatefulSet.
+ *
+ * The ordinal of this node is taken from `akka.management.cluster.bootstrap.join-decider.stateful-set.pod-name`,
+ * which is the `HOSTNAME` of the pod by default.
+ */
+class StatefulSetJoinDecider(system: ActorSystem, settings: ClusterBootstrapSettings)
+    extends LowestAddressJoinDecider(system, settings) {
+  import StatefulSetJoinDecider.ordinal
+
+  private val selfOrdinal: Option[Int] = settings.joinDecider.statefulSetPodName.flatMap(ordinal)
+
+  if (selfOrdinal.isEmpty)
+    log.warning(
+      "The pod name [{}] has no StatefulSet ordinal, the lowest address of the contact points joins itself",
+      settings.joinDecider.statefulSetPodName.getOrElse(""))
+
+  override def decide(info: SeedNodesInformation): Future[JoinDecision] =
+    if (selfOrdinal.contains(0) && !info.hasSeedNodes && settings.newClusterEnabled) {
+      val contactPointsWithoutObservations = info.contactPoints -- info.seedNodesObservations.map(_.contactPoint)
+      val contactPointsWithoutSeedNodesObservations =
+        if (isConfirmedCommunicationWithAllContactPointsRequired(info)) contactPointsWithoutObservations
+        else Set.empty[ResolvedTarget]
+      // this node must be among the confirmed contact points, so that an empty or partial discovery result can't
+      // make it form a new cluster next to an existing one
+      val selfObserved =
+        info.seedNodesObservations.exists(observation => matchesSelf(observation.contactPoint, selfContactPoint))
+      // only pods of the StatefulSet are discovered, and all of them replied that they are not part of a cluster
+      val onlyStatefulSetPods =
+        info.contactPoints.nonEmpty && info.contactPoints.forall(contactPoint => ordinal(contactPoint.host).isDefined)
+
+      if (selfObserved && onlyStatefulSetPods && contactPointsWithoutObservations.isEmpty) {
+        log.info(
+          BootstrapLogMarker.inProgress(info.contactPoints.map(contactPointString), info.allSeedNodes),
+          "This node has ordinal 0 in the StatefulSet and none of the [{}] pods of the StatefulSet is part of a " +
+          "cluster, forming a new cluster",
+          info.contactPoints.size)
+        JoinSelf.asCompletedFuture
+      } else if (!hasEnoughContactPoints(info) || !isPastStableMargin(info)) {
+        // same checks, and logging, as the default decision
+        super.decide(info)
+      } else if (!selfObserved) {
+        log.info(
+          BootstrapLogMarker.inProgress(info.contactPoints.map(contactPointString), info.allSeedNodes),
+          "This node has ordinal 0 in the StatefulSet, but its contact point {} is not among the confirmed " +
+          "contact points [{}], not forming a new cluster",
+          contactPointString(selfContactPoint),
+          info.seedNodesObservations.map(observation => contactPointString(observation.contactPoint)).mkString(", "))
+        KeepProbing.asCompletedFuture
+      } else if (contactPointsWithoutSeedNodesObservations.nonEmpty) {
+        log.info(
+          BootstrapLogMarker.inProgress(info.contactPoints.map(contactPointString), info.allSeedNodes),
+          "This node has ordinal 0 in the StatefulSet, awaiting seed node information from contact points [{}]",
+          contactPointsWithoutSeedNodesObservations.map(contactPointString).mkString(", "))
+        KeepProbing.asCompletedFuture
+      } else {
+        log.info(
+          BootstrapLogMarker.inProgress(info.contactPoints.map(contactPointString), info.allSeedNodes),
+          "This node has ordinal 0 in the StatefulSet and none of the [{}] contact points is part of a cluster, " +
+          "forming a new cluster",
+          info.contactPoints.size)
+        JoinSelf.asCompletedFuture
+      }
+    } else super.decide(info)
+
+  /**
+   * Contact point with the lowest ordinal, or with the lowest address if the ordinal of any contact point is unknown.
+   */
+  override protected def lowestAddressContactPoint(info: SeedNodesInformation): Option[ResolvedTarget] = {
+    val contactPoints = info.seedNodesObservations.toList.map(_.contactPoint)
+    val ordinals = contactPoints.flatMap(contactPoint => ordinal(contactPoint.host).map(_ -> contactPoint))
+    if (ordinals.nonEmpty && ordinals.size == contactPoints.size) Some(ordinals.minBy(_._1)._2)
+    else super.lowestAddressContactPoint(info)
+  }
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi private[bootstrap] object StatefulSetJoinDecider {
+
+  // the name must contain a letter, so that the host names with the dashed IP of a pod don't have an ordinal
+  private val PodName = "[a-z0-9-]*[a-z][a-z0-9-]*-(\\d+)".r
+
+  /**
+   * The ordinal of a pod name, or of the first label of a host name.
+   */
+  def ordinal(name: String): Option[Int] =
+    name.takeWhile(_ != '.') match {
+      case PodName(n) => Try(n.toInt).toOption
+      case _          => None
+    }
+}
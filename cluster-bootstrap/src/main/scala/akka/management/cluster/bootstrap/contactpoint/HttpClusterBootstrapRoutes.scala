@@ -4,51 +4,118 @@
 
 package akka.management.cluster.bootstrap.contactpoint
 
+import java.nio.charset.StandardCharsets
+import java.security.MessageDigest
+import java.util.Base64
+
+import scala.collection.immutable.SortedSet
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
+import scala.concurrent.Promise
 import scala.concurrent.duration._
 
 import akka.actor.ActorSystem
+import akka.actor.Address
 import akka.cluster.Cluster
 import akka.cluster.Member
+import akka.cluster.MemberStatus
 import akka.event.Logging
 import akka.event.LoggingAdapter
 import akka.http.javadsl.server.directives.RouteAdapter
 import akka.http.scaladsl.model.HttpRequest
+import akka.http.scaladsl.model.RemoteAddress
 import akka.http.scaladsl.model.Uri
+import akka.http.scaladsl.model.headers.EntityTag
+import akka.http.scaladsl.model.headers.`If-None-Match`
 import akka.http.scaladsl.server.Route
 import akka.management.cluster.bootstrap.ClusterBootstrapSettings
+import akka.management.cluster.bootstrap.internal.ClusterMembershipChanges
 import akka.management.cluster.bootstrap.contactpoint.HttpBootstrapJsonProtocol.ClusterMember
 import akka.management.cluster.bootstrap.contactpoint.HttpBootstrapJsonProtocol.SeedNodes
+import akka.management.internal.ManagementIsolation
 
 final class HttpClusterBootstrapRoutes(settings: ClusterBootstrapSettings) extends HttpBootstrapJsonProtocol {
 
+  import HttpClusterBootstrapRoutes.seedNodesTag
   import akka.http.scaladsl.server.Directives._
 
   private def routeGetSeedNodes: Route = extractClientIP { clientIp =>
     extractActorSystem { implicit system =>
-      import akka.cluster.MemberStatus
       val cluster = Cluster(system)
 
-      def memberToClusterMember(m: Member): ClusterMember =
-        ClusterMember(m.uniqueAddress.address, m.uniqueAddress.longUid, m.status.toString, m.roles)
-
-      val state = cluster.state
-
-      // TODO shuffle the members so in a big deployment nodes start joining different ones and not all the same?
-      val members = state.members
-        .diff(state.unreachable)
-        .filter(m =>
-          m.status == MemberStatus.up || m.status == MemberStatus.weaklyUp || m.status == MemberStatus.joining)
-        .take(settings.contactPoint.httpMaxSeedNodesToExpose)
-        .map(memberToClusterMember)
+      parameter("wait".as[Long].optional) {
+        case None =>
+          val state = cluster.state
+          completeWithSeedNodes(clientIp, seedNodes(cluster.selfAddress, state.members, state.unreachable))
+
+        case Some(waitMillis) =>
+          // long polling, hold the request until the seed nodes differ from the ones the client already has
+          optionalHeaderValueByType(`If-None-Match`) { ifNoneMatch =>
+            def isKnown(tag: EntityTag): Boolean =
+              ifNoneMatch.exists(header => EntityTag.matchesRange(tag, header.m, weakComparison = true))
+
+            val timeout = math.max(0L, math.min(waitMillis, settings.contactPoint.longPolling.timeout.toMillis)).millis
+            onSuccess(awaitSeedNodesChange(isKnown, timeout)) { info =>
+              completeWithSeedNodes(clientIp, info)
+            }
+          }
+      }
+    }
+  }
 
-      val info = SeedNodes(cluster.selfMember.uniqueAddress.address, members)
+  private def completeWithSeedNodes(clientIp: RemoteAddress, info: SeedNodes)(implicit system: ActorSystem): Route =
+    // replies with 304 Not Modified when the client already has these seed nodes
+    conditional(seedNodesTag(info)) {
       log.info(
         "Bootstrap request from {}: Contact Point returning {} seed-nodes [{}]",
         clientIp,
-        members.size,
-        members.map(_.node).mkString(", "))
+        info.seedNodes.size,
+        info.seedNodes.map(_.node).mkString(", "))
       complete(info)
     }
+
+  private def awaitSeedNodesChange(isKnown: EntityTag => Boolean, timeout: FiniteDuration)(
+      implicit system: ActorSystem): Future[SeedNodes] = {
+    implicit val ec: ExecutionContext = ManagementIsolation.executionContext(system)
+    val cluster = Cluster(system)
+    val changes = ClusterMembershipChanges(system)
+    val result = Promise[SeedNodes]()
+
+    def current(snapshot: ClusterMembershipChanges.Snapshot): SeedNodes =
+      if (snapshot.initialized) seedNodes(cluster.selfAddress, snapshot.members, snapshot.unreachable)
+      else {
+        val state = cluster.state
+        seedNodes(cluster.selfAddress, state.members, state.unreachable)
+      }
+
+    def loop(): Unit =
+      if (!result.isCompleted) {
+        val snapshot = changes.snapshot
+        val info = current(snapshot)
+        if (!isKnown(seedNodesTag(info))) result.trySuccess(info)
+        else snapshot.changed.foreach(_ => loop())
+      }
+
+    val timer = system.scheduler.scheduleOnce(timeout) {
+      result.trySuccess(current(changes.snapshot))
+    }
+    result.future.foreach(_ => timer.cancel())
+    loop()
+    result.future
+  }
+
+  private def seedNodes(selfAddress: Address, members: SortedSet[Member], unreachable: Set[Member]): SeedNodes = {
+    def memberToClusterMember(m: Member): ClusterMember =
+      ClusterMember(m.uniqueAddress.address, m.uniqueAddress.longUid, m.status.toString, m.roles)
+
+    // TODO shuffle the members so in a big deployment nodes start joining different ones and not all the same?
+    val exposed = members
+      .diff(unreachable)
+      .filter(m => m.status == MemberStatus.up || m.status == MemberStatus.weaklyUp || m.status == MemberStatus.joining)
+      .take(settings.contactPoint.httpMaxSeedNodesToExpose)
+      .map(memberToClusterMember)
+
+    SeedNodes(selfAddress, exposed)
   }
 
   /** Scala API */
@@ -67,6 +134,25 @@ final class HttpClusterBootstrapRoutes(settings: ClusterBootstrapSettings) exten
 
 }
 
+object HttpClusterBootstrapRoutes {
+
+  private object JsonProtocol extends HttpBootstrapJsonProtocol
+
+  /**
+   * The entity tag of the seed nodes, used by long polling requests to tell which seed nodes they already have. It is
+   * a truncated SHA-256 digest of the serialized seed nodes, so that a change of the seed nodes isn't mistaken for the
+   * seed nodes the client already has.
+   */
+  private[bootstrap] def seedNodesTag(info: SeedNodes): EntityTag = {
+    // the members and their roles are sorted, so that the same seed nodes always serialize to the same bytes
+    val sorted = info.copy(seedNodes = SortedSet.empty[ClusterMember] ++ info.seedNodes.map(m =>
+      m.copy(roles = SortedSet.empty[String] ++ m.roles)))
+    val bytes = JsonProtocol.ClusterMembersFormat.write(sorted).compactPrint.getBytes(StandardCharsets.UTF_8)
+    val digest = MessageDigest.getInstance("SHA-256").digest(bytes)
+    EntityTag(Base64.getUrlEncoder.withoutPadding.encodeToString(java.util.Arrays.copyOf(digest, 16)))
+  }
+}
+
 object ClusterBootstrapRequests {
 
   import akka.http.scaladsl.client.RequestBuilding._
@@ -74,4 +160,13 @@ object ClusterBootstrapRequests {
   def bootstrapSeedNodes(baseUri: Uri): HttpRequest =
     Get(baseUri.toString + "/bootstrap/seed-nodes")
 
+  /**
+   * Long polling request for the seed nodes, the contact point replies when its seed nodes differ from the
+   * `knownSeedNodes` it returned earlier, or with `304 Not Modified` when they haven't changed within `wait`.
+   */
+  def bootstrapSeedNodes(baseUri: Uri, wait: FiniteDuration, knownSeedNodes: Option[EntityTag]): HttpRequest = {
+    val request = Get(baseUri.toString + "/bootstrap/seed-nodes?wait=" + wait.toMillis)
+    knownSeedNodes.fold(request)(tag => request.addHeader(`If-None-Match`(tag)))
+  }
+
 }
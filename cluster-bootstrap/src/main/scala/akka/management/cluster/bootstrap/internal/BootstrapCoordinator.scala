@@ -30,6 +30,7 @@ import akka.management.cluster.bootstrap.JoinSelf
 import akka.management.cluster.bootstrap.KeepProbing
 import akka.management.cluster.bootstrap.SeedNodesInformation
 import akka.management.cluster.bootstrap.SeedNodesObservation
+import akka.management.metrics.ManagementMetrics
 import akka.pattern.pipe
 import scala.concurrent.duration._
 import scala.util.Try
@@ -152,6 +153,19 @@ private[akka] class BootstrapCoordinator(
     settings.contactPointDiscovery.protocol
   )
 
+  private val metrics = ManagementMetrics(context.system)
+  private def lookups(result: String) =
+    metrics.counter(
+      "akka_management_bootstrap_discovery_lookups",
+      "Lookups of the contact points of the cluster bootstrap by result",
+      "result" -> result)
+  private val resolvedLookups = lookups("resolved")
+  private val failedLookups = lookups("failed")
+  private val timeToJoin = metrics.gauge(
+    "akka_management_bootstrap_join_seconds",
+    "Time from the start of the cluster bootstrap until it joined the node to the cluster")
+  private var bootstrapStartedAt = System.nanoTime()
+
   private var lastContactsObservation: Option[ServiceContactsObservation] = None
   private var seedNodesObservations: Map[ResolvedTarget, SeedNodesObservation] = Map.empty
 
@@ -203,6 +217,7 @@ private[akka] class BootstrapCoordinator(
         joinDecider.getClass.getName,
         selfContactPoint.scheme
       )
+      bootstrapStartedAt = System.nanoTime()
       discoverContactPoints()
       context.become(bootstrapping(sender(), selfContactPoint.scheme))
   }
@@ -214,6 +229,7 @@ private[akka] class BootstrapCoordinator(
       discoverContactPoints()
 
     case ServiceDiscovery.Resolved(_, contactPoints) =>
+      resolvedLookups.increment()
       val filteredContactPoints: Iterable[ResolvedTarget] = selectHosts(
         lookup,
         settings.contactPoint.fallbackPort,
@@ -234,6 +250,7 @@ private[akka] class BootstrapCoordinator(
       startSingleDiscoveryTimer() // keep looking in case other nodes join the discovery
 
     case ex: Failure =>
+      failedLookups.increment()
       log.warning(BootstrapLogMarker.resolveFailed, "Resolve attempt failed! Cause: {}", ex.cause)
       // prevent join decision until successful discoverContactPoints
       lastContactsObservation = None
@@ -251,10 +268,16 @@ private[akka] class BootstrapCoordinator(
             observedSeedNodes.mkString(", ")
           )
 
+          val firstObservation = !seedNodesObservations.contains(contactPoint)
           seedNodesObservations = seedNodesObservations.updated(
             contactPoint,
             new SeedNodesObservation(observedAt, contactPoint, infoFromAddress, observedSeedNodes)
           )
+
+          // the first reply of a contact point may complete the information that the join decider waits for,
+          // e.g. for the StatefulSetJoinDecider, so decide without waiting for the next tick
+          if (firstObservation && observedSeedNodes.isEmpty)
+            decide()
         }
 
         // if we got seed nodes it is likely that it should join those immediately
@@ -279,6 +302,7 @@ private[akka] class BootstrapCoordinator(
 
             val seedNodesList = (seedNodes - cluster.selfAddress).toList // order doesn't matter
             cluster.joinSeedNodes(seedNodesList)
+            timeToJoin.set((System.nanoTime() - bootstrapStartedAt) / 1e9)
 
             // once we issued a join bootstrapping is completed
             context.stop(self)
@@ -292,6 +316,7 @@ private[akka] class BootstrapCoordinator(
           )
 
           cluster.join(cluster.selfAddress)
+          timeToJoin.set((System.nanoTime() - bootstrapStartedAt) / 1e9)
 
           // once we issued a join bootstrapping is completed
           context.stop(self)
@@ -378,6 +403,12 @@ private[akka] class BootstrapCoordinator(
       }
   }
 
+  // a contact point that is long polled replies at the latest after the long polling timeout
+  private val maxSeedNodesObservationAge =
+    if (settings.contactPoint.longPolling.enabled)
+      settings.contactPoint.probingFailureTimeout + settings.contactPoint.longPolling.timeout
+    else settings.contactPoint.probingFailureTimeout
+
   private def decide(): Unit = {
     if (decisionInProgress)
       log.debug("Previous decision still in progress")
@@ -389,7 +420,7 @@ private[akka] class BootstrapCoordinator(
         def isObsolete(obs: SeedNodesObservation): Boolean =
           java.time.Duration
             .between(obs.observedAt, currentTime)
-            .toMillis > settings.contactPoint.probingFailureTimeout.toMillis
+            .toMillis > maxSeedNodesObservationAge.toMillis
 
         val seedObservations = seedNodesObservations.valuesIterator.filterNot(isObsolete).toSet
         val info =
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.cluster.bootstrap.internal
+
+import scala.collection.immutable.SortedSet
+import scala.concurrent.Future
+import scala.concurrent.Promise
+
+import akka.Done
+import akka.actor.Actor
+import akka.actor.ActorSystem
+import akka.actor.ClassicActorSystemProvider
+import akka.actor.ExtendedActorSystem
+import akka.actor.Extension
+import akka.actor.ExtensionId
+import akka.actor.ExtensionIdProvider
+import akka.actor.Props
+import akka.annotation.InternalApi
+import akka.cluster.Cluster
+import akka.cluster.ClusterEvent
+import akka.cluster.Member
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[bootstrap] object ClusterMembershipChanges extends ExtensionId[ClusterMembershipChanges] with ExtensionIdProvider {
+
+  override def get(system: ActorSystem): ClusterMembershipChanges = super.get(system)
+
+  override def get(system: ClassicActorSystemProvider): ClusterMembershipChanges = super.get(system)
+
+  override def lookup: ClusterMembershipChanges.type = ClusterMembershipChanges
+
+  override def createExtension(system: ExtendedActorSystem): ClusterMembershipChanges =
+    new ClusterMembershipChanges(system)
+
+  /**
+   * The members and unreachable members as seen from the cluster events, `changed` completes when they are replaced by
+   * a newer snapshot. `initialized` is false until the current cluster state has been received.
+   */
+  final class Snapshot(
+      val initialized: Boolean,
+      val members: SortedSet[Member],
+      val unreachable: Set[Member],
+      nextChange: Promise[Done]) {
+    def changed: Future[Done] = nextChange.future
+
+    private[ClusterMembershipChanges] def signalChanged(): Unit = nextChange.trySuccess(Done)
+  }
+
+  private final class Subscriber(extension: ClusterMembershipChanges) extends Actor {
+    private val cluster = Cluster(context.system)
+
+    override def preStart(): Unit =
+      cluster.subscribe(
+        self,
+        ClusterEvent.InitialStateAsSnapshot,
+        classOf[ClusterEvent.MemberEvent],
+        classOf[ClusterEvent.ReachabilityEvent])
+
+    override def postStop(): Unit =
+      cluster.unsubscribe(self)
+
+    override def receive: Receive = {
+      case state: ClusterEvent.CurrentClusterState =>
+        extension.update(state.members, state.unreachable)
+      case ClusterEvent.MemberRemoved(member, _) =>
+        val current = extension.snapshot
+        extension.update(current.members - member, current.unreachable - member)
+      case event: ClusterEvent.MemberEvent =>
+        // members are equal by unique address, so replace to pick up the new status
+        val current = extension.snapshot
+        extension.update(current.members - event.member + event.member, current.unreachable)
+      case ClusterEvent.UnreachableMember(member) =>
+        val current = extension.snapshot
+        extension.update(current.members, current.unreachable + member)
+      case ClusterEvent.ReachableMember(member) =>
+        val current = extension.snapshot
+        extension.update(current.members, current.unreachable - member)
+    }
+  }
+}
+
+/**
+ * INTERNAL API
+ *
+ * Keeps a snapshot of the cluster membership that is updated from the cluster events, so that requests can wait for
+ * the membership to change instead of polling for it.
+ */
+@InternalApi
+private[bootstrap] final class ClusterMembershipChanges(system: ExtendedActorSystem) extends Extension {
+  import ClusterMembershipChanges._
+
+  @volatile private var current: Snapshot = new Snapshot(false, SortedSet.empty, Set.empty, Promise[Done]())
+
+  system.systemActorOf(Props(new Subscriber(this)), "bootstrapClusterMembershipChanges")
+
+  def snapshot: Snapshot = current
+
+  // only called by the subscriber actor
+  private def update(members: SortedSet[Member], unreachable: Set[Member]): Unit = {
+    val previous = current
+    current = new Snapshot(true, members, unreachable, Promise[Done]())
+    previous.signalChanged()
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.cluster.bootstrap.internal
+
+import scala.concurrent.Future
+import scala.concurrent.Promise
+
+import akka.actor.ActorSystem
+import akka.annotation.InternalApi
+import akka.http.scaladsl.Http
+import akka.http.scaladsl.model.HttpRequest
+import akka.http.scaladsl.model.HttpResponse
+import akka.http.scaladsl.model.ResponsePromise
+import akka.http.scaladsl.model.Uri
+import akka.stream.QueueOfferResult
+import akka.stream.scaladsl.Sink
+import akka.stream.scaladsl.Source
+
+/**
+ * INTERNAL API
+ *
+ * One persistent HTTP/2 connection to a contact point, over which all its probe requests are multiplexed. The
+ * connection is negotiated with ALPN for https, and uses prior knowledge for http. It is re-established when lost,
+ * and requests that are in flight when it is lost fail right away.
+ */
+@InternalApi
+private[bootstrap] final class Http2ContactPointConnection(baseUri: Uri)(implicit system: ActorSystem) {
+
+  private val connectionFlow = {
+    val builder = Http().connectionTo(baseUri.authority.host.address()).toPort(baseUri.effectivePort)
+    if (baseUri.scheme == "https") builder.managedPersistentHttp2()
+    else builder.managedPersistentHttp2WithPriorKnowledge()
+  }
+
+  // a contact point is probed with one request at a time, a few more are only queued after a reply timeout
+  private val queue =
+    Source
+      .queue[HttpRequest](bufferSize = 4)
+      .via(connectionFlow)
+      .to(Sink.foreach { response =>
+        response.attribute(ResponsePromise.Key).foreach(_.promise.trySuccess(response))
+      })
+      .run()
+
+  def singleRequest(request: HttpRequest): Future[HttpResponse] = {
+    val promise = Promise[HttpResponse]()
+    queue.offer(request.addAttribute(ResponsePromise.Key, ResponsePromise(promise))) match {
+      case QueueOfferResult.Enqueued => promise.future
+      case other =>
+        Future.failed(new IllegalStateException(s"Probe request to [$baseUri] was not sent: [$other]"))
+    }
+  }
+
+  def shutdown(): Unit =
+    queue.complete()
+}
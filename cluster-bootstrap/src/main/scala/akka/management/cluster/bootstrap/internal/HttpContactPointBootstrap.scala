@@ -10,30 +10,34 @@ import java.util.concurrent.TimeoutException
 
 import scala.concurrent.Future
 import scala.concurrent.duration._
+import scala.util.Failure
+import scala.util.Success
+import scala.util.Try
 
 import akka.actor.Actor
 import akka.actor.ActorLogging
 import akka.actor.ActorSystem
 import akka.actor.DeadLetterSuppression
 import akka.actor.Props
-import akka.actor.Status
 import akka.actor.Timers
 import akka.annotation.InternalApi
 import akka.cluster.Cluster
 import akka.discovery.ServiceDiscovery.ResolvedTarget
 import akka.http.scaladsl.Http
+import akka.http.scaladsl.model.HttpRequest
 import akka.http.scaladsl.model.HttpResponse
 import akka.http.scaladsl.model.StatusCodes
 import akka.http.scaladsl.model.Uri
 import akka.http.scaladsl.model.Uri.Host
+import akka.http.scaladsl.model.headers.ETag
+import akka.http.scaladsl.model.headers.EntityTag
 import akka.http.scaladsl.settings.ConnectionPoolSettings
 import akka.http.scaladsl.unmarshalling.Unmarshal
 import akka.management.cluster.bootstrap.ClusterBootstrapSettings
 import akka.management.cluster.bootstrap.contactpoint.ClusterBootstrapRequests
 import akka.management.cluster.bootstrap.contactpoint.HttpBootstrapJsonProtocol
 import akka.management.cluster.bootstrap.contactpoint.HttpBootstrapJsonProtocol.SeedNodes
-import akka.pattern.after
-import akka.pattern.pipe
+import akka.management.metrics.ManagementMetrics
 
 @InternalApi
 private[bootstrap] object HttpContactPointBootstrap {
@@ -48,7 +52,13 @@ private[bootstrap] object HttpContactPointBootstrap {
     Props(new HttpContactPointBootstrap(settings, contactPoint, baseUri))
 
   private case object ProbeTick extends DeadLetterSuppression
+  private final case class ProbeReply(probe: Long, result: Try[Any]) extends DeadLetterSuppression
+  private final case class ReplyTimeout(probe: Long) extends DeadLetterSuppression
+
+  private final case class SeedNodesReply(seedNodes: SeedNodes, tag: Option[EntityTag])
+  private case object SeedNodesNotModified
   private val ProbingTimerKey = "probing-key"
+  private val ReplyTimeoutTimerKey = "reply-timeout-key"
 }
 
 /**
@@ -69,8 +79,7 @@ private[bootstrap] class HttpContactPointBootstrap(
     with Timers
     with HttpBootstrapJsonProtocol {
 
-  import HttpContactPointBootstrap.ProbeTick
-  import HttpContactPointBootstrap.ProbingTimerKey
+  import HttpContactPointBootstrap._
 
   private val cluster = Cluster(context.system)
 
@@ -87,9 +96,37 @@ private[bootstrap] class HttpContactPointBootstrap(
   private val connectionPoolWithoutRetries = ConnectionPoolSettings(context.system).withMaxRetries(0)
   import context.dispatcher
 
+  // the contact point is probed over its own HTTP/2 connection, or else over the shared HTTP/1.1 host connection pool
+  private val http2Connection =
+    if (settings.contactPoint.http2) Some(new Http2ContactPointConnection(baseUri)) else None
+
+  private def sendRequest(request: HttpRequest): Future[HttpResponse] =
+    http2Connection match {
+      case Some(connection) => connection.singleRequest(request)
+      case None             => http.singleRequest(request, settings = connectionPoolWithoutRetries)
+    }
+
+  private val metrics = ManagementMetrics(context.system)
+  private def probes(result: String) =
+    metrics.counter(
+      "akka_management_bootstrap_probes",
+      "Contact point probes by result, a not-modified result answers a long polling probe",
+      "result" -> result)
+  private val seedNodesProbes = probes("seed-nodes")
+  private val notModifiedProbes = probes("not-modified")
+  private val failedProbes = probes("failed")
+
   private val probeInterval = settings.contactPoint.probeInterval
   private val probeRequest = ClusterBootstrapRequests.bootstrapSeedNodes(baseUri)
-  private val replyTimeout = Future.failed(new TimeoutException(s"Probing timeout of [$baseUri]"))
+
+  /** Sequence number of the current probe, replies to earlier probes are ignored. */
+  private var probe = 0L
+
+  private val longPolling = settings.contactPoint.longPolling.enabled
+  private val longPollingTimeout = settings.contactPoint.longPolling.timeout
+
+  /** The last seed nodes returned by a contact point that supports long polling. */
+  private var lastSeedNodes: Option[SeedNodesReply] = None
 
   /**
    * If probing keeps failing until the deadline triggers, we notify the parent,
@@ -103,37 +140,89 @@ private[bootstrap] class HttpContactPointBootstrap(
   override def preStart(): Unit =
     self ! ProbeTick
 
+  override def postStop(): Unit =
+    http2Connection.foreach(_.shutdown())
+
   override def receive = {
     case ProbeTick =>
-      log.debug("Probing [{}] for seed nodes...", probeRequest.uri)
-      val reply = http.singleRequest(probeRequest, settings = connectionPoolWithoutRetries).flatMap(handleResponse)
-      val afterTimeout = after(settings.contactPoint.probingFailureTimeout, context.system.scheduler)(replyTimeout)
-      Future.firstCompletedOf(List(reply, afterTimeout)).pipeTo(self)
-
-    case Status.Failure(cause) =>
-      log.warning("Probing [{}] failed due to: {}", probeRequest.uri, cause.getMessage)
-      if (probingKeepFailingDeadline.isOverdue()) {
-        log.error("Overdue of probing-failure-timeout, stop probing, signaling that it's failed")
-        context.parent ! BootstrapCoordinator.Protocol.ProbingFailed(contactPoint, cause)
-        context.stop(self)
-      } else {
-        // keep probing, hoping the request will eventually succeed
-        scheduleNextContactPointProbing()
+      val (request, timeout) =
+        if (longPolling)
+          ClusterBootstrapRequests.bootstrapSeedNodes(baseUri, longPollingTimeout, lastSeedNodes.flatMap(_.tag)) ->
+          (longPollingTimeout + settings.contactPoint.probingFailureTimeout)
+        else probeRequest -> settings.contactPoint.probingFailureTimeout
+      log.debug("Probing [{}] for seed nodes...", request.uri)
+      probe += 1
+      val currentProbe = probe
+      timers.startSingleTimer(ReplyTimeoutTimerKey, ReplyTimeout(currentProbe), timeout)
+      sendRequest(request).flatMap(handleResponse).onComplete(result => self ! ProbeReply(currentProbe, result))
+
+    case ProbeReply(replyToProbe, result) if replyToProbe == probe =>
+      timers.cancel(ReplyTimeoutTimerKey)
+      result match {
+        case Success(reply: SeedNodesReply) => onSeedNodes(reply)
+        case Success(_)                     => onSeedNodesNotModified()
+        case Failure(cause)                 => onProbingFailed(cause)
       }
 
-    case response: SeedNodes =>
-      notifyParentAboutSeedNodes(response)
-      resetProbingKeepFailingWithinDeadline()
-      // we keep probing and looking if maybe a cluster does form after all
-      // (technically could be long polling or web-sockets, but that would need reconnect logic, so this is simpler)
+    case ReplyTimeout(timedOutProbe) if timedOutProbe == probe =>
+      // a late reply to the timed out probe is ignored
+      probe += 1
+      onProbingFailed(new TimeoutException(s"Probing timeout of [$baseUri]"))
+
+    case _: ProbeReply | _: ReplyTimeout =>
+    // reply to or timeout of an earlier probe
+  }
+
+  private def onProbingFailed(cause: Throwable): Unit = {
+    failedProbes.increment()
+    log.warning("Probing [{}] failed due to: {}", probeRequest.uri, cause.getMessage)
+    if (probingKeepFailingDeadline.isOverdue()) {
+      log.error("Overdue of probing-failure-timeout, stop probing, signaling that it's failed")
+      context.parent ! BootstrapCoordinator.Protocol.ProbingFailed(contactPoint, cause)
+      context.stop(self)
+    } else {
+      // keep probing, hoping the request will eventually succeed
       scheduleNextContactPointProbing()
+    }
+  }
+
+  private def onSeedNodes(reply: SeedNodesReply): Unit = {
+    seedNodesProbes.increment()
+    notifyParentAboutSeedNodes(reply.seedNodes)
+    resetProbingKeepFailingWithinDeadline()
+    // we keep probing and looking if maybe a cluster does form after all, right away when the contact point
+    // holds the request until its seed nodes change
+    if (longPolling && reply.tag.isDefined) {
+      lastSeedNodes = Some(reply)
+      self ! ProbeTick
+    } else {
+      lastSeedNodes = None
+      scheduleNextContactPointProbing()
+    }
+  }
+
+  private def onSeedNodesNotModified(): Unit = {
+    notModifiedProbes.increment()
+    resetProbingKeepFailingWithinDeadline()
+    lastSeedNodes match {
+      case Some(reply) =>
+        // still the same seed nodes, but a fresh observation of them
+        notifyParentAboutSeedNodes(reply.seedNodes)
+        self ! ProbeTick
+      case None =>
+        scheduleNextContactPointProbing()
+    }
   }
 
-  private def handleResponse(response: HttpResponse): Future[SeedNodes] = {
+  private def handleResponse(response: HttpResponse): Future[Any] = {
     val strictEntity = response.entity.toStrict(1.second)
 
     if (response.status == StatusCodes.OK)
-      strictEntity.flatMap(res => Unmarshal(res).to[SeedNodes])
+      strictEntity
+        .flatMap(res => Unmarshal(res).to[SeedNodes])
+        .map(seedNodes => SeedNodesReply(seedNodes, response.header[ETag].map(_.etag)))
+    else if (response.status == StatusCodes.NotModified)
+      strictEntity.map(_ => SeedNodesNotModified)
     else
       strictEntity.flatMap { entity =>
         val body = entity.data.utf8String
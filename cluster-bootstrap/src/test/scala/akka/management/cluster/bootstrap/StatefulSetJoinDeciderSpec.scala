@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.cluster.bootstrap
+
+import java.net.InetAddress
+import java.time.LocalDateTime
+
+import akka.actor.Address
+import akka.discovery.ServiceDiscovery.ResolvedTarget
+import akka.event.NoLogging
+import com.typesafe.config.ConfigFactory
+
+class StatefulSetJoinDeciderSpec extends JoinDeciderSpec {
+
+  ClusterBootstrap(system).setSelfContactPoint(s"http://10.0.0.2:$managementPort/test")
+
+  private val discovery = "akka.management.cluster.bootstrap.contact-point-discovery"
+
+  private def settings(podName: String, extraConfig: String = "") =
+    ClusterBootstrapSettings(
+      ConfigFactory
+        .parseString(extraConfig)
+        .withFallback(
+          ConfigFactory.parseString(s"akka.management.cluster.bootstrap.join-decider.stateful-set.pod-name = $podName"))
+        .withFallback(system.settings.config),
+      NoLogging)
+
+  private def pod(ordinal: Int, ip: String) =
+    ResolvedTarget(
+      host = s"my-app-$ordinal.my-app.default.svc.cluster.local",
+      port = None,
+      address = Some(InetAddress.getByName(ip)))
+
+  // this node is 10.0.0.2, which is the pod with ordinal 1 or with ordinal 0 in the tests of that ordinal
+  private val pod0 = pod(0, "10.0.0.5")
+  private val pod1 = pod(1, "10.0.0.2")
+  private val pod2 = pod(2, "10.0.0.3")
+  private val pod3 = pod(3, "10.0.0.4")
+
+  private val selfPod0 = pod(0, "10.0.0.2")
+  private val otherPod1 = pod(1, "10.0.0.3")
+  private val otherPod2 = pod(2, "10.0.0.4")
+  private val otherPod3 = pod(3, "10.0.0.6")
+  private val notAPod =
+    ResolvedTarget(
+      host = "10-0-0-7.default.pod.cluster.local",
+      port = None,
+      address = Some(InetAddress.getByName("10.0.0.7")))
+
+  private def observation(contactPoint: ResolvedTarget, seedNodes: Set[Address] = Set.empty) =
+    new SeedNodesObservation(
+      LocalDateTime.now().minusSeconds(1),
+      contactPoint,
+      Address("akka", "join-decider-spec-system", contactPoint.address.get.getHostAddress, 2552),
+      seedNodes)
+
+  private def info(
+      contactPoints: Set[ResolvedTarget],
+      observations: Set[SeedNodesObservation],
+      changedSecondsAgo: Int = 1) = {
+    val now = LocalDateTime.now()
+    new SeedNodesInformation(now, now.minusSeconds(changedSecondsAgo), contactPoints, observations)
+  }
+
+  "StatefulSetJoinDecider" should {
+
+    "take the ordinal from a pod name or the first label of a host name" in {
+      StatefulSetJoinDecider.ordinal("my-app-0") shouldBe Some(0)
+      StatefulSetJoinDecider.ordinal("my-app-12.my-app.default.svc.cluster.local") shouldBe Some(12)
+      StatefulSetJoinDecider.ordinal("my-app") shouldBe None
+      StatefulSetJoinDecider.ordinal("10-0-0-2.default.pod.cluster.local") shouldBe None
+      StatefulSetJoinDecider.ordinal("10.0.0.2") shouldBe None
+    }
+
+    "join self with ordinal 0 when all contact points replied after the stable-margin" in {
+      val decider = new StatefulSetJoinDecider(system, settings("my-app-0"))
+      val contactPoints = Set(selfPod0, otherPod1, otherPod2)
+      decider
+        .decide(info(contactPoints, contactPoints.map(observation(_)), changedSecondsAgo = 10))
+        .futureValue should ===(JoinSelf)
+    }
+
+    "join self with ordinal 0 within the stable-margin when all contact points are pods that replied" in {
+      val decider = new StatefulSetJoinDecider(system, settings("my-app-0"))
+      val contactPoints = Set(selfPod0, otherPod1, otherPod2)
+      decider.decide(info(contactPoints, contactPoints.map(observation(_)))).futureValue should ===(JoinSelf)
+    }
+
+    "join self with ordinal 0 as the only pod, fewer than the required contact points" in {
+      // the pods of a StatefulSet with the OrderedReady pod management policy are started one by one
+      val decider = new StatefulSetJoinDecider(system, settings("my-app-0"))
+      decider.decide(info(Set(selfPod0), Set(observation(selfPod0)))).futureValue should ===(JoinSelf)
+    }
+
+    "keep probing with ordinal 0 within the stable-margin when a contact point is not a pod" in {
+      val decider = new StatefulSetJoinDecider(system, settings("my-app-0"))
+      val contactPoints = Set(selfPod0, otherPod1, notAPod)
+      decider.decide(info(contactPoints, contactPoints.map(observation(_)))).futureValue should ===(KeepProbing)
+      decider
+        .decide(info(contactPoints, contactPoints.map(observation(_)), changedSecondsAgo = 10))
+        .futureValue should ===(JoinSelf)
+    }
+
+    "keep probing with ordinal 0 while fewer than the required contact points replied" in {
+      val decider = new StatefulSetJoinDecider(system, settings("my-app-0"))
+      val contactPoints = Set(selfPod0, notAPod)
+      decider
+        .decide(info(contactPoints, contactPoints.map(observation(_)), changedSecondsAgo = 10))
+        .futureValue should ===(KeepProbing)
+    }
+
+    "keep probing with ordinal 0 while a contact point didn't reply" in {
+      val decider = new StatefulSetJoinDecider(system, settings("my-app-0"))
+      val contactPoints = Set(selfPod0, otherPod1, otherPod2, otherPod3)
+      decider
+        .decide(
+          info(contactPoints, Set(observation(selfPod0), observation(otherPod1), observation(otherPod2)), 10))
+        .futureValue should ===(KeepProbing)
+    }
+
+    "keep probing with ordinal 0 when no contact points are discovered" in {
+      val decider =
+        new StatefulSetJoinDecider(system, settings("my-app-0", s"$discovery.required-contact-point-nr = 0"))
+      decider.decide(info(Set.empty, Set.empty, changedSecondsAgo = 10)).futureValue should ===(KeepProbing)
+    }
+
+    "keep probing with ordinal 0 without observations when contact with all contact points isn't required" in {
+      val decider =
+        new StatefulSetJoinDecider(
+          system,
+          settings(
+            "my-app-0",
+            s"""$discovery {
+                  required-contact-point-nr = 0
+                  contact-with-all-contact-points = false
+                }"""))
+      val contactPoints = Set(selfPod0, otherPod1, otherPod2)
+      decider.decide(info(contactPoints, Set.empty, changedSecondsAgo = 10)).futureValue should ===(KeepProbing)
+    }
+
+    "keep probing with ordinal 0 while this node is not among the confirmed contact points" in {
+      val decider =
+        new StatefulSetJoinDecider(system, settings("my-app-0", s"$discovery.contact-with-all-contact-points = false"))
+      val contactPoints = Set(selfPod0, otherPod1, otherPod2, otherPod3)
+      decider
+        .decide(
+          info(contactPoints, Set(observation(otherPod1), observation(otherPod2), observation(otherPod3)), 10))
+        .futureValue should ===(KeepProbing)
+    }
+
+    "join an existing cluster with ordinal 0" in {
+      val decider = new StatefulSetJoinDecider(system, settings("my-app-0"))
+      val seedNode = Address("akka", "join-decider-spec-system", "10.0.0.3", 2552)
+      decider
+        .decide(info(Set(selfPod0, otherPod1), Set(observation(selfPod0), observation(otherPod1, Set(seedNode)))))
+        .futureValue should ===(JoinOtherSeedNodes(Set(seedNode)))
+    }
+
+    "not join self with another ordinal while ordinal 0 is discovered, even with the lowest address" in {
+      val decider = new StatefulSetJoinDecider(system, settings("my-app-1"))
+      val contactPoints = Set(pod0, pod1, pod2, pod3)
+      decider
+        .decide(info(contactPoints, contactPoints.map(observation(_)), changedSecondsAgo = 10))
+        .futureValue should ===(KeepProbing)
+    }
+
+    "join self with the lowest ordinal after the stable-margin when ordinal 0 is not discovered" in {
+      val decider = new StatefulSetJoinDecider(system, settings("my-app-1"))
+      val contactPoints = Set(pod1, pod2, pod3)
+      decider
+        .decide(info(contactPoints, contactPoints.map(observation(_)), changedSecondsAgo = 10))
+        .futureValue should ===(JoinSelf)
+    }
+  }
+}
@@ -4,12 +4,19 @@
 
 package akka.management.cluster.bootstrap.contactpoint
 
+import scala.concurrent.duration._
+
+import akka.actor.Address
 import akka.cluster.{ Cluster, ClusterEvent }
 import akka.event.NoLogging
+import akka.http.scaladsl.model.StatusCodes
+import akka.http.scaladsl.model.headers.{ ETag, EntityTag }
+import akka.http.scaladsl.server.Route
 import akka.http.scaladsl.testkit.ScalatestRouteTest
+import akka.http.scaladsl.unmarshalling.Unmarshal
 import akka.management.cluster.bootstrap.ClusterBootstrapSettings
 import akka.testkit.TestProbe
-import org.scalatest.concurrent.Eventually
+import org.scalatest.concurrent.{ Eventually, ScalaFutures }
 import org.scalatest.time.{ Millis, Seconds, Span }
 import org.scalatest.matchers.should.Matchers
 import org.scalatest.wordspec.AnyWordSpecLike
@@ -19,7 +26,8 @@ class HttpContactPointRoutesSpec
     with Matchers
     with ScalatestRouteTest
     with HttpBootstrapJsonProtocol
-    with Eventually {
+    with Eventually
+    with ScalaFutures {
 
   implicit override val patienceConfig: PatienceConfig =
     PatienceConfig(timeout = scaled(Span(3, Seconds)), interval = scaled(Span(50, Millis)))
@@ -51,6 +59,66 @@ class HttpContactPointRoutesSpec
       }
     }
 
+    "reply with Not Modified to a long polling request when the seed nodes don't change" in {
+      val tag = ClusterBootstrapRequests.bootstrapSeedNodes("") ~> httpBootstrap.routes ~> check {
+        header[ETag].map(_.etag).get
+      }
+
+      ClusterBootstrapRequests.bootstrapSeedNodes("", 200.millis, Some(tag)) ~> httpBootstrap.routes ~> check {
+        status should ===(StatusCodes.NotModified)
+      }
+    }
+
+    "reply right away to a long polling request for other seed nodes" in {
+      val request = ClusterBootstrapRequests.bootstrapSeedNodes("", 10.seconds, Some(EntityTag("other")))
+      request ~> httpBootstrap.routes ~> check {
+        status should ===(StatusCodes.OK)
+        responseAs[HttpBootstrapJsonProtocol.SeedNodes].seedNodes should ===(Set.empty)
+      }
+    }
+
+    "hold a long polling request until the seed nodes change" in {
+      val tag = ClusterBootstrapRequests.bootstrapSeedNodes("") ~> httpBootstrap.routes ~> check {
+        header[ETag].map(_.etag).get
+      }
+
+      val longPollingRequest = ClusterBootstrapRequests.bootstrapSeedNodes("", 5.seconds, Some(tag))
+      val reply = Route.toFunction(httpBootstrap.routes).apply(longPollingRequest)
+      Thread.sleep(300)
+      reply.isCompleted should ===(false)
+
+      val cluster = Cluster(system)
+      cluster.join(cluster.selfAddress)
+
+      val response = reply.futureValue
+      response.status should ===(StatusCodes.OK)
+      Unmarshal(response).to[HttpBootstrapJsonProtocol.SeedNodes].futureValue.seedNodes.map(_.node) should contain(
+        cluster.selfAddress)
+    }
+
+    "tag seed nodes that differ in any field differently" in {
+      import HttpBootstrapJsonProtocol._
+      val self = Address("akka", "test", "127.0.0.1", 2551)
+      def member(port: Int, uid: Long, status: String, roles: Set[String]) =
+        ClusterMember(self.copy(port = Some(port)), uid, status, roles)
+      val seedNodes = SeedNodes(self, Set(member(2552, 1L, "Up", Set("a", "b")), member(2553, 2L, "Up", Set.empty)))
+
+      val tag = HttpClusterBootstrapRoutes.seedNodesTag(seedNodes)
+      // the same seed nodes, built in another order
+      HttpClusterBootstrapRoutes.seedNodesTag(
+        SeedNodes(self, Set(member(2553, 2L, "Up", Set.empty), member(2552, 1L, "Up", Set("b", "a"))))) should ===(tag)
+
+      val changed = List(
+        seedNodes.copy(selfNode = self.copy(port = Some(2554))),
+        seedNodes.copy(seedNodes = seedNodes.seedNodes + member(2554, 3L, "Up", Set.empty)),
+        seedNodes.copy(seedNodes = Set(member(2552, 1L, "Up", Set("a", "b")))),
+        seedNodes.copy(seedNodes = Set(member(2552, 3L, "Up", Set("a", "b")), member(2553, 2L, "Up", Set.empty))),
+        seedNodes.copy(seedNodes = Set(member(2552, 1L, "WeaklyUp", Set("a", "b")), member(2553, 2L, "Up", Set.empty))),
+        seedNodes.copy(seedNodes = Set(member(2552, 1L, "Up", Set("a")), member(2553, 2L, "Up", Set.empty))))
+      changed.map(HttpClusterBootstrapRoutes.seedNodesTag).toSet should have size changed.size.toLong
+      changed.map(HttpClusterBootstrapRoutes.seedNodesTag) should not contain tag
+    }
+
     "include seed nodes when part of a cluster" in {
       val cluster = Cluster(system)
       cluster.join(cluster.selfAddress)
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.cluster.bootstrap.internal
+
+import scala.concurrent.duration._
+
+import akka.actor.ActorSystem
+import akka.discovery.ServiceDiscovery.ResolvedTarget
+import akka.event.NoLogging
+import akka.http.scaladsl.Http
+import akka.http.scaladsl.model.Uri
+import akka.management.cluster.bootstrap.ClusterBootstrapSettings
+import akka.management.cluster.bootstrap.contactpoint.HttpClusterBootstrapRoutes
+import akka.management.cluster.bootstrap.internal.BootstrapCoordinator.Protocol.ObtainedHttpSeedNodesObservation
+import akka.testkit.TestKit
+import akka.testkit.TestProbe
+import com.typesafe.config.ConfigFactory
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.time.Seconds
+import org.scalatest.time.Span
+import org.scalatest.wordspec.AnyWordSpecLike
+
+class HttpContactPointBootstrapHttp2Spec
+    extends TestKit(
+      ActorSystem(
+        "HttpContactPointBootstrapHttp2Spec",
+        ConfigFactory.parseString("""
+          akka.http.server.enable-http2 = on
+          akka.management.cluster.bootstrap.contact-point {
+            http2 = on
+            probe-interval = 100ms
+          }
+          """).withFallback(ConfigFactory.load())))
+    with AnyWordSpecLike
+    with Matchers
+    with ScalaFutures
+    with BeforeAndAfterAll {
+
+  implicit override val patienceConfig: PatienceConfig = PatienceConfig(timeout = Span(5, Seconds))
+
+  private val settings = ClusterBootstrapSettings(system.settings.config, NoLogging)
+
+  override def afterAll(): Unit =
+    TestKit.shutdownActorSystem(system)
+
+  "HttpContactPointBootstrap" should {
+    "probe a contact point over a persistent HTTP/2 connection" in {
+      val binding =
+        Http().newServerAt("127.0.0.1", 0).bind(new HttpClusterBootstrapRoutes(settings).routes).futureValue
+      val port = binding.localAddress.getPort
+      val contactPoint = ResolvedTarget("127.0.0.1", Some(port), None)
+
+      val parent = TestProbe()
+      parent.childActorOf(HttpContactPointBootstrap.props(settings, contactPoint, Uri(s"http://127.0.0.1:$port")))
+
+      // the probes keep being answered over the same connection
+      (1 to 3).foreach { _ =>
+        parent.expectMsgType[ObtainedHttpSeedNodesObservation](3.seconds).contactPoint should ===(contactPoint)
+      }
+
+      binding.unbind().futureValue
+    }
+  }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.cluster
+
+import scala.collection.immutable
+import scala.concurrent.ExecutionContext
+import scala.concurrent.duration._
+
+import akka.NotUsed
+import akka.actor.Actor
+import akka.actor.ActorRef
+import akka.actor.ActorSystem
+import akka.actor.ClassicActorSystemProvider
+import akka.actor.ExtendedActorSystem
+import akka.actor.Extension
+import akka.actor.ExtensionId
+import akka.actor.ExtensionIdProvider
+import akka.actor.Props
+import akka.annotation.InternalApi
+import akka.cluster.Cluster
+import akka.cluster.ClusterEvent
+import akka.cluster.Member
+import akka.cluster.MemberStatus
+import akka.http.scaladsl.model.sse.ServerSentEvent
+import akka.stream.Materializer
+import akka.stream.OverflowStrategy
+import akka.stream.scaladsl.BroadcastHub
+import akka.stream.scaladsl.Keep
+import akka.stream.scaladsl.Sink
+import akka.stream.scaladsl.Source
+import akka.util.ByteString
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[cluster] object ClusterDomainEventHub extends ExtensionId[ClusterDomainEventHub] with ExtensionIdProvider {
+
+  override def get(system: ActorSystem): ClusterDomainEventHub = super.get(system)
+
+  override def get(system: ClassicActorSystemProvider): ClusterDomainEventHub = super.get(system)
+
+  override def lookup: ClusterDomainEventHub.type = ClusterDomainEventHub
+
+  override def createExtension(system: ExtendedActorSystem): ClusterDomainEventHub = new ClusterDomainEventHub(system)
+
+  /**
+   * A domain event with its server-sent event encoding.
+   */
+  final case class EncodedEvent(event: ClusterEvent.ClusterDomainEvent, bytes: ByteString)
+
+  /**
+   * An element of the hub: the state of the cluster just before the event, and the event if any. The elements
+   * without event are published on request of a new subscriber, so that it gets the state also when there are no
+   * events.
+   */
+  final case class HubElement(stateBefore: ClusterEvent.CurrentClusterState, event: Option[EncodedEvent])
+
+  private case object StateRequest
+
+  // the hub only buffers for the slowest subscriber until it has taken the events into its own buffer
+  private val HubBufferSize = 256
+
+  // a large membership change publishes its events at once, dropping them here would drop them for all subscribers
+  private val SubscriptionBufferSize = 4096
+
+  // a new subscriber requests the state until it is attached to the hub and receives its first element
+  private val StateRequestInterval = 100.millis
+
+  /**
+   * The subscription to the cluster domain events, which tracks the state of the cluster from the same events that it
+   * publishes to the hub, so that the state and the events of a subscriber are consistent.
+   */
+  private final class StateTracker(hub: ActorRef) extends Actor {
+    private val cluster = Cluster(context.system)
+    private var state: Option[ClusterEvent.CurrentClusterState] = None
+
+    override def preStart(): Unit =
+      cluster.subscribe(self, ClusterEvent.InitialStateAsSnapshot, classOf[ClusterEvent.ClusterDomainEvent])
+
+    override def postStop(): Unit = cluster.unsubscribe(self)
+
+    override def receive: Receive = {
+      case snapshot: ClusterEvent.CurrentClusterState =>
+        state = Some(snapshot)
+      case event: ClusterEvent.ClusterDomainEvent =>
+        state.foreach { stateBefore =>
+          hub ! HubElement(stateBefore, encode(event))
+          state = Some(applyEvent(stateBefore, event))
+        }
+      case StateRequest =>
+        state.foreach(stateBefore => hub ! HubElement(stateBefore, None))
+    }
+  }
+
+  /**
+   * The state after the event, for the parts of the state that [[currentStateAsEvents]] includes.
+   */
+  def applyEvent(
+      state: ClusterEvent.CurrentClusterState,
+      event: ClusterEvent.ClusterDomainEvent): ClusterEvent.CurrentClusterState = {
+    def without(members: Set[Member], member: Member) = members.filterNot(_.uniqueAddress == member.uniqueAddress)
+    event match {
+      case ClusterEvent.MemberRemoved(member, _) =>
+        state.copy(
+          members = state.members.filterNot(_.uniqueAddress == member.uniqueAddress),
+          unreachable = without(state.unreachable, member))
+      case event: ClusterEvent.MemberEvent =>
+        state.copy(members = state.members.filterNot(_.uniqueAddress == event.member.uniqueAddress) + event.member)
+      case ClusterEvent.UnreachableMember(member) =>
+        state.copy(unreachable = without(state.unreachable, member) + member)
+      case ClusterEvent.ReachableMember(member) =>
+        state.copy(unreachable = without(state.unreachable, member))
+      case ClusterEvent.LeaderChanged(leader) =>
+        state.copy(leader = leader)
+      case ClusterEvent.RoleLeaderChanged(role, leader) =>
+        state.copy(roleLeaderMap = state.roleLeaderMap.updated(role, leader))
+      case ClusterEvent.UnreachableDataCenter(dataCenter) =>
+        state.withUnreachableDataCenters(state.unreachableDataCenters + dataCenter)
+      case ClusterEvent.ReachableDataCenter(dataCenter) =>
+        state.withUnreachableDataCenters(state.unreachableDataCenters - dataCenter)
+      case _ =>
+        state
+    }
+  }
+
+  def encode(event: ClusterEvent.ClusterDomainEvent): Option[EncodedEvent] =
+    ClusterDomainEventServerSentEventEncoder.encode(event).map(sse => EncodedEvent(event, encode(sse)))
+
+  /**
+   * The wire format of a server-sent event, the same as the Akka HTTP event stream marshaller writes it.
+   */
+  def encode(sse: ServerSentEvent): ByteString = {
+    val builder = new java.lang.StringBuilder
+    sse.data.split("\n", -1).foreach(line => builder.append("data:").append(line).append('\n'))
+    sse.eventType.foreach(eventType => builder.append("event:").append(eventType).append('\n'))
+    sse.id.foreach(id => builder.append("id:").append(id).append('\n'))
+    sse.retry.foreach(retry => builder.append("retry:").append(retry).append('\n'))
+    builder.append('\n')
+    ByteString(builder.toString)
+  }
+
+  /**
+   * The current state as events, like the cluster publishes them for `ClusterEvent.InitialStateAsEvents`.
+   */
+  def currentStateAsEvents(state: ClusterEvent.CurrentClusterState): immutable.Seq[ClusterEvent.ClusterDomainEvent] = {
+    val memberEvents = state.members.toList.collect {
+      case m if m.status == MemberStatus.Joining  => ClusterEvent.MemberJoined(m)
+      case m if m.status == MemberStatus.WeaklyUp => ClusterEvent.MemberWeaklyUp(m)
+      case m if m.status == MemberStatus.Up       => ClusterEvent.MemberUp(m)
+      case m if m.status == MemberStatus.Leaving  => ClusterEvent.MemberLeft(m)
+      case m if m.status == MemberStatus.Exiting  => ClusterEvent.MemberExited(m)
+      case m if m.status == MemberStatus.Down     => ClusterEvent.MemberDowned(m)
+    }
+    val reachabilityEvents = state.unreachable.toList.map(ClusterEvent.UnreachableMember.apply)
+    val dataCenterEvents = state.unreachableDataCenters.toList.map(ClusterEvent.UnreachableDataCenter.apply)
+    val leaderEvents = state.leader.map(leader => ClusterEvent.LeaderChanged(Some(leader))).toList
+    val roleLeaderEvents = state.allRoles.toList.flatMap { role =>
+      state.roleLeader(role).map(leader => ClusterEvent.RoleLeaderChanged(role, Some(leader)))
+    }
+    memberEvents ++ reachabilityEvents ++ dataCenterEvents ++ leaderEvents ++ roleLeaderEvents
+  }
+}
+
+/**
+ * INTERNAL API
+ *
+ * One subscription to the cluster domain events per actor system for all subscribers of `/cluster/domain-events`.
+ * Each event is encoded once and then broadcast to the subscribers, each with its own buffer.
+ */
+@InternalApi
+private[cluster] final class ClusterDomainEventHub(system: ExtendedActorSystem) extends Extension {
+  import ClusterDomainEventHub._
+
+  private val settings = new ClusterHttpManagementSettings(system.settings.config)
+  private implicit val mat: Materializer = Materializer(system)
+
+  private val (hubSubscriber, hub) = Source
+    .actorRef[HubElement](
+      completionMatcher = PartialFunction.empty,
+      failureMatcher = PartialFunction.empty,
+      bufferSize = SubscriptionBufferSize,
+      // When encoding and broadcasting can't keep up with a burst of events, the oldest events are dropped for the
+      // subscribers at that time, without failing them. As every element carries the state before its event, the
+      // state of the subscribers that start later is still complete.
+      overflowStrategy = OverflowStrategy.dropHead)
+    .toMat(BroadcastHub.sink[HubElement](HubBufferSize))(Keep.both)
+    .run()
+
+  // without any subscribers the hub would hold on to old events and give them to the next subscriber
+  hub.runWith(Sink.ignore)
+
+  private val stateTracker: ActorRef =
+    system.systemActorOf(Props(new StateTracker(hubSubscriber)), "clusterDomainEventHub")
+
+  /**
+   * The current state as events and then the events as they occur, of the given event classes.
+   *
+   * The current state is the state just before the first element that the subscriber receives from the hub, so
+   * that no event is missing between the current state and the events, and none is included in both.
+   */
+  def events(classes: immutable.Seq[Class[_]]): Source[ByteString, NotUsed] = {
+    def included(event: EncodedEvent): Boolean = classes.exists(_.isInstance(event.event))
+
+    Source
+      .fromMaterializer { (_, _) =>
+        // the subscriber only receives the elements that are published after it is attached to the hub
+        val requestState =
+          system.scheduler.scheduleWithFixedDelay(Duration.Zero, StateRequestInterval)(() =>
+            stateTracker ! StateRequest)(ExecutionContext.parasitic)
+
+        hub
+          .statefulMapConcat { () =>
+            var first = true
+            element =>
+              if (first) {
+                first = false
+                requestState.cancel()
+                element :: Nil
+              } else if (element.event.exists(included)) element :: Nil
+              else Nil
+          }
+          // right after the hub, so that a subscriber that doesn't keep up doesn't hold up the hub
+          .buffer(settings.domainEventsSubscriberBufferSize, settings.domainEventsOverflowStrategy)
+          .statefulMapConcat { () =>
+            var first = true
+            element =>
+              if (first) {
+                first = false
+                (currentStateAsEvents(element.stateBefore).flatMap(encode(_).toList) ++ element.event).filter(included)
+              } else element.event.toList
+          }
+          .watchTermination() { (_, done) =>
+            done.onComplete(_ => requestState.cancel())(ExecutionContext.parasitic)
+            NotUsed
+          }
+      }
+      .mapMaterializedValue(_ => NotUsed)
+      .map(_.bytes)
+  }
+}
@@ -32,6 +32,12 @@ final case class ClusterShardingStatsResponse(
     regions: Map[String, ClusterShardingNodeStats],
     totalEntities: Int,
     totalShards: Int)
+final case class ClusterShardingEntityTypeStats(regions: Int, totalEntities: Int, totalShards: Int, failedShards: Int)
+final case class ClusterShardingStatsSummary(
+    entityTypes: Map[String, ClusterShardingEntityTypeStats],
+    unavailable: immutable.Set[String],
+    totalEntities: Int,
+    totalShards: Int)
 
 /** INTERNAL API */
 @InternalApi private[akka] sealed trait ClusterHttpManagementMemberOperation
@@ -66,4 +72,8 @@ trait ClusterHttpManagementJsonProtocol extends SprayJsonSupport with DefaultJso
     jsonFormat2(ClusterShardingNodeStats.apply)
   implicit val clusterShardingStatsResponseFormat: RootJsonFormat[ClusterShardingStatsResponse] =
     jsonFormat3(ClusterShardingStatsResponse.apply)
+  implicit val clusterShardingEntityTypeStatsFormat: RootJsonFormat[ClusterShardingEntityTypeStats] =
+    jsonFormat4(ClusterShardingEntityTypeStats.apply)
+  implicit val clusterShardingStatsSummaryFormat: RootJsonFormat[ClusterShardingStatsSummary] =
+    jsonFormat4(ClusterShardingStatsSummary.apply)
 }
@@ -4,10 +4,66 @@
 
 package akka.management.cluster
 
+import java.util.concurrent.TimeUnit
+
+import scala.concurrent.duration._
+
+import akka.stream.OverflowStrategy
+import akka.util.Helpers
 import com.typesafe.config.Config
 
 final class ClusterHttpManagementSettings(val config: Config) {
-  config.getConfig("akka.management.cluster")
+  private val clusterConfig = config.getConfig("akka.management.cluster")
+
+  /**
+   * Number of events that are buffered for each subscriber of `/cluster/domain-events`.
+   */
+  val domainEventsSubscriberBufferSize: Int = {
+    val size = clusterConfig.getInt("domain-events.subscriber-buffer-size")
+    require(size > 0, "akka.management.cluster.domain-events.subscriber-buffer-size must be greater than 0")
+    size
+  }
+
+  /**
+   * What to do when the buffer of a subscriber of `/cluster/domain-events` is full.
+   */
+  val domainEventsOverflowStrategy: OverflowStrategy =
+    clusterConfig.getString("domain-events.overflow-strategy") match {
+      case "fail"        => OverflowStrategy.fail
+      case "drop-head"   => OverflowStrategy.dropHead
+      case "drop-tail"   => OverflowStrategy.dropTail
+      case "drop-buffer" => OverflowStrategy.dropBuffer
+      case other =>
+        throw new IllegalArgumentException(
+          s"Unknown akka.management.cluster.domain-events.overflow-strategy [$other], " +
+          "must be one of fail, drop-head, drop-tail or drop-buffer")
+    }
+
+  /**
+   * Interval of collecting the sharding stats of all entity types in the background, or `None` if the stats are
+   * collected for each request.
+   */
+  val shardingStatsRefreshInterval: Option[FiniteDuration] =
+    Helpers.toRootLowerCase(clusterConfig.getString("sharding-stats.refresh-interval")) match {
+      case "off" => None
+      case _     => Some(clusterConfig.getDuration("sharding-stats.refresh-interval", TimeUnit.MILLISECONDS).millis)
+    }
+
+  /**
+   * Collected sharding stats older than this are collected again rather than served.
+   */
+  val shardingStatsMaxAge: FiniteDuration =
+    clusterConfig.getDuration("sharding-stats.max-age", TimeUnit.MILLISECONDS).millis
+
+  /**
+   * Timeout of collecting the stats of all shard regions of an entity type.
+   */
+  val shardingStatsClusterTimeout: FiniteDuration =
+    clusterConfig.getDuration("sharding-stats.cluster-stats-timeout", TimeUnit.MILLISECONDS).millis
 
-  // placeholder for potential future configuration... currently nothing is configured here
+  /**
+   * Timeout of collecting the stats of the local shard region of an entity type.
+   */
+  val shardingStatsRegionTimeout: FiniteDuration =
+    clusterConfig.getDuration("sharding-stats.region-stats-timeout", TimeUnit.MILLISECONDS).millis
 }
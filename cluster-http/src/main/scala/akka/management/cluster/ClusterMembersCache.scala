@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.cluster
+
+import java.security.MessageDigest
+import java.util.Base64
+import java.util.concurrent.atomic.AtomicReference
+
+import akka.annotation.InternalApi
+import akka.cluster.Cluster
+import akka.http.scaladsl.model.ContentTypes
+import akka.http.scaladsl.model.HttpEntity
+import akka.http.scaladsl.model.headers.EntityTag
+import akka.util.ByteString
+import spray.json.CompactPrinter
+import spray.json.RootJsonWriter
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] object ClusterMembersCache {
+
+  /**
+   * The serialized members response and its entity tag, for the state it was built from.
+   */
+  final class Snapshot private[ClusterMembersCache] (
+      private[ClusterMembersCache] val state: AnyRef,
+      private[ClusterMembersCache] val reachability: AnyRef,
+      val entity: HttpEntity.Strict,
+      val eTag: EntityTag)
+
+  private def eTagOf(bytes: ByteString): EntityTag = {
+    val digest = MessageDigest.getInstance("SHA-256").digest(bytes.toArrayUnsafe())
+    EntityTag(Base64.getUrlEncoder.withoutPadding.encodeToString(java.util.Arrays.copyOf(digest, 16)))
+  }
+}
+
+/**
+ * INTERNAL API
+ *
+ * Caches the serialized `/cluster/members` response. The read view of the cluster replaces its membership state
+ * and reachability with new instances when the cluster domain events change them, so the cached response is valid
+ * as long as the read view returns the same instances as it was built from, and is otherwise built again on the next
+ * request. The entity tag is a hash of the response, so it is the same for the same members on every node and after
+ * restarts.
+ */
+@InternalApi
+private[akka] final class ClusterMembersCache(cluster: Cluster, build: () => ClusterMembers)(
+    implicit writer: RootJsonWriter[ClusterMembers]) {
+  import ClusterMembersCache._
+
+  private val cached = new AtomicReference[Snapshot]
+
+  def snapshot(): Snapshot = {
+    val readView = ClusterReadViewAccess.internalReadView(cluster)
+    val state = readView.state
+    val reachability = readView.reachability
+    val current = cached.get()
+    if ((current ne null) && (current.state eq state) && (current.reachability eq reachability)) current
+    else {
+      // concurrent requests may build it at the same time, that is harmless since the result is the same
+      val bytes = ByteString(CompactPrinter(writer.write(build())))
+      val updated = new Snapshot(state, reachability, HttpEntity.Strict(ContentTypes.`application/json`, bytes), eTagOf(bytes))
+      cached.set(updated)
+      updated
+    }
+  }
+}
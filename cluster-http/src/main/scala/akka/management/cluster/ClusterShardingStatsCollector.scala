@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.cluster
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicBoolean
+
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
+import scala.concurrent.duration.FiniteDuration
+import scala.util.Success
+import scala.util.Try
+import scala.util.control.NonFatal
+
+import akka.actor.ActorSystem
+import akka.actor.ClassicActorSystemProvider
+import akka.actor.ExtendedActorSystem
+import akka.actor.Extension
+import akka.actor.ExtensionId
+import akka.actor.ExtensionIdProvider
+import akka.annotation.InternalApi
+import akka.cluster.Cluster
+import akka.cluster.sharding.ClusterSharding
+import akka.cluster.sharding.ShardRegion
+import akka.pattern.ask
+import akka.util.Timeout
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] object ClusterShardingStatsCollector
+    extends ExtensionId[ClusterShardingStatsCollector]
+    with ExtensionIdProvider {
+
+  override def get(system: ActorSystem): ClusterShardingStatsCollector = super.get(system)
+
+  override def get(system: ClassicActorSystemProvider): ClusterShardingStatsCollector = super.get(system)
+
+  override def lookup: ClusterShardingStatsCollector.type = ClusterShardingStatsCollector
+
+  override def createExtension(system: ExtendedActorSystem): ClusterShardingStatsCollector =
+    new ClusterShardingStatsCollector(system)
+
+  private final class Collected(val stats: ShardRegion.ClusterShardingStats, val collectedAtNanos: Long)
+}
+
+/**
+ * INTERNAL API
+ *
+ * Collects the cluster-wide sharding stats for the sharding endpoints. Each request of the stats would otherwise ask
+ * all shard regions of the entity type for their stats. Once the stats are first requested, the stats of all entity
+ * types are collected in the background, `refresh-interval` after the previous collection completed, and requests are
+ * served from the latest collected stats. Stats that aren't collected yet, or are older than `max-age`, are collected
+ * for the request, and concurrent requests share the same collection.
+ *
+ * The stats of the local shard region are taken from the cluster-wide stats when possible.
+ */
+@InternalApi
+private[akka] final class ClusterShardingStatsCollector(system: ExtendedActorSystem) extends Extension {
+  import ClusterShardingStatsCollector._
+
+  private implicit val ec: ExecutionContext = system.dispatcher
+  private val settings = new ClusterHttpManagementSettings(system.settings.config)
+  private val selfAddress = Cluster(system).selfAddress
+  private val maxAgeNanos = settings.shardingStatsMaxAge.toNanos
+  private val collected = new ConcurrentHashMap[String, Collected]
+  private val inFlight = new ConcurrentHashMap[String, Future[ShardRegion.ClusterShardingStats]]
+  private val started = new AtomicBoolean(false)
+
+  /**
+   * The stats of all shard regions of the entity type. Fails with `IllegalStateException` if sharding isn't started
+   * for the entity type on this node, and with `AskTimeoutException` if the regions don't reply in time.
+   */
+  def clusterShardingStats(typeName: String): Future[ShardRegion.ClusterShardingStats] = {
+    startRefreshing()
+    latest(typeName) match {
+      case Some(stats) => Future.successful(stats)
+      case None        => collect(typeName)
+    }
+  }
+
+  /**
+   * The stats of the shard region of the entity type on this node.
+   */
+  def shardRegionStats(typeName: String): Future[ShardRegion.ShardRegionStats] = {
+    startRefreshing()
+    latest(typeName).flatMap(_.regions.get(selfAddress)) match {
+      case Some(stats) => Future.successful(stats)
+      case None =>
+        // e.g. a proxy, which isn't included in the cluster-wide stats
+        implicit val timeout: Timeout = Timeout(settings.shardingStatsRegionTimeout)
+        try {
+          ClusterSharding(system)
+            .shardRegion(typeName)
+            .ask(ShardRegion.GetShardRegionStats)
+            .mapTo[ShardRegion.ShardRegionStats]
+        } catch {
+          case NonFatal(e) => Future.failed(e)
+        }
+    }
+  }
+
+  /**
+   * The cluster-wide stats of each entity type that is started on this node.
+   */
+  def allClusterShardingStats(): Future[Map[String, Try[ShardRegion.ClusterShardingStats]]] =
+    Future
+      .traverse(ClusterSharding(system).shardTypeNames.toList) { typeName =>
+        clusterShardingStats(typeName).transform(result => Success(typeName -> result))
+      }
+      .map(_.toMap)
+
+  private def latest(typeName: String): Option[ShardRegion.ClusterShardingStats] =
+    if (settings.shardingStatsRefreshInterval.isEmpty) None
+    else {
+      val c = collected.get(typeName)
+      if ((c ne null) && System.nanoTime() - c.collectedAtNanos <= maxAgeNanos) Some(c.stats)
+      else None
+    }
+
+  private def collect(typeName: String): Future[ShardRegion.ClusterShardingStats] =
+    inFlight.computeIfAbsent(
+      typeName,
+      _ => {
+        implicit val timeout: Timeout = Timeout(settings.shardingStatsClusterTimeout)
+        val result =
+          try {
+            ClusterSharding(system)
+              .shardRegion(typeName)
+              .ask(ShardRegion.GetClusterShardingStats(timeout.duration))
+              .mapTo[ShardRegion.ClusterShardingStats]
+          } catch {
+            case NonFatal(e) => Future.failed(e)
+          }
+        result.onComplete { r =>
+          r.foreach(stats => collected.put(typeName, new Collected(stats, System.nanoTime())))
+          inFlight.remove(typeName, result)
+        }
+        result
+      })
+
+  private def startRefreshing(): Unit =
+    settings.shardingStatsRefreshInterval.foreach { interval =>
+      if (started.compareAndSet(false, true)) scheduleRefresh(interval)
+    }
+
+  private def scheduleRefresh(interval: FiniteDuration): Unit =
+    try system.scheduler.scheduleOnce(interval)(refresh(interval))
+    catch {
+      // the scheduler is shut down with the actor system
+      case _: IllegalStateException =>
+    }
+
+  // one entity type at a time, so that the shard regions don't get the stats requests of all types at once
+  private def refresh(interval: FiniteDuration): Unit = {
+    val typeNames = ClusterSharding(system).shardTypeNames
+    collected.keySet.removeIf(typeName => !typeNames(typeName))
+    typeNames
+      .foldLeft(Future.unit) { (previous, typeName) =>
+        previous.flatMap(_ => collect(typeName).transform(_ => Success(())))
+      }
+      .onComplete(_ => scheduleRefresh(interval))
+  }
+}
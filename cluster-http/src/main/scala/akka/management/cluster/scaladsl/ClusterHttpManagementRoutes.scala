@@ -4,44 +4,72 @@
 
 package akka.management.cluster.scaladsl
 import akka.actor.AddressFromURIString
-import akka.cluster.sharding.{ ClusterSharding, ShardRegion }
+import akka.cluster.sharding.ClusterSharding
 import akka.cluster.{ Cluster, Member, MemberStatus }
-import akka.http.scaladsl.model.{ HttpMethod, HttpMethods, StatusCodes, Uri }
+import akka.http.scaladsl.model.{
+  ContentType,
+  HttpCharsets,
+  HttpEntity,
+  HttpMethod,
+  HttpMethods,
+  HttpResponse,
+  MediaType,
+  StatusCodes,
+  Uri
+}
 import Uri.Path
 import akka.actor.ClassicActorSystemProvider
 import akka.http.scaladsl.server.Route
 import akka.management.cluster._
-import akka.pattern.ask
 import akka.pattern.AskTimeoutException
-import akka.util.Timeout
+import akka.stream.scaladsl.Source
+import akka.util.ByteString
+import spray.json.{ CompactPrinter, JsNumber, JsObject, JsString, JsTrue, JsValue }
 
 import scala.annotation.tailrec
+import scala.collection.immutable.ListMap
 import scala.concurrent.duration._
+import scala.util.{ Failure, Success }
 
 object ClusterHttpManagementRoutes extends ClusterHttpManagementJsonProtocol {
   import ClusterHttpManagementHelper._
   import akka.http.scaladsl.server.Directives._
 
-  private def routeGetMembers(cluster: Cluster): Route =
-    get {
-      complete {
-        val readView = ClusterReadViewAccess.internalReadView(cluster)
-        val members = readView.state.members.map(memberToClusterMember)
+  private val NdjsonFormat = "ndjson"
+  private val NdjsonContentType: ContentType =
+    MediaType.applicationWithFixedCharset("x-ndjson", HttpCharsets.`UTF-8`, "ndjson").toContentType
+  private val NdjsonLinesPerChunk = 100
+  private val NewLine = ByteString("\n")
 
-        val unreachable = readView.reachability.observersGroupedByUnreachable.toVector.sortBy(_._1).map {
-          case (subject, observers) =>
-            ClusterUnreachableMember(s"${subject.address}", observers.toVector.sorted.map(m => s"${m.address}"))
-        }
+  private def clusterMembers(cluster: Cluster): ClusterMembers = {
+    val readView = ClusterReadViewAccess.internalReadView(cluster)
+    val members = readView.state.members.map(memberToClusterMember)
+
+    val unreachable = readView.reachability.observersGroupedByUnreachable.toVector.sortBy(_._1).map {
+      case (subject, observers) =>
+        ClusterUnreachableMember(s"${subject.address}", observers.toVector.sorted.map(m => s"${m.address}"))
+    }
+
+    val thisDcMembers =
+      cluster.state.members.toSeq.filter(node =>
+        node.status == MemberStatus.Up && node.dataCenter == cluster.selfDataCenter)
+
+    val leader = readView.leader.map(_.toString)
 
-        val thisDcMembers =
-          cluster.state.members.toSeq.filter(node =>
-            node.status == MemberStatus.Up && node.dataCenter == cluster.selfDataCenter)
+    val oldest = if (thisDcMembers.isEmpty) None else Some(thisDcMembers.min(Member.ageOrdering).address.toString)
 
-        val leader = readView.leader.map(_.toString)
+    ClusterMembers(s"${readView.selfAddress}", members, unreachable, leader, oldest, oldestPerRole(thisDcMembers))
+  }
 
-        val oldest = if (thisDcMembers.isEmpty) None else Some(thisDcMembers.min(Member.ageOrdering).address.toString)
+  private def membersCache(cluster: Cluster): ClusterMembersCache =
+    new ClusterMembersCache(cluster, () => clusterMembers(cluster))
 
-        ClusterMembers(s"${readView.selfAddress}", members, unreachable, leader, oldest, oldestPerRole(thisDcMembers))
+  private def routeGetMembers(membersCache: ClusterMembersCache): Route =
+    get {
+      // the cached response is only built again when the membership or reachability has changed
+      val snapshot = membersCache.snapshot()
+      conditional(snapshot.eTag) {
+        complete(HttpResponse(entity = snapshot.entity))
       }
     }
 
@@ -115,13 +143,9 @@ object ClusterHttpManagementRoutes extends ClusterHttpManagementJsonProtocol {
   }
 
   private def routeGetClusterDomainEvents(cluster: Cluster) = {
-    import akka.actor.ActorRef
     import akka.cluster.ClusterEvent
-    import akka.http.scaladsl.marshalling.sse.EventStreamMarshalling._
+    import akka.http.scaladsl.model.MediaTypes
     import akka.http.scaladsl.model.sse.ServerSentEvent
-    import akka.stream.{ Materializer, OverflowStrategy }
-    import akka.stream.scaladsl.Source
-    import scala.concurrent.{ ExecutionContext, Promise }
 
     val eventClasses: Map[String, Class[_]] = Map(
       "ClusterDomainEvent" -> classOf[ClusterEvent.ClusterDomainEvent],
@@ -144,76 +168,27 @@ object ClusterHttpManagementRoutes extends ClusterHttpManagementJsonProtocol {
       "ReachableDataCenter" -> classOf[ClusterEvent.ReachableDataCenter]
     )
 
-    extractMaterializer { implicit mat: Materializer =>
-      implicit val ec: ExecutionContext = mat.executionContext
-
-      get {
-        parameter("type".as[String].*) { providedEventTypes =>
-          val classes =
-            if (providedEventTypes.nonEmpty)
-              providedEventTypes.foldLeft(List.empty[Class[_]]) {
-                case (accum, eventType) =>
-                  eventClasses.get(eventType).toList ::: accum
-              }
-            else
-              List(classOf[ClusterEvent.ClusterDomainEvent])
-
-          val eventualActorRef = Promise[Option[ActorRef]]
-
-          val clusterEvents = Source
-            .actorRef[ClusterEvent.ClusterDomainEvent](
-              completionMatcher = PartialFunction.empty,
-              failureMatcher = PartialFunction.empty,
-              bufferSize = 128,
-              overflowStrategy = OverflowStrategy.fail
-            )
-            .map(ClusterDomainEventServerSentEventEncoder.encode)
-            .collect {
-              case Some(serverSentEvent) => serverSentEvent
-            }
-            .keepAlive(10.seconds, () => ServerSentEvent.heartbeat)
-            .mapMaterializedValue { actorRef =>
-              eventualActorRef.success(Some(actorRef))
-              ()
-            }
-            .watchTermination() {
-              case (_, eventualDone) =>
-                eventualDone.onComplete { _ =>
-                  // the stream has terminated, so complete the promise if it isn't already, and
-                  // then unsubscribe if previously subscribed
-
-                  val _ = eventualActorRef.trySuccess(None)
-
-                  eventualActorRef.future.foreach {
-                    case Some(actorRef) =>
-                      if (classes.nonEmpty) {
-                        cluster.unsubscribe(actorRef)
-                      }
-
-                    case None =>
-                  }
-                }
+    get {
+      parameter("type".as[String].*) { providedEventTypes =>
+        val classes =
+          if (providedEventTypes.nonEmpty)
+            providedEventTypes.foldLeft(List.empty[Class[_]]) {
+              case (accum, eventType) =>
+                eventClasses.get(eventType).toList ::: accum
             }
+          else
+            List(classOf[ClusterEvent.ClusterDomainEvent])
 
-          eventualActorRef.future.foreach {
-            case Some(actorRef) =>
-              if (classes.nonEmpty) {
-                cluster.subscribe(
-                  actorRef,
-                  initialStateMode = ClusterEvent.InitialStateAsEvents,
-                  classes: _*
-                )
-              }
-
-            case None =>
-          }
-
-          complete(clusterEvents)
-        }
+        // the events are encoded once for all subscribers, so they are completed as bytes rather than as
+        // ServerSentEvent, which would encode them again for each subscriber
+        val heartbeat = ClusterDomainEventHub.encode(ServerSentEvent.heartbeat)
+        val clusterEvents = ClusterDomainEventHub(cluster.system)
+          .events(classes)
+          .keepAlive(10.seconds, () => heartbeat)
 
+        complete(HttpEntity(MediaTypes.`text/event-stream`, clusterEvents))
       }
     }
-
   }
 
   private def routeGetShardTypeNames(cluster: Cluster) =
@@ -225,66 +200,118 @@ object ClusterHttpManagementRoutes extends ClusterHttpManagementJsonProtocol {
 
   private def routeGetShardInfo(cluster: Cluster, shardRegionName: String) =
     get {
-      extractExecutionContext { implicit executor =>
-        complete {
-          implicit val timeout: Timeout = Timeout(5.seconds)
-          try {
-            ClusterSharding(cluster.system)
-              .shardRegion(shardRegionName)
-              .ask(ShardRegion.GetShardRegionStats)
-              .mapTo[ShardRegion.ShardRegionStats]
-              .map { shardRegionStats =>
-                ShardDetails(
-                  regions = shardRegionStats.stats.map(s => ShardRegionInfo(s._1, s._2)).toVector,
-                  failed = shardRegionStats.failed)
-              }
-          } catch {
-            case _: AskTimeoutException =>
+      parameter("format".optional) { format =>
+        onComplete(ClusterShardingStatsCollector(cluster.system).shardRegionStats(shardRegionName)) {
+          case Success(shardRegionStats) if format.contains(NdjsonFormat) =>
+            val lines = sorted(shardRegionStats.stats).iterator.map {
+              case (shardId, numEntities) =>
+                line("shardId" -> JsString(shardId), "numEntities" -> JsNumber(numEntities))
+            } ++ sorted(shardRegionStats.failed).iterator.map { shardId =>
+              line("shardId" -> JsString(shardId), "failed" -> JsTrue)
+            }
+            complete(ndjson(lines))
+          case Success(shardRegionStats) =>
+            complete(
+              ShardDetails(
+                regions = shardRegionStats.stats.map(s => ShardRegionInfo(s._1, s._2)).toVector,
+                failed = shardRegionStats.failed))
+          case Failure(_: AskTimeoutException) =>
+            complete(
               StatusCodes.NotFound -> ClusterHttpManagementMessage(
-                s"Shard Region $shardRegionName not responding, may have been terminated")
-            case _: IllegalArgumentException => // Akka 2.5
-              StatusCodes.NotFound -> ClusterHttpManagementMessage(s"Shard Region $shardRegionName is not started")
-            case _: IllegalStateException => // Akka 2.6
-              StatusCodes.NotFound -> ClusterHttpManagementMessage(s"Shard Region $shardRegionName is not started")
-          }
+                s"Shard Region $shardRegionName not responding, may have been terminated"))
+          case Failure(_: IllegalArgumentException | _: IllegalStateException) =>
+            complete(
+              StatusCodes.NotFound -> ClusterHttpManagementMessage(s"Shard Region $shardRegionName is not started"))
+          case Failure(e) =>
+            failWith(e)
         }
       }
     }
 
   private def routeGetClusterShardingStats(cluster: Cluster, shardRegionName: String) =
     get {
-      extractExecutionContext { implicit executor =>
-        complete {
-          implicit val timeout: Timeout = Timeout(10.seconds)
-          try {
-            ClusterSharding(cluster.system)
-              .shardRegion(shardRegionName)
-              .ask(ShardRegion.GetClusterShardingStats(timeout.duration))
-              .mapTo[ShardRegion.ClusterShardingStats]
-              .map { clusterStats =>
-                val regions = clusterStats.regions.map {
-                  case (address, stats) =>
-                    address.toString -> ClusterShardingNodeStats(
-                      shards = stats.stats.map(s => ShardRegionInfo(s._1, s._2)).toVector,
-                      failed = stats.failed)
+      parameter("format".optional) { format =>
+        onComplete(ClusterShardingStatsCollector(cluster.system).clusterShardingStats(shardRegionName)) {
+          case Success(clusterStats) if format.contains(NdjsonFormat) =>
+            // one line per shard, rather than one object of the shards of all regions
+            val lines = clusterStats.regions.toVector.sortBy(_._1.toString).iterator.flatMap {
+              case (address, stats) =>
+                val region = JsString(address.toString)
+                sorted(stats.stats).iterator.map {
+                  case (shardId, numEntities) =>
+                    line("region" -> region, "shardId" -> JsString(shardId), "numEntities" -> JsNumber(numEntities))
+                } ++ sorted(stats.failed).iterator.map { shardId =>
+                  line("region" -> region, "shardId" -> JsString(shardId), "failed" -> JsTrue)
                 }
-                val totalEntities = clusterStats.regions.values.flatMap(_.stats.values).sum
-                val totalShards = clusterStats.regions.values.flatMap(_.stats.keys).size
-                ClusterShardingStatsResponse(regions, totalEntities, totalShards)
-              }
-          } catch {
-            case _: AskTimeoutException =>
+            }
+            complete(ndjson(lines))
+          case Success(clusterStats) =>
+            val regions = clusterStats.regions.map {
+              case (address, stats) =>
+                address.toString -> ClusterShardingNodeStats(
+                  shards = stats.stats.map(s => ShardRegionInfo(s._1, s._2)).toVector,
+                  failed = stats.failed)
+            }
+            val totalEntities = clusterStats.regions.values.flatMap(_.stats.values).sum
+            val totalShards = clusterStats.regions.values.flatMap(_.stats.keys).size
+            complete(ClusterShardingStatsResponse(regions, totalEntities, totalShards))
+          case Failure(_: AskTimeoutException) =>
+            complete(
               StatusCodes.GatewayTimeout -> ClusterHttpManagementMessage(
-                s"Cluster-wide stats for $shardRegionName timed out")
-            case _: IllegalArgumentException =>
-              StatusCodes.NotFound -> ClusterHttpManagementMessage(s"Shard Region $shardRegionName is not started")
-            case _: IllegalStateException =>
-              StatusCodes.NotFound -> ClusterHttpManagementMessage(s"Shard Region $shardRegionName is not started")
+                s"Cluster-wide stats for $shardRegionName timed out"))
+          case Failure(_: IllegalArgumentException | _: IllegalStateException) =>
+            complete(
+              StatusCodes.NotFound -> ClusterHttpManagementMessage(s"Shard Region $shardRegionName is not started"))
+          case Failure(e) =>
+            failWith(e)
+        }
+      }
+    }
+
+  private def routeGetClusterShardingStatsSummary(cluster: Cluster) =
+    get {
+      extractExecutionContext { implicit executor =>
+        complete {
+          ClusterShardingStatsCollector(cluster.system).allClusterShardingStats().map { allStats =>
+            val entityTypes = allStats.collect {
+              case (typeName, Success(clusterStats)) =>
+                val regions = clusterStats.regions.values
+                typeName -> ClusterShardingEntityTypeStats(
+                  regions = regions.size,
+                  totalEntities = regions.iterator.map(_.stats.values.sum).sum,
+                  totalShards = regions.iterator.map(_.stats.size).sum,
+                  failedShards = regions.iterator.map(_.failed.size).sum)
+            }
+            ClusterShardingStatsSummary(
+              entityTypes,
+              unavailable = allStats.collect { case (typeName, Failure(_)) => typeName }.toSet,
+              totalEntities = entityTypes.values.iterator.map(_.totalEntities).sum,
+              totalShards = entityTypes.values.iterator.map(_.totalShards).sum)
           }
         }
       }
     }
 
+  private def sorted(stats: Map[String, Int]): Vector[(String, Int)] =
+    stats.toVector.sortBy(_._1)
+
+  private def sorted(shardIds: Set[String]): Vector[String] =
+    shardIds.toVector.sorted
+
+  // the fields in the given order, rather than in the order of a hash map
+  private def line(fields: (String, JsValue)*): JsObject =
+    JsObject(ListMap(fields: _*))
+
+  // streamed in chunks of many lines, the lines are only rendered as they are written
+  private def ndjson(lines: Iterator[JsObject]): HttpEntity.Chunked =
+    HttpEntity(
+      NdjsonContentType,
+      Source
+        .fromIterator(() => lines)
+        .map(line => ByteString(CompactPrinter(line)) ++ NewLine)
+        .grouped(NdjsonLinesPerChunk)
+        .map(_.reduce(_ ++ _)))
+
   /**
    * Creates an instance of [[ClusterHttpManagementRoutes]] to manage the cluster for the given
    * typed or classic actor system instance. This version does not provide Basic Authentication.
@@ -296,7 +323,8 @@ object ClusterHttpManagementRoutes extends ClusterHttpManagementJsonProtocol {
    * Creates an instance of [[ClusterHttpManagementRoutes]] to manage the specified
    * [[akka.cluster.Cluster]] instance. This version does not provide Basic Authentication.
    */
-  def apply(cluster: Cluster): Route =
+  def apply(cluster: Cluster): Route = {
+    val cache = membersCache(cluster)
     pathPrefix("cluster") {
       concat(
         pathEndOrSingleSlash {
@@ -305,7 +333,7 @@ object ClusterHttpManagementRoutes extends ClusterHttpManagementJsonProtocol {
         pathPrefix("members") {
           concat(
             pathEndOrSingleSlash {
-              routeGetMembers(cluster) ~ routePostMembers(cluster)
+              routeGetMembers(cache) ~ routePostMembers(cluster)
             },
             routeFindMember(cluster, readOnly = false)
           )
@@ -325,9 +353,13 @@ object ClusterHttpManagementRoutes extends ClusterHttpManagementJsonProtocol {
               routeGetShardInfo(cluster, shardRegionName)
             }
           )
+        },
+        path("sharding-stats") {
+          routeGetClusterShardingStatsSummary(cluster)
         }
       )
     }
+  }
 
   private def routePutCluster(cluster: Cluster): Route = {
     put {
@@ -352,10 +384,11 @@ object ClusterHttpManagementRoutes extends ClusterHttpManagementJsonProtocol {
    * Creates an instance of [[ClusterHttpManagementRoutes]] with only the read only routes.
    */
   def readOnly(cluster: Cluster): Route = {
+    val cache = membersCache(cluster)
     concat(
       pathPrefix("cluster" / "members") {
         concat(pathEndOrSingleSlash {
-          routeGetMembers(cluster)
+          routeGetMembers(cache)
         }, routeFindMember(cluster, readOnly = true))
       },
       pathPrefix("cluster" / "domain-events") {
@@ -373,6 +406,9 @@ object ClusterHttpManagementRoutes extends ClusterHttpManagementJsonProtocol {
             routeGetShardInfo(cluster, shardRegionName)
           }
         )
+      },
+      path("cluster" / "sharding-stats") {
+        routeGetClusterShardingStatsSummary(cluster)
       }
     )
   }
@@ -24,6 +24,7 @@ import akka.cluster.sharding.ClusterShardingSettings
 import akka.cluster.sharding.ShardRegion
 import akka.http.scaladsl.Http
 import akka.http.scaladsl.model._
+import akka.http.scaladsl.model.headers.{ `If-None-Match`, ETag }
 import akka.http.scaladsl.testkit.ScalatestRouteTest
 import akka.http.scaladsl.unmarshalling.Unmarshal
 import akka.management.cluster._
@@ -122,6 +123,49 @@ class ClusterHttpManagementRoutesSpec
       }
     }
 
+    "return 304 Not Modified for an unchanged list of members" when {
+      "calling GET /cluster/members with If-None-Match" in {
+        val address1 = Address("akka", "Main", "hostname.com", 3311)
+        val address2 = Address("akka", "Main", "hostname2.com", 3311)
+        val clusterMember1 = new Member(UniqueAddress(address1, 1L), 1, Up, Set("dc-one"), version)
+        val clusterMember2 = new Member(UniqueAddress(address2, 2L), 2, Up, Set("dc-one"), version)
+        val state1 = CurrentClusterState(SortedSet(clusterMember1), leader = Some(address1))
+        val state2 = CurrentClusterState(SortedSet(clusterMember1, clusterMember2), leader = Some(address1))
+
+        val mockedCluster = mock(classOf[Cluster])
+        val mockedClusterReadView = mock(classOf[ClusterReadView])
+        val mockedReachability = mock(classOf[Reachability])
+
+        when(mockedCluster.readView).thenReturn(mockedClusterReadView)
+        when(mockedCluster.state).thenReturn(state1)
+        when(mockedCluster.selfDataCenter).thenReturn("one")
+        when(mockedClusterReadView.state).thenReturn(state1)
+        when(mockedClusterReadView.selfAddress).thenReturn(address1)
+        when(mockedClusterReadView.leader).thenReturn(Some(address1))
+        when(mockedClusterReadView.reachability).thenReturn(mockedReachability)
+        when(mockedReachability.observersGroupedByUnreachable).thenReturn(Map.empty[UniqueAddress, Set[UniqueAddress]])
+
+        val routes = ClusterHttpManagementRoutes(mockedCluster)
+        val eTag1 = Get("/cluster/members") ~> routes ~> check {
+          status shouldEqual StatusCodes.OK
+          header[ETag].get.etag
+        }
+
+        Get("/cluster/members") ~> `If-None-Match`(eTag1) ~> routes ~> check {
+          status shouldEqual StatusCodes.NotModified
+        }
+
+        // a new membership state from the read view
+        when(mockedCluster.state).thenReturn(state2)
+        when(mockedClusterReadView.state).thenReturn(state2)
+        Get("/cluster/members") ~> `If-None-Match`(eTag1) ~> routes ~> check {
+          status shouldEqual StatusCodes.OK
+          header[ETag].get.etag should not equal eTag1
+          responseAs[ClusterMembers].members.map(_.node) shouldEqual Set(s"$address1", s"$address2")
+        }
+      }
+    }
+
     "join a member" when {
       "calling POST /cluster/members with form field 'memberAddress'" in {
         val address = "akka.tcp://Main@hostname.com:3311"
@@ -459,6 +503,14 @@ class ClusterHttpManagementRoutesSpec
         val unmarshaledGetShardDetails = Unmarshal(responseGetShardDetails.entity).to[ShardDetails].futureValue
         unmarshaledGetShardDetails shouldEqual ShardDetails(Seq(ShardRegionInfo("ShardId", 1)))
 
+        val responseGetShardDetailsNdjson = Http()
+          .singleRequest(HttpRequest(uri = s"http://127.0.0.1:20100/cluster/shards/$name?format=ndjson"))
+          .futureValue(t)
+        responseGetShardDetailsNdjson.status shouldEqual StatusCodes.OK
+        responseGetShardDetailsNdjson.entity.contentType.mediaType.subType shouldEqual "x-ndjson"
+        Unmarshal(responseGetShardDetailsNdjson.entity).to[String].futureValue shouldEqual
+        "{\"shardId\":\"ShardId\",\"numEntities\":1}\n"
+
         val responseInvalidGetShardDetails = Http()
           .singleRequest(
             HttpRequest(uri = s"http://127.0.0.1:20100/cluster/shards/ThisShardRegionDoesNotExist")
@@ -473,7 +525,7 @@ class ClusterHttpManagementRoutesSpec
     }
 
     "return cluster-wide sharding stats" when {
-      "calling GET /cluster/shards/{name}/stats" in {
+      "calling GET /cluster/shards/{name}/stats and /cluster/sharding-stats" in {
         import scala.concurrent.duration._
 
         import akka.pattern.ask
@@ -533,6 +585,24 @@ class ClusterHttpManagementRoutesSpec
         unmarshaledClusterStats.totalShards shouldEqual 1
         unmarshaledClusterStats.regions should not be empty
 
+        val responseGetClusterStatsNdjson = Http()
+          .singleRequest(HttpRequest(uri = s"http://127.0.0.1:20101/cluster/shards/$name/stats?format=ndjson"))
+          .futureValue(t)
+        responseGetClusterStatsNdjson.status shouldEqual StatusCodes.OK
+        Unmarshal(responseGetClusterStatsNdjson.entity).to[String].futureValue shouldEqual
+        s"""{"region":"${cluster.selfAddress}","shardId":"ShardId","numEntities":1}\n"""
+
+        val responseGetSummary =
+          Http().singleRequest(HttpRequest(uri = s"http://127.0.0.1:20101/cluster/sharding-stats")).futureValue(t)
+        responseGetSummary.status shouldEqual StatusCodes.OK
+        Unmarshal(responseGetSummary.entity).to[ClusterShardingStatsSummary].futureValue shouldEqual
+        ClusterShardingStatsSummary(
+          Map(
+            name -> ClusterShardingEntityTypeStats(regions = 1, totalEntities = 1, totalShards = 1, failedShards = 0)),
+          unavailable = Set.empty,
+          totalEntities = 1,
+          totalShards = 1)
+
         val responseInvalidGetClusterStats = Http()
           .singleRequest(
             HttpRequest(uri = s"http://127.0.0.1:20101/cluster/shards/ThisShardRegionDoesNotExist/stats")
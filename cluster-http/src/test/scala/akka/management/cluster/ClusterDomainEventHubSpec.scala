@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.cluster
+
+import scala.concurrent.Future
+import scala.concurrent.duration._
+
+import akka.actor.ActorSystem
+import akka.actor.Address
+import akka.cluster.Cluster
+import akka.cluster.ClusterEvent
+import akka.cluster.MemberStatus
+import akka.cluster.UniqueAddress
+import akka.cluster.management.TestHelpers.newMember
+import akka.http.scaladsl.marshalling.Marshal
+import akka.http.scaladsl.marshalling.sse.EventStreamMarshalling._
+import akka.http.scaladsl.model.HttpEntity
+import akka.http.scaladsl.model.sse.ServerSentEvent
+import akka.stream.Materializer
+import akka.stream.scaladsl.Sink
+import akka.stream.scaladsl.Source
+import akka.testkit.TestKit
+import akka.testkit.TestProbe
+import akka.util.Version
+import com.typesafe.config.ConfigFactory
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+
+class ClusterDomainEventHubSpec
+    extends TestKit(
+      ActorSystem(
+        "ClusterDomainEventHubSpec",
+        ConfigFactory
+          .parseString("akka.management.cluster.domain-events.subscriber-buffer-size = 4")
+          .withFallback(ConfigFactory.load())))
+    with AnyWordSpecLike
+    with Matchers
+    with ScalaFutures
+    with BeforeAndAfterAll {
+
+  override implicit def patienceConfig: PatienceConfig = PatienceConfig(timeout = 5.seconds)
+
+  override protected def afterAll(): Unit = TestKit.shutdownActorSystem(system)
+
+  private val otherMember =
+    newMember(
+      UniqueAddress(Address("akka", system.name, "127.0.0.1", 2552), 2L),
+      2,
+      MemberStatus.Up,
+      Set("dc-default"),
+      Version.Zero)
+
+  private def subscribe(classes: Class[_]*): TestProbe = {
+    val probe = TestProbe()
+    ClusterDomainEventHub(system)
+      .events(classes.toList)
+      .map(_.utf8String)
+      .runWith(Sink.actorRef(probe.ref, "completed", e => s"failed: ${e.getMessage}"))
+    probe
+  }
+
+  "The cluster domain event hub" should {
+
+    "encode server-sent events like the event stream marshaller" in {
+      import system.dispatcher
+      val sse = ServerSentEvent("""{"type":"MemberUp"}""", "MemberUp")
+      val marshalled = Marshal(Source.single(sse)).to[HttpEntity].flatMap(_.toStrict(3.seconds)).futureValue
+      ClusterDomainEventHub.encode(sse) shouldBe marshalled.data
+      ClusterDomainEventHub.encode(ServerSentEvent.heartbeat).utf8String shouldBe "data:\n\n"
+    }
+
+    "give each subscriber the current state and then the events of its event classes" in {
+      val cluster = Cluster(system)
+      cluster.join(cluster.selfAddress)
+      awaitAssert(cluster.selfMember.status shouldBe MemberStatus.Up)
+
+      val memberEvents1 = subscribe(classOf[ClusterEvent.MemberEvent])
+      val memberEvents2 = subscribe(classOf[ClusterEvent.MemberEvent])
+      val leaderEvents = subscribe(classOf[ClusterEvent.LeaderChanged])
+
+      memberEvents1.expectMsgType[String] should include("event:MemberUp")
+      memberEvents2.expectMsgType[String] should include("event:MemberUp")
+      leaderEvents.expectMsgType[String] should include("event:LeaderChanged")
+
+      // the subscribers are attached to the hub once they have received the current state
+      system.eventStream.publish(ClusterEvent.MemberUp(otherMember))
+      memberEvents1.expectMsgType[String] should include(""""longUid":2""")
+      memberEvents2.expectMsgType[String] should include(""""longUid":2""")
+      leaderEvents.expectNoMessage(200.millis)
+    }
+
+    "give a subscriber every event exactly once, in the current state or as event, while events occur" in {
+      // with the default subscriber buffer, so that the events that occur while the current state is emitted fit
+      val system2 = ActorSystem("ClusterDomainEventHubSpec2", ConfigFactory.load())
+      try {
+        val mat2 = Materializer(system2)
+        def subscribe2(): TestProbe = {
+          val probe = TestProbe()(system2)
+          ClusterDomainEventHub(system2)
+            .events(List(classOf[ClusterEvent.MemberEvent]))
+            .map(_.utf8String)
+            .runWith(Sink.actorRef(probe.ref, "completed", e => s"failed: ${e.getMessage}"))(mat2)
+          probe
+        }
+        val cluster2 = Cluster(system2)
+        cluster2.join(cluster2.selfAddress)
+        awaitAssert(cluster2.selfMember.status shouldBe MemberStatus.Up)
+        // the hub has its state once a subscriber has received it
+        subscribe2().expectMsgType[String] should include("event:MemberUp")
+
+        val uids = (1000001L to 1000200L).toList
+        val LongUid = """"longUid":(\d+)""".r
+        val published = Future {
+          uids.foreach { uid =>
+            val address = Address("akka", system2.name, "127.0.0.1", (uid - 1000000L).toInt + 3000)
+            val member = newMember(UniqueAddress(address, uid), 2, MemberStatus.Up, Set("dc-default"), Version.Zero)
+            system2.eventStream.publish(ClusterEvent.MemberUp(member))
+            Thread.sleep(1)
+          }
+        }(system2.dispatcher)
+
+        Thread.sleep(50)
+        val probe = subscribe2()
+        published.futureValue
+
+        val received = probe
+          .receiveWhile(max = 5.seconds, idle = 500.millis) {
+            case msg: String => LongUid.findAllMatchIn(msg).map(_.group(1).toLong).toList
+          }
+          .flatten
+          .filter(uids.contains)
+        received.sorted shouldBe uids
+      } finally TestKit.shutdownActorSystem(system2)
+    }
+
+    "apply the overflow strategy to a subscriber that doesn't keep up" in {
+      val probe = TestProbe()
+      ClusterDomainEventHub(system)
+        .events(List(classOf[ClusterEvent.MemberEvent]))
+        .runWith(Sink.actorRefWithBackpressure(probe.ref, "init", "ack", "completed", e => s"failed: ${e.getMessage}"))
+      probe.expectMsg("init")
+      probe.reply("ack")
+      probe.expectMsgType[akka.util.ByteString] // the current state
+
+      // not acknowledged, so the subscriber's buffer of 4 overflows, also with the few elements in flight in the stages
+      // before it
+      (1 to 100).foreach(_ => system.eventStream.publish(ClusterEvent.MemberUp(otherMember)))
+      probe.fishForMessage() {
+        case msg: String => msg.startsWith("failed")
+        case _           => false
+      }
+    }
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.cluster
+
+import scala.concurrent.duration._
+
+import akka.actor.Actor
+import akka.actor.ActorSystem
+import akka.actor.Props
+import akka.cluster.Cluster
+import akka.cluster.MemberStatus
+import akka.cluster.sharding.ClusterSharding
+import akka.cluster.sharding.ClusterShardingSettings
+import akka.cluster.sharding.ShardRegion
+import akka.testkit.ImplicitSender
+import akka.testkit.TestKit
+import com.typesafe.config.ConfigFactory
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+
+object ClusterShardingStatsCollectorSpec {
+
+  class Entity extends Actor {
+    override def receive: Receive = {
+      case msg => sender() ! msg
+    }
+  }
+
+  val extractEntityId: ShardRegion.ExtractEntityId = {
+    case msg: String => (msg, msg)
+  }
+
+  val extractShardId: ShardRegion.ExtractShardId = _ => "shard"
+
+  val config = ConfigFactory.parseString("""
+    akka.actor.provider = cluster
+    akka.remote.artery.canonical.hostname = 127.0.0.1
+    akka.remote.artery.canonical.port = 0
+    akka.cluster.sharding.state-store-mode = ddata
+    akka.management.cluster.sharding-stats {
+      refresh-interval = 300ms
+      max-age = 1 minute
+    }
+    """)
+}
+
+class ClusterShardingStatsCollectorSpec
+    extends TestKit(ActorSystem("ClusterShardingStatsCollectorSpec", ClusterShardingStatsCollectorSpec.config))
+    with ImplicitSender
+    with AnyWordSpecLike
+    with Matchers
+    with ScalaFutures
+    with BeforeAndAfterAll {
+  import ClusterShardingStatsCollectorSpec._
+
+  override implicit def patienceConfig: PatienceConfig = PatienceConfig(timeout = 10.seconds)
+
+  private val collector = ClusterShardingStatsCollector(system)
+
+  private def startSharding(typeName: String) =
+    ClusterSharding(system)
+      .start(typeName, Props[Entity](), ClusterShardingSettings(system), extractEntityId, extractShardId)
+
+  private def entities(stats: ShardRegion.ClusterShardingStats): Int =
+    stats.regions.values.map(_.stats.values.sum).sum
+
+  override protected def beforeAll(): Unit = {
+    val cluster = Cluster(system)
+    cluster.join(cluster.selfAddress)
+    awaitAssert(cluster.selfMember.status shouldBe MemberStatus.Up, 10.seconds)
+  }
+
+  override protected def afterAll(): Unit = TestKit.shutdownActorSystem(system)
+
+  "The cluster sharding stats collector" should {
+
+    "serve the collected stats and refresh them in the background" in {
+      val region = startSharding("Cached")
+      region ! "a"
+      expectMsg("a")
+      entities(collector.clusterShardingStats("Cached").futureValue) shouldBe 1
+
+      region ! "b"
+      expectMsg("b")
+      // served from the collected stats until they are refreshed
+      entities(collector.clusterShardingStats("Cached").futureValue) shouldBe 1
+      awaitAssert(entities(collector.clusterShardingStats("Cached").futureValue) shouldBe 2, 5.seconds)
+
+      collector.shardRegionStats("Cached").futureValue.stats shouldBe Map("shard" -> 2)
+    }
+
+    "share a collection between concurrent requests" in {
+      startSharding("Concurrent")
+      val first = collector.clusterShardingStats("Concurrent")
+      val second = collector.clusterShardingStats("Concurrent")
+      second shouldBe theSameInstanceAs(first)
+      first.futureValue shouldBe a[ShardRegion.ClusterShardingStats]
+    }
+
+    "collect the stats of all entity types" in {
+      val allStats = collector.allClusterShardingStats().futureValue
+      allStats.keySet shouldBe Set("Cached", "Concurrent")
+      entities(allStats("Cached").get) shouldBe 2
+      entities(allStats("Concurrent").get) shouldBe 0
+    }
+
+    "fail for an entity type that isn't started" in {
+      collector.clusterShardingStats("NotStarted").failed.futureValue shouldBe an[IllegalStateException]
+      collector.shardRegionStats("NotStarted").failed.futureValue shouldBe an[IllegalStateException]
+    }
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.discovery.awsapi.ec2
+
+import java.net.InetAddress
+import java.net.URI
+import java.util.concurrent.TimeoutException
+
+import scala.collection.immutable
+import scala.concurrent.Future
+import scala.concurrent.duration.FiniteDuration
+import scala.jdk.CollectionConverters._
+import scala.util.Try
+
+import akka.actor.ActorSystem
+import akka.annotation.ApiMayChange
+import akka.annotation.InternalApi
+import akka.discovery.Lookup
+import akka.discovery.ServiceDiscovery
+import akka.discovery.ServiceDiscovery.Resolved
+import akka.discovery.ServiceDiscovery.ResolvedTarget
+import akka.discovery.awsapi.ec2.AsyncEc2TagBasedServiceDiscovery._
+import akka.discovery.cache.LookupCaches
+import akka.event.Logging
+import akka.stream.scaladsl.Sink
+import akka.stream.scaladsl.Source
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration
+import software.amazon.awssdk.core.retry.RetryPolicy
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient
+import software.amazon.awssdk.regions.Region
+import software.amazon.awssdk.services.ec2.Ec2AsyncClient
+import software.amazon.awssdk.services.ec2.model.DescribeInstancesRequest
+import software.amazon.awssdk.services.ec2.model.DescribeInstancesResponse
+import software.amazon.awssdk.services.ec2.model.Filter
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[ec2] object AsyncEc2TagBasedServiceDiscovery {
+
+  // the maximum page size of DescribeInstances, fewer pages means fewer round trips
+  private val MaxResults = 1000
+
+  private[ec2] def parseFiltersString(filtersString: String): List[Filter] =
+    filtersString
+      .split(";")
+      .filter(_.nonEmpty)
+      .map(kv => kv.split("="))
+      .toList
+      .map(kv => {
+        assert(kv.length == 2, "failed to parse one of the key-value pairs in filters")
+        Filter.builder().name(kv(0)).values(kv(1)).build()
+      })
+
+  private[ec2] def privateIps(page: DescribeInstancesResponse): immutable.Seq[String] =
+    page.reservations().asScala.iterator.flatMap(_.instances().asScala).flatMap(i => Option(i.privateIpAddress())).toList
+
+  private[ec2] def targets(ips: immutable.Seq[String], ports: Option[List[Int]]): immutable.Seq[ResolvedTarget] =
+    ips.flatMap { ip =>
+      val address = Try(InetAddress.getByName(ip)).toOption
+      ports match {
+        case None => ResolvedTarget(host = ip, port = None, address = address) :: Nil
+        // this allows multiple akka nodes (i.e. JVMs) per EC2 instance
+        case Some(ps) => ps.map(p => ResolvedTarget(host = ip, port = Some(p), address = address))
+      }
+    }
+}
+
+/**
+ * Discovery of EC2 instances by tag, using the asynchronous AWS SDK.
+ *
+ * The pages of the `DescribeInstances` result are streamed from the SDK paginator, and the IP addresses of the
+ * instances are extracted as the pages arrive while the next page is already being requested. When the lookup times
+ * out, the page that is in flight is cancelled.
+ */
+@ApiMayChange
+final class AsyncEc2TagBasedServiceDiscovery(system: ActorSystem) extends ServiceDiscovery {
+
+  private implicit val actorSystem: ActorSystem = system
+  import system.dispatcher
+
+  private val log = Logging(system, classOf[AsyncEc2TagBasedServiceDiscovery])
+
+  private val config = system.settings.config.getConfig("akka.discovery.aws-api-ec2-tag-based-async")
+
+  private val tagKey = config.getString("tag-key")
+
+  private val otherFilters = parseFiltersString(config.getString("filters"))
+
+  private val preDefinedPorts =
+    config.getIntList("ports").asScala.toList.map(_.intValue) match {
+      case Nil  => None
+      case list => Some(list) // Akka Management ports
+    }
+
+  private val runningInstancesFilter = Filter.builder().name("instance-state-name").values("running").build()
+
+  private val lookupCache =
+    LookupCaches(system).cacheFor("aws-api-ec2-tag-based-async", config.getConfig("lookup-cache"))
+
+  private lazy val ec2Client = {
+    // we have our own retry/back-off mechanism (in Cluster Bootstrap), so we don't need the client's in addition
+    val conf = ClientOverrideConfiguration.builder().retryPolicy(RetryPolicy.none).build()
+    val builder = Ec2AsyncClient.builder().overrideConfiguration(conf).httpClient(NettyNioAsyncHttpClient.create())
+    if (config.hasPath("endpoint") && config.hasPath("region")) {
+      builder.endpointOverride(URI.create(config.getString("endpoint")))
+      builder.region(Region.of(config.getString("region")))
+    }
+    builder.build()
+  }
+
+  override def lookup(query: Lookup, resolveTimeout: FiniteDuration): Future[Resolved] =
+    // the timeout of the request is the fetch timeout of the cache when the request is shared with other lookups
+    lookupCache.lookup(query, resolveTimeout)(fetchTimeout => resolve(query, fetchTimeout))
+
+  private def resolve(query: Lookup, fetchTimeout: FiniteDuration): Future[Resolved] = {
+    val tagFilter = Filter.builder().name("tag:" + tagKey).values(query.serviceName).build()
+    val request = DescribeInstancesRequest
+      .builder()
+      .filters((runningInstancesFilter :: tagFilter :: otherFilters).asJava)
+      .maxResults(MaxResults)
+      .build()
+
+    resolvePages(query, Source.fromPublisher(ec2Client.describeInstancesPaginator(request)), fetchTimeout)
+      .recoverWith {
+        case _: TimeoutException =>
+          log.debug("Lookup for [{}] timed out after [{}]", query, fetchTimeout)
+          Future.failed(new TimeoutException(s"Lookup for [$query] timed-out, within [$fetchTimeout]!"))
+      }
+  }
+
+  private[ec2] def resolvePages(
+      query: Lookup,
+      pages: Source[DescribeInstancesResponse, _],
+      fetchTimeout: FiniteDuration): Future[Resolved] =
+    pages
+      .mapConcat(privateIps)
+      // fails the lookup and cancels the subscription, and with that the page in flight, when timing out
+      .completionTimeout(fetchTimeout)
+      .runWith(Sink.seq)
+      .map(ips => Resolved(query.serviceName, targets(ips, preDefinedPorts)))
+}
@@ -5,7 +5,7 @@
 package akka.discovery.awsapi.ecs
 
 import java.net.InetAddress
-import java.util.concurrent.TimeoutException
+import java.util.concurrent.ConcurrentHashMap
 
 import scala.collection.immutable.Seq
 import scala.concurrent.duration._
@@ -18,8 +18,10 @@ import akka.actor.ActorSystem
 import akka.annotation.ApiMayChange
 import akka.discovery.ServiceDiscovery.{ Resolved, ResolvedTarget }
 import akka.discovery.awsapi.ecs.AsyncEcsServiceDiscovery._
+import akka.discovery.cache.LookupCaches
 import akka.discovery.{ Lookup, ServiceDiscovery }
-import akka.pattern.after
+import akka.stream.Materializer
+import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration
 import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration
 import software.amazon.awssdk.core.retry.RetryPolicy
 import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient
@@ -42,34 +44,47 @@ class AsyncEcsServiceDiscovery(system: ActorSystem) extends ServiceDiscovery {
     }
     .toList
 
+  private[this] val lookupCache =
+    LookupCaches(system).cacheFor("aws-api-ecs-async", config.getConfig("lookup-cache"))
+
+  private[this] val describeTasksParallelism = config.getInt("describe-tasks-parallelism")
+
+  // by service name
+  private[this] val taskCaches = new ConcurrentHashMap[String, EcsTaskCache]()
+
   private[this] lazy val ecsClient = {
     val conf = ClientOverrideConfiguration.builder().retryPolicy(RetryPolicy.none).build()
     val httpClient = NettyNioAsyncHttpClient.create()
     EcsAsyncClient.builder().overrideConfiguration(conf).httpClient(httpClient).build()
   }
 
+  private[this] implicit val actorSystem: ActorSystem = system
   private[this] implicit val ec: ExecutionContext = system.dispatcher
 
   override def lookup(lookup: Lookup, resolveTimeout: FiniteDuration): Future[Resolved] =
-    Future.firstCompletedOf(
-      Seq(
-        after(resolveTimeout, using = system.scheduler)(
-          Future.failed(new TimeoutException("Future timed out!"))
-        ),
-        resolveTasks(ecsClient, cluster, lookup.serviceName, tags).map(tasks =>
-          Resolved(
-            serviceName = lookup.serviceName,
-            addresses = for {
-              task <- tasks
-              container <- task.containers().asScala
-              networkInterface <- container.networkInterfaces().asScala
-            } yield {
-              val address = networkInterface.privateIpv4Address()
-              ResolvedTarget(host = address, port = None, address = Try(InetAddress.getByName(address)).toOption)
-            }
-          ))
-      )
-    )
+    lookupCache.lookup(lookup, resolveTimeout)(fetchTimeout => resolve(lookup, fetchTimeout.fromNow))
+
+  private[this] def resolve(lookup: Lookup, deadline: Deadline): Future[Resolved] =
+    resolveTasks(ecsClient, cluster, lookup.serviceName, tags, taskCache(lookup.serviceName), deadline).map(tasks =>
+      Resolved(
+        serviceName = lookup.serviceName,
+        addresses = for {
+          task <- tasks
+          container <- task.containers().asScala
+          networkInterface <- container.networkInterfaces().asScala
+        } yield {
+          val address = networkInterface.privateIpv4Address()
+          ResolvedTarget(host = address, port = None, address = Try(InetAddress.getByName(address)).toOption)
+        }
+      ))
+
+  private[this] def taskCache(serviceName: String): EcsTaskCache =
+    taskCaches.computeIfAbsent(
+      serviceName,
+      _ =>
+        new EcsTaskCache(
+          (taskArns, deadline) => describeTasks(ecsClient, cluster, taskArns, deadline),
+          describeTasksParallelism))
 
 }
 
@@ -78,12 +93,24 @@ object AsyncEcsServiceDiscovery {
 
   case class Tag(key: String, value: String)
 
-  private def resolveTasks(ecsClient: EcsAsyncClient, cluster: String, serviceName: String, tags: List[Tag])(
-      implicit ec: ExecutionContext
-  ): Future[Seq[Task]] =
+  // the requests of one lookup are limited together by its deadline, the client stops a request that runs out of it
+  private[ecs] def timeLeft(deadline: Deadline): AwsRequestOverrideConfiguration =
+    AwsRequestOverrideConfiguration
+      .builder()
+      .apiCallTimeout(java.time.Duration.ofMillis(math.max(1L, deadline.timeLeft.toMillis)))
+      .build()
+
+  private def resolveTasks(
+      ecsClient: EcsAsyncClient,
+      cluster: String,
+      serviceName: String,
+      tags: List[Tag],
+      taskCache: EcsTaskCache,
+      deadline: Deadline
+  )(implicit ec: ExecutionContext, mat: Materializer): Future[Seq[Task]] =
     for {
-      taskArns <- listTaskArns(ecsClient, cluster, serviceName)
-      tasks <- describeTasks(ecsClient, cluster, taskArns)
+      taskArns <- listTaskArns(ecsClient, cluster, serviceName, deadline)
+      tasks <- taskCache.tasks(taskArns, deadline)
       tasksWithTags = tasks.filter { task =>
         val ecsTags = task.tags().asScala.map(tag => Tag(tag.key(), tag.value())).toList
         tags.diff(ecsTags).isEmpty
@@ -94,6 +121,7 @@ object AsyncEcsServiceDiscovery {
       ecsClient: EcsAsyncClient,
       cluster: String,
       serviceName: String,
+      deadline: Deadline,
       pageTaken: Option[String] = None,
       accumulator: Seq[String] = Seq.empty
   )(implicit ec: ExecutionContext): Future[Seq[String]] =
@@ -106,6 +134,7 @@ object AsyncEcsServiceDiscovery {
             .serviceName(serviceName)
             .nextToken(pageTaken.orNull)
             .desiredStatus(DesiredStatus.RUNNING)
+            .overrideConfiguration(timeLeft(deadline))
             .build()
         )
         .asScala
@@ -119,24 +148,27 @@ object AsyncEcsServiceDiscovery {
             ecsClient,
             cluster,
             serviceName,
+            deadline,
             Some(nextPageToken),
             accumulatedTasksArns
           )
       }
     } yield taskArns
 
-  private[this] def describeTasks(ecsClient: EcsAsyncClient, cluster: String, taskArns: Seq[String])(
+  private def describeTasks(ecsClient: EcsAsyncClient, cluster: String, taskArns: Seq[String], deadline: Deadline)(
       implicit ec: ExecutionContext
   ): Future[Seq[Task]] =
-    for {
-      // Each DescribeTasksRequest can contain at most 100 task ARNs.
-      describeTasksResponses <- Future.traverse(taskArns.grouped(100))(taskArnGroup =>
-        ecsClient
-          .describeTasks(
-            DescribeTasksRequest.builder().cluster(cluster).tasks(taskArnGroup.asJava).include(TaskField.TAGS).build()
-          )
-          .asScala)
-      tasks = describeTasksResponses.flatMap(_.tasks().asScala).toList
-    } yield tasks
+    ecsClient
+      .describeTasks(
+        DescribeTasksRequest
+          .builder()
+          .cluster(cluster)
+          .tasks(taskArns.asJava)
+          .include(TaskField.TAGS)
+          .overrideConfiguration(timeLeft(deadline))
+          .build()
+      )
+      .asScala
+      .map(_.tasks().asScala.toList)
 
 }
@@ -17,7 +17,9 @@ import scala.util.Try
 import akka.actor.ActorSystem
 import akka.annotation.ApiMayChange
 import akka.discovery.ServiceDiscovery.{ Resolved, ResolvedTarget }
+import akka.discovery.awsapi.ecs.AsyncEcsServiceDiscovery.timeLeft
 import akka.discovery.awsapi.ecs.AsyncEcsTaskSetDiscovery._
+import akka.discovery.cache.LookupCaches
 import akka.discovery.{ Lookup, ServiceDiscovery }
 import akka.http.scaladsl.marshallers.sprayjson.SprayJsonSupport._
 import akka.http.scaladsl.model._
@@ -45,6 +47,9 @@ class AsyncEcsTaskSetDiscovery(system: ActorSystem) extends ServiceDiscovery {
   private val config = system.settings.config.getConfig("akka.discovery.aws-api-ecs-task-set-async")
   private val cluster = config.getString("cluster")
 
+  private val lookupCache =
+    LookupCaches(system).cacheFor("aws-api-ecs-task-set-async", config.getConfig("lookup-cache"))
+
   private lazy val ecsClient = {
     val conf = ClientOverrideConfiguration.builder().retryPolicy(RetryPolicy.none).build()
     EcsAsyncClient.builder().overrideConfiguration(conf).build()
@@ -53,28 +58,29 @@ class AsyncEcsTaskSetDiscovery(system: ActorSystem) extends ServiceDiscovery {
   private implicit val actorSystem: ActorSystem = system
   private implicit val ec: ExecutionContext = system.dispatcher
 
+  private val taskCache =
+    new EcsTaskCache(
+      (taskArns, deadline) => describeTasks(ecsClient, cluster, taskArns, deadline),
+      config.getInt("describe-tasks-parallelism"))
+
   private val httpClient: HttpExt = Http()
 
   override def lookup(lookup: Lookup, resolveTimeout: FiniteDuration): Future[Resolved] =
-    Future.firstCompletedOf(
-      Seq(
-        after(resolveTimeout, using = system.scheduler)(
-          Future.failed(new TimeoutException(s"$lookup timed out after $resolveTimeout"))
-        ),
-        resolveTasks(ecsClient, cluster, httpClient).map(tasks =>
-          Resolved(
-            serviceName = lookup.serviceName,
-            addresses = for {
-              task <- tasks
-              container <- task.containers().asScala
-              networkInterface <- container.networkInterfaces().asScala
-            } yield {
-              val address = networkInterface.privateIpv4Address()
-              ResolvedTarget(host = address, port = None, address = Try(InetAddress.getByName(address)).toOption)
-            }
-          ))
-      )
-    )
+    lookupCache.lookup(lookup, resolveTimeout)(fetchTimeout => resolve(lookup, fetchTimeout.fromNow))
+
+  private def resolve(lookup: Lookup, deadline: Deadline): Future[Resolved] =
+    resolveTasks(ecsClient, cluster, httpClient, taskCache, deadline).map(tasks =>
+      Resolved(
+        serviceName = lookup.serviceName,
+        addresses = for {
+          task <- tasks
+          container <- task.containers().asScala
+          networkInterface <- container.networkInterfaces().asScala
+        } yield {
+          val address = networkInterface.privateIpv4Address()
+          ResolvedTarget(host = address, port = None, address = Try(InetAddress.getByName(address)).toOption)
+        }
+      ))
 
 }
 
@@ -88,26 +94,31 @@ object AsyncEcsTaskSetDiscovery {
 
   private val ECS_CONTAINER_METADATA_URI_PATH = "ECS_CONTAINER_METADATA_URI"
 
-  private def resolveTasks(ecsClient: EcsAsyncClient, cluster: String, httpClient: HttpExt)(
+  private def resolveTasks(
+      ecsClient: EcsAsyncClient,
+      cluster: String,
+      httpClient: HttpExt,
+      taskCache: EcsTaskCache,
+      deadline: Deadline)(
       implicit
       ec: ExecutionContext,
       mat: Materializer
   ): Future[Seq[Task]] =
     for {
-      taskArn <- resolveTaskMetadata(httpClient).map(_.map(_.TaskARN))
+      taskArn <- resolveTaskMetadata(httpClient, deadline).map(_.map(_.TaskARN))
       taskSet <- taskArn match {
-        case Some(arn) => resolveTaskSet(ecsClient, cluster, arn)
+        case Some(arn) => resolveTaskSet(ecsClient, cluster, arn, deadline)
         case None      => Future.successful(None)
       }
       taskArns <- taskSet match {
-        case Some(ts) => listTaskArns(ecsClient, cluster, ts)
+        case Some(ts) => listTaskArns(ecsClient, cluster, ts, deadline)
         case None     => Future.successful(Seq.empty[String])
       }
-      tasks <- describeTasks(ecsClient, cluster, taskArns)
+      tasks <- taskCache.tasks(taskArns, deadline)
     } yield tasks
 
   // https://docs.aws.amazon.com/AmazonECS/latest/developerguide/task-metadata-endpoint-v3.html
-  private[this] def resolveTaskMetadata(httpClient: HttpExt)(
+  private[this] def resolveTaskMetadata(httpClient: HttpExt, deadline: Deadline)(
       implicit
       ec: ExecutionContext,
       mat: Materializer
@@ -118,9 +129,13 @@ object AsyncEcsTaskSetDiscovery {
         throw new IllegalStateException("The environment variable ECS_CONTAINER_METADATA_URI cannot be found")
     }
 
-    httpClient.singleRequest(HttpRequest(uri = s"$ecsContainerMetadataUri/task")).flatMap {
+    val timeLeft = deadline.timeLeft
+    val response = httpClient.singleRequest(HttpRequest(uri = s"$ecsContainerMetadataUri/task"))
+    val timeout = after(timeLeft)(
+      Future.failed(new TimeoutException(s"Task metadata request timed out after [$timeLeft]")))(mat.system)
+    Future.firstCompletedOf(List(response, timeout)).flatMap {
       case HttpResponse(StatusCodes.OK, _, entity, _) =>
-        val metadata = Unmarshal(entity).to[TaskMetadata].map(Option(_))
+        val metadata = entity.toStrict(deadline.timeLeft).flatMap(Unmarshal(_).to[TaskMetadata]).map(Option(_))
         metadata
       case resp @ HttpResponse(_, _, _, _) =>
         resp.discardEntityBytes()
@@ -128,12 +143,18 @@ object AsyncEcsTaskSetDiscovery {
     }
   }
 
-  private[this] def resolveTaskSet(ecsClient: EcsAsyncClient, cluster: String, taskArn: String)(
+  private[this] def resolveTaskSet(ecsClient: EcsAsyncClient, cluster: String, taskArn: String, deadline: Deadline)(
       implicit ec: ExecutionContext
   ): Future[Option[TaskSet]] =
     ecsClient
       .describeTasks(
-        DescribeTasksRequest.builder().cluster(cluster).tasks(taskArn).include(TaskField.TAGS).build()
+        DescribeTasksRequest
+          .builder()
+          .cluster(cluster)
+          .tasks(taskArn)
+          .include(TaskField.TAGS)
+          .overrideConfiguration(timeLeft(deadline))
+          .build()
       )
       .asScala
       .map(_.tasks().asScala.headOption)
@@ -143,6 +164,7 @@ object AsyncEcsTaskSetDiscovery {
       ecsClient: EcsAsyncClient,
       cluster: String,
       taskSet: TaskSet,
+      deadline: Deadline,
       pageTaken: Option[String] = None,
       accumulator: Seq[String] = Seq.empty
   )(implicit ec: ExecutionContext): Future[Seq[String]] =
@@ -155,6 +177,7 @@ object AsyncEcsTaskSetDiscovery {
             .startedBy(taskSet.value)
             .nextToken(pageTaken.orNull)
             .desiredStatus(DesiredStatus.RUNNING)
+            .overrideConfiguration(timeLeft(deadline))
             .build()
         )
         .asScala
@@ -168,24 +191,27 @@ object AsyncEcsTaskSetDiscovery {
             ecsClient,
             cluster,
             taskSet,
+            deadline,
             Some(nextPageToken),
             accumulatedTasksArns
           )
       }
     } yield taskArns
 
-  private[this] def describeTasks(ecsClient: EcsAsyncClient, cluster: String, taskArns: Seq[String])(
+  private def describeTasks(ecsClient: EcsAsyncClient, cluster: String, taskArns: Seq[String], deadline: Deadline)(
       implicit ec: ExecutionContext
   ): Future[Seq[Task]] =
-    for {
-      // Each DescribeTasksRequest can contain at most 100 task ARNs.
-      describeTasksResponses <- Future.traverse(taskArns.grouped(100))(taskArnGroup =>
-        ecsClient
-          .describeTasks(
-            DescribeTasksRequest.builder().cluster(cluster).tasks(taskArnGroup.asJava).include(TaskField.TAGS).build()
-          )
-          .asScala)
-      tasks = describeTasksResponses.flatMap(_.tasks().asScala).toList
-    } yield tasks
+    ecsClient
+      .describeTasks(
+        DescribeTasksRequest
+          .builder()
+          .cluster(cluster)
+          .tasks(taskArns.asJava)
+          .include(TaskField.TAGS)
+          .overrideConfiguration(timeLeft(deadline))
+          .build()
+      )
+      .asScala
+      .map(_.tasks().asScala.toList)
 
 }
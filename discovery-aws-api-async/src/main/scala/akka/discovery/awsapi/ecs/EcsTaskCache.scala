@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.discovery.awsapi.ecs
+
+import scala.collection.immutable.Seq
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
+import scala.concurrent.duration.Deadline
+
+import akka.annotation.InternalApi
+import akka.stream.Materializer
+import akka.stream.scaladsl.Sink
+import akka.stream.scaladsl.Source
+import software.amazon.awssdk.services.ecs.model.Task
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[ecs] object EcsTaskCache {
+
+  // Each DescribeTasksRequest can contain at most 100 task ARNs.
+  val MaxTasksPerDescribe = 100
+
+  private val Running = "RUNNING"
+}
+
+/**
+ * INTERNAL API
+ *
+ * Keeps the details of the running tasks of one lookup by ARN, so that a lookup only describes the tasks that are new
+ * since the previous lookup. Tasks that are not running yet are described again on each lookup, since their network
+ * interfaces may not be attached yet, and tasks that are no longer listed are dropped.
+ *
+ * @param describe describes at most [[EcsTaskCache.MaxTasksPerDescribe]] tasks, within the deadline of the lookup
+ * @param describeParallelism the maximum number of describe requests in flight
+ */
+@InternalApi
+private[ecs] final class EcsTaskCache(
+    describe: (Seq[String], Deadline) => Future[Seq[Task]],
+    describeParallelism: Int) {
+  import EcsTaskCache._
+
+  @volatile private var running: Map[String, Task] = Map.empty
+
+  def tasks(taskArns: Seq[String], deadline: Deadline)(
+      implicit mat: Materializer,
+      ec: ExecutionContext): Future[Seq[Task]] = {
+    val known = running
+    val unknownArns = taskArns.filterNot(known.contains)
+
+    val described =
+      if (unknownArns.isEmpty) Future.successful(Nil)
+      else
+        Source(unknownArns.grouped(MaxTasksPerDescribe).toList)
+          .mapAsyncUnordered(describeParallelism)(describe(_, deadline))
+          .runWith(Sink.fold(Vector.empty[Task])(_ ++ _))
+
+    described.map { newTasks =>
+      val newByArn = newTasks.iterator.map(task => task.taskArn() -> task).toMap
+      val current = taskArns.flatMap(arn => known.get(arn).orElse(newByArn.get(arn)))
+      running = current.iterator.filter(_.lastStatus() == Running).map(task => task.taskArn() -> task).toMap
+      current
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.discovery.awsapi.ec2
+
+import java.net.InetAddress
+import java.util.concurrent.TimeoutException
+
+import scala.concurrent.duration._
+import scala.jdk.CollectionConverters._
+
+import akka.actor.ActorSystem
+import akka.discovery.Lookup
+import akka.discovery.ServiceDiscovery.ResolvedTarget
+import akka.stream.scaladsl.Source
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+import software.amazon.awssdk.services.ec2.model.DescribeInstancesResponse
+import software.amazon.awssdk.services.ec2.model.Instance
+import software.amazon.awssdk.services.ec2.model.Reservation
+
+class AsyncEc2TagBasedServiceDiscoverySpec extends AnyWordSpec with Matchers with ScalaFutures with BeforeAndAfterAll {
+  import AsyncEc2TagBasedServiceDiscovery._
+
+  private val system = ActorSystem("AsyncEc2TagBasedServiceDiscoverySpec")
+
+  override implicit def patienceConfig: PatienceConfig = PatienceConfig(3.seconds, 50.millis)
+
+  override protected def afterAll(): Unit = system.terminate()
+
+  private def instance(ip: String) = Instance.builder().privateIpAddress(ip).build()
+
+  private def page(ips: String*) =
+    DescribeInstancesResponse
+      .builder()
+      .reservations(Reservation.builder().instances(ips.map(instance): _*).build())
+      .build()
+
+  "parseFiltersString" should {
+    "not break on an empty string" in {
+      parseFiltersString("") shouldBe empty
+    }
+
+    "parse filters separated by semicolons" in {
+      val result = parseFiltersString("tag:purpose=production;instance-type=m1.small")
+      result.map(f => f.name() -> f.values().asScala.toList) shouldBe List(
+        "tag:purpose" -> List("production"),
+        "instance-type" -> List("m1.small"))
+    }
+  }
+
+  "privateIps" should {
+    "extract the private IPs of the instances of all reservations of a page" in {
+      val page = DescribeInstancesResponse
+        .builder()
+        .reservations(
+          Reservation.builder().instances(instance("10.0.0.1"), instance("10.0.0.2")).build(),
+          Reservation.builder().instances(instance("10.0.0.3"), Instance.builder().build()).build())
+        .build()
+
+      privateIps(page) shouldBe List("10.0.0.1", "10.0.0.2", "10.0.0.3")
+    }
+  }
+
+  "resolvePages" should {
+    "collect the instances of all pages" in {
+      val discovery = new AsyncEc2TagBasedServiceDiscovery(system)
+      val pages = Source(List(page("10.0.0.1", "10.0.0.2"), page("10.0.0.3"), page()))
+      discovery.resolvePages(Lookup("service"), pages, 3.seconds).futureValue.addresses.map(_.host) shouldBe List(
+        "10.0.0.1",
+        "10.0.0.2",
+        "10.0.0.3")
+    }
+
+    "fail when the pages don't arrive within the timeout" in {
+      val discovery = new AsyncEc2TagBasedServiceDiscovery(system)
+      val pages = Source.single(page("10.0.0.1")).concat(Source.never)
+      discovery.resolvePages(Lookup("service"), pages, 100.millis).failed.futureValue shouldBe a[TimeoutException]
+    }
+  }
+
+  "targets" should {
+    "resolve one target per IP without pre-defined ports" in {
+      targets(List("10.0.0.1"), None) shouldBe List(
+        ResolvedTarget("10.0.0.1", None, Some(InetAddress.getByName("10.0.0.1"))))
+    }
+
+    "resolve one target per IP and port with pre-defined ports" in {
+      targets(List("10.0.0.1"), Some(List(8558, 8559))).map(t => t.host -> t.port) shouldBe List(
+        "10.0.0.1" -> Some(8558),
+        "10.0.0.1" -> Some(8559))
+    }
+  }
+}
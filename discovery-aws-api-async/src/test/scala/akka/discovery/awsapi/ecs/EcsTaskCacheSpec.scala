@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.discovery.awsapi.ecs
+
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicInteger
+
+import scala.collection.immutable.Seq
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
+import scala.concurrent.Promise
+import scala.concurrent.duration._
+import scala.jdk.CollectionConverters._
+
+import akka.actor.ActorSystem
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+import software.amazon.awssdk.services.ecs.model.Task
+
+class EcsTaskCacheSpec extends AnyWordSpec with Matchers with ScalaFutures with BeforeAndAfterAll {
+
+  private implicit val system: ActorSystem = ActorSystem("EcsTaskCacheSpec")
+  private implicit val ec: ExecutionContext = system.dispatcher
+
+  override protected def afterAll(): Unit =
+    system.terminate()
+
+  private def deadline = 3.seconds.fromNow
+
+  private def task(arn: String, lastStatus: String = "RUNNING"): Task =
+    Task.builder().taskArn(arn).lastStatus(lastStatus).build()
+
+  private class Fixture(parallelism: Int = 4) {
+    val described = new ConcurrentLinkedQueue[Seq[String]]()
+    @volatile var lastStatus: String => String = _ => "RUNNING"
+    val cache = new EcsTaskCache((arns, _) => {
+      described.add(arns)
+      Future.successful(arns.map(arn => task(arn, lastStatus(arn))))
+    }, parallelism)
+
+    def describedArns: List[String] = described.asScala.toList.flatten
+  }
+
+  "The EcsTaskCache" should {
+    "only describe the tasks that are new since the previous lookup" in new Fixture {
+      cache.tasks(List("a", "b"), deadline).futureValue.map(_.taskArn()) shouldBe List("a", "b")
+      cache.tasks(List("b", "c"), deadline).futureValue.map(_.taskArn()) shouldBe List("b", "c")
+      describedArns shouldBe List("a", "b", "c")
+    }
+
+    "not describe anything when no task changed" in new Fixture {
+      cache.tasks(List("a", "b"), deadline).futureValue
+      cache.tasks(List("a", "b"), deadline).futureValue.map(_.taskArn()) shouldBe List("a", "b")
+      described.size shouldBe 1
+    }
+
+    "describe tasks again that are no longer listed and then come back" in new Fixture {
+      cache.tasks(List("a"), deadline).futureValue
+      cache.tasks(Nil, deadline).futureValue shouldBe empty
+      cache.tasks(List("a"), deadline).futureValue
+      describedArns shouldBe List("a", "a")
+    }
+
+    "describe tasks again that were not running yet" in new Fixture {
+      lastStatus = _ => "PROVISIONING"
+      cache.tasks(List("a"), deadline).futureValue.map(_.lastStatus()) shouldBe List("PROVISIONING")
+      lastStatus = _ => "RUNNING"
+      cache.tasks(List("a"), deadline).futureValue.map(_.lastStatus()) shouldBe List("RUNNING")
+      cache.tasks(List("a"), deadline).futureValue
+      describedArns shouldBe List("a", "a")
+    }
+
+    "describe at most 100 tasks per request" in new Fixture {
+      val arns = (1 to 250).map(_.toString).toList
+      cache.tasks(arns, deadline).futureValue.map(_.taskArn()) shouldBe arns
+      described.asScala.toList.map(_.size).sorted shouldBe List(50, 100, 100)
+    }
+
+    "limit the number of describe requests in flight" in {
+      val inFlight = new AtomicInteger()
+      val maxInFlight = new AtomicInteger()
+      val pending = new ConcurrentLinkedQueue[Promise[Seq[Task]]]()
+      val cache = new EcsTaskCache((arns, _) => {
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), math.max)
+        val promise = Promise[Seq[Task]]()
+        pending.add(promise)
+        promise.future.map { tasks =>
+          inFlight.decrementAndGet()
+          tasks
+        }
+      }, describeParallelism = 2)
+
+      val arns = (1 to 500).map(_.toString).toList
+      val result = cache.tasks(arns, deadline)
+      while (!result.isCompleted) {
+        val promise = pending.poll()
+        if (promise ne null) promise.success(Nil) else Thread.sleep(10)
+      }
+      maxInFlight.get shouldBe 2
+    }
+  }
+}
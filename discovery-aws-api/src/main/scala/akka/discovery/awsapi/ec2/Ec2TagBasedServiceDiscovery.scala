@@ -5,15 +5,14 @@
 package akka.discovery.awsapi.ec2
 
 import java.net.InetAddress
-import java.util.concurrent.TimeoutException
 
 import akka.actor.ExtendedActorSystem
 import akka.annotation.InternalApi
 import akka.discovery.ServiceDiscovery.{ Resolved, ResolvedTarget }
 import akka.discovery.awsapi.ec2.Ec2TagBasedServiceDiscovery._
+import akka.discovery.cache.LookupCaches
 import akka.discovery.{ Lookup, ServiceDiscovery }
 import akka.event.Logging
-import akka.pattern.after
 import com.amazonaws.ClientConfiguration
 import com.amazonaws.client.builder.AwsClientBuilder.EndpointConfiguration
 import com.amazonaws.retry.PredefinedRetryPolicies
@@ -21,6 +20,8 @@ import com.amazonaws.services.ec2.model.{ DescribeInstancesRequest, Filter, Rese
 import com.amazonaws.services.ec2.{ AmazonEC2, AmazonEC2ClientBuilder }
 import scala.annotation.tailrec
 import scala.collection.immutable.Seq
+import scala.concurrent.duration.Deadline
+import scala.concurrent.duration.Duration
 import scala.concurrent.duration.FiniteDuration
 import scala.concurrent.{ ExecutionContext, Future }
 import scala.jdk.CollectionConverters._
@@ -68,6 +69,8 @@ final class Ec2TagBasedServiceDiscovery(system: ExtendedActorSystem) extends Ser
       case list => Some(list) // Akka Management ports
     }
 
+  private val lookupCache = LookupCaches(system).cacheFor("aws-api-ec2-tag-based", config.getConfig("lookup-cache"))
+
   private val runningInstancesFilter = new Filter("instance-state-name", List("running").asJava)
 
   private val defaultClientConfiguration = {
@@ -121,12 +124,18 @@ final class Ec2TagBasedServiceDiscovery(system: ExtendedActorSystem) extends Ser
       client: AmazonEC2,
       filters: List[Filter],
       nextToken: Option[String],
+      deadline: Option[Deadline],
       accumulator: List[String] = Nil
   ): List[String] = {
 
     val describeInstancesRequest = new DescribeInstancesRequest()
       .withFilters(filters.asJava) // withFilters is a set operation (i.e. calls setFilters, be careful with chaining)
       .withNextToken(nextToken.orNull)
+    // the pages of one lookup are limited together by its deadline, the client stops a request that runs out of it
+    deadline.foreach { d =>
+      describeInstancesRequest.setSdkClientExecutionTimeout(
+        math.min(math.max(1L, d.timeLeft.toMillis), Int.MaxValue.toLong).toInt)
+    }
 
     val describeInstancesResult = client.describeInstances(describeInstancesRequest)
 
@@ -143,29 +152,28 @@ final class Ec2TagBasedServiceDiscovery(system: ExtendedActorSystem) extends Ser
       case nextPageToken @ Some(_) =>
         // more result items available
         log.debug("aws api returned paginated result, fetching next page!")
-        getInstances(client, filters, nextPageToken, accumulatedIps)
+        getInstances(client, filters, nextPageToken, deadline, accumulatedIps)
     }
 
   }
 
   override def lookup(query: Lookup, resolveTimeout: FiniteDuration): Future[Resolved] =
-    Future.firstCompletedOf(
-      Seq(
-        after(resolveTimeout, using = system.scheduler)(
-          Future.failed(new TimeoutException(s"Lookup for [$query] timed-out, within [$resolveTimeout]!"))
-        ),
-        lookup(query)
-      )
-    )
+    lookupCache.lookup(query, resolveTimeout)(fetchTimeout => resolve(query, fetchTimeout))(system)
 
-  def lookup(query: Lookup): Future[Resolved] = {
+  def lookup(query: Lookup): Future[Resolved] = resolve(query, Duration.Inf)
+
+  private def resolve(query: Lookup, fetchTimeout: Duration): Future[Resolved] = {
 
     val tagFilter = new Filter("tag:" + tagKey, List(query.serviceName).asJava)
 
     val allFilters: List[Filter] = runningInstancesFilter :: tagFilter :: otherFilters
 
     Future {
-      getInstances(ec2Client, allFilters, None).flatMap((ip: String) =>
+      val deadline = fetchTimeout match {
+        case timeout: FiniteDuration => Some(timeout.fromNow)
+        case _                       => None
+      }
+      getInstances(ec2Client, allFilters, None, deadline).flatMap((ip: String) =>
         preDefinedPorts match {
           case None =>
             ResolvedTarget(host = ip, port = None, address = Try(InetAddress.getByName(ip)).toOption) :: Nil
@@ -5,13 +5,12 @@
 package akka.discovery.awsapi.ecs
 
 import java.net.{ InetAddress, NetworkInterface }
-import java.util.concurrent.TimeoutException
 
 import akka.actor.ActorSystem
 import akka.discovery.ServiceDiscovery.{ Resolved, ResolvedTarget }
 import akka.discovery.{ Lookup, ServiceDiscovery }
 import akka.discovery.awsapi.ecs.EcsServiceDiscovery._
-import akka.pattern.after
+import akka.discovery.cache.LookupCaches
 import com.amazonaws.ClientConfiguration
 import com.amazonaws.client.builder.AwsClientBuilder.EndpointConfiguration
 import com.amazonaws.retry.PredefinedRetryPolicies
@@ -29,6 +28,8 @@ final class EcsServiceDiscovery(system: ActorSystem) extends ServiceDiscovery {
   private[this] val config = system.settings.config.getConfig("akka.discovery.aws-api-ecs")
   private[this] val cluster = config.getString("cluster")
 
+  private[this] val lookupCache = LookupCaches(system).cacheFor("aws-api-ecs", config.getConfig("lookup-cache"))
+
   private[this] lazy val ecsClient = {
     // we have our own retry/backoff mechanism, so we don't need EC2Client's in addition
     val clientConfiguration = new ClientConfiguration()
@@ -47,26 +48,23 @@ final class EcsServiceDiscovery(system: ActorSystem) extends ServiceDiscovery {
   private[this] implicit val ec: ExecutionContext = system.dispatcher
 
   override def lookup(query: Lookup, resolveTimeout: FiniteDuration): Future[Resolved] =
-    Future.firstCompletedOf(
-      Seq(
-        after(resolveTimeout, using = system.scheduler)(
-          Future.failed(new TimeoutException("Future timed out!"))
-        ),
-        Future {
-          Resolved(
-            serviceName = query.serviceName,
-            addresses = for {
-              task <- resolveTasks(ecsClient, cluster, query.serviceName)
-              container <- task.getContainers.asScala
-              networkInterface <- container.getNetworkInterfaces.asScala
-            } yield {
-              val address = networkInterface.getPrivateIpv4Address
-              ResolvedTarget(host = address, port = None, address = Try(InetAddress.getByName(address)).toOption)
-            }
-          )
+    lookupCache.lookup(query, resolveTimeout)(fetchTimeout => resolve(query, fetchTimeout))(system)
+
+  private[this] def resolve(query: Lookup, fetchTimeout: FiniteDuration): Future[Resolved] =
+    Future {
+      val deadline = fetchTimeout.fromNow
+      Resolved(
+        serviceName = query.serviceName,
+        addresses = for {
+          task <- resolveTasks(ecsClient, cluster, query.serviceName, deadline)
+          container <- task.getContainers.asScala
+          networkInterface <- container.getNetworkInterfaces.asScala
+        } yield {
+          val address = networkInterface.getPrivateIpv4Address
+          ResolvedTarget(host = address, port = None, address = Try(InetAddress.getByName(address)).toOption)
         }
       )
-    )
+    }
 
 }
 
@@ -93,9 +91,17 @@ object EcsServiceDiscovery {
         Left(s"Exactly one private address must be configured (found: $other).")
     }
 
-  private def resolveTasks(ecsClient: AmazonECS, cluster: String, serviceName: String): Seq[Task] = {
-    val taskArns = listTaskArns(ecsClient, cluster, serviceName)
-    val tasks = describeTasks(ecsClient, cluster, taskArns)
+  // the requests of one lookup are limited together by its deadline, the client stops a request that runs out of it
+  private def timeLeftMillis(deadline: Deadline): Int =
+    math.min(math.max(1L, deadline.timeLeft.toMillis), Int.MaxValue.toLong).toInt
+
+  private def resolveTasks(
+      ecsClient: AmazonECS,
+      cluster: String,
+      serviceName: String,
+      deadline: Deadline): Seq[Task] = {
+    val taskArns = listTaskArns(ecsClient, cluster, serviceName, deadline)
+    val tasks = describeTasks(ecsClient, cluster, taskArns, deadline)
     tasks
   }
 
@@ -103,6 +109,7 @@ object EcsServiceDiscovery {
       ecsClient: AmazonECS,
       cluster: String,
       serviceName: String,
+      deadline: Deadline,
       pageTaken: Option[String] = None,
       accumulator: Seq[String] = Seq.empty): Seq[String] = {
     val listTasksResult = ecsClient.listTasks(
@@ -111,6 +118,7 @@ object EcsServiceDiscovery {
         .withServiceName(serviceName)
         .withNextToken(pageTaken.orNull)
         .withDesiredStatus(DesiredStatus.RUNNING)
+        .withSdkClientExecutionTimeout(timeLeftMillis(deadline))
     )
     val accumulatedTasksArns = accumulator ++ listTasksResult.getTaskArns.asScala
     listTasksResult.getNextToken match {
@@ -122,18 +130,26 @@ object EcsServiceDiscovery {
           ecsClient,
           cluster,
           serviceName,
+          deadline,
           Some(nextPageToken),
           accumulatedTasksArns
         )
     }
   }
 
-  private[this] def describeTasks(ecsClient: AmazonECS, cluster: String, taskArns: Seq[String]): Seq[Task] =
+  private[this] def describeTasks(
+      ecsClient: AmazonECS,
+      cluster: String,
+      taskArns: Seq[String],
+      deadline: Deadline): Seq[Task] =
     for {
       // Each DescribeTasksRequest can contain at most 100 task ARNs.
       group <- taskArns.grouped(100).toList
       tasks = ecsClient.describeTasks(
-        new DescribeTasksRequest().withCluster(cluster).withTasks(group.asJava)
+        new DescribeTasksRequest()
+          .withCluster(cluster)
+          .withTasks(group.asJava)
+          .withSdkClientExecutionTimeout(timeLeftMillis(deadline))
       )
       task <- tasks.getTasks.asScala
     } yield task
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.discovery.azureapi.rbac.aks
+
+import java.time.Instant
+import java.util.concurrent.atomic.AtomicReference
+
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
+import scala.concurrent.Promise
+import scala.concurrent.duration._
+import scala.util.Failure
+import scala.util.Success
+import scala.util.control.NonFatal
+
+import akka.annotation.InternalApi
+import akka.event.LoggingAdapter
+import com.azure.core.credential.AccessToken
+
+/**
+ * INTERNAL API
+ *
+ * Caches an access token until `refreshBeforeExpiry` before it expires, or until half its lifetime has passed for a
+ * token that lives shorter than twice that. The token is refreshed in the background at that point, and lookups keep
+ * using the cached token until it has actually expired. Only one refresh is in flight at
+ * any time, concurrent callers share it. When a refresh fails it is retried after a backoff that doubles with each
+ * failure, and until then callers without a valid token get the failure instead of a new request.
+ *
+ * @param fetch requests a new token from the identity endpoint
+ * @param minBackoff the delay before retrying after the first failed refresh
+ * @param maxBackoff the max delay before retrying after repeated failed refreshes
+ * @param scheduleOnce runs the given task after the given delay
+ * @param now the current time
+ */
+@InternalApi
+private[aks] final class AccessTokenCache(
+    fetch: () => Future[AccessToken],
+    refreshBeforeExpiry: FiniteDuration,
+    minBackoff: FiniteDuration,
+    maxBackoff: FiniteDuration,
+    scheduleOnce: (FiniteDuration, () => Unit) => Unit,
+    log: LoggingAdapter,
+    now: () => Instant = () => Instant.now())(implicit ec: ExecutionContext) {
+
+  private val token = new AtomicReference[Cached]()
+  private val refreshing = new AtomicReference[Future[AccessToken]]()
+  // the failed refreshes since the last successful one, null when the last refresh succeeded
+  private val backoff = new AtomicReference[Backoff]()
+
+  private final class Cached(val token: AccessToken, val refreshAt: Instant)
+
+  private final class Backoff(val failures: Int, val retryAt: Instant, val failure: Throwable)
+
+  def get(): Future[AccessToken] = {
+    val current = token.get()
+    val failed = backoff.get()
+    val backingOff = (failed ne null) && now().isBefore(failed.retryAt)
+    if ((current ne null) && now().isBefore(expiresAt(current.token))) {
+      // while backing off, the scheduled retry refreshes the token
+      if (!now().isBefore(current.refreshAt) && !backingOff) refresh()
+      Future.successful(current.token)
+    } else if (backingOff) Future.failed(failed.failure)
+    else refresh()
+  }
+
+  private def refresh(): Future[AccessToken] = {
+    val inFlight = refreshing.get()
+    if (inFlight ne null) inFlight
+    else {
+      val promise = Promise[AccessToken]()
+      if (refreshing.compareAndSet(null, promise.future)) {
+        val fetched =
+          try fetch()
+          catch {
+            case NonFatal(e) => Future.failed(e)
+          }
+        fetched.onComplete { result =>
+          result match {
+            case Success(t) =>
+              val cached = new Cached(t, refreshAt(t))
+              token.set(cached)
+              backoff.set(null)
+              scheduleRefresh(cached)
+            case Failure(ex) =>
+              scheduleRetry(ex)
+          }
+          refreshing.set(null)
+          promise.complete(result)
+        }
+        promise.future
+      } else refresh()
+    }
+  }
+
+  private def scheduleRefresh(cached: Cached): Unit = {
+    val delay = (cached.refreshAt.toEpochMilli - now().toEpochMilli).millis
+    if (delay > Duration.Zero) {
+      log.debug("Access token expires at [{}], refreshing in [{}]", cached.token.getExpiresAt, delay)
+      scheduleOnce(delay, () => if (token.get() eq cached) refresh())
+    }
+  }
+
+  private def scheduleRetry(ex: Throwable): Unit = {
+    val previous = backoff.get()
+    val failures = if (previous eq null) 1 else previous.failures + 1
+    val delay = backoffDelay(failures)
+    val failed = new Backoff(failures, now().plusMillis(delay.toMillis), ex)
+    backoff.set(failed)
+    log.warning("Failed to refresh access token, retrying in [{}]: {}", delay, ex.getMessage)
+    scheduleOnce(delay, () => if (backoff.get() eq failed) refresh())
+  }
+
+  private def backoffDelay(failures: Int): FiniteDuration = {
+    val millis = minBackoff.toMillis * math.pow(2, math.min(failures - 1, 30))
+    math.min(millis, maxBackoff.toMillis.toDouble).toLong.millis
+  }
+
+  private def expiresAt(t: AccessToken): Instant =
+    t.getExpiresAt.toInstant
+
+  // a token that lives shorter than twice refreshBeforeExpiry is refreshed after half its lifetime, rather than
+  // right away on every lookup
+  private def refreshAt(t: AccessToken): Instant = {
+    val lifetime = math.max(expiresAt(t).toEpochMilli - now().toEpochMilli, 0L)
+    expiresAt(t).minusMillis(math.min(refreshBeforeExpiry.toMillis, lifetime / 2))
+  }
+}
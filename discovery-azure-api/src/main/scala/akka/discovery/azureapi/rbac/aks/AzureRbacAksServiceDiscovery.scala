@@ -9,6 +9,7 @@ import akka.annotation.InternalApi
 import akka.discovery.ServiceDiscovery.{ Resolved, ResolvedTarget }
 import akka.discovery.azureapi.rbac.aks.AzureRbacAksServiceDiscovery._
 import akka.discovery.azureapi.rbac.aks.JsonFormat._
+import akka.discovery.cache.LookupCaches
 import akka.discovery.{ Lookup, ServiceDiscovery }
 import akka.dispatch.Dispatchers.DefaultBlockingDispatcherId
 import akka.event.Logging
@@ -16,14 +17,12 @@ import akka.http.scaladsl.model._
 import akka.http.scaladsl.model.headers.{ Authorization, OAuth2BearerToken }
 import akka.http.scaladsl.unmarshalling.Unmarshal
 import akka.http.scaladsl.{ ConnectionContext, Http, HttpsConnectionContext }
-import akka.pki.kubernetes.PemManagersProvider
+import akka.pki.kubernetes.TlsContexts
 import com.azure.core.credential.{ AccessToken, TokenRequestContext }
 import com.azure.identity.{ DefaultAzureCredential, DefaultAzureCredentialBuilder }
 
 import java.net.InetAddress
 import java.nio.file.{ Files, Paths }
-import java.security.{ KeyStore, SecureRandom }
-import javax.net.ssl.{ KeyManager, KeyManagerFactory, SSLContext, TrustManager }
 import scala.collection.immutable
 import scala.concurrent.duration.FiniteDuration
 import scala.concurrent.{ ExecutionContext, Future }
@@ -38,12 +37,6 @@ import scala.util.control.{ NoStackTrace, NonFatal }
  */
 @InternalApi
 object AzureRbacAksServiceDiscovery {
-  private def azureDefaultCredential: DefaultAzureCredential =
-    new DefaultAzureCredentialBuilder().build()
-
-  private val accessTokenRequestContext: TokenRequestContext =
-    new TokenRequestContext()
-
   private[aks] def targets(
       podList: PodList,
       portName: Option[String],
@@ -101,7 +94,11 @@ object AzureRbacAksServiceDiscovery {
 final class AzureRbacAksServiceDiscovery(implicit system: ExtendedActorSystem) extends ServiceDiscovery {
   private val http = Http()
 
-  private val settings = Settings(system.settings.config.getConfig("akka.discovery.azure-rbac-aks-api"))
+  private val config = system.settings.config.getConfig("akka.discovery.azure-rbac-aks-api")
+
+  private val settings = Settings(config)
+
+  private val lookupCache = LookupCaches(system).cacheFor("azure-rbac-aks-api", config.getConfig("lookup-cache"))
 
   private val log = Logging(system, classOf[AzureRbacAksServiceDiscovery])
 
@@ -123,9 +120,24 @@ final class AzureRbacAksServiceDiscovery(implicit system: ExtendedActorSystem) e
 
   import system.dispatcher
 
+  private lazy val azureDefaultCredential: DefaultAzureCredential =
+    new DefaultAzureCredentialBuilder().build()
+
+  private val accessTokenRequestContext: TokenRequestContext =
+    new TokenRequestContext().addScopes(settings.entraServerId)
+
+  private val accessTokenCache =
+    new AccessTokenCache(
+      () => fetchAccessToken,
+      settings.accessTokenRefreshBeforeExpiry,
+      settings.accessTokenRetryMinBackoff,
+      settings.accessTokenRetryMaxBackoff,
+      (delay, task) => system.scheduler.scheduleOnce(delay)(task()),
+      log)
+
   private def fetchAccessToken: Future[AccessToken] =
     azureDefaultCredential
-      .getToken(accessTokenRequestContext.addScopes(settings.entraServerId))
+      .getToken(accessTokenRequestContext)
       .onErrorMap { error =>
         log.error("[{}]", error)
         new AzureIdentityException(
@@ -179,14 +191,18 @@ final class AzureRbacAksServiceDiscovery(implicit system: ExtendedActorSystem) e
     } yield pods
   }
 
-  override def lookup(lookup: Lookup, resolveTimeout: FiniteDuration): Future[ServiceDiscovery.Resolved] = {
+  override def lookup(lookup: Lookup, resolveTimeout: FiniteDuration): Future[ServiceDiscovery.Resolved] =
+    // the timeout of the request is the fetch timeout of the cache when the request is shared with other lookups
+    lookupCache.lookup(lookup, resolveTimeout)(fetchTimeout => resolve(lookup, fetchTimeout))
+
+  private def resolve(lookup: Lookup, fetchTimeout: FiniteDuration): Future[ServiceDiscovery.Resolved] = {
     val selector = settings.podLabelSelector.format(lookup.serviceName)
 
     for {
       ks <- kubernetesSetup
-      token <- fetchAccessToken.map(_.getToken)
+      token <- accessTokenCache.get().map(_.getToken)
       request <- podRequest(token, ks.namespace, selector)
-      pods <- pods(ks.ctx, request, resolveTimeout)
+      pods <- pods(ks.ctx, request, fetchTimeout)
     } yield {
       val addresses =
         targets(pods, lookup.portName, ks.namespace, settings.podDomain, settings.rawIp, settings.containerName)
@@ -218,20 +234,8 @@ final class AzureRbacAksServiceDiscovery(implicit system: ExtendedActorSystem) e
   /**
    * This uses blocking IO, and so should only be used at startup from blocking dispatcher.
    */
-  private def clientHttpsConnectionContext(): HttpsConnectionContext = {
-    val certificates = PemManagersProvider.loadCertificates(settings.apiCaPath)
-    val factory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm)
-    val keyStore = KeyStore.getInstance("PKCS12")
-    keyStore.load(null)
-    factory.init(keyStore, Array.empty)
-    val km: Array[KeyManager] = factory.getKeyManagers
-    val tm: Array[TrustManager] =
-      PemManagersProvider.buildTrustManagers(certificates)
-    val random: SecureRandom = new SecureRandom
-    val sslContext = SSLContext.getInstance("TLSv1.2")
-    sslContext.init(km, tm, random)
-    ConnectionContext.httpsClient(sslContext)
-  }
+  private def clientHttpsConnectionContext(): HttpsConnectionContext =
+    ConnectionContext.httpsClient(TlsContexts(system).clientSslContext(settings.apiCaPath))
 
   /**
    * This uses blocking IO, and so should only be used to read configuration at startup from blocking dispatcher.
@@ -7,6 +7,9 @@ package akka.discovery.azureapi.rbac.aks
 import akka.annotation.InternalApi
 import com.typesafe.config.Config
 
+import scala.concurrent.duration.FiniteDuration
+import scala.jdk.DurationConverters._
+
 /**
  * INTERNAL API
  */
@@ -17,6 +20,9 @@ final case class Settings(
     federatedTokenPath: String,
     tenantId: String,
     entraServerId: String,
+    accessTokenRefreshBeforeExpiry: FiniteDuration,
+    accessTokenRetryMinBackoff: FiniteDuration,
+    accessTokenRetryMaxBackoff: FiniteDuration,
     apiCaPath: String,
     apiTokenPath: String,
     apiServiceHost: String,
@@ -50,6 +56,9 @@ object Settings {
     federatedTokenPath = config.getString("federated-token-file"),
     tenantId = config.getString("tenant-id"),
     entraServerId = config.getString("entra-server-id"),
+    accessTokenRefreshBeforeExpiry = config.getDuration("access-token-refresh-before-expiry").toScala,
+    accessTokenRetryMinBackoff = config.getDuration("access-token-retry-min-backoff").toScala,
+    accessTokenRetryMaxBackoff = config.getDuration("access-token-retry-max-backoff").toScala,
     apiCaPath = config.getString("api-ca-path"),
     apiTokenPath = config.getString("api-token-path"),
     apiServiceHost = config.getString("api-service-host"),
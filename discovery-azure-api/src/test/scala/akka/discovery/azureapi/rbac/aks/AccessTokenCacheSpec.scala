@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.discovery.azureapi.rbac.aks
+
+import java.time.Instant
+import java.time.OffsetDateTime
+import java.time.ZoneOffset
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicReference
+
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
+import scala.concurrent.Promise
+import scala.concurrent.duration._
+
+import akka.event.NoLogging
+import com.azure.core.credential.AccessToken
+import org.scalatest.concurrent.Eventually
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class AccessTokenCacheSpec extends AnyWordSpec with Matchers with ScalaFutures with Eventually {
+
+  private implicit val ec: ExecutionContext = ExecutionContext.global
+
+  private val start = Instant.parse("2025-01-01T00:00:00Z")
+
+  private def accessToken(value: String, expiresAt: Instant): AccessToken =
+    new AccessToken(value, OffsetDateTime.ofInstant(expiresAt, ZoneOffset.UTC))
+
+  /** A stub credential that hands out the tokens in order, each valid for one hour from the current time. */
+  private class StubCredential {
+    val now = new AtomicReference[Instant](start)
+    val fetches = new AtomicInteger()
+    val scheduled = new ConcurrentLinkedQueue[(FiniteDuration, () => Unit)]()
+    @volatile var next: () => Future[AccessToken] = () => {
+      val n = fetches.get
+      Future.successful(accessToken(s"token-$n", now.get.plusSeconds(3600)))
+    }
+
+    val cache =
+      new AccessTokenCache(
+        () => {
+          fetches.incrementAndGet()
+          next()
+        },
+        5.minutes,
+        1.second,
+        1.minute,
+        (delay, task) => scheduled.add(delay -> task),
+        NoLogging,
+        () => now.get)
+
+    def advance(duration: FiniteDuration): Unit =
+      now.set(now.get.plusMillis(duration.toMillis))
+  }
+
+  "The AccessTokenCache" should {
+    "fetch the token once and serve it from the cache" in new StubCredential {
+      cache.get().futureValue.getToken shouldBe "token-1"
+      advance(30.minutes)
+      cache.get().futureValue.getToken shouldBe "token-1"
+      fetches.get shouldBe 1
+    }
+
+    "share one fetch between concurrent callers" in new StubCredential {
+      val promise = Promise[AccessToken]()
+      next = () => promise.future
+      val callers = (1 to 10).map(_ => cache.get())
+      fetches.get shouldBe 1
+
+      promise.success(accessToken("shared", start.plusSeconds(3600)))
+      callers.map(_.futureValue.getToken).toSet shouldBe Set("shared")
+    }
+
+    "refresh the token in the background before it expires" in new StubCredential {
+      cache.get().futureValue.getToken shouldBe "token-1"
+      advance(56.minutes)
+
+      val refresh = Promise[AccessToken]()
+      next = () => refresh.future
+      // the still valid token is served while refreshing
+      cache.get().futureValue.getToken shouldBe "token-1"
+      cache.get().futureValue.getToken shouldBe "token-1"
+      fetches.get shouldBe 2
+
+      refresh.success(accessToken("token-2", now.get.plusSeconds(3600)))
+      eventually {
+        cache.get().futureValue.getToken shouldBe "token-2"
+      }
+      fetches.get shouldBe 2
+    }
+
+    "fetch a new token when the cached one has expired" in new StubCredential {
+      cache.get().futureValue.getToken shouldBe "token-1"
+      advance(61.minutes)
+      cache.get().futureValue.getToken shouldBe "token-2"
+    }
+
+    "keep the valid token when a background refresh fails" in new StubCredential {
+      cache.get().futureValue.getToken shouldBe "token-1"
+      advance(56.minutes)
+      next = () => Future.failed(new RuntimeException("identity endpoint unavailable"))
+      cache.get().futureValue.getToken shouldBe "token-1"
+      eventually {
+        cache.get().futureValue.getToken shouldBe "token-1"
+        fetches.get should be >= 2
+      }
+    }
+
+    "fail when fetching the first token fails, and fetch again after the backoff" in new StubCredential {
+      next = () => Future.failed(new RuntimeException("identity endpoint unavailable"))
+      cache.get().failed.futureValue.getMessage shouldBe "identity endpoint unavailable"
+      eventually {
+        scheduled.size shouldBe 1
+      }
+      // within the backoff the failure is returned without a new request
+      cache.get().failed.futureValue.getMessage shouldBe "identity endpoint unavailable"
+      fetches.get shouldBe 1
+
+      next = () => Future.successful(accessToken("token", now.get.plusSeconds(3600)))
+      advance(1.second)
+      cache.get().futureValue.getToken shouldBe "token"
+      fetches.get shouldBe 2
+    }
+
+    "double the backoff with each failed refresh, up to the max backoff" in new StubCredential {
+      next = () => Future.failed(new RuntimeException("identity endpoint unavailable"))
+      val delays = (1 to 8).map { n =>
+        cache.get().failed.futureValue
+        eventually {
+          scheduled.size shouldBe 1
+        }
+        val (delay, _) = scheduled.poll()
+        advance(delay)
+        fetches.get shouldBe n
+        delay
+      }
+      delays shouldBe List(1, 2, 4, 8, 16, 32, 60, 60).map(_.seconds)
+    }
+
+    "retry a failed background refresh after the backoff" in new StubCredential {
+      cache.get().futureValue.getToken shouldBe "token-1"
+      scheduled.clear()
+      advance(56.minutes)
+      next = () => Future.failed(new RuntimeException("identity endpoint unavailable"))
+      cache.get().futureValue.getToken shouldBe "token-1"
+      eventually {
+        scheduled.size shouldBe 1
+      }
+      // the valid token is served without refreshing again within the backoff
+      cache.get().futureValue.getToken shouldBe "token-1"
+      fetches.get shouldBe 2
+
+      val (delay, retry) = scheduled.poll()
+      delay shouldBe 1.second
+      next = () => Future.successful(accessToken("token-2", now.get.plusSeconds(3600)))
+      advance(delay)
+      retry()
+      eventually {
+        cache.get().futureValue.getToken shouldBe "token-2"
+      }
+      fetches.get shouldBe 3
+    }
+
+    "refresh a token that lives shorter than the refresh margin after half its lifetime" in new StubCredential {
+      next = () => Future.successful(accessToken(s"token-${fetches.get}", now.get.plusSeconds(240)))
+      cache.get().futureValue.getToken shouldBe "token-1"
+      val (delay, task) = scheduled.poll()
+      delay shouldBe 2.minutes
+
+      // lookups before the refresh point are served from the cache
+      advance(1.minute)
+      (1 to 10).foreach(_ => cache.get().futureValue.getToken shouldBe "token-1")
+      fetches.get shouldBe 1
+
+      advance(1.minute)
+      task()
+      eventually {
+        fetches.get shouldBe 2
+        cache.get().futureValue.getToken shouldBe "token-2"
+      }
+      fetches.get shouldBe 2
+    }
+
+    "schedule a refresh before the token expires" in new StubCredential {
+      cache.get().futureValue.getToken shouldBe "token-1"
+      val (delay, task) = scheduled.poll()
+      delay shouldBe 55.minutes
+
+      advance(delay)
+      task()
+      eventually {
+        fetches.get shouldBe 2
+        cache.get().futureValue.getToken shouldBe "token-2"
+      }
+      // and the refreshed token schedules the next refresh
+      eventually {
+        scheduled.size shouldBe 1
+      }
+    }
+  }
+}
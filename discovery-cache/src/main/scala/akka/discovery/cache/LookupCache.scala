@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.discovery.cache
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeoutException
+
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
+import scala.concurrent.Promise
+import scala.concurrent.duration.FiniteDuration
+import scala.util.Failure
+import scala.util.Success
+import scala.util.Try
+import scala.util.control.NonFatal
+
+import akka.actor.ClassicActorSystemProvider
+import akka.annotation.InternalApi
+import akka.discovery.Lookup
+import akka.discovery.ServiceDiscovery.Resolved
+import akka.management.metrics.Counter
+import akka.management.metrics.Histogram
+import akka.management.metrics.ManagementMetrics
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] object LookupCache {
+
+  private sealed trait Entry
+
+  // entries are compared by identity when replaced, so these are deliberately not case classes
+  private final class InFlight(val result: Future[Resolved]) extends Entry
+
+  private final class Cached(val result: Try[Resolved], val completedAt: Long, val refreshing: Boolean) extends Entry
+
+  private def fetchSafely(fetch: () => Future[Resolved]): Future[Resolved] =
+    try fetch()
+    catch {
+      case NonFatal(e) => Future.failed(e)
+    }
+
+  private val ResolvedTargetsBuckets: List[Double] = List(0, 1, 2, 3, 5, 10, 20, 50, 100, 200, 500)
+
+  /**
+   * The metrics of the lookups of one discovery method.
+   */
+  final class Metrics(
+      val hits: Counter,
+      val misses: Counter,
+      val coalesced: Counter,
+      val failures: Counter,
+      val fetchDuration: Histogram,
+      val resolvedTargets: Histogram)
+
+  object Metrics {
+    def apply(metrics: ManagementMetrics, method: String): Metrics = {
+      def lookups(result: String) =
+        metrics.counter(
+          "akka_discovery_lookups",
+          "Lookups of a discovery method by whether they were answered from the cache",
+          "method" -> method,
+          "result" -> result)
+      new Metrics(
+        hits = lookups("hit"),
+        misses = lookups("miss"),
+        coalesced = lookups("coalesced"),
+        failures = metrics.counter(
+          "akka_discovery_lookup_failures",
+          "Failed lookups of a discovery method by its backend",
+          "method" -> method),
+        fetchDuration = metrics.durationHistogram(
+          "akka_discovery_lookup_duration_seconds",
+          "Duration of the lookups of a discovery method by its backend",
+          "method" -> method),
+        resolvedTargets = metrics.histogram(
+          "akka_discovery_lookup_resolved_targets",
+          "Number of targets resolved by the lookups of a discovery method by its backend",
+          ResolvedTargetsBuckets,
+          "method" -> method))
+    }
+
+    /** Metrics that are not served, for a cache that isn't created by [[LookupCaches]]. */
+    def unregistered(): Metrics =
+      new Metrics(
+        new Counter,
+        new Counter,
+        new Counter,
+        new Counter,
+        new Histogram(ManagementMetrics.DurationBuckets),
+        new Histogram(ResolvedTargetsBuckets))
+  }
+}
+
+/**
+ * INTERNAL API
+ *
+ * Caches the results of the lookups of one discovery method, keyed by the [[Lookup]].
+ *
+ * Concurrent lookups of the same [[Lookup]] share a single in-flight request to the backend. A successful result is
+ * served for the ttl, and after that for the stale-while-revalidate window while a single background refresh
+ * replaces it. A failed result is served for the negative ttl. Since results are shared, the request to the backend
+ * is limited by the configured fetch timeout, and the resolve timeout of each caller is applied to its own lookup,
+ * see `lookup(query, resolveTimeout)`.
+ *
+ * @param clock current time in nanoseconds
+ */
+@InternalApi
+private[akka] final class LookupCache(
+    val settings: LookupCacheSettings,
+    clock: () => Long,
+    metrics: LookupCache.Metrics) {
+  import LookupCache._
+
+  def this(settings: LookupCacheSettings, clock: () => Long) = this(settings, clock, LookupCache.Metrics.unregistered())
+
+  def this(settings: LookupCacheSettings) = this(settings, () => System.nanoTime())
+
+  private val ttlNanos = settings.ttl.toNanos
+  private val staleNanos = ttlNanos + settings.staleWhileRevalidate.toNanos
+  private val negativeTtlNanos = settings.negativeTtl.toNanos
+
+  private val entries = new ConcurrentHashMap[Lookup, Entry]()
+
+  import metrics.{ coalesced, hits, misses }
+
+  def stats: LookupCacheStats = LookupCacheStats(hits.count, misses.count, coalesced.count)
+
+  /**
+   * Answers the lookup from the cache, or with `fetch` when there is no usable cached result. `fetch` must not be
+   * limited by the timeout of one particular caller, since its result may be shared with other callers, but it must
+   * complete by itself, as later lookups of the same query wait for it while it is in flight.
+   */
+  def lookup(query: Lookup)(fetch: () => Future[Resolved]): Future[Resolved] =
+    if (!settings.enabled) fetchMeasured(fetch)
+    else {
+      val now = clock()
+      entries.get(query) match {
+        case inFlight: InFlight =>
+          coalesced.increment()
+          inFlight.result
+
+        case cached: Cached if cached.result.isSuccess && now - cached.completedAt < staleNanos =>
+          hits.increment()
+          if (now - cached.completedAt >= ttlNanos && !cached.refreshing)
+            revalidate(query, cached, fetch)
+          Future.fromTry(cached.result)
+
+        case cached: Cached if cached.result.isFailure && now - cached.completedAt < negativeTtlNanos =>
+          hits.increment()
+          Future.fromTry(cached.result)
+
+        case expired =>
+          val promise = Promise[Resolved]()
+          val inFlight = new InFlight(promise.future)
+          val installed =
+            if (expired eq null) {
+              if (entries.size >= settings.maxEntries) evictExpired(now)
+              entries.size < settings.maxEntries && (entries.putIfAbsent(query, inFlight) eq null)
+            } else entries.replace(query, expired, inFlight)
+
+          if (installed) {
+            misses.increment()
+            fetchMeasured(fetch).onComplete { result =>
+              // update the entry before completing, so that a lookup right after completion doesn't fetch again
+              if (result.isFailure && negativeTtlNanos == 0L) entries.remove(query, inFlight)
+              else entries.replace(query, inFlight, new Cached(result, clock(), refreshing = false))
+              promise.complete(result)
+            }(ExecutionContext.parasitic)
+            promise.future
+          } else if ((expired eq null) && !entries.containsKey(query)) {
+            // the cache is full
+            misses.increment()
+            fetchMeasured(fetch)
+          } else {
+            // lost the race against another lookup of the same query
+            lookup(query)(fetch)
+          }
+      }
+    }
+
+  /**
+   * Answers the lookup like `lookup(query)(fetch)`, failing it when it isn't answered within the `resolveTimeout` of
+   * this caller. `fetch` is given the timeout to apply to the request to the backend: the configured `fetch-timeout`
+   * when the request may be shared with other callers, or the `resolveTimeout` when caching is disabled. The request
+   * is failed after that timeout also when the backend doesn't honour it, so that a hung request isn't shared with
+   * later lookups.
+   */
+  def lookup(query: Lookup, resolveTimeout: FiniteDuration)(fetch: FiniteDuration => Future[Resolved])(
+      implicit system: ClassicActorSystemProvider): Future[Resolved] =
+    if (!settings.enabled)
+      failAfter(lookup(query)(() => fetch(resolveTimeout)), resolveTimeout)(
+        s"Lookup for [$query] timed-out, within [$resolveTimeout]!")
+    else {
+      val fetchTimeout = settings.fetchTimeout
+      val result = lookup(query) { () =>
+        failAfter(fetch(fetchTimeout), fetchTimeout)(
+          s"Lookup for [$query] by the backend timed-out, within the fetch timeout [$fetchTimeout]!")
+      }
+      // the shared request fails by itself before the timeout of this caller
+      if (resolveTimeout >= fetchTimeout) result
+      else failAfter(result, resolveTimeout)(s"Lookup for [$query] timed-out, within [$resolveTimeout]!")
+    }
+
+  private def failAfter(result: Future[Resolved], timeout: FiniteDuration)(message: => String)(
+      implicit system: ClassicActorSystemProvider): Future[Resolved] =
+    if (result.isCompleted) result
+    else {
+      val promise = Promise[Resolved]()
+      val timer = system.classicSystem.scheduler.scheduleOnce(timeout) {
+        promise.tryFailure(new TimeoutException(message))
+      }(ExecutionContext.parasitic)
+      result.onComplete { r =>
+        timer.cancel()
+        promise.tryComplete(r)
+      }(ExecutionContext.parasitic)
+      promise.future
+    }
+
+  private def revalidate(query: Lookup, stale: Cached, fetch: () => Future[Resolved]): Unit = {
+    val refreshing = new Cached(stale.result, stale.completedAt, refreshing = true)
+    if (entries.replace(query, stale, refreshing)) {
+      fetchMeasured(fetch).onComplete {
+        case result @ Success(_) =>
+          entries.replace(query, refreshing, new Cached(result, clock(), refreshing = false))
+        case Failure(_) =>
+          // keep serving the stale result for the rest of its window, the next lookup refreshes again
+          entries.replace(query, refreshing, stale)
+      }(ExecutionContext.parasitic)
+    }
+  }
+
+  // the duration is measured with the system clock, not with the clock of the cache
+  private def fetchMeasured(fetch: () => Future[Resolved]): Future[Resolved] = {
+    val startedAt = System.nanoTime()
+    val result = fetchSafely(fetch)
+    result.onComplete { r =>
+      metrics.fetchDuration.observeNanos(System.nanoTime() - startedAt)
+      r match {
+        case Success(resolved) => metrics.resolvedTargets.observe(resolved.addresses.size)
+        case Failure(_)        => metrics.failures.increment()
+      }
+    }(ExecutionContext.parasitic)
+    result
+  }
+
+  private def evictExpired(now: Long): Unit =
+    entries.forEach { (query, entry) =>
+      entry match {
+        case cached: Cached =>
+          val maxAge = if (cached.result.isSuccess) staleNanos else negativeTtlNanos
+          if (now - cached.completedAt >= maxAge) entries.remove(query, cached)
+        case _: InFlight =>
+      }
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.discovery.cache
+
+import scala.concurrent.duration.FiniteDuration
+import scala.jdk.DurationConverters._
+
+import akka.annotation.InternalApi
+import com.typesafe.config.Config
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] final class LookupCacheSettings(config: Config) {
+
+  val enabled: Boolean = config.getBoolean("enabled")
+
+  val ttl: FiniteDuration = config.getDuration("ttl").toScala
+
+  val staleWhileRevalidate: FiniteDuration = config.getDuration("stale-while-revalidate").toScala
+
+  val negativeTtl: FiniteDuration = config.getDuration("negative-ttl").toScala
+
+  val maxEntries: Int = config.getInt("max-entries")
+
+  val fetchTimeout: FiniteDuration = config.getDuration("fetch-timeout").toScala
+
+  require(maxEntries > 0, "lookup-cache.max-entries must be > 0")
+
+  override def toString =
+    s"LookupCacheSettings($enabled, $ttl, $staleWhileRevalidate, $negativeTtl, $maxEntries, $fetchTimeout)"
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.discovery.cache
+
+import java.util.concurrent.ConcurrentHashMap
+
+import scala.jdk.CollectionConverters._
+
+import akka.actor.ActorSystem
+import akka.actor.ClassicActorSystemProvider
+import akka.actor.ExtendedActorSystem
+import akka.actor.Extension
+import akka.actor.ExtensionId
+import akka.actor.ExtensionIdProvider
+import akka.annotation.ApiMayChange
+import akka.annotation.InternalApi
+import akka.event.Logging
+import akka.management.metrics.ManagementMetrics
+import com.typesafe.config.Config
+
+/**
+ * Counts of the lookups of one discovery method that were answered from the cache (hits), that caused a request to
+ * the backend of the method (misses), and that were joined to a request already in flight for the same lookup
+ * (coalesced).
+ */
+@ApiMayChange
+final case class LookupCacheStats(hits: Long, misses: Long, coalesced: Long) {
+
+  /** Java API */
+  def getHits: Long = hits
+
+  /** Java API */
+  def getMisses: Long = misses
+
+  /** Java API */
+  def getCoalesced: Long = coalesced
+}
+
+/**
+ * The lookup result caches of the discovery methods in use, for exposing their statistics as metrics.
+ */
+@ApiMayChange
+final class LookupCaches(system: ExtendedActorSystem) extends Extension {
+
+  private val log = Logging(system, classOf[LookupCaches])
+
+  private val caches = new ConcurrentHashMap[String, LookupCache]()
+
+  /**
+   * INTERNAL API
+   *
+   * The cache for the discovery method with the given name, created from its `lookup-cache` config section on first
+   * use.
+   */
+  @InternalApi
+  private[akka] def cacheFor(method: String, config: Config): LookupCache =
+    caches.computeIfAbsent(method, _ => {
+      val settings = new LookupCacheSettings(config)
+      log.debug("Lookup cache for discovery method [{}]: {}", method, settings)
+      new LookupCache(settings, () => System.nanoTime(), LookupCache.Metrics(ManagementMetrics(system), method))
+    })
+
+  /**
+   * Statistics of the caches of the discovery methods that have been used, keyed by discovery method.
+   */
+  def stats(): Map[String, LookupCacheStats] =
+    caches.asScala.iterator.collect {
+      case (method, cache) if cache.settings.enabled => method -> cache.stats
+    }.toMap
+
+  /**
+   * Java API: Statistics of the caches of the discovery methods that have been used, keyed by discovery method.
+   */
+  def getStats(): java.util.Map[String, LookupCacheStats] =
+    stats().asJava
+}
+
+@ApiMayChange
+object LookupCaches extends ExtensionId[LookupCaches] with ExtensionIdProvider {
+  override def get(system: ActorSystem): LookupCaches = super.get(system)
+
+  override def get(system: ClassicActorSystemProvider): LookupCaches = super.get(system)
+
+  override def lookup: LookupCaches.type = LookupCaches
+
+  override def createExtension(system: ExtendedActorSystem): LookupCaches = new LookupCaches(system)
+}
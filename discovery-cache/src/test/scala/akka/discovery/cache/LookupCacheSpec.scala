@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.discovery.cache
+
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.TimeoutException
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+
+import scala.collection.immutable
+import scala.concurrent.Future
+import scala.concurrent.Promise
+import scala.concurrent.duration._
+import scala.jdk.CollectionConverters._
+
+import akka.actor.ActorSystem
+import akka.discovery.Lookup
+import akka.discovery.ServiceDiscovery.Resolved
+import akka.discovery.ServiceDiscovery.ResolvedTarget
+import com.typesafe.config.ConfigFactory
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class LookupCacheSpec extends AnyWordSpec with Matchers with ScalaFutures with BeforeAndAfterAll {
+
+  private implicit val system: ActorSystem = ActorSystem("LookupCacheSpec")
+
+  override implicit def patienceConfig: PatienceConfig = PatienceConfig(3.seconds, 50.millis)
+
+  override protected def afterAll(): Unit = system.terminate()
+
+  private val query = Lookup("service")
+
+  private def resolved(host: String): Resolved =
+    Resolved("service", immutable.Seq(ResolvedTarget(host, None, None)))
+
+  private def settings(overrides: String): LookupCacheSettings =
+    new LookupCacheSettings(
+      ConfigFactory
+        .parseString(overrides)
+        .withFallback(ConfigFactory.parseString("""
+          enabled = on
+          ttl = 1s
+          stale-while-revalidate = 2s
+          negative-ttl = 500ms
+          max-entries = 10
+          fetch-timeout = 10s
+          """)))
+
+  private class Fixture(overrides: String = "") {
+    val now = new AtomicLong(0L)
+    val cache = new LookupCache(settings(overrides), () => now.get)
+    val fetches = new AtomicInteger()
+
+    def advance(duration: FiniteDuration): Unit = now.addAndGet(duration.toNanos)
+
+    def fetching(result: => Future[Resolved]): () => Future[Resolved] = () => {
+      fetches.incrementAndGet()
+      result
+    }
+  }
+
+  "The LookupCache" should {
+    "coalesce concurrent lookups into one request" in new Fixture {
+      val promise = Promise[Resolved]()
+      val first = cache.lookup(query)(fetching(promise.future))
+      val second = cache.lookup(query)(fetching(promise.future))
+      fetches.get shouldBe 1
+
+      promise.success(resolved("a"))
+      first.futureValue shouldBe resolved("a")
+      second.futureValue shouldBe resolved("a")
+      cache.stats shouldBe LookupCacheStats(hits = 0, misses = 1, coalesced = 1)
+    }
+
+    "serve results within the ttl" in new Fixture {
+      cache.lookup(query)(fetching(Future.successful(resolved("a")))).futureValue shouldBe resolved("a")
+      advance(900.millis)
+      cache.lookup(query)(fetching(Future.successful(resolved("b")))).futureValue shouldBe resolved("a")
+      fetches.get shouldBe 1
+      cache.stats shouldBe LookupCacheStats(hits = 1, misses = 1, coalesced = 0)
+    }
+
+    "cache lookups with different port names separately" in new Fixture {
+      cache.lookup(query)(fetching(Future.successful(resolved("a")))).futureValue
+      cache.lookup(query.withPortName("management"))(fetching(Future.successful(resolved("b")))).futureValue shouldBe
+      resolved("b")
+      fetches.get shouldBe 2
+    }
+
+    "serve a stale result while revalidating it" in new Fixture {
+      cache.lookup(query)(fetching(Future.successful(resolved("a")))).futureValue
+      advance(1500.millis)
+
+      val refresh = Promise[Resolved]()
+      cache.lookup(query)(fetching(refresh.future)).futureValue shouldBe resolved("a")
+      // only one refresh in flight
+      cache.lookup(query)(fetching(refresh.future)).futureValue shouldBe resolved("a")
+      fetches.get shouldBe 2
+
+      refresh.success(resolved("b"))
+      cache.lookup(query)(fetching(Future.successful(resolved("c")))).futureValue shouldBe resolved("b")
+      fetches.get shouldBe 2
+    }
+
+    "keep the stale result when revalidating fails" in new Fixture {
+      cache.lookup(query)(fetching(Future.successful(resolved("a")))).futureValue
+      advance(1500.millis)
+
+      cache.lookup(query)(fetching(Future.failed(new RuntimeException("boom")))).futureValue shouldBe resolved("a")
+      cache.lookup(query)(fetching(Future.successful(resolved("b")))).futureValue shouldBe resolved("a")
+      fetches.get shouldBe 3
+      cache.lookup(query)(fetching(Future.successful(resolved("c")))).futureValue shouldBe resolved("b")
+    }
+
+    "fetch again after the stale-while-revalidate window" in new Fixture {
+      cache.lookup(query)(fetching(Future.successful(resolved("a")))).futureValue
+      advance(3.seconds)
+      cache.lookup(query)(fetching(Future.successful(resolved("b")))).futureValue shouldBe resolved("b")
+      cache.stats shouldBe LookupCacheStats(hits = 0, misses = 2, coalesced = 0)
+    }
+
+    "cache failures for the negative ttl" in new Fixture {
+      val failure = new RuntimeException("boom")
+      cache.lookup(query)(fetching(Future.failed(failure))).failed.futureValue shouldBe failure
+      cache.lookup(query)(fetching(Future.successful(resolved("a")))).failed.futureValue shouldBe failure
+      fetches.get shouldBe 1
+
+      advance(500.millis)
+      cache.lookup(query)(fetching(Future.successful(resolved("a")))).futureValue shouldBe resolved("a")
+      fetches.get shouldBe 2
+    }
+
+    "not cache failures when the negative ttl is 0" in new Fixture("negative-ttl = 0s") {
+      cache.lookup(query)(fetching(Future.failed(new RuntimeException("boom")))).failed.futureValue
+      cache.lookup(query)(fetching(Future.successful(resolved("a")))).futureValue shouldBe resolved("a")
+      fetches.get shouldBe 2
+    }
+
+    "turn an exception thrown by the fetch into a failed lookup" in new Fixture {
+      cache.lookup(query)(fetching(throw new RuntimeException("boom"))).failed.futureValue.getMessage shouldBe "boom"
+    }
+
+    "not cache more than max-entries lookups" in new Fixture("max-entries = 1, negative-ttl = 0s") {
+      cache.lookup(query)(fetching(Future.successful(resolved("a")))).futureValue
+      val other = Lookup("other")
+      cache.lookup(other)(fetching(Future.successful(resolved("b")))).futureValue
+      cache.lookup(other)(fetching(Future.successful(resolved("b")))).futureValue
+      fetches.get shouldBe 3
+
+      // expired entries make room
+      advance(3.seconds)
+      cache.lookup(other)(fetching(Future.successful(resolved("b")))).futureValue
+      cache.lookup(other)(fetching(Future.successful(resolved("b")))).futureValue
+      fetches.get shouldBe 4
+    }
+
+    "pass lookups through when disabled" in new Fixture("enabled = off") {
+      cache.lookup(query)(fetching(Future.successful(resolved("a")))).futureValue
+      cache.lookup(query)(fetching(Future.successful(resolved("a")))).futureValue
+      fetches.get shouldBe 2
+      cache.stats shouldBe LookupCacheStats(0, 0, 0)
+    }
+
+    "fail only the caller whose resolve timeout passed while the shared request is in flight" in new Fixture {
+      val promise = Promise[Resolved]()
+      val fetchTimeouts = new ConcurrentLinkedQueue[FiniteDuration]()
+      def fetchWithTimeout(timeout: FiniteDuration): Future[Resolved] = {
+        fetchTimeouts.add(timeout)
+        fetching(promise.future)()
+      }
+
+      val short = cache.lookup(query, 100.millis)(fetchWithTimeout)
+      val long = cache.lookup(query, 5.seconds)(fetchWithTimeout)
+      fetches.get shouldBe 1
+      fetchTimeouts.asScala.toList shouldBe List(10.seconds)
+
+      short.failed.futureValue shouldBe a[TimeoutException]
+      long.isCompleted shouldBe false
+
+      promise.success(resolved("a"))
+      long.futureValue shouldBe resolved("a")
+      // the timeout of the short caller is not cached
+      cache.lookup(query, 100.millis)(fetchWithTimeout).futureValue shouldBe resolved("a")
+      fetches.get shouldBe 1
+    }
+
+    "fail a request to the backend that doesn't complete within the fetch timeout" in new Fixture(
+      "fetch-timeout = 200ms, negative-ttl = 0s") {
+      val hung = cache.lookup(query, 5.seconds)(_ => fetching(Promise[Resolved]().future)())
+      hung.failed.futureValue shouldBe a[TimeoutException]
+      // the hung request is no longer shared with later lookups
+      cache.lookup(query, 5.seconds)(_ => fetching(Future.successful(resolved("a")))()).futureValue shouldBe
+      resolved("a")
+      fetches.get shouldBe 2
+    }
+
+    "fail a lookup after the resolve timeout when disabled" in new Fixture("enabled = off") {
+      cache
+        .lookup(query, 100.millis)(_ => fetching(Promise[Resolved]().future)())
+        .failed
+        .futureValue shouldBe a[TimeoutException]
+    }
+
+    "limit the request by the resolve timeout when disabled" in new Fixture("enabled = off") {
+      val fetchTimeouts = new ConcurrentLinkedQueue[FiniteDuration]()
+      cache
+        .lookup(query, 3.seconds) { timeout =>
+          fetchTimeouts.add(timeout)
+          fetching(Future.successful(resolved("a")))()
+        }
+        .futureValue shouldBe resolved("a")
+      fetchTimeouts.asScala.toList shouldBe List(3.seconds)
+    }
+  }
+}
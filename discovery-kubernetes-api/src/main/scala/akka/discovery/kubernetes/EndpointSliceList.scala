@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.discovery.kubernetes
+
+import scala.collection.immutable
+import akka.annotation.InternalApi
+
+/**
+ * INTERNAL API
+ *
+ * The fields of the `discovery.k8s.io/v1` EndpointSlices of a service that are needed to find the targets of a lookup.
+ */
+@InternalApi private[kubernetes] object EndpointSliceList {
+  final case class EndpointConditions(ready: Option[Boolean], serving: Option[Boolean], terminating: Option[Boolean])
+
+  final case class ObjectReference(kind: Option[String], name: Option[String])
+
+  final case class Endpoint(
+      addresses: immutable.Seq[String],
+      conditions: Option[EndpointConditions],
+      targetRef: Option[ObjectReference])
+
+  final case class EndpointPort(name: Option[String], port: Option[Int])
+
+  final case class EndpointSlice(
+      addressType: String,
+      endpoints: Option[immutable.Seq[Endpoint]],
+      ports: Option[immutable.Seq[EndpointPort]])
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi private[kubernetes] final case class EndpointSliceList(
+    items: immutable.Seq[EndpointSliceList.EndpointSlice])
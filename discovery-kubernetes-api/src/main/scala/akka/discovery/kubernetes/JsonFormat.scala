@@ -5,6 +5,7 @@
 package akka.discovery.kubernetes
 
 import akka.annotation.InternalApi
+import akka.discovery.kubernetes.EndpointSliceList._
 import akka.discovery.kubernetes.PodList._
 import akka.http.scaladsl.marshallers.sprayjson.SprayJsonSupport
 import spray.json._
@@ -20,7 +21,15 @@ import spray.json._
   implicit val containerStatusFormat: JsonFormat[ContainerStatus] = jsonFormat2(ContainerStatus.apply)
   implicit val podConditionFormat: JsonFormat[PodCondition] = jsonFormat2(PodCondition.apply)
   implicit val podStatusFormat: JsonFormat[PodStatus] = jsonFormat4(PodStatus.apply)
-  implicit val metadataFormat: JsonFormat[Metadata] = jsonFormat1(Metadata.apply)
+  implicit val metadataFormat: JsonFormat[Metadata] = jsonFormat3(Metadata.apply)
   implicit val podFormat: JsonFormat[Pod] = jsonFormat3(Pod.apply)
-  implicit val podListFormat: RootJsonFormat[PodList] = jsonFormat1(PodList.apply)
+  implicit val listMetadataFormat: JsonFormat[ListMetadata] = jsonFormat1(ListMetadata.apply)
+  implicit val podListFormat: RootJsonFormat[PodList] = jsonFormat2(PodList.apply)
+
+  implicit val endpointConditionsFormat: JsonFormat[EndpointConditions] = jsonFormat3(EndpointConditions.apply)
+  implicit val objectReferenceFormat: JsonFormat[ObjectReference] = jsonFormat2(ObjectReference.apply)
+  implicit val endpointFormat: JsonFormat[Endpoint] = jsonFormat3(Endpoint.apply)
+  implicit val endpointPortFormat: JsonFormat[EndpointPort] = jsonFormat2(EndpointPort.apply)
+  implicit val endpointSliceFormat: JsonFormat[EndpointSlice] = jsonFormat3(EndpointSlice.apply)
+  implicit val endpointSliceListFormat: RootJsonFormat[EndpointSliceList] = jsonFormat1(EndpointSliceList.apply)
 }
@@ -5,40 +5,31 @@
 package akka.discovery.kubernetes
 
 import java.net.InetAddress
-import java.nio.file.Files
-import java.nio.file.Paths
-import java.security.KeyStore
-import java.security.SecureRandom
 import scala.collection.immutable
-import scala.concurrent.ExecutionContext
 import scala.concurrent.Future
-import scala.concurrent.duration.{ Deadline, FiniteDuration }
+import scala.concurrent.duration.FiniteDuration
 import scala.util.Try
 import scala.util.control.NoStackTrace
-import scala.util.control.NonFatal
 import akka.actor.ActorSystem
 import akka.annotation.InternalApi
 import akka.annotation.DoNotInherit
 import akka.discovery.ServiceDiscovery.Resolved
 import akka.discovery.ServiceDiscovery.ResolvedTarget
 import akka.discovery._
-import akka.discovery.kubernetes.JsonFormat._
-import akka.dispatch.Dispatchers.DefaultBlockingDispatcherId
+import akka.discovery.cache.LookupCaches
 import akka.event.LoggingAdapter
 import akka.event.Logging
-import akka.http.scaladsl.HttpsConnectionContext
 import akka.http.scaladsl._
 import akka.http.scaladsl.model._
-import akka.http.scaladsl.model.headers.Authorization
-import akka.http.scaladsl.model.headers.OAuth2BearerToken
+import akka.http.scaladsl.settings.ConnectionPoolSettings
 import akka.http.scaladsl.unmarshalling.Unmarshal
-import akka.pki.kubernetes.PemManagersProvider
+import akka.management.kubernetes.client.ApiServerSettings
+import akka.management.kubernetes.client.KubernetesClient
+import akka.management.kubernetes.client.KubernetesClients
+import akka.util.ByteString
 
-import java.util.concurrent.atomic.AtomicReference
-import javax.net.ssl.KeyManager
-import javax.net.ssl.KeyManagerFactory
-import javax.net.ssl.SSLContext
-import javax.net.ssl.TrustManager
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeoutException
 
 object KubernetesApiServiceDiscovery {
 
@@ -47,6 +38,9 @@ object KubernetesApiServiceDiscovery {
    *
    * Finds relevant targets given a pod list. Note that this doesn't filter by name as it is the job of the selector
    * to do that.
+   *
+   * With a `statefulSetService` the host of a target is the stable DNS name of the pod in the StatefulSet, e.g.
+   * `my-app-0.my-app.default.svc.cluster.local`, which makes the ordinal of the pod known to the join decider.
    */
   @InternalApi
   private[kubernetes] def targets(
@@ -56,7 +50,8 @@ object KubernetesApiServiceDiscovery {
       podDomain: String,
       rawIp: Boolean,
       containerName: Option[String],
-      onlyReady: Boolean): immutable.Seq[ResolvedTarget] = {
+      onlyReady: Boolean,
+      statefulSetService: Option[String] = None): immutable.Seq[ResolvedTarget] = {
 
     val readyFilter: PodList.PodStatus => Boolean =
       if (onlyReady) _.conditions.iterator.flatten.exists(_.isAbleToServeRequests)
@@ -88,7 +83,7 @@ object KubernetesApiServiceDiscovery {
           } yield Some(port.containerPort)
       }
     } yield {
-      val hostOrIp = if (rawIp) ip else s"${ip.replace('.', '-')}.$podNamespace.pod.$podDomain"
+      val hostOrIp = targetHost(ip, item.metadata.flatMap(_.name), podNamespace, podDomain, rawIp, statefulSetService)
       ResolvedTarget(
         host = hostOrIp,
         port = maybePort,
@@ -97,16 +92,73 @@ object KubernetesApiServiceDiscovery {
     }
   }
 
+  /**
+   * INTERNAL API
+   *
+   * Finds relevant targets given the EndpointSlices of a service, with the same readiness semantics as [[targets]]:
+   * terminating endpoints are left out, and with `onlyReady` also the endpoints that are not ready. The port of a
+   * target is the port of the pod that the named port of the service maps to.
+   */
+  @InternalApi
+  private[kubernetes] def endpointSliceTargets(
+      endpointSliceList: EndpointSliceList,
+      portName: Option[String],
+      podNamespace: String,
+      podDomain: String,
+      rawIp: Boolean,
+      onlyReady: Boolean,
+      statefulSetService: Option[String] = None): immutable.Seq[ResolvedTarget] = {
+    val resolved = for {
+      slice <- endpointSliceList.items
+      // FQDN slices don't point to pods
+      if slice.addressType != "FQDN"
+      endpoint <- slice.endpoints.getOrElse(Nil)
+      conditions = endpoint.conditions
+      if !conditions.exists(_.terminating.contains(true))
+      // a ready condition that isn't set means ready
+      if !onlyReady || !conditions.exists(_.ready.contains(false))
+      // the addresses of an endpoint are fungible, the first one is used
+      ip <- endpoint.addresses.headOption.toList
+      maybePort <- portName match {
+        case None => List(None)
+        case Some(name) =>
+          for {
+            port <- slice.ports.getOrElse(Nil)
+            if port.name.contains(name)
+            number <- port.port.toList
+          } yield Some(number)
+      }
+    } yield {
+      val podName = endpoint.targetRef.filter(_.kind.contains("Pod")).flatMap(_.name)
+      ResolvedTarget(
+        host = targetHost(ip, podName, podNamespace, podDomain, rawIp, statefulSetService),
+        port = maybePort,
+        address = Some(InetAddress.getByName(ip))
+      )
+    }
+    // an endpoint can briefly be in two slices while it is moved between them
+    resolved.distinct
+  }
+
+  private def targetHost(
+      ip: String,
+      podName: Option[String],
+      podNamespace: String,
+      podDomain: String,
+      rawIp: Boolean,
+      statefulSetService: Option[String]): String =
+    (statefulSetService, podName) match {
+      case (Some(service), Some(pod)) => s"$pod.$service.$podNamespace.svc.$podDomain"
+      case _ if rawIp                 => ip
+      case _                          => s"${ip.replace('.', '-')}.$podNamespace.pod.$podDomain"
+    }
+
   class KubernetesApiException(msg: String) extends RuntimeException(msg) with NoStackTrace
 }
 
 object BaseKubernetesApiServiceDiscovery {
 
-  private final case class KubernetesSetup(
-      podNamespace: String,
-      // Unused, but kept around because apparently this is a public class and so this avoids bincompat issues
-      apiToken: String,
-      clientHttpsConnectionContext: HttpsConnectionContext)
+  private final case class KubernetesSetup(podNamespace: String, client: KubernetesClient)
 
 }
 
@@ -126,109 +178,97 @@ sealed abstract class BaseKubernetesApiServiceDiscovery(protected val log: Loggi
 
   private val settings = Settings(system)
 
-  private object Dispatchers {
-    implicit val blocking: ExecutionContext = system.dispatchers.lookup(DefaultBlockingDispatcherId)
-  }
-
   protected def onlyDiscoverReady: Boolean
 
   log.debug("Settings {}", settings)
 
-  private val apiToken = new AtomicReference[Option[(String, Deadline)]](None)
-
-  private def loadApiToken(): Future[String] = {
-    import Dispatchers.blocking
-    Future {
-      readConfigVarFromFilesystem(settings.apiTokenPath, "api-token").getOrElse("")
-    }
-  }
+  import system.dispatcher
 
   private val kubernetesSetup: Future[KubernetesSetup] = {
-    import Dispatchers.blocking
+    val clients = KubernetesClients(system)
     for {
-      namespace: String <- Future {
-        settings.podNamespace
-          .orElse(readConfigVarFromFilesystem(settings.podNamespacePath, "pod-namespace"))
-          .getOrElse("default")
+      namespace: String <- settings.podNamespace match {
+        case Some(namespace) => Future.successful(namespace)
+        case None => clients.readFromFilesystem(settings.podNamespacePath, "pod-namespace").map(_.getOrElse("default"))
       }
-      httpsContext <- Future(clientHttpsConnectionContext())
+      apiServerSettings <- optionToFuture(apiServerSettings(), unableToFormRequest)
+      client <- clients.client("discovery", apiServerSettings)
     } yield {
-      KubernetesSetup(namespace, "", httpsContext)
+      KubernetesSetup(namespace, client)
     }
   }
 
-  import system.dispatcher
-
-  private def getApiToken(): Future[String] = {
-    apiToken.get() match {
-      case Some((token, deadline)) if deadline.hasTimeLeft() =>
-        Future.successful(token)
-      case _ =>
-        loadApiToken().map { token =>
-          apiToken.set(Some((token, settings.apiTokenTtl.fromNow)))
-          token
-        }
+  private def apiServerSettings(): Option[ApiServerSettings] =
+    for {
+      host <- sys.env.get(settings.apiServiceHostEnvName)
+      portStr <- sys.env.get(settings.apiServicePortEnvName)
+      port <- Try(portStr.toInt).toOption
+    } yield ApiServerSettings(
+      host,
+      port,
+      secure = true,
+      settings.apiCaPath,
+      settings.apiTokenPath,
+      settings.apiTokenTtl)
+
+  private val podWatchers = new ConcurrentHashMap[String, PodWatcher]
+
+  private lazy val podWatchConnectionPoolSettings =
+    ConnectionPoolSettings(system).withUpdatedConnectionSettings(
+      _.withIdleTimeout(settings.podWatchTimeout + settings.podWatchRetryDelay))
+
+  private lazy val lookupCache = LookupCaches(system).cacheFor(
+    if (onlyDiscoverReady) "kubernetes-api-for-client" else "kubernetes-api",
+    settings.lookupCacheConfig)
+
+  override def lookup(query: Lookup, resolveTimeout: FiniteDuration): Future[Resolved] =
+    // the timeout of the request is the fetch timeout of the cache when the request is shared with other lookups
+    lookupCache.lookup(query, resolveTimeout)(fetchTimeout => resolve(query, fetchTimeout))
+
+  private def resolve(query: Lookup, fetchTimeout: FiniteDuration): Future[Resolved] =
+    if (settings.endpointSlicesEnabled) resolveEndpointSlices(query, fetchTimeout)
+    else resolvePods(query, fetchTimeout)
+
+  private def resolveEndpointSlices(query: Lookup, resolveTimeout: FiniteDuration): Future[Resolved] = {
+    val serviceName = settings.endpointSlicesServiceName(query.serviceName)
+    for {
+      setup <- kubernetesSetup
+      endpointSliceList <- listEndpointSlices(setup, serviceName, query.portName, resolveTimeout)
+    } yield {
+      val addresses =
+        endpointSliceTargets(
+          endpointSliceList,
+          query.portName,
+          setup.podNamespace,
+          settings.podDomain,
+          settings.rawIp,
+          onlyDiscoverReady,
+          settings.statefulSetService)
+      if (addresses.isEmpty && endpointSliceList.items.nonEmpty && log.isInfoEnabled) {
+        val portNames = endpointSliceList.items.flatMap(_.ports).flatten.flatMap(_.name).toSet
+        log.info(
+          "No targets found from endpoint slices. Is the correct port name configured? Current configuration: [{}]. " +
+          "Ports of service: [{}]",
+          query.portName,
+          portNames)
+      }
+      Resolved(serviceName = query.serviceName, addresses = addresses)
     }
   }
 
-  override def lookup(query: Lookup, resolveTimeout: FiniteDuration): Future[Resolved] = {
+  private def resolvePods(query: Lookup, resolveTimeout: FiniteDuration): Future[Resolved] = {
     val labelSelector = settings.podLabelSelector(query.serviceName)
 
     for {
       setup <- kubernetesSetup
-      apiToken <- getApiToken()
-
-      request <- {
-        log.info(
-          "Querying for pods with label selector: [{}]. Namespace: [{}]. Port: [{}]",
-          labelSelector,
-          setup.podNamespace,
-          query.portName)
-
-        optionToFuture(
-          podRequest(apiToken, setup.podNamespace, labelSelector),
-          s"Unable to form request; check Kubernetes environment (expecting env vars ${settings.apiServiceHostEnvName}, ${settings.apiServicePortEnvName})"
-        )
-      }
-
-      response <- http.singleRequest(request, setup.clientHttpsConnectionContext)
-
-      entity <- response.entity.toStrict(resolveTimeout)
 
       podList <- {
-
-        response.status match {
-          case StatusCodes.OK =>
-            log.debug("Kubernetes API entity: [{}]", entity.data.utf8String)
-            val unmarshalled = Unmarshal(entity).to[PodList]
-            unmarshalled.failed.foreach { t =>
-              log.warning(
-                "Failed to unmarshal Kubernetes API response.  Status code: [{}]; Response body: [{}]. Ex: [{}]",
-                response.status.value,
-                entity,
-                t.getMessage)
-            }
-            unmarshalled
-          case StatusCodes.Forbidden =>
-            Unmarshal(entity).to[String].foreach { body =>
-              log.warning(
-                "Forbidden to communicate with Kubernetes API server; check RBAC settings. Response: [{}]",
-                body)
-            }
-            Future.failed(
-              new KubernetesApiException("Forbidden when communicating with the Kubernetes API. Check RBAC settings."))
-          case other =>
-            Unmarshal(entity).to[String].foreach { body =>
-              log.warning(
-                "Non-200 when communicating with Kubernetes API server. Status code: [{}]. Response body: [{}]",
-                other,
-                body
-              )
-            }
-
-            Future.failed(new KubernetesApiException(s"Non-200 from Kubernetes API server: $other"))
-        }
-
+        if (settings.podWatchEnabled)
+          podWatchers
+            .computeIfAbsent(labelSelector, _ => startPodWatcher(setup, labelSelector, resolveTimeout))
+            .podList()
+        else
+          listPods(setup, labelSelector, query.portName, resolveTimeout)
       }
 
     } yield {
@@ -240,7 +280,8 @@ sealed abstract class BaseKubernetesApiServiceDiscovery(protected val log: Loggi
           settings.podDomain,
           settings.rawIp,
           settings.containerName,
-          onlyDiscoverReady)
+          onlyDiscoverReady,
+          settings.statefulSetService)
       if (addresses.isEmpty && podList.items.nonEmpty) {
         if (log.isInfoEnabled) {
           val containerPortNames = podList.items.flatMap(_.spec).flatMap(_.containers).flatMap(_.ports).flatten.toSet
@@ -258,59 +299,140 @@ sealed abstract class BaseKubernetesApiServiceDiscovery(protected val log: Loggi
     }
   }
 
-  private def optionToFuture[T](option: Option[T], failMsg: String): Future[T] =
-    option.fold(Future.failed[T](new NoSuchElementException(failMsg)))(Future.successful)
+  private def listPods(
+      setup: KubernetesSetup,
+      labelSelector: String,
+      portName: Option[String],
+      resolveTimeout: FiniteDuration): Future[PodList] = {
+    log.info(
+      "Querying for pods with label selector: [{}]. Namespace: [{}]. Port: [{}]",
+      labelSelector,
+      setup.podNamespace,
+      portName)
+    list(setup, podRequest(setup, labelSelector), resolveTimeout)(PodListDecoder.decode)
+  }
+
+  private def listEndpointSlices(
+      setup: KubernetesSetup,
+      serviceName: String,
+      portName: Option[String],
+      resolveTimeout: FiniteDuration): Future[EndpointSliceList] = {
+    log.info(
+      "Querying for endpoint slices of service: [{}]. Namespace: [{}]. Port: [{}]",
+      serviceName,
+      setup.podNamespace,
+      portName)
+    list(setup, endpointSlicesRequest(setup, serviceName), resolveTimeout) { data =>
+      JsonFormat.endpointSliceListFormat.read(spray.json.JsonParser(data.toArrayUnsafe()))
+    }
+  }
 
-  private def podRequest(token: String, namespace: String, labelSelector: String) =
+  private def list[T](
+      setup: KubernetesSetup,
+      request: HttpRequest,
+      resolveTimeout: FiniteDuration)(decode: ByteString => T): Future[T] =
     for {
-      host <- sys.env.get(settings.apiServiceHostEnvName)
-      portStr <- sys.env.get(settings.apiServicePortEnvName)
-      port <- Try(portStr.toInt).toOption
-    } yield {
-      val path = Uri.Path.Empty / "api" / "v1" / "namespaces" / namespace / "pods"
-      val query = Uri.Query("labelSelector" -> labelSelector, "fieldSelection" -> "status.phase==Running")
-      val uri = Uri.from(scheme = "https", host = host, port = port).withPath(path).withQuery(query)
+      // the whole exchange is limited by the timeout, and the response entity is strict
+      response <- setup.client.request(request, resolveTimeout, resolveTimeout)(
+        new TimeoutException(s"Request to the Kubernetes API server timed out after [$resolveTimeout]"))
 
-      HttpRequest(uri = uri, headers = List(Authorization(OAuth2BearerToken(token))))
-    }
+      result <- {
+        val entity = response.entity
 
-  /**
-   * This uses blocking IO, and so should only be used at startup from blocking dispatcher.
-   */
-  private def clientHttpsConnectionContext(): HttpsConnectionContext = {
-    val certificates = PemManagersProvider.loadCertificates(settings.apiCaPath)
-    val factory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm)
-    val keyStore = KeyStore.getInstance("PKCS12")
-    keyStore.load(null)
-    factory.init(keyStore, Array.empty)
-    val km: Array[KeyManager] = factory.getKeyManagers
-    val tm: Array[TrustManager] =
-      PemManagersProvider.buildTrustManagers(certificates)
-    val random: SecureRandom = new SecureRandom
-    val sslContext = SSLContext.getInstance("TLSv1.2")
-    sslContext.init(km, tm, random)
-    ConnectionContext.httpsClient(sslContext)
-  }
+        response.status match {
+          case StatusCodes.OK =>
+            Unmarshal(entity).to[ByteString].flatMap { data =>
+              if (log.isDebugEnabled)
+                log.debug("Kubernetes API entity: [{}]", data.utf8String)
+              val decoded = Future.fromTry(Try(decode(data)))
+              decoded.failed.foreach { t =>
+                log.warning(
+                  "Failed to unmarshal Kubernetes API response.  Status code: [{}]; Response body: [{}]. Ex: [{}]",
+                  response.status.value,
+                  entity,
+                  t.getMessage)
+              }
+              decoded
+            }
+          case StatusCodes.Forbidden =>
+            Unmarshal(entity).to[String].foreach { body =>
+              log.warning(
+                "Forbidden to communicate with Kubernetes API server; check RBAC settings. Response: [{}]",
+                body)
+            }
+            Future.failed(
+              new KubernetesApiException("Forbidden when communicating with the Kubernetes API. Check RBAC settings."))
+          case other =>
+            Unmarshal(entity).to[String].foreach { body =>
+              log.warning(
+                "Non-200 when communicating with Kubernetes API server. Status code: [{}]. Response body: [{}]",
+                other,
+                body
+              )
+            }
+
+            Future.failed(new KubernetesApiException(s"Non-200 from Kubernetes API server: $other"))
+        }
 
-  /**
-   * This uses blocking IO, and so should only be used to read configuration at startup from blocking dispatcher.
-   */
-  private def readConfigVarFromFilesystem(path: String, name: String): Option[String] = {
-    val file = Paths.get(path)
-    if (Files.exists(file)) {
-      try {
-        Some(new String(Files.readAllBytes(file), "utf-8"))
-      } catch {
-        case NonFatal(e) =>
-          log.error(e, "Error reading {} from {}", name, path)
-          None
       }
-    } else {
-      log.warning("Unable to read {} from {} because it doesn't exist.", name, path)
-      None
-    }
+    } yield result
+
+  private def startPodWatcher(
+      setup: KubernetesSetup,
+      labelSelector: String,
+      resolveTimeout: FiniteDuration): PodWatcher = {
+    log.info("Watching pods with label selector: [{}]. Namespace: [{}]", labelSelector, setup.podNamespace)
+
+    def watchPods(resourceVersion: String): Future[HttpResponse] =
+      for {
+        // a watch is long-lived, so it gets a connection of its own rather than one from the shared pool
+        request <- setup.client.withToken(podWatchRequest(setup, labelSelector, resourceVersion))
+        response <- http.singleRequest(
+          request,
+          setup.client.httpsConnectionContext.getOrElse(http.defaultClientHttpsContext),
+          podWatchConnectionPoolSettings)
+      } yield response
+
+    val watcher = new PodWatcher(
+      labelSelector,
+      () => listPods(setup, labelSelector, None, resolveTimeout),
+      watchPods,
+      settings.podWatchMaxEventSize,
+      settings.podWatchRetryDelay,
+      log)
+    watcher.start()
+    watcher
   }
 
+  private def unableToFormRequest =
+    s"Unable to form request; check Kubernetes environment (expecting env vars ${settings.apiServiceHostEnvName}, ${settings.apiServicePortEnvName})"
+
+  private def optionToFuture[T](option: Option[T], failMsg: String): Future[T] =
+    option.fold(Future.failed[T](new NoSuchElementException(failMsg)))(Future.successful)
+
+  private def podRequest(setup: KubernetesSetup, labelSelector: String) =
+    podsRequest(setup, Uri.Query("labelSelector" -> labelSelector, "fieldSelection" -> "status.phase==Running"))
+
+  private def podWatchRequest(setup: KubernetesSetup, labelSelector: String, resourceVersion: String) =
+    podsRequest(
+      setup,
+      Uri.Query(
+        "labelSelector" -> labelSelector,
+        "watch" -> "true",
+        "resourceVersion" -> resourceVersion,
+        "allowWatchBookmarks" -> "true",
+        "timeoutSeconds" -> settings.podWatchTimeout.toSeconds.toString))
+
+  private def podsRequest(setup: KubernetesSetup, query: Uri.Query) =
+    HttpRequest(
+      uri = setup.client.uri(Uri.Path.Empty / "api" / "v1" / "namespaces" / setup.podNamespace / "pods", query))
+
+  private def endpointSlicesRequest(setup: KubernetesSetup, serviceName: String) =
+    HttpRequest(
+      uri = setup.client.uri(
+        Uri.Path.Empty / "apis" / "discovery.k8s.io" / "v1" / "namespaces" / setup.podNamespace / "endpointslices",
+        Uri.Query("labelSelector" -> s"kubernetes.io/service-name=$serviceName")))
+
 }
 
 /**
@@ -11,7 +11,12 @@ import akka.annotation.InternalApi
  * INTERNAL API
  */
 @InternalApi private[kubernetes] object PodList {
-  final case class Metadata(deletionTimestamp: Option[String])
+  final case class Metadata(
+      deletionTimestamp: Option[String],
+      name: Option[String] = None,
+      resourceVersion: Option[String] = None)
+
+  final case class ListMetadata(resourceVersion: Option[String])
 
   final case class ContainerPort(name: Option[String], containerPort: Int)
 
@@ -37,4 +42,6 @@ import akka.annotation.InternalApi
 /**
  * INTERNAL API
  */
-@InternalApi private[kubernetes] final case class PodList(items: immutable.Seq[PodList.Pod])
+@InternalApi private[kubernetes] final case class PodList(
+    items: immutable.Seq[PodList.Pod],
+    metadata: Option[PodList.ListMetadata] = None)
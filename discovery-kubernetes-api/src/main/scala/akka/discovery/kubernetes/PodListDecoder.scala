@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.discovery.kubernetes
+
+import scala.collection.immutable
+
+import akka.annotation.InternalApi
+import akka.discovery.kubernetes.PodList._
+import akka.util.ByteString
+import com.fasterxml.jackson.core.JsonFactory
+import com.fasterxml.jackson.core.JsonParser
+import com.fasterxml.jackson.core.JsonToken
+import spray.json.DeserializationException
+
+/**
+ * INTERNAL API
+ *
+ * Decodes a pod list with a streaming JSON parser, only keeping the fields that are needed to find the targets of a
+ * lookup. Everything else in the pods, such as most of the spec, is skipped over without being materialized, which
+ * matters for namespaces with many large pods. The result is the same as decoding with [[JsonFormat.podListFormat]].
+ */
+@InternalApi
+private[kubernetes] object PodListDecoder {
+
+  private val factory = new JsonFactory()
+
+  def decode(bytes: ByteString): PodList = {
+    val parser = factory.createParser(bytes.iterator.asInputStream)
+    try {
+      parser.nextToken()
+      readPodList(parser)
+    } finally {
+      parser.close()
+    }
+  }
+
+  private def readPodList(parser: JsonParser): PodList = {
+    var items: immutable.Seq[Pod] = null
+    var metadata: Option[ListMetadata] = None
+    readFields(parser) {
+      case "items"    => items = readArray(parser)(readPod)
+      case "metadata" => metadata = readOption(parser)(readListMetadata)
+      case _          => parser.skipChildren()
+    }
+    PodList(required(items, "items"), metadata)
+  }
+
+  private def readListMetadata(parser: JsonParser): ListMetadata = {
+    var resourceVersion: Option[String] = None
+    readFields(parser) {
+      case "resourceVersion" => resourceVersion = readOption(parser)(readString)
+      case _                 => parser.skipChildren()
+    }
+    ListMetadata(resourceVersion)
+  }
+
+  private def readPod(parser: JsonParser): Pod = {
+    var spec: Option[PodSpec] = None
+    var status: Option[PodStatus] = None
+    var metadata: Option[Metadata] = None
+    readFields(parser) {
+      case "spec"     => spec = readOption(parser)(readPodSpec)
+      case "status"   => status = readOption(parser)(readPodStatus)
+      case "metadata" => metadata = readOption(parser)(readMetadata)
+      case _          => parser.skipChildren()
+    }
+    Pod(spec, status, metadata)
+  }
+
+  private def readMetadata(parser: JsonParser): Metadata = {
+    var deletionTimestamp: Option[String] = None
+    var name: Option[String] = None
+    var resourceVersion: Option[String] = None
+    readFields(parser) {
+      case "deletionTimestamp" => deletionTimestamp = readOption(parser)(readString)
+      case "name"              => name = readOption(parser)(readString)
+      case "resourceVersion"   => resourceVersion = readOption(parser)(readString)
+      case _                   => parser.skipChildren()
+    }
+    Metadata(deletionTimestamp, name, resourceVersion)
+  }
+
+  private def readPodSpec(parser: JsonParser): PodSpec = {
+    var containers: immutable.Seq[Container] = null
+    readFields(parser) {
+      case "containers" => containers = readArray(parser)(readContainer)
+      case _            => parser.skipChildren()
+    }
+    PodSpec(required(containers, "containers"))
+  }
+
+  private def readContainer(parser: JsonParser): Container = {
+    var name: String = null
+    var ports: Option[immutable.Seq[ContainerPort]] = None
+    readFields(parser) {
+      case "name"  => name = readString(parser)
+      case "ports" => ports = readOption(parser)(readArray(_)(readContainerPort))
+      case _       => parser.skipChildren()
+    }
+    Container(required(name, "name"), ports)
+  }
+
+  private def readContainerPort(parser: JsonParser): ContainerPort = {
+    var name: Option[String] = None
+    var containerPort: Option[Int] = None
+    readFields(parser) {
+      case "name"          => name = readOption(parser)(readString)
+      case "containerPort" => containerPort = Some(readInt(parser))
+      case _               => parser.skipChildren()
+    }
+    ContainerPort(name, containerPort.getOrElse(throw missing("containerPort")))
+  }
+
+  private def readPodStatus(parser: JsonParser): PodStatus = {
+    var podIP: Option[String] = None
+    var containerStatuses: Option[immutable.Seq[ContainerStatus]] = None
+    var phase: Option[String] = None
+    var conditions: Option[immutable.Seq[PodCondition]] = None
+    readFields(parser) {
+      case "podIP"             => podIP = readOption(parser)(readString)
+      case "containerStatuses" => containerStatuses = readOption(parser)(readArray(_)(readContainerStatus))
+      case "phase"             => phase = readOption(parser)(readString)
+      case "conditions"        => conditions = readOption(parser)(readArray(_)(readPodCondition))
+      case _                   => parser.skipChildren()
+    }
+    PodStatus(podIP, containerStatuses, phase, conditions)
+  }
+
+  private def readContainerStatus(parser: JsonParser): ContainerStatus = {
+    var name: String = null
+    var state: Map[String, Unit] = null
+    readFields(parser) {
+      case "name" => name = readString(parser)
+      case "state" =>
+        // only the kind of state (running, waiting, terminated) is used, not its details
+        val builder = Map.newBuilder[String, Unit]
+        readFields(parser) { kind =>
+          builder += kind -> (())
+          parser.skipChildren()
+        }
+        state = builder.result()
+      case _ => parser.skipChildren()
+    }
+    ContainerStatus(required(name, "name"), required(state, "state"))
+  }
+
+  private def readPodCondition(parser: JsonParser): PodCondition = {
+    var tpe: Option[String] = None
+    var status: Option[String] = None
+    readFields(parser) {
+      case "type"   => tpe = readOption(parser)(readString)
+      case "status" => status = readOption(parser)(readString)
+      case _        => parser.skipChildren()
+    }
+    PodCondition(tpe, status)
+  }
+
+  /**
+   * Calls `readField` for each field of the object the parser is at, with the parser at the value of the field.
+   * `readField` must consume the complete value.
+   */
+  private def readFields(parser: JsonParser)(readField: String => Unit): Unit = {
+    expect(parser, JsonToken.START_OBJECT)
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      val name = parser.currentName()
+      parser.nextToken()
+      readField(name)
+    }
+  }
+
+  private def readArray[T](parser: JsonParser)(readElement: JsonParser => T): immutable.Seq[T] = {
+    expect(parser, JsonToken.START_ARRAY)
+    val builder = Vector.newBuilder[T]
+    while (parser.nextToken() != JsonToken.END_ARRAY)
+      builder += readElement(parser)
+    builder.result()
+  }
+
+  private def readOption[T](parser: JsonParser)(read: JsonParser => T): Option[T] =
+    if (parser.currentToken() == JsonToken.VALUE_NULL) None
+    else Some(read(parser))
+
+  private def readString(parser: JsonParser): String = {
+    expect(parser, JsonToken.VALUE_STRING)
+    parser.getText
+  }
+
+  private def readInt(parser: JsonParser): Int = {
+    expect(parser, JsonToken.VALUE_NUMBER_INT)
+    parser.getIntValue
+  }
+
+  private def expect(parser: JsonParser, token: JsonToken): Unit =
+    if (parser.currentToken() != token)
+      throw DeserializationException(
+        s"Expected $token but got ${parser.currentToken()} at ${parser.currentLocation()}")
+
+  private def required[T <: AnyRef](value: T, field: String): T =
+    if (value eq null) throw missing(field)
+    else value
+
+  private def missing(field: String): DeserializationException =
+    DeserializationException(s"Object is missing required member '$field'")
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.discovery.kubernetes
+
+import scala.collection.immutable
+import scala.concurrent.Future
+import scala.concurrent.Promise
+import scala.concurrent.duration.FiniteDuration
+import scala.util.Failure
+import scala.util.Success
+import scala.util.control.NoStackTrace
+
+import akka.Done
+import akka.actor.ActorSystem
+import akka.annotation.InternalApi
+import akka.discovery.kubernetes.JsonFormat._
+import akka.discovery.kubernetes.KubernetesApiServiceDiscovery.KubernetesApiException
+import akka.discovery.kubernetes.PodList.Pod
+import akka.event.LoggingAdapter
+import akka.http.scaladsl.model.HttpResponse
+import akka.http.scaladsl.model.StatusCodes
+import akka.stream.scaladsl.Framing
+import akka.util.ByteString
+import spray.json._
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[kubernetes] object PodWatcher {
+
+  private case object ResourceVersionExpired
+      extends RuntimeException("Watched resource version is too old")
+      with NoStackTrace
+
+  private def podName(pod: Pod): Option[String] =
+    pod.metadata.flatMap(_.name)
+}
+
+/**
+ * INTERNAL API
+ *
+ * Keeps an in-memory view of the pods matching one label selector. The pods are listed once, after which the
+ * ADDED, MODIFIED and DELETED events of a watch starting at the resource version of that list are applied to the
+ * view. When the API server ends the watch it is re-established from the last seen resource version, after the retry
+ * delay if it ended sooner than that, and when that version has expired (410 Gone) the pods are listed again.
+ *
+ * @param listPods lists the pods, including the resource version of the list
+ * @param watchPods starts a watch of the pods from the given resource version
+ */
+@InternalApi
+private[kubernetes] final class PodWatcher(
+    labelSelector: String,
+    listPods: () => Future[PodList],
+    watchPods: String => Future[HttpResponse],
+    maxEventSize: Int,
+    retryDelay: FiniteDuration,
+    log: LoggingAdapter)(implicit system: ActorSystem) {
+  import PodWatcher._
+  import system.dispatcher
+
+  // only written by the list and watch callbacks, which never run concurrently with each other
+  @volatile private var pods: immutable.SortedMap[String, Pod] = immutable.TreeMap.empty
+  @volatile private var resourceVersion: String = ""
+  @volatile private var synced: Future[Done] = Future.never
+
+  def start(): Unit = list()
+
+  /**
+   * The current view of the pods. Completes once the first list has succeeded, and fails if the last list failed.
+   */
+  def podList(): Future[PodList] =
+    synced.value match {
+      case Some(Success(_)) => Future.successful(PodList(pods.values.toList))
+      case _                => synced.map(_ => PodList(pods.values.toList))
+    }
+
+  private def list(): Unit = {
+    val listed = Promise[Done]()
+    // lookups keep being answered from the current view while relisting after the watch expired,
+    // but wait for the first list and for a relist after a failure
+    if (!synced.value.exists(_.isSuccess))
+      synced = listed.future
+
+    listPods().onComplete {
+      case Success(podList) =>
+        pods = immutable.TreeMap.empty[String, Pod] ++ podList.items.flatMap(pod => podName(pod).map(_ -> pod))
+        resourceVersion = podList.metadata.flatMap(_.resourceVersion).getOrElse("")
+        log.debug(
+          "Listed [{}] pods with label selector [{}] at resource version [{}]",
+          pods.size,
+          labelSelector,
+          resourceVersion)
+        listed.success(Done)
+        synced = listed.future
+        watch()
+      case Failure(ex) =>
+        log.warning(
+          "Failed to list pods with label selector [{}], retrying in [{}]: {}",
+          labelSelector,
+          retryDelay,
+          ex.getMessage)
+        listed.failure(ex)
+        synced = listed.future
+        scheduleList()
+    }
+  }
+
+  private def watch(): Unit = {
+    val startedAt = System.nanoTime()
+    watchPods(resourceVersion)
+      .flatMap { response =>
+        response.status match {
+          case StatusCodes.OK =>
+            response.entity.dataBytes
+              .via(Framing.delimiter(ByteString("\n"), maxEventSize, allowTruncation = true))
+              .runForeach(onEvent)
+          case StatusCodes.Gone =>
+            response.discardEntityBytes()
+            Future.failed(ResourceVersionExpired)
+          case other =>
+            response.discardEntityBytes()
+            Future.failed(new KubernetesApiException(s"Non-200 from Kubernetes API server when watching pods: $other"))
+        }
+      }
+      .onComplete {
+        case Success(_) =>
+          // the API server ends a watch after its timeout, continue from where it left off. A watch that ends right
+          // away, e.g. closed by a proxy with an empty response, is continued after the retry delay to not make a
+          // tight loop of requests to the API server
+          if (System.nanoTime() - startedAt < retryDelay.toNanos) {
+            log.debug(
+              "Watch of pods with label selector [{}] ended right away, continuing in [{}]",
+              labelSelector,
+              retryDelay)
+            scheduleWatch()
+          } else watch()
+        case Failure(ResourceVersionExpired) =>
+          log.debug("Resource version [{}] of pods with label selector [{}] expired", resourceVersion, labelSelector)
+          list()
+        case Failure(ex) =>
+          log.warning(
+            "Failed to watch pods with label selector [{}], relisting in [{}]: {}",
+            labelSelector,
+            retryDelay,
+            ex.getMessage)
+          scheduleList()
+      }
+  }
+
+  private def onEvent(bytes: ByteString): Unit =
+    if (bytes.nonEmpty) {
+      val event = JsonParser(bytes.toArray[Byte]).asJsObject
+      val obj = event.fields.getOrElse("object", JsObject.empty)
+      event.fields.get("type") match {
+        case Some(JsString("ADDED")) | Some(JsString("MODIFIED")) =>
+          val pod = podFormat.read(obj)
+          podName(pod).foreach(name => pods = pods.updated(name, pod))
+          updateResourceVersion(pod)
+        case Some(JsString("DELETED")) =>
+          val pod = podFormat.read(obj)
+          podName(pod).foreach(name => pods = pods.removed(name))
+          updateResourceVersion(pod)
+        case Some(JsString("BOOKMARK")) =>
+          updateResourceVersion(podFormat.read(obj))
+        case Some(JsString("ERROR")) =>
+          obj.asJsObject.fields.get("code") match {
+            case Some(JsNumber(code)) if code == StatusCodes.Gone.intValue =>
+              throw ResourceVersionExpired
+            case _ =>
+              throw new KubernetesApiException(s"Error event when watching pods: ${obj.compactPrint}")
+          }
+        case other =>
+          log.debug("Ignoring watch event of unknown type [{}]", other)
+      }
+    }
+
+  private def updateResourceVersion(pod: Pod): Unit =
+    pod.metadata.flatMap(_.resourceVersion).foreach(resourceVersion = _)
+
+  private def scheduleList(): Unit =
+    if (!system.whenTerminated.isCompleted)
+      system.scheduler.scheduleOnce(retryDelay)(list())
+
+  private def scheduleWatch(): Unit =
+    if (!system.whenTerminated.isCompleted)
+      system.scheduler.scheduleOnce(retryDelay)(watch())
+}
@@ -64,6 +64,23 @@ final class Settings(system: ExtendedActorSystem) extends Extension {
 
   val containerName: Option[String] = Some(kubernetesApi.getString("container-name")).filter(_.nonEmpty)
 
+  val statefulSetService: Option[String] = Some(kubernetesApi.getString("stateful-set-service")).filter(_.nonEmpty)
+
+  val endpointSlicesEnabled: Boolean = kubernetesApi.getBoolean("endpoint-slices.enabled")
+
+  def endpointSlicesServiceName(name: String): String =
+    kubernetesApi.getString("endpoint-slices.service-name").format(name)
+
+  val podWatchEnabled: Boolean = kubernetesApi.getBoolean("pod-watch.enabled")
+
+  val podWatchTimeout: FiniteDuration = kubernetesApi.getDuration("pod-watch.timeout").toScala
+
+  val podWatchRetryDelay: FiniteDuration = kubernetesApi.getDuration("pod-watch.retry-delay").toScala
+
+  val podWatchMaxEventSize: Int = kubernetesApi.getBytes("pod-watch.max-event-size").toInt
+
+  private[kubernetes] def lookupCacheConfig: Config = kubernetesApi.getConfig("lookup-cache")
+
   override def toString =
     s"Settings($apiCaPath, $apiTokenPath, $apiServiceHostEnvName, $apiServicePortEnvName, " +
     s"$podNamespacePath, $podNamespace, $podDomain)"
@@ -35,7 +35,11 @@ class JsonFormatSpec extends AnyWordSpec with Matchers {
                 PodCondition(Some("Ready"), Some("True")),
                 PodCondition(Some("PodScheduled"), Some("True"))))
             )),
-            Some(Metadata(deletionTimestamp = None))
+            Some(
+              Metadata(
+                deletionTimestamp = None,
+                name = Some("akka-cluster-tooling-example-v0-1-0-7f854bcc78-dvm9q"),
+                resourceVersion = Some("6523")))
           ),
           Pod(
             Some(PodSpec(List(Container(
@@ -54,7 +58,11 @@ class JsonFormatSpec extends AnyWordSpec with Matchers {
                 PodCondition(Some("Ready"), Some("True")),
                 PodCondition(Some("PodScheduled"), Some("True"))))
             )),
-            Some(Metadata(deletionTimestamp = None))
+            Some(
+              Metadata(
+                deletionTimestamp = None,
+                name = Some("akka-cluster-tooling-example-v0-1-0-7f854bcc78-m8dqb"),
+                resourceVersion = Some("6520")))
           ),
           Pod(
             Some(PodSpec(List(Container(
@@ -73,7 +81,11 @@ class JsonFormatSpec extends AnyWordSpec with Matchers {
                 PodCondition(Some("Ready"), Some("True")),
                 PodCondition(Some("PodScheduled"), Some("True"))))
             )),
-            Some(Metadata(deletionTimestamp = Some("2017-12-06T16:30:22Z")))
+            Some(
+              Metadata(
+                deletionTimestamp = Some("2017-12-06T16:30:22Z"),
+                name = Some("akka-cluster-tooling-example-v0-1-0-7f854bcc78-xncvj"),
+                resourceVersion = Some("6593")))
           ),
           Pod(
             Some(PodSpec(
@@ -89,9 +101,15 @@ class JsonFormatSpec extends AnyWordSpec with Matchers {
                 PodCondition(Some("PodScheduled"), Some("True"))
               ))
             )),
-            Some(Metadata(deletionTimestamp = None))
+            Some(
+              Metadata(
+                deletionTimestamp = None,
+                name = Some("akka-cluster-tooling-example-job-mt4qt"),
+                resourceVersion = Some("7406832")))
           )
-        ))
+        ),
+        Some(ListMetadata(resourceVersion = Some("16042")))
+      )
     }
   }
 
@@ -79,6 +79,36 @@ class KubernetesApiServiceDiscoverySpec extends AnyWordSpec with Matchers {
         ))
     }
 
+    "resolve the pods of a StatefulSet to their stable DNS names" in {
+      def pod(name: String, ip: String) =
+        Pod(
+          Some(PodSpec(List(Container("example", Some(List(ContainerPort(Some("management"), 10001))))))),
+          Some(PodStatus(Some(ip), Some(Nil), Some("Running"), Some(readyConditions))),
+          Some(Metadata(deletionTimestamp = None, name = Some(name))))
+      val podList = PodList(List(pod("my-app-0", "172.17.0.4"), pod("my-app-1", "172.17.0.5")))
+
+      KubernetesApiServiceDiscovery.targets(
+        podList,
+        Some("management"),
+        "default",
+        "cluster.local",
+        true,
+        None,
+        false,
+        Some("my-app")) shouldBe List(
+        ResolvedTarget(
+          host = "my-app-0.my-app.default.svc.cluster.local",
+          port = Some(10001),
+          address = Some(InetAddress.getByName("172.17.0.4"))
+        ),
+        ResolvedTarget(
+          host = "my-app-1.my-app.default.svc.cluster.local",
+          port = Some(10001),
+          address = Some(InetAddress.getByName("172.17.0.5"))
+        )
+      )
+    }
+
     "ignore deleted pods" in {
       val podList =
         PodList(
@@ -379,6 +409,60 @@ class KubernetesApiServiceDiscoverySpec extends AnyWordSpec with Matchers {
     }
   }
 
+  "targets from endpoint slices" should {
+    val endpointSliceList = {
+      import spray.json._
+      JsonFormat.endpointSliceListFormat.read(resourceAsString("endpoint-slices.json").parseJson)
+    }
+
+    def target(ip: String, port: Option[Int]) =
+      ResolvedTarget(host = ip, port = port, address = Some(InetAddress.getByName(ip)))
+
+    "include the endpoints that are not ready, but not the terminating ones" in {
+      KubernetesApiServiceDiscovery.endpointSliceTargets(
+        endpointSliceList,
+        Some("management"),
+        "default",
+        "cluster.local",
+        true,
+        false) shouldBe List(
+        target("172.17.0.4", Some(8558)),
+        target("172.17.0.5", Some(8558)),
+        target("172.17.0.7", Some(8558)))
+    }
+
+    "only include the ready endpoints when discovering only ready pods" in {
+      KubernetesApiServiceDiscovery.endpointSliceTargets(
+        endpointSliceList,
+        Some("http"),
+        "default",
+        "cluster.local",
+        true,
+        true) shouldBe List(target("172.17.0.4", Some(8080)), target("172.17.0.7", Some(8080)))
+    }
+
+    "resolve without a port when no port name is requested" in {
+      KubernetesApiServiceDiscovery.endpointSliceTargets(
+        endpointSliceList,
+        None,
+        "default",
+        "cluster.local",
+        true,
+        true) shouldBe List(target("172.17.0.4", None), target("172.17.0.7", None))
+    }
+
+    "resolve to the same host names as the pods" in {
+      KubernetesApiServiceDiscovery
+        .endpointSliceTargets(endpointSliceList, None, "default", "cluster.local", false, true)
+        .map(_.host) shouldBe List("172-17-0-4.default.pod.cluster.local", "172-17-0-7.default.pod.cluster.local")
+      KubernetesApiServiceDiscovery
+        .endpointSliceTargets(endpointSliceList, None, "default", "cluster.local", true, true, Some("example"))
+        .map(_.host) shouldBe List(
+        "akka-cluster-tooling-example-0.example.default.svc.cluster.local",
+        "akka-cluster-tooling-example-3.example.default.svc.cluster.local")
+    }
+  }
+
   "The discovery loading mechanism" should {
     "allow loading kubernetes-api discovery even if it is not the default" in {
       val system = ActorSystem()
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.discovery.kubernetes
+
+import scala.io.Source
+
+import akka.discovery.kubernetes.PodList._
+import akka.util.ByteString
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+import spray.json._
+
+class PodListDecoderSpec extends AnyWordSpec with Matchers {
+
+  "PodListDecoder" should {
+    List("pods.json", "multi-container-pod.json", "multi-container-pod-pending.json").foreach { name =>
+      s"decode the same pod list as the JSON format for $name" in {
+        val data = resourceAsString(name)
+        PodListDecoder.decode(ByteString(data)) shouldBe JsonFormat.podListFormat.read(data.parseJson)
+      }
+    }
+
+    "skip unused fields and treat null as absent" in {
+      val data =
+        """{
+          |  "kind": "PodList",
+          |  "metadata": {"resourceVersion": "42", "continue": null},
+          |  "items": [{
+          |    "metadata": {
+          |      "name": "pod-1",
+          |      "labels": {"app": "test"},
+          |      "ownerReferences": [{"kind": "ReplicaSet", "controller": true}],
+          |      "deletionTimestamp": null
+          |    },
+          |    "spec": {
+          |      "volumes": [{"name": "data", "emptyDir": {}}],
+          |      "containers": [{
+          |        "name": "akka",
+          |        "env": [{"name": "A", "value": "1"}, {"name": "B", "valueFrom": {"fieldRef": {"fieldPath": "x"}}}],
+          |        "ports": [{"name": "management", "containerPort": 8558, "protocol": "TCP"}, {"containerPort": 25520}]
+          |      }, {
+          |        "name": "sidecar",
+          |        "ports": null
+          |      }]
+          |    },
+          |    "status": {
+          |      "phase": "Running",
+          |      "podIP": "10.0.0.1",
+          |      "podIPs": [{"ip": "10.0.0.1"}],
+          |      "conditions": [{"type": "Ready", "status": "True", "lastTransitionTime": "2025-01-01T00:00:00Z"}],
+          |      "containerStatuses": [{"name": "akka", "ready": true, "state": {"running": {"startedAt": "x"}}}]
+          |    }
+          |  }]
+          |}""".stripMargin
+
+      PodListDecoder.decode(ByteString(data)) shouldBe PodList(
+        List(
+          Pod(
+            Some(
+              PodSpec(List(
+                Container(
+                  "akka",
+                  Some(List(ContainerPort(Some("management"), 8558), ContainerPort(None, 25520)))),
+                Container("sidecar", None)))),
+            Some(
+              PodStatus(
+                Some("10.0.0.1"),
+                Some(List(ContainerStatus("akka", Map("running" -> (()))))),
+                Some("Running"),
+                Some(List(PodCondition(Some("Ready"), Some("True")))))),
+            Some(Metadata(deletionTimestamp = None, name = Some("pod-1"), resourceVersion = None))
+          )),
+        Some(ListMetadata(Some("42"))))
+    }
+
+    "fail when a required field is missing" in {
+      val data = """{"items": [{"spec": {"containers": [{"ports": []}]}}]}"""
+      a[DeserializationException] should be thrownBy PodListDecoder.decode(ByteString(data))
+    }
+
+    "fail when a field has an unexpected type" in {
+      val data = """{"items": [{"status": {"podIP": 10}}]}"""
+      a[DeserializationException] should be thrownBy PodListDecoder.decode(ByteString(data))
+    }
+  }
+
+  private def resourceAsString(name: String): String =
+    Source.fromInputStream(getClass.getClassLoader.getResourceAsStream(name)).mkString
+}
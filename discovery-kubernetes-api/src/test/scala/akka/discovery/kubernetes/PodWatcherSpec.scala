@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.discovery.kubernetes
+
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicInteger
+
+import scala.concurrent.Future
+import scala.concurrent.Promise
+import scala.concurrent.duration._
+import scala.jdk.CollectionConverters._
+
+import akka.actor.ActorSystem
+import akka.discovery.kubernetes.PodList._
+import akka.event.Logging
+import akka.http.scaladsl.model.ContentTypes
+import akka.http.scaladsl.model.HttpEntity
+import akka.http.scaladsl.model.HttpResponse
+import akka.http.scaladsl.model.StatusCodes
+import akka.stream.scaladsl.Source
+import akka.util.ByteString
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.Eventually
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.time.Millis
+import org.scalatest.time.Seconds
+import org.scalatest.time.Span
+import org.scalatest.wordspec.AnyWordSpec
+
+class PodWatcherSpec extends AnyWordSpec with Matchers with ScalaFutures with Eventually with BeforeAndAfterAll {
+
+  implicit val system: ActorSystem = ActorSystem("PodWatcherSpec")
+
+  override implicit val patienceConfig: PatienceConfig =
+    PatienceConfig(timeout = Span(3, Seconds), interval = Span(50, Millis))
+
+  override protected def afterAll(): Unit =
+    system.terminate()
+
+  private def pod(name: String, ip: String, resourceVersion: String): Pod =
+    Pod(
+      Some(PodSpec(List(Container("akka", None)))),
+      Some(PodStatus(Some(ip), Some(Nil), Some("Running"), None)),
+      Some(Metadata(deletionTimestamp = None, name = Some(name), resourceVersion = Some(resourceVersion))))
+
+  private def event(tpe: String, obj: String): String =
+    s"""{"type":"$tpe","object":$obj}"""
+
+  private def podEvent(tpe: String, pod: Pod): String =
+    event(tpe, JsonFormat.podFormat.write(pod).compactPrint)
+
+  private def watchResponse(events: String*): Future[HttpResponse] =
+    Future.successful(
+      HttpResponse(entity =
+        HttpEntity(ContentTypes.`application/json`, Source(events.toList).map(e => ByteString(e + "\n")))))
+
+  private def podIps(watcher: PodWatcher): Seq[String] =
+    watcher.podList().futureValue.items.flatMap(_.status).flatMap(_.podIP)
+
+  private def watcher(listPods: () => Future[PodList], watchPods: String => Future[HttpResponse]): PodWatcher = {
+    val watcher =
+      new PodWatcher("app=test", listPods, watchPods, 64 * 1024, 100.millis, Logging(system, classOf[PodWatcherSpec]))
+    watcher.start()
+    watcher
+  }
+
+  "The PodWatcher" should {
+    "apply watch events to the listed pods" in {
+      val watchedVersions = new ConcurrentLinkedQueue[String]()
+      val podList = PodList(
+        List(pod("a", "10.0.0.1", "1"), pod("b", "10.0.0.2", "1")),
+        Some(ListMetadata(resourceVersion = Some("1"))))
+
+      val w = watcher(
+        () => Future.successful(podList),
+        resourceVersion => {
+          watchedVersions.add(resourceVersion)
+          if (resourceVersion == "1")
+            watchResponse(
+              podEvent("ADDED", pod("c", "10.0.0.3", "2")),
+              podEvent("DELETED", pod("a", "10.0.0.1", "3")),
+              podEvent("MODIFIED", pod("b", "10.0.0.4", "4")),
+              event("BOOKMARK", """{"metadata":{"resourceVersion":"5"}}"""))
+          else
+            Promise[HttpResponse]().future
+        })
+
+      eventually {
+        podIps(w) shouldBe List("10.0.0.4", "10.0.0.3")
+        // watch is resumed from the last seen resource version once the API server ends it
+        watchedVersions.toArray.toList shouldBe List("1", "5")
+      }
+    }
+
+    "list the pods again when the watched resource version has expired" in {
+      val lists = new AtomicInteger()
+
+      val w = watcher(
+        () => {
+          val n = lists.incrementAndGet()
+          Future.successful(
+            PodList(List(pod(s"pod-$n", s"10.0.0.$n", n.toString)), Some(ListMetadata(Some(n.toString)))))
+        },
+        resourceVersion =>
+          if (resourceVersion == "1")
+            watchResponse(event("ERROR", """{"kind":"Status","code":410,"reason":"Expired"}"""))
+          else
+            Promise[HttpResponse]().future)
+
+      eventually {
+        lists.get shouldBe 2
+        podIps(w) shouldBe List("10.0.0.2")
+      }
+    }
+
+    "list the pods again when the watch request returns 410 Gone" in {
+      val lists = new AtomicInteger()
+
+      val w = watcher(
+        () => {
+          val n = lists.incrementAndGet()
+          Future.successful(
+            PodList(List(pod(s"pod-$n", s"10.0.0.$n", n.toString)), Some(ListMetadata(Some(n.toString)))))
+        },
+        resourceVersion =>
+          if (resourceVersion == "1") Future.successful(HttpResponse(StatusCodes.Gone))
+          else Promise[HttpResponse]().future)
+
+      eventually {
+        lists.get shouldBe 2
+        podIps(w) shouldBe List("10.0.0.2")
+      }
+    }
+
+    "continue a watch that ends right away only after the retry delay" in {
+      val watchedAt = new ConcurrentLinkedQueue[Long]()
+
+      watcher(
+        () => Future.successful(PodList(List(pod("a", "10.0.0.1", "1")), Some(ListMetadata(Some("1"))))),
+        _ => {
+          watchedAt.add(System.nanoTime())
+          // e.g. a proxy that closes the watch with an empty 200 response
+          watchResponse()
+        })
+
+      eventually {
+        watchedAt.size should be >= 4
+      }
+      val times = watchedAt.asScala.toList
+      val intervals = times.zip(times.tail).map { case (a, b) => b - a }
+      all(intervals) should be >= 90.millis.toNanos
+    }
+
+    "retry listing the pods after a failure" in {
+      val lists = new AtomicInteger()
+
+      val w = watcher(
+        () =>
+          if (lists.incrementAndGet() == 1) Future.failed(new RuntimeException("boom"))
+          else Future.successful(PodList(List(pod("a", "10.0.0.1", "1")), Some(ListMetadata(Some("1"))))),
+        _ => Promise[HttpResponse]().future)
+
+      eventually {
+        podIps(w) shouldBe List("10.0.0.1")
+      }
+    }
+  }
+}
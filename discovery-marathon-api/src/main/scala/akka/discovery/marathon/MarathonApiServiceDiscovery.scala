@@ -5,6 +5,7 @@
 package akka.discovery.marathon
 
 import java.net.InetAddress
+import java.util.concurrent.TimeoutException
 
 import akka.actor.ActorSystem
 import akka.discovery._
@@ -13,13 +14,18 @@ import akka.http.scaladsl.model._
 import akka.http.scaladsl.unmarshalling.Unmarshal
 import scala.collection.immutable.Seq
 import scala.concurrent.Future
+import scala.concurrent.Promise
+import scala.concurrent.duration.Deadline
 import scala.concurrent.duration.FiniteDuration
+import scala.util.Failure
+import scala.util.Success
 import scala.util.Try
 
 import AppList._
 import JsonFormat._
 import akka.annotation.ApiMayChange
 import akka.discovery.ServiceDiscovery.{ Resolved, ResolvedTarget }
+import akka.discovery.cache.LookupCaches
 import akka.event.Logging
 
 @ApiMayChange
@@ -86,7 +92,13 @@ class MarathonApiServiceDiscovery(implicit system: ActorSystem) extends ServiceD
 
   private val settings = Settings(system)
 
-  override def lookup(lookup: Lookup, resolveTimeout: FiniteDuration): Future[Resolved] = {
+  private val lookupCache = LookupCaches(system).cacheFor("marathon-api", settings.lookupCacheConfig)
+
+  override def lookup(lookup: Lookup, resolveTimeout: FiniteDuration): Future[Resolved] =
+    // the timeout of the request is the fetch timeout of the cache when the request is shared with other lookups
+    lookupCache.lookup(lookup, resolveTimeout)(fetchTimeout => resolve(lookup, fetchTimeout))
+
+  private def resolve(lookup: Lookup, fetchTimeout: FiniteDuration): Future[Resolved] = {
     val uri =
       Uri(settings.appApiUrl).withQuery(
         Uri.Query(
@@ -103,10 +115,11 @@ class MarathonApiServiceDiscovery(implicit system: ActorSystem) extends ServiceD
       case None       => settings.appPortName
     }
 
+    val deadline = fetchTimeout.fromNow
     for {
-      response <- http.singleRequest(request)
+      response <- withinDeadline(http.singleRequest(request), deadline)
 
-      entity <- response.entity.toStrict(resolveTimeout)
+      entity <- response.entity.toStrict(deadline.timeLeft)
 
       appList <- {
         log.debug("Marathon API entity: [{}]", entity.data.utf8String)
@@ -125,4 +138,22 @@ class MarathonApiServiceDiscovery(implicit system: ActorSystem) extends ServiceD
     } yield Resolved(lookup.serviceName, targets(appList, portName))
   }
 
+  // the body of a response that arrives after the deadline is discarded
+  private def withinDeadline(response: Future[HttpResponse], deadline: Deadline): Future[HttpResponse] = {
+    val result = Promise[HttpResponse]()
+    val timeLeft = deadline.timeLeft
+    val timer = system.scheduler.scheduleOnce(timeLeft) {
+      result.tryFailure(new TimeoutException(s"Marathon API request timed out after [$timeLeft]"))
+    }
+    response.onComplete {
+      case Success(r) =>
+        timer.cancel()
+        if (!result.trySuccess(r)) r.discardEntityBytes()
+      case Failure(e) =>
+        timer.cancel()
+        result.tryFailure(e)
+    }
+    result.future
+  }
+
 }
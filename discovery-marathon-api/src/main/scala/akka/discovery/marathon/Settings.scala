@@ -6,6 +6,8 @@ package akka.discovery.marathon
 
 import akka.actor._
 import akka.annotation.ApiMayChange
+import akka.annotation.InternalApi
+import com.typesafe.config.Config
 
 @ApiMayChange
 @deprecated("Use another discovery method instead.", "1.6.0")
@@ -20,6 +22,10 @@ final class Settings(system: ExtendedActorSystem) extends Extension {
 
   val appLabelQuery: String =
     marathonApi.getString("app-label-query")
+
+  /** INTERNAL API */
+  @InternalApi private[marathon] def lookupCacheConfig: Config =
+    marathonApi.getConfig("lookup-cache")
 }
 
 @ApiMayChange
@@ -7,6 +7,7 @@ package akka.coordination.lease.kubernetes
 import akka.Done
 import akka.actor.ActorSystem
 import akka.coordination.lease.kubernetes.internal.KubernetesApiImpl
+import akka.management.kubernetes.client.KubernetesClient
 import akka.testkit.TestKit
 import com.typesafe.config.ConfigFactory
 import org.scalatest.{ BeforeAndAfterAll, CancelAfterFailure }
@@ -55,7 +56,11 @@ class KubernetesApiIntegrationTest
     false
   )
 
-  val underTest = new KubernetesApiImpl(system, settings, "lease", () => Future.successful("token"), None)
+  val underTest = new KubernetesApiImpl(
+    system,
+    settings,
+    "lease",
+    KubernetesClient(system, "lease", settings.apiServerSettings, () => Future.successful("token"), None))
   val leaseName = "lease-1"
   val client1 = "client-1"
   val client2 = "client-2"
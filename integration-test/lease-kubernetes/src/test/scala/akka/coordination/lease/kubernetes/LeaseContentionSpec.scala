@@ -12,6 +12,7 @@ import akka.actor.ActorSystem
 import akka.coordination.lease.TimeoutSettings
 import akka.coordination.lease.kubernetes.internal.KubernetesApiImpl
 import akka.coordination.lease.scaladsl.LeaseProvider
+import akka.management.kubernetes.client.KubernetesClient
 import akka.testkit.TestKit
 import com.typesafe.config.ConfigFactory
 import org.scalatest.concurrent.ScalaFutures
@@ -54,12 +55,13 @@ class LeaseContentionSpec
   implicit val patience: PatienceConfig = PatienceConfig(testKitSettings.DefaultTimeout.duration)
 
   // for cleanup
+  val k8sSettings =
+    KubernetesSettings(system, TimeoutSettings(system.settings.config.getConfig("akka.coordination.lease.kubernetes")))
   val k8sApi = new KubernetesApiImpl(
     system,
-    KubernetesSettings(system, TimeoutSettings(system.settings.config.getConfig("akka.coordination.lease.kubernetes"))),
+    k8sSettings,
     "lease",
-    () => Future.successful("token"),
-    None)
+    KubernetesClient(system, "lease", k8sSettings.apiServerSettings, () => Future.successful("token"), None))
 
   val lease1 = "contended-lease"
   val lease2 = "contended-lease-2"
@@ -9,6 +9,7 @@ import scala.concurrent.duration._
 import akka.Done
 import akka.actor.ActorSystem
 import akka.cluster.Cluster
+import akka.management.kubernetes.client.KubernetesClient
 import akka.testkit.TestKit
 import com.typesafe.config.ConfigFactory
 import org.scalatest.concurrent.Eventually
@@ -72,8 +73,7 @@ class KubernetesApiIntegrationTest
       system,
       settings,
       settings.namespace.get,
-      () => Future.successful(""),
-      clientHttpsConnectionContext = None)
+      KubernetesClient(system, "rolling-update", settings.apiServerSettings, () => Future.successful(""), None))
   private val crName = KubernetesApi.makeDNS1039Compatible(system.name)
   private val podName1 = "pod1"
   private val podName2 = "pod2"
@@ -4,7 +4,9 @@
 
 package akka.coordination.lease.kubernetes
 
+import akka.NotUsed
 import akka.annotation.InternalApi
+import akka.stream.scaladsl.Source
 
 import scala.concurrent.Future
 
@@ -45,4 +47,10 @@ private[akka] trait KubernetesApi {
       clientName: String,
       version: String,
       time: Long = System.currentTimeMillis()): Future[Either[LeaseResource, LeaseResource]]
+
+  /**
+   * Reads the named resource and then emits it again every time it changes, until the watch ends. The watch ends
+   * when the API server closes it, which it does after a while, or when it fails.
+   */
+  def watchLeaseResource(name: String): Source[LeaseResource, NotUsed]
 }
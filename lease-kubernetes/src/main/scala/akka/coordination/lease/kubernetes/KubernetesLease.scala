@@ -4,17 +4,11 @@
 
 package akka.coordination.lease.kubernetes
 
-import java.nio.file.Files
-import java.nio.file.Paths
-import java.security.KeyStore
-import java.security.SecureRandom
 import java.text.Normalizer
 import java.util.concurrent.atomic.AtomicBoolean
 import java.util.concurrent.atomic.AtomicInteger
 
-import scala.concurrent.ExecutionContext
 import scala.concurrent.Future
-import scala.util.control.NonFatal
 
 import akka.actor.ActorRef
 import akka.actor.ExtendedActorSystem
@@ -23,21 +17,13 @@ import akka.coordination.lease.LeaseSettings
 import akka.coordination.lease.LeaseTimeoutException
 import akka.coordination.lease.kubernetes.KubernetesLease.makeDNS1039Compatible
 import akka.coordination.lease.kubernetes.LeaseActor._
-import akka.coordination.lease.kubernetes.internal.KubernetesApiImpl
+import akka.coordination.lease.kubernetes.internal.KubernetesLeaseManager
 import akka.coordination.lease.scaladsl.Lease
-import akka.dispatch.Dispatchers.DefaultBlockingDispatcherId
 import akka.event.Logging
-import akka.http.scaladsl.ConnectionContext
-import akka.http.scaladsl.HttpsConnectionContext
 import akka.pattern.AskTimeoutException
 import akka.pattern.ask
-import akka.pki.kubernetes.PemManagersProvider
 import akka.util.ConstantFun
 import akka.util.Timeout
-import javax.net.ssl.KeyManager
-import javax.net.ssl.KeyManagerFactory
-import javax.net.ssl.SSLContext
-import javax.net.ssl.TrustManager
 
 object KubernetesLease {
   val configPath = "akka.coordination.lease.kubernetes"
@@ -87,30 +73,12 @@ class KubernetesLease private[akka] (system: ExtendedActorSystem, leaseTaken: At
 
   private val k8sSettings = KubernetesSettings(settings.leaseConfig, settings.timeoutSettings)
   private val leaseName = makeDNS1039Compatible(settings.leaseName, k8sSettings.allowLeaseNameTruncation)
-  private object Dispatchers {
-    implicit val blocking: ExecutionContext = system.dispatchers.lookup(DefaultBlockingDispatcherId)
-  }
+  private val manager = KubernetesLeaseManager(system)
+  private val k8sApi: Future[KubernetesApi] = manager.apiClient(k8sSettings)
+  private val heartbeatTicks =
+    if (k8sSettings.alignHeartbeats) Some(manager.heartbeatTicks(settings.timeoutSettings.heartbeatInterval))
+    else None
 
-  private def k8sApiToken(): Future[String] = {
-    import Dispatchers.blocking
-    Future {
-      readConfigVarFromFilesystem(k8sSettings.apiTokenPath, "api-token").getOrElse("")
-    }
-  }
-
-  private val k8sApi: Future[KubernetesApi] = {
-    import Dispatchers.blocking
-    for {
-      namespace: String <- Future {
-        k8sSettings.namespace
-          .orElse(readConfigVarFromFilesystem(k8sSettings.namespacePath, "namespace"))
-          .getOrElse("default")
-      }
-      httpsContext <- Future(clientHttpsConnectionContext())
-    } yield {
-      new KubernetesApiImpl(system, k8sSettings, namespace, k8sApiToken, httpsContext)
-    }
-  }
   private implicit val timeout: Timeout = Timeout(settings.timeoutSettings.operationTimeout)
   import system.dispatcher
 
@@ -125,7 +93,7 @@ class KubernetesLease private[akka] (system: ExtendedActorSystem, leaseTaken: At
         leaseName,
         settings.ownerName)
       system.systemActorOf(
-        LeaseActor.props(api, settings, leaseName, leaseTaken),
+        LeaseActor.props(api, settings, leaseName, leaseTaken, heartbeatTicks, k8sSettings.watchLease),
         s"kubernetesLease${KubernetesLease.leaseCounter.incrementAndGet}"
       )
     }
@@ -174,44 +142,4 @@ class KubernetesLease private[akka] (system: ExtendedActorSystem, leaseTaken: At
       }
     }
   }
-
-  /**
-   * This uses blocking IO, and so should only be used at startup from blocking dispatcher.
-   */
-  private def clientHttpsConnectionContext(): Option[HttpsConnectionContext] = {
-    if (k8sSettings.secure) {
-      val certificates = PemManagersProvider.loadCertificates(k8sSettings.apiCaPath)
-      val factory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm)
-      val keyStore = KeyStore.getInstance("PKCS12")
-      keyStore.load(null)
-      factory.init(keyStore, Array.empty)
-      val km: Array[KeyManager] = factory.getKeyManagers
-      val tm: Array[TrustManager] =
-        PemManagersProvider.buildTrustManagers(certificates)
-      val random: SecureRandom = new SecureRandom
-      val sslContext = SSLContext.getInstance("TLSv1.2")
-      sslContext.init(km, tm, random)
-      Some(ConnectionContext.httpsClient(sslContext))
-    } else
-      None
-  }
-
-  /**
-   * This uses blocking IO, and so should only be used to read configuration at startup from blocking dispatcher.
-   */
-  private def readConfigVarFromFilesystem(path: String, name: String): Option[String] = {
-    val file = Paths.get(path)
-    if (Files.exists(file)) {
-      try {
-        Some(new String(Files.readAllBytes(file), "utf-8"))
-      } catch {
-        case NonFatal(e) =>
-          log.error(e, "Error reading {} from {}", name, path)
-          None
-      }
-    } else {
-      log.warning("Unable to read {} from {} because it doesn't exist.", name, path)
-      None
-    }
-  }
 }
@@ -7,6 +7,7 @@ package akka.coordination.lease.kubernetes
 import akka.actor.ActorSystem
 import akka.annotation.InternalApi
 import akka.coordination.lease.TimeoutSettings
+import akka.management.kubernetes.client.ApiServerSettings
 import com.typesafe.config.Config
 
 import scala.concurrent.duration.{ FiniteDuration, _ }
@@ -55,7 +56,10 @@ private[akka] object KubernetesSettings {
       secure = config.getBoolean("secure-api-server"),
       insecureTokens = false,
       apiServerRequestTimeout / 2,
-      config.getBoolean("allow-lease-name-truncation"))
+      config.getBoolean("allow-lease-name-truncation"),
+      config.getInt("max-concurrent-requests"),
+      config.getBoolean("align-heartbeats"),
+      config.getBoolean("watch-lease"))
 
   }
 }
@@ -77,4 +81,11 @@ private[akka] class KubernetesSettings(
     // Note: for token testability
     val insecureTokens: Boolean = false,
     val bodyReadTimeout: FiniteDuration = 1.second,
-    val allowLeaseNameTruncation: Boolean = false)
+    val allowLeaseNameTruncation: Boolean = false,
+    val maxConcurrentRequests: Int = 16,
+    val alignHeartbeats: Boolean = false,
+    val watchLease: Boolean = false) {
+
+  def apiServerSettings: ApiServerSettings =
+    ApiServerSettings(apiServerHost, apiServerPort, secure, apiCaPath, apiTokenPath, apiTokenTtl, insecureTokens)
+}
@@ -10,6 +10,13 @@ import akka.actor.Status.Failure
 import akka.actor.{ ActorRef, DeadLetterSuppression, FSM, LoggingFSM, Props }
 import akka.annotation.InternalApi
 import akka.coordination.lease.{ LeaseSettings, LeaseTimeoutException }
+import akka.coordination.lease.kubernetes.internal.HeartbeatTicks
+import akka.management.metrics.ManagementMetrics
+import akka.stream.KillSwitches
+import akka.stream.Materializer
+import akka.stream.UniqueKillSwitch
+import akka.stream.scaladsl.Keep
+import akka.stream.scaladsl.Sink
 import akka.util.ConstantFun
 import akka.util.PrettyDuration._
 
@@ -32,9 +39,14 @@ private[akka] object LeaseActor {
   sealed trait Data
   case object ReadRequired extends Data
 
-  // Known version from when the lease was cleared. A subsequent update can try without reading
-  // with the given version as it was from an update that set client to None
-  case class LeaseCleared(version: String) extends Data
+  // Latest state of the lease from a response that didn't leave it granted to this owner, e.g. from releasing it or
+  // from a failed attempt to take it. When it was free or had expired a subsequent acquire can try the update with its
+  // version without reading, a conflict returns the current state so the read is then done by the update
+  case class Observed(resource: LeaseResource) extends Data
+
+  // Latest state of a lease that is taken by another owner, from watching it. An acquire can be answered
+  // from it without reading, and can try to update it directly when it has been released or has expired
+  case class Watched(resource: LeaseResource) extends Data
 
   sealed trait ReplyRequired {
     def replyTo: ActorRef
@@ -60,7 +72,8 @@ private[akka] object LeaseActor {
       version: String,
       leaseLostCallback: Option[Throwable] => Unit,
       lastHeartbeatTime: Long = System.nanoTime(),
-      retryCount: Int = 0)
+      retryCount: Int = 0,
+      heartbeatInProgress: Boolean = false)
       extends Data
 
   sealed trait Command
@@ -70,9 +83,13 @@ private[akka] object LeaseActor {
   // internal
   private case class ReadResponse(response: LeaseResource) extends Command
   private case class WriteResponse(response: Either[LeaseResource, LeaseResource]) extends Command
-  private case object Heartbeat extends Command
+  private[kubernetes] case object Heartbeat extends Command
   private case class HeartbeatRetry(retryCount: Int) extends Command
   private case class AcquireRetry(retryCount: Int) extends Command
+  private case class WatchedLease(watch: Int, resource: LeaseResource) extends Command
+  private case class WatchEnded(watch: Int, cause: Option[Throwable]) extends Command
+  private case object RestartWatch extends Command
+  private case object WatchIdle extends Command
 
   sealed trait Response
   case object LeaseAcquired extends Response
@@ -81,7 +98,21 @@ private[akka] object LeaseActor {
   case class InvalidRequest(reason: String) extends Response with DeadLetterSuppression
 
   def props(k8sApi: KubernetesApi, settings: LeaseSettings, leaseName: String, granted: AtomicBoolean): Props = {
-    Props(new LeaseActor(k8sApi, settings, leaseName, granted))
+    Props(new LeaseActor(k8sApi, settings, leaseName, granted, None, watchLease = false))
+  }
+
+  /**
+   * @param heartbeatTicks when defined heartbeats are sent on these shared ticks instead of with a timer per lease
+   * @param watchLease whether to watch the lease while it is taken by another owner
+   */
+  def props(
+      k8sApi: KubernetesApi,
+      settings: LeaseSettings,
+      leaseName: String,
+      granted: AtomicBoolean,
+      heartbeatTicks: Option[HeartbeatTicks],
+      watchLease: Boolean): Props = {
+    Props(new LeaseActor(k8sApi, settings, leaseName, granted, heartbeatTicks, watchLease))
   }
 
 }
@@ -94,7 +125,9 @@ private[akka] class LeaseActor(
     k8sApi: KubernetesApi,
     settings: LeaseSettings,
     leaseName: String,
-    granted: AtomicBoolean)
+    granted: AtomicBoolean,
+    heartbeatTicks: Option[HeartbeatTicks],
+    watchLease: Boolean)
     extends LoggingFSM[LeaseActor.State, LeaseActor.Data] {
 
   import akka.coordination.lease.kubernetes.LeaseActor._
@@ -103,18 +136,77 @@ private[akka] class LeaseActor(
 
   private val ownerName = settings.ownerName
 
+  private lazy val materializer = Materializer(context)
+  private var watch: Option[UniqueKillSwitch] = None
+  // to tell the events of the current watch from those of a stopped one
+  private var watchCount = 0
+
+  private val metrics = ManagementMetrics(context.system)
+  private val acquireDurations = List("acquired", "taken", "failed").map { result =>
+    result -> metrics.durationHistogram(
+      "akka_lease_kubernetes_acquire_duration_seconds",
+      "Duration of the lease acquires that read or updated the lease, by result",
+      "result" -> result)
+  }.toMap
+  private val heartbeatDurations = List("ok", "conflict", "failed").map { result =>
+    result -> metrics.durationHistogram(
+      "akka_lease_kubernetes_heartbeat_duration_seconds",
+      "Duration of the lease heartbeat updates, by result",
+      "result" -> result)
+  }.toMap
+  private def retries(operation: String) =
+    metrics.counter(
+      "akka_lease_kubernetes_retries",
+      "Retries of lease operations after a failure",
+      "operation" -> operation)
+  private val acquireRetries = retries("acquire")
+  private val heartbeatRetries = retries("heartbeat")
+  private var heartbeatStartTime = 0L
+
+  private def acquireCompleted(result: String, acquireStartTime: Long): Unit =
+    acquireDurations(result).observeNanos(System.nanoTime() - acquireStartTime)
+
+  private def heartbeatCompleted(result: String): Unit =
+    heartbeatDurations(result).observeNanos(System.nanoTime() - heartbeatStartTime)
+
   startWith(Idle, ReadRequired)
 
   when(Idle) {
-    case Event(Acquire(leaseLostCallback), ReadRequired) =>
+    case Event(Acquire(_), Watched(resource)) if isTakenByOther(resource) =>
+      // the watch tells when that changes, no need to read
+      keepWatching()
+      sender() ! LeaseTaken
+      stay()
+    case Event(Acquire(leaseLostCallback), Watched(resource)) =>
+      // released or expired, continue as if it was just read
+      self ! ReadResponse(resource)
+      goto(PendingRead).using(PendingReadData(sender(), leaseLostCallback))
+
+    // Initial read can be skipped as we have a version of the lease when it was free or had expired
+    case Event(Acquire(leaseLostCallback), Observed(resource)) if !isTakenByOther(resource) =>
+      tryGetLease(resource.version, sender(), leaseLostCallback, System.nanoTime())
+
+    case Event(Acquire(leaseLostCallback), ReadRequired | Observed(_)) =>
       // Send off read, pipe result back to self
       pipe(k8sApi.readOrCreateLeaseResource(leaseName).map(ReadResponse.apply)).to(self)
       goto(PendingRead).using(PendingReadData(sender(), leaseLostCallback))
 
-    // Initial read can be skipped as we have a version
-    case Event(Acquire(leaseLostCallback), LeaseCleared(version)) =>
-      pipe(k8sApi.updateLeaseResource(leaseName, ownerName, version).map(r => WriteResponse(r))).to(self)
-      goto(Granting).using(OperationInProgress(sender(), version, leaseLostCallback))
+    case Event(WatchedLease(count, resource), ReadRequired | Observed(_) | Watched(_)) if count == watchCount =>
+      stay().using(Watched(resource))
+    case Event(WatchEnded(count, cause), _) if count == watchCount =>
+      cause.foreach(t => log.info("Watch of lease {} failed: [{}]", leaseName, t.getMessage))
+      watch = None
+      // the watch is restarted only while acquire is still being retried
+      if (isTimerActive("watch-idle"))
+        startSingleTimer("watch-restart", RestartWatch, settings.timeoutSettings.operationTimeout)
+      stay().using(unwatched)
+    case Event(RestartWatch, _) =>
+      startWatch()
+      stay()
+    case Event(WatchIdle, _) =>
+      log.debug("No acquire of lease {} for {}, stopping watch", leaseName, settings.timeoutSettings.heartbeatTimeout)
+      stopWatch()
+      stay().using(unwatched)
   }
 
   when(PendingRead) {
@@ -140,6 +232,7 @@ private[akka] class LeaseActor(
           leaseName,
           ownerName
         )
+        acquireCompleted("acquired", prd.acquireStartTime)
         prd.replyTo ! LeaseAcquired
         goto(Granted).using(GrantedVersion(version, prd.leaseLostCallback))
       }
@@ -152,9 +245,10 @@ private[akka] class LeaseActor(
           ownerName)
         tryGetLease(version, prd.replyTo, prd.leaseLostCallback, prd.acquireStartTime)
       } else {
+        acquireCompleted("taken", prd.acquireStartTime)
         prd.replyTo ! LeaseTaken
-        // Even though we have a version there is no benefit to storing it as we can't update a lease that has a client
-        goto(Idle).using(ReadRequired)
+        // the version can't be used to update the lease while it has an owner, but once it has expired it can
+        leaseTakenByOther(LeaseResource(Some(currentOwner), version, time))
       }
     case Event(Failure(t), prd: PendingReadData) =>
       val nextRetry = prd.retryCount + 1
@@ -168,6 +262,7 @@ private[akka] class LeaseActor(
           nextRetry,
           delay.pretty
         )
+        acquireRetries.increment()
         startSingleTimer("acquire-retry", AcquireRetry(nextRetry), delay)
         stay().using(prd.copy(retryCount = nextRetry))
       } else {
@@ -178,6 +273,7 @@ private[akka] class LeaseActor(
           elapsed.pretty,
           prd.retryCount + 1
         )
+        acquireCompleted("failed", prd.acquireStartTime)
         prd.replyTo ! Failure(t)
         goto(Idle).using(ReadRequired)
       }
@@ -195,11 +291,13 @@ private[akka] class LeaseActor(
       val operationDuration = System.nanoTime() - op.operationStartTime
       if (operationDuration > (settings.timeoutSettings.heartbeatTimeout.toNanos / 2)) {
         log.warning("API server took too long to respond to update: {}. ", operationDuration.nanos.pretty)
+        acquireCompleted("failed", op.acquireStartTime)
         op.replyTo ! Failure(
           new LeaseTimeoutException(s"API server took too long to respond: ${operationDuration.nanos.pretty}"))
         goto(Idle).using(ReadRequired)
       } else {
         granted.set(true)
+        acquireCompleted("acquired", op.acquireStartTime)
         op.replyTo ! LeaseAcquired
         goto(Granted).using(GrantedVersion(response.version, op.leaseLostCallback))
       }
@@ -215,12 +313,24 @@ private[akka] class LeaseActor(
       // A previous attempt's write actually succeeded on the server even though we observed a transient
       // failure (or never received the response). Treat as acquired.
       granted.set(true)
+      acquireCompleted("acquired", op.acquireStartTime)
       op.replyTo ! LeaseAcquired
       goto(Granted).using(GrantedVersion(version, op.leaseLostCallback))
-    case Event(WriteResponse(Left(LeaseResource(Some(_), _, _))), op: OperationInProgress) =>
+    case Event(WriteResponse(Left(LeaseResource(Some(currentOwner), version, time))), op: OperationInProgress)
+        if hasLeaseTimedOut(time) =>
+      // Tried with a version from before the owner stopped heartbeating, try again with the current version
+      log.warning(
+        "Lease {} has reached TTL. Owner {} has failed to heartbeat, have they crashed?. Allowing {} to try and take lease",
+        leaseName,
+        currentOwner,
+        ownerName)
+      pipe(k8sApi.updateLeaseResource(leaseName, ownerName, version).map(r => WriteResponse(r))).to(self)
+      stay().using(op.copy(version = version))
+    case Event(WriteResponse(Left(resource @ LeaseResource(Some(_), _, _))), op: OperationInProgress) =>
       // The audacity, someone else has taken the lease :(
+      acquireCompleted("taken", op.acquireStartTime)
       op.replyTo ! LeaseTaken
-      goto(Idle).using(ReadRequired) // can't use version as another owner has the lock
+      leaseTakenByOther(resource)
     case Event(Failure(t), op: OperationInProgress) =>
       val nextRetry = op.retryCount + 1
       val delay = acquireRetryDelay(nextRetry)
@@ -233,6 +343,7 @@ private[akka] class LeaseActor(
           nextRetry,
           delay.pretty
         )
+        acquireRetries.increment()
         startSingleTimer("acquire-retry", AcquireRetry(nextRetry), delay)
         stay().using(op.copy(retryCount = nextRetry))
       } else {
@@ -243,6 +354,7 @@ private[akka] class LeaseActor(
           elapsed.pretty,
           op.retryCount + 1
         )
+        acquireCompleted("failed", op.acquireStartTime)
         op.replyTo ! Failure(t)
         goto(Idle).using(ReadRequired)
       }
@@ -254,23 +366,36 @@ private[akka] class LeaseActor(
   }
 
   when(Granted) {
-    case Event(Heartbeat, GrantedVersion(version, _, _, _)) =>
-      log.debug("Heartbeat: updating lease time. Version {}", version)
-      pipe(k8sApi.updateLeaseResource(leaseName, ownerName, version).map(WriteResponse.apply)).to(self)
+    case Event(Heartbeat, gv: GrantedVersion) if gv.heartbeatInProgress || gv.retryCount > 0 =>
+      // a shared tick while the previous heartbeat or its retry is still pending, it would conflict with that write
       stay()
+    case Event(Heartbeat, gv: GrantedVersion) =>
+      log.debug("Heartbeat: updating lease time. Version {}", gv.version)
+      heartbeatStartTime = System.nanoTime()
+      pipe(k8sApi.updateLeaseResource(leaseName, ownerName, gv.version).map(WriteResponse.apply)).to(self)
+      stay().using(gv.copy(heartbeatInProgress = true))
     case Event(WriteResponse(Right(resource)), gv: GrantedVersion) =>
       require(
         resource.owner.contains(ownerName),
         "response from API server has different owner for success: " + resource)
       log.debug("Heartbeat: lease time updated: Version {}", resource.version)
-      startSingleTimer("heartbeat", Heartbeat, settings.timeoutSettings.heartbeatInterval)
-      stay().using(gv.copy(version = resource.version, lastHeartbeatTime = System.nanoTime(), retryCount = 0))
-    case Event(WriteResponse(Left(lr @ _)), GrantedVersion(_, leaseLost, _, _)) =>
+      heartbeatCompleted("ok")
+      if (heartbeatTicks.isEmpty)
+        startSingleTimer("heartbeat", Heartbeat, settings.timeoutSettings.heartbeatInterval)
+      stay().using(
+        gv.copy(
+          version = resource.version,
+          lastHeartbeatTime = System.nanoTime(),
+          retryCount = 0,
+          heartbeatInProgress = false))
+    case Event(WriteResponse(Left(lr @ _)), GrantedVersion(_, leaseLost, _, _, _)) =>
       log.warning("Conflict during heartbeat to lease {}. Lease assumed to be released.", lr)
+      heartbeatCompleted("conflict")
       granted.set(false)
       executeLeaseLockCallback(leaseLost, None)
-      goto(Idle).using(ReadRequired)
-    case Event(Failure(t), gv @ GrantedVersion(_, leaseLost, lastHeartbeatTime, retryCount)) =>
+      goto(Idle).using(Observed(lr))
+    case Event(Failure(t), gv @ GrantedVersion(_, leaseLost, lastHeartbeatTime, retryCount, _)) =>
+      heartbeatCompleted("failed")
       if (hasTimeLeftForHeartbeatRetry(lastHeartbeatTime)) {
         val elapsed = (System.nanoTime() - lastHeartbeatTime).nanos
         val nextRetry = retryCount + 1
@@ -282,8 +407,9 @@ private[akka] class LeaseActor(
           nextRetry,
           delay.pretty
         )
+        heartbeatRetries.increment()
         startSingleTimer("heartbeat-retry", HeartbeatRetry(nextRetry), delay)
-        stay().using(gv.copy(retryCount = nextRetry))
+        stay().using(gv.copy(retryCount = nextRetry, heartbeatInProgress = false))
       } else {
         val elapsed = (System.nanoTime() - lastHeartbeatTime).nanos
         log.warning(
@@ -296,11 +422,12 @@ private[akka] class LeaseActor(
         executeLeaseLockCallback(leaseLost, Some(t))
         goto(Idle).using(ReadRequired)
       }
-    case Event(HeartbeatRetry(retryCount), GrantedVersion(version, leaseLost, lastHeartbeatTime, _)) =>
+    case Event(HeartbeatRetry(retryCount), gv @ GrantedVersion(version, leaseLost, lastHeartbeatTime, _, _)) =>
       if (hasTimeLeftForHeartbeatRetry(lastHeartbeatTime)) {
         log.info("Retrying heartbeat, attempt [{}]. Version [{}]", retryCount, version)
+        heartbeatStartTime = System.nanoTime()
         pipe(k8sApi.updateLeaseResource(leaseName, ownerName, version).map(WriteResponse.apply)).to(self)
-        stay()
+        stay().using(gv.copy(heartbeatInProgress = true))
       } else {
         val elapsed = (System.nanoTime() - lastHeartbeatTime).nanos
         log.warning(
@@ -312,7 +439,7 @@ private[akka] class LeaseActor(
         executeLeaseLockCallback(leaseLost, None)
         goto(Idle).using(ReadRequired)
       }
-    case Event(Release(), GrantedVersion(version, leaseLost, _, _)) =>
+    case Event(Release(), GrantedVersion(version, leaseLost, _, _, _)) =>
       pipe(k8sApi.updateLeaseResource(leaseName, "", version).map(WriteResponse.apply)).to(self)
       goto(Releasing).using(OperationInProgress(sender(), version, leaseLost))
     case Event(Acquire(leaseLostCallback), gv: GrantedVersion) =>
@@ -333,21 +460,21 @@ private[akka] class LeaseActor(
     case Event(WriteResponse(Right(lr)), op: OperationInProgress) =>
       require(lr.owner.isEmpty, "Released lease has unexpected owner: " + lr)
       op.replyTo ! LeaseReleased
-      goto(Idle).using(LeaseCleared(lr.version))
+      goto(Idle).using(Observed(lr))
     case Event(WriteResponse(Left(lr @ LeaseResource(None, _, _))), op: OperationInProgress) =>
       log.warning(
         "Release conflict and owner has been removed: {}. Lease will continue to work but TTL must have been reached to allow another node to remove lease.",
         lr
       )
       op.replyTo ! LeaseReleased
-      goto(Idle).using(ReadRequired)
+      goto(Idle).using(Observed(lr))
     case Event(WriteResponse(Left(lr @ LeaseResource(Some(_), _, _))), op: OperationInProgress) =>
       log.warning(
         "Release conflict and owner has changed: {}. Lease will continue to work but TTL must have been reached to allow another node to update the lease.",
         lr
       )
       op.replyTo ! LeaseReleased
-      goto(Idle).using(ReadRequired)
+      goto(Idle).using(Observed(lr))
   }
 
   whenUnhandled {
@@ -369,9 +496,15 @@ private[akka] class LeaseActor(
     case Event(_: HeartbeatRetry, _) =>
       // stale retry after leaving Granted state, ignore
       stay()
+    case Event(Heartbeat, _) =>
+      // shared tick that was sent before leaving Granted state, ignore
+      stay()
     case Event(_: AcquireRetry, _) =>
       // stale retry after leaving PendingRead / Granting states, ignore
       stay()
+    case Event(_: WatchedLease | _: WatchEnded | RestartWatch | WatchIdle, _) =>
+      // watch events after leaving Idle state, ignore
+      stay()
     case Event(Failure(t), replyRequired: ReplyRequired) =>
       log.warning(
         "Failure communicating with the API server for owner {} lease {}: [{}]. Current state: {}",
@@ -386,15 +519,69 @@ private[akka] class LeaseActor(
   onTransition {
     case _ -> Granted =>
       cancelTimer("acquire-retry")
-      startSingleTimer("heartbeat", Heartbeat, settings.timeoutSettings.heartbeatInterval)
+      heartbeatTicks match {
+        case Some(ticks) => ticks.register(self)
+        case None        => startSingleTimer("heartbeat", Heartbeat, settings.timeoutSettings.heartbeatInterval)
+      }
     case Granted -> _ =>
       cancelTimer("heartbeat")
       cancelTimer("heartbeat-retry")
+      heartbeatTicks.foreach(_.unregister(self))
       granted.set(false)
     case _ -> Idle =>
       cancelTimer("acquire-retry")
+    case Idle -> _ =>
+      stopWatch()
   }
 
+  override def postStop(): Unit = {
+    heartbeatTicks.foreach(_.unregister(self))
+    stopWatch()
+    super.postStop()
+  }
+
+  private def leaseTakenByOther(resource: LeaseResource): State = {
+    if (watchLease) {
+      keepWatching()
+      startWatch()
+    }
+    goto(Idle).using(Observed(resource))
+  }
+
+  // without the watch the last watched state is only good for an update without reading
+  private def unwatched: Data = stateData match {
+    case Watched(resource) => Observed(resource)
+    case data              => data
+  }
+
+  // the watch is stopped when acquire hasn't been retried for a while
+  private def keepWatching(): Unit =
+    startSingleTimer("watch-idle", WatchIdle, settings.timeoutSettings.heartbeatTimeout)
+
+  private def startWatch(): Unit =
+    if (watch.isEmpty) {
+      watchCount += 1
+      val count = watchCount
+      log.debug("Watching lease {} that is taken by another owner", leaseName)
+      watch = Some(
+        k8sApi
+          .watchLeaseResource(leaseName)
+          .map(WatchedLease(count, _))
+          .viaMat(KillSwitches.single)(Keep.right)
+          .to(Sink.actorRef(self, WatchEnded(count, None), t => WatchEnded(count, Some(t))))
+          .run()(materializer))
+    }
+
+  private def stopWatch(): Unit = {
+    watch.foreach(_.shutdown())
+    watch = None
+    cancelTimer("watch-idle")
+    cancelTimer("watch-restart")
+  }
+
+  private def isTakenByOther(resource: LeaseResource): Boolean =
+    resource.owner.exists(_ != ownerName) && !hasLeaseTimedOut(resource.time)
+
   private def tryGetLease(
       version: String,
       reply: ActorRef,
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.coordination.lease.kubernetes.internal
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
+
+import scala.concurrent.ExecutionContext
+import scala.concurrent.duration.FiniteDuration
+
+import akka.actor.ActorRef
+import akka.actor.Cancellable
+import akka.actor.Scheduler
+import akka.annotation.InternalApi
+import akka.coordination.lease.kubernetes.LeaseActor
+
+/**
+ * INTERNAL API
+ *
+ * Sends a heartbeat to each registered lease actor every `interval`, so that all leases with the same heartbeat
+ * interval share one scheduled task instead of one timer each. The leases are spread over `slots` ticks per interval,
+ * so that their writes to the API server are spread over the interval instead of being sent in one burst.
+ *
+ * The scheduled task only runs while there are registered leases.
+ */
+@InternalApi
+private[kubernetes] final class HeartbeatTicks(interval: FiniteDuration, slots: Int, scheduler: Scheduler)(
+    implicit ec: ExecutionContext) {
+  require(slots > 0, "slots must be greater than 0")
+
+  private val leasesBySlot = Vector.fill(slots)(ConcurrentHashMap.newKeySet[ActorRef]())
+  private val slotOfLease = new ConcurrentHashMap[ActorRef, Integer]
+  private val nextSlot = new AtomicInteger
+  // only updated by the scheduled task, which doesn't run concurrently with itself
+  @volatile private var tick = 0
+
+  // guarded by this, only changed when the first lease is registered or the last one unregistered
+  private var task: Option[Cancellable] = None
+  private var stopped = false
+
+  def register(leaseActor: ActorRef): Unit = synchronized {
+    val slot = Math.floorMod(nextSlot.getAndIncrement(), slots)
+    if (slotOfLease.putIfAbsent(leaseActor, slot) eq null)
+      leasesBySlot(slot).add(leaseActor)
+    if (task.isEmpty && !stopped)
+      task = Some(scheduler.scheduleAtFixedRate(interval / slots, interval / slots) { () =>
+        leasesBySlot(tick).forEach(_ ! LeaseActor.Heartbeat)
+        tick = (tick + 1) % slots
+      })
+  }
+
+  def unregister(leaseActor: ActorRef): Unit = synchronized {
+    val slot = slotOfLease.remove(leaseActor)
+    if (slot ne null)
+      leasesBySlot(slot).remove(leaseActor)
+    if (slotOfLease.isEmpty)
+      cancelTask()
+  }
+
+  /**
+   * Cancels the scheduled task for good, when the actor system terminates.
+   */
+  def stop(): Unit = synchronized {
+    stopped = true
+    cancelTask()
+  }
+
+  /**
+   * For testing
+   */
+  def isRunning: Boolean = synchronized(task.isDefined)
+
+  private def cancelTask(): Unit = {
+    task.foreach(_.cancel())
+    task = None
+  }
+}
@@ -5,7 +5,9 @@
 package akka.coordination.lease.kubernetes.internal
 
 import scala.concurrent.Future
+import scala.concurrent.duration._
 import akka.Done
+import akka.NotUsed
 import akka.actor.ActorSystem
 import akka.annotation.InternalApi
 import akka.coordination.lease.LeaseException
@@ -15,39 +17,40 @@ import akka.coordination.lease.kubernetes.KubernetesSettings
 import akka.coordination.lease.kubernetes.LeaseResource
 import akka.event.Logging
 import akka.http.scaladsl.Http
-import akka.http.scaladsl.HttpsConnectionContext
 import akka.http.scaladsl.marshalling.Marshal
 import akka.http.scaladsl.model._
-import akka.http.scaladsl.model.headers.Authorization
-import akka.http.scaladsl.model.headers.OAuth2BearerToken
+import akka.http.scaladsl.settings.ClientConnectionSettings
 import akka.http.scaladsl.unmarshalling.Unmarshal
-import akka.pattern.after
-
-import java.util.concurrent.atomic.AtomicReference
-import scala.concurrent.duration.Deadline
+import akka.management.kubernetes.client.KubernetesClient
+import akka.stream.scaladsl.Framing
+import akka.stream.scaladsl.Source
+import akka.util.ByteString
+import spray.json.JsString
+import spray.json.JsonParser
 
 /**
- * Could be shared between leases: https://github.com/akka/akka-management/issues/680
  * INTERNAL API
+ *
+ * Shared between the leases with the same API server settings, see [[KubernetesLeaseManager]].
  */
 @InternalApi private[akka] class KubernetesApiImpl(
     system: ActorSystem,
     settings: KubernetesSettings,
     namespace: String,
-    loadApiToken: () => Future[String],
-    clientHttpsConnectionContext: Option[HttpsConnectionContext]
+    client: KubernetesClient
 ) extends KubernetesApi
     with KubernetesJsonSupport {
 
   import system.dispatcher
 
-  private val apiToken = new AtomicReference[Option[(String, Deadline)]](None)
-
   private implicit val sys: ActorSystem = system
   private val log = Logging(system, classOf[KubernetesApiImpl])
   private val http = Http()(system)
 
-  private val scheme = if (settings.secure) "https" else "http"
+  private val limiter = new RequestLimiter(settings.maxConcurrentRequests)
+
+  // the API server ends a watch after this, and it is then started again
+  private val WatchTimeout = 5.minutes
 
   log.debug("kubernetes access namespace: {}. Secure: {}", namespace, settings.secure)
 
@@ -151,6 +154,77 @@ PUTs must contain resourceVersions. Response:
     } yield result
   }
 
+  /*
+  GET /apis/akka.io/v1/namespaces/<namespace>/leases?watch=true&fieldSelector=metadata.name=<name>&resourceVersion=<v>
+  responds with a stream of events, one JSON object per line:
+  {"type":"MODIFIED","object":{...the lease...}}
+   */
+  override def watchLeaseResource(name: String): Source[LeaseResource, NotUsed] =
+    Source
+      .future(getLeaseResource(name))
+      .flatMapConcat {
+        case Some(current) => Source.single(current).concat(watchFromVersion(name, current.version))
+        case None          => Source.failed(new LeaseException(s"Lease [$name] to watch does not exist"))
+      }
+
+  private def watchFromVersion(name: String, version: String): Source[LeaseResource, NotUsed] = {
+    val query = Uri.Query(
+      "watch" -> "true",
+      "fieldSelector" -> s"metadata.name=${resourceName(name)}",
+      "resourceVersion" -> version,
+      "timeoutSeconds" -> WatchTimeout.toSeconds.toString)
+    val request = {
+      val listRequest = requestForPath(pathForLeases)
+      listRequest.withUri(listRequest.uri.withQuery(query))
+    }
+    // a dedicated connection, since the watch keeps it busy for as long as it lasts
+    val connectionSettings = ClientConnectionSettings(system).withIdleTimeout(WatchTimeout + 10.seconds)
+    val connection = {
+      val builder = http
+        .connectionTo(settings.apiServerHost)
+        .toPort(settings.apiServerPort)
+        .withClientConnectionSettings(connectionSettings)
+      client.httpsConnectionContext match {
+        case None                         => builder.http()
+        case Some(httpsConnectionContext) => builder.withCustomHttpsConnectionContext(httpsConnectionContext).https()
+      }
+    }
+    Source
+      .future(client.withToken(request))
+      .via(connection)
+      .flatMapConcat { response =>
+        response.status match {
+          case StatusCodes.OK =>
+            response.entity.withoutSizeLimit.dataBytes
+              .via(Framing.delimiter(ByteString("\n"), maximumFrameLength = 1024 * 1024, allowTruncation = true))
+              .mapConcat(line => parseWatchEvent(name, line).toList)
+          case StatusCodes.Unauthorized =>
+            Source.future(handleUnauthorized(response))
+          case unexpected =>
+            response.discardEntityBytes()
+            Source.failed(
+              new LeaseException(s"Unexpected response from API server when watching lease [$name]: $unexpected"))
+        }
+      }
+      .mapMaterializedValue(_ => NotUsed)
+  }
+
+  private def parseWatchEvent(name: String, line: ByteString): Option[LeaseResource] = {
+    val event = JsonParser(line.utf8String).asJsObject
+    event.fields.get("type") match {
+      case Some(JsString("ADDED" | "MODIFIED")) =>
+        Some(toLeaseResource(event.fields("object").convertTo[LeaseCustomResource]))
+      case Some(JsString("DELETED")) =>
+        throw new LeaseException(s"Watched lease [$name] was deleted")
+      case Some(JsString("ERROR")) =>
+        // e.g. 410 Gone when the version is too old, the watch is started again with a fresh read
+        throw new LeaseException(s"Watch of lease [$name] failed: ${event.fields.get("object").getOrElse("")}")
+      case _ =>
+        // BOOKMARK
+        None
+    }
+  }
+
   private[akka] def removeLease(name: String): Future[Done] = {
     for {
       response <- makeRequest(
@@ -215,51 +289,31 @@ PUTs must contain resourceVersions. Response:
           s"Unauthorized to communicate with Kubernetes API server. See https://doc.akka.io/libraries/akka-management/current/kubernetes-lease.html#role-based-access-control for setting up access control. Body: $body"))
   }
 
+  private def pathForLeases: Uri.Path =
+    Uri.Path.Empty / "apis" / "akka.io" / "v1" / "namespaces" / namespace / "leases"
+
   private def pathForLease(name: String): Uri.Path =
-    Uri.Path.Empty / "apis" / "akka.io" / "v1" / "namespaces" / namespace / "leases" / name
-      .replaceAll("[^\\d\\w\\-\\.]", "")
-      .toLowerCase
+    pathForLeases / resourceName(name)
+
+  private def resourceName(name: String): String =
+    name.replaceAll("[^\\d\\w\\-\\.]", "").toLowerCase
 
   private def requestForPath(
       path: Uri.Path,
       method: HttpMethod = HttpMethods.GET,
       entity: RequestEntity = HttpEntity.Empty) = {
-    val uri = Uri.from(scheme = scheme, host = settings.apiServerHost, port = settings.apiServerPort).withPath(path)
-    HttpRequest(uri = uri, method = method, entity = entity)
+    HttpRequest(uri = client.uri(path), method = method, entity = entity)
   }
 
-  private def addHeadersToRequest(request: HttpRequest): Future[HttpRequest] = {
-    def requestWithToken(token: String) = request.addHeader(Authorization(OAuth2BearerToken(token)))
-    if (settings.secure || settings.insecureTokens) {
-      apiToken.get() match {
-        case Some((token, deadline)) if deadline.hasTimeLeft() =>
-          Future.successful(requestWithToken(token))
-        case _ =>
-          loadApiToken().map { token =>
-            apiToken.set(Some((token, settings.apiTokenTtl.fromNow)))
-            requestWithToken(token)
-          }
-      }
-    } else {
-      Future.successful(request)
+  private def makeRequest(request: HttpRequest, timeoutMsg: String): Future[HttpResponse] = {
+    val deadline = settings.apiServerRequestTimeout.fromNow
+    def timeout = new LeaseTimeoutException(s"$timeoutMsg. Is the API server up?")
+    // the deadline includes the time waiting for the limit of concurrent requests, and the request gives back its
+    // permit at the deadline, so that a request that hangs can't hold up the other operations of the lease
+    val response = limiter(deadline, timeoutMsg) { () =>
+      client.withDeadline(deadline, client.send(request, deadline, settings.bodyReadTimeout))(timeout)
     }
-  }
-
-  private def makeRequest(rawRequest: HttpRequest, timeoutMsg: String): Future[HttpResponse] = {
-    val strictResponse = for {
-      request <- addHeadersToRequest(rawRequest)
-      response <- clientHttpsConnectionContext match {
-        case None                         => http.singleRequest(request)
-        case Some(httpsConnectionContext) => http.singleRequest(request, httpsConnectionContext)
-      }
-      // make sure we always consume response body (in case of timeout)
-      strict <- response.toStrict(settings.bodyReadTimeout)
-    } yield strict
-
-    val timeout = after(settings.apiServerRequestTimeout, using = system.scheduler)(
-      Future.failed(new LeaseTimeoutException(s"$timeoutMsg. Is the API server up?")))
-
-    Future.firstCompletedOf(Seq(strictResponse, timeout))
+    client.withDeadline(deadline, response)(timeout)
   }
 
   private def toLeaseResource(lcr: LeaseCustomResource) = {
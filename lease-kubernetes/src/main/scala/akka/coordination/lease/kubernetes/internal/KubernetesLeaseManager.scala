@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.coordination.lease.kubernetes.internal
+
+import java.util.concurrent.ConcurrentHashMap
+
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
+import scala.concurrent.duration.FiniteDuration
+
+import akka.actor.ActorSystem
+import akka.actor.ClassicActorSystemProvider
+import akka.actor.ExtendedActorSystem
+import akka.actor.Extension
+import akka.actor.ExtensionId
+import akka.actor.ExtensionIdProvider
+import akka.annotation.InternalApi
+import akka.coordination.lease.kubernetes.KubernetesApi
+import akka.coordination.lease.kubernetes.KubernetesSettings
+import akka.event.Logging
+import akka.management.kubernetes.client.KubernetesClients
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[kubernetes] object KubernetesLeaseManager
+    extends ExtensionId[KubernetesLeaseManager]
+    with ExtensionIdProvider {
+
+  override def get(system: ActorSystem): KubernetesLeaseManager = super.get(system)
+
+  override def get(system: ClassicActorSystemProvider): KubernetesLeaseManager = super.get(system)
+
+  override def lookup: KubernetesLeaseManager.type = KubernetesLeaseManager
+
+  override def createExtension(system: ExtendedActorSystem): KubernetesLeaseManager =
+    new KubernetesLeaseManager(system)
+
+  // number of ticks per heartbeat interval that the leases are spread over
+  private val HeartbeatSlots = 20
+
+  /**
+   * The settings that leases must agree on to share an API client.
+   */
+  private final case class ApiClientKey(
+      apiCaPath: String,
+      apiTokenPath: String,
+      apiServerHost: String,
+      apiServerPort: Int,
+      apiTokenTtl: FiniteDuration,
+      namespace: Option[String],
+      namespacePath: String,
+      apiServerRequestTimeout: FiniteDuration,
+      secure: Boolean,
+      insecureTokens: Boolean,
+      bodyReadTimeout: FiniteDuration,
+      maxConcurrentRequests: Int)
+
+  private object ApiClientKey {
+    def apply(settings: KubernetesSettings): ApiClientKey =
+      ApiClientKey(
+        settings.apiCaPath,
+        settings.apiTokenPath,
+        settings.apiServerHost,
+        settings.apiServerPort,
+        settings.apiTokenTtl,
+        settings.namespace,
+        settings.namespacePath,
+        settings.apiServerRequestTimeout,
+        settings.secure,
+        settings.insecureTokens,
+        settings.bodyReadTimeout,
+        settings.maxConcurrentRequests)
+  }
+}
+
+/**
+ * INTERNAL API
+ *
+ * Shares what can be shared between the Kubernetes leases of an actor system, which can be thousands when there is a
+ * lease per shard: one API client per API server configuration, and with that one limit of concurrent requests, and
+ * one heartbeat tick per heartbeat interval. The TLS context, connection pool and API token are shared with the other
+ * Kubernetes modules, see [[KubernetesClients]].
+ */
+@InternalApi
+private[kubernetes] final class KubernetesLeaseManager(system: ExtendedActorSystem) extends Extension {
+  import KubernetesLeaseManager._
+
+  private val log = Logging(system, classOf[KubernetesLeaseManager])
+
+  private val apiClients = new ConcurrentHashMap[ApiClientKey, Future[KubernetesApi]]
+  private val ticks = new ConcurrentHashMap[FiniteDuration, HeartbeatTicks]
+
+  system.registerOnTermination(ticks.values.forEach(_.stop()))
+
+  def apiClient(settings: KubernetesSettings): Future[KubernetesApi] =
+    cached(apiClients, ApiClientKey(settings))(createApiClient(settings))
+
+  def heartbeatTicks(interval: FiniteDuration): HeartbeatTicks =
+    ticks.computeIfAbsent(
+      interval,
+      _ => new HeartbeatTicks(interval, HeartbeatSlots, system.scheduler)(system.dispatcher))
+
+  private def createApiClient(settings: KubernetesSettings): Future[KubernetesApi] = {
+    import system.dispatcher
+    val clients = KubernetesClients(system)
+    for {
+      namespace: String <- settings.namespace match {
+        case Some(namespace) => Future.successful(namespace)
+        case None => clients.readFromFilesystem(settings.namespacePath, "namespace").map(_.getOrElse("default"))
+      }
+      client <- clients.client("lease", settings.apiServerSettings)
+    } yield {
+      log.debug("Creating Kubernetes API client for [{}:{}]", settings.apiServerHost, settings.apiServerPort)
+      new KubernetesApiImpl(system, settings, namespace, client)
+    }
+  }
+
+  // a failure is not cached, so that the next lease tries again
+  private def cached[K, V](cache: ConcurrentHashMap[K, Future[V]], key: K)(create: => Future[V]): Future[V] = {
+    val result = cache.computeIfAbsent(key, _ => create)
+    result.failed.foreach(_ => cache.remove(key, result))(ExecutionContext.parasitic)
+    result
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.coordination.lease.kubernetes.internal
+
+import java.util.ArrayDeque
+
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
+import scala.concurrent.Promise
+import scala.concurrent.duration.Deadline
+import scala.util.control.NonFatal
+
+import akka.annotation.InternalApi
+import akka.coordination.lease.LeaseTimeoutException
+
+/**
+ * INTERNAL API
+ *
+ * Limits the number of requests in flight to `maxConcurrent`, further requests wait in order. A request that is still
+ * waiting when its deadline is overdue is failed without being sent, since the caller has already given up on it and
+ * a late write could conflict with the caller's retry.
+ */
+@InternalApi
+private[kubernetes] final class RequestLimiter(maxConcurrent: Int)(implicit ec: ExecutionContext) {
+  require(maxConcurrent > 0, "max-concurrent-requests must be greater than 0")
+
+  private var inFlight = 0
+  private val waiting = new ArrayDeque[Runnable]
+
+  def apply[T](deadline: Deadline, timeoutMsg: String)(request: () => Future[T]): Future[T] = {
+    val promise = Promise[T]()
+    val task: Runnable = () =>
+      if (deadline.isOverdue()) {
+        promise.failure(new LeaseTimeoutException(s"$timeoutMsg. Too many concurrent requests to the API server?"))
+        release()
+      } else {
+        val result =
+          try request()
+          catch { case NonFatal(e) => Future.failed(e) }
+        result.onComplete { r =>
+          release()
+          promise.complete(r)
+        }
+      }
+
+    val runNow = synchronized {
+      if (inFlight < maxConcurrent) {
+        inFlight += 1
+        true
+      } else {
+        waiting.add(task)
+        false
+      }
+    }
+    if (runNow) task.run()
+    promise.future
+  }
+
+  private def release(): Unit = {
+    val next = synchronized {
+      val n = waiting.poll()
+      if (n eq null) inFlight -= 1
+      n
+    }
+    // the permit is handed over to the next waiting request
+    if (next ne null) ec.execute(next)
+  }
+}
@@ -9,6 +9,8 @@ import akka.Done
 import akka.actor.ActorSystem
 import akka.coordination.lease.kubernetes.internal.KubernetesApiImpl
 import akka.http.scaladsl.model.StatusCodes
+import akka.management.kubernetes.client.KubernetesClient
+import akka.stream.scaladsl.Sink
 import akka.testkit.TestKit
 import com.github.tomakehurst.wiremock.WireMockServer
 import com.github.tomakehurst.wiremock.client.WireMock
@@ -59,7 +61,10 @@ class KubernetesApiSpec
 
   implicit val patience: PatienceConfig = PatienceConfig(testKitSettings.DefaultTimeout.duration)
 
-  val underTest = new KubernetesApiImpl(system, settings, "lease", () => Future.successful("token"), None)
+  def client(loadApiToken: () => Future[String]): KubernetesClient =
+    KubernetesClient(system, "lease", settings.apiServerSettings, loadApiToken, None)
+
+  val underTest = new KubernetesApiImpl(system, settings, "lease", client(() => Future.successful("token")))
   val leaseName = "lease-1"
   val client1 = "client-1"
   val client2 = "client-2"
@@ -140,6 +145,37 @@ class KubernetesApiSpec
       response shouldEqual Done
     }
 
+    "watch a lease" in {
+      val lease = "lease-1"
+      val timestamp = System.currentTimeMillis()
+      stubFor(
+        get(urlEqualTo(s"/apis/akka.io/v1/namespaces/lease/leases/$lease")).willReturn(
+          aResponse()
+            .withStatus(StatusCodes.OK.intValue)
+            .withHeader("Content-Type", "application/json")
+            .withBody(leaseBody(lease, "2", client1, timestamp))))
+      def event(eventType: String, version: String, owner: String) =
+        s"""{"type":"$eventType","object":${leaseBody(lease, version, owner, timestamp).replace("\n", "")}}"""
+      stubFor(
+        get(urlPathEqualTo("/apis/akka.io/v1/namespaces/lease/leases"))
+          .withQueryParam("watch", equalTo("true"))
+          .withQueryParam("fieldSelector", equalTo(s"metadata.name=$lease"))
+          .withQueryParam("resourceVersion", equalTo("2"))
+          .willReturn(
+            aResponse()
+              .withStatus(StatusCodes.OK.intValue)
+              .withHeader("Content-Type", "application/json")
+              .withBody(
+                event("MODIFIED", "3", client1) + "\n" +
+                """{"type":"BOOKMARK","object":{"metadata":{"resourceVersion":"3"}}}""" + "\n" +
+                event("MODIFIED", "4", "") + "\n")))
+
+      underTest.watchLeaseResource(lease).runWith(Sink.seq).futureValue shouldEqual List(
+        LeaseResource(Some(client1), "2", timestamp),
+        LeaseResource(Some(client1), "3", timestamp),
+        LeaseResource(None, "4", timestamp))
+    }
+
     "timeout on readLease" in {
       val owner = "client1"
       val lease = "lease-1"
@@ -208,6 +244,42 @@ class KubernetesApiSpec
       s"Timed out removing lease [$lease]. It is not known if the remove happened. Is the API server up?"
     }
 
+    "give back the permit of a request that timed out to the other requests" in {
+      val limitedSettings = new KubernetesSettings(
+        "",
+        "",
+        "localhost",
+        wireMockServer.port(),
+        500.millis,
+        namespace = Some("lease"),
+        "",
+        apiServerRequestTimeout = 800.millis,
+        secure = false,
+        insecureTokens = true,
+        maxConcurrentRequests = 1)
+      val api = new KubernetesApiImpl(system, limitedSettings, "lease", client(() => Future.successful("token")))
+      val hung = "lease-hung"
+      val lease = "lease-1"
+      stubFor(
+        get(urlEqualTo(s"/apis/akka.io/v1/namespaces/lease/leases/$hung")).willReturn(
+          aResponse()
+            .withFixedDelay(5000)
+            .withStatus(StatusCodes.OK.intValue)
+            .withHeader("Content-Type", "application/json")
+            .withBody(leaseBody(hung, "1", "client", System.currentTimeMillis()))))
+      stubFor(
+        get(urlEqualTo(s"/apis/akka.io/v1/namespaces/lease/leases/$lease")).willReturn(
+          aResponse()
+            .withStatus(StatusCodes.OK.intValue)
+            .withHeader("Content-Type", "application/json")
+            .withBody(leaseBody(lease, "2", "client", System.currentTimeMillis()))))
+
+      api.readOrCreateLeaseResource(hung).failed.futureValue.getMessage shouldEqual
+      s"Timed out reading lease $hung. Is the API server up?"
+      // while the response to the first request is still pending
+      api.readOrCreateLeaseResource(lease).futureValue.version shouldEqual "2"
+    }
+
     "support reloading tokens" in {
       val firstToken = "first-token"
       val firstVersion = "1234"
@@ -215,7 +287,7 @@ class KubernetesApiSpec
       val secondVersion = "5678"
 
       val token = new AtomicReference[String](firstToken)
-      val api = new KubernetesApiImpl(system, settings, "lease", () => Future.successful(token.get), None)
+      val api = new KubernetesApiImpl(system, settings, "lease", client(() => Future.successful(token.get)))
       val lease = "lease-1"
 
       // Two stubs, if the first token is present, we return the first version, if the second token is presented,
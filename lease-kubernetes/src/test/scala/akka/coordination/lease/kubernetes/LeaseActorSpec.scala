@@ -7,10 +7,15 @@ package akka.coordination.lease.kubernetes
 import java.util.concurrent.atomic.AtomicBoolean
 
 import akka.actor.Status.Failure
+import akka.NotUsed
 import akka.actor.{ ActorRef, ActorSystem }
 import akka.coordination.lease.kubernetes.LeaseActor._
+import akka.coordination.lease.kubernetes.internal.HeartbeatTicks
 import akka.coordination.lease.{ LeaseException, LeaseSettings, TimeoutSettings }
 import akka.pattern.ask
+import akka.stream.BoundedSourceQueue
+import akka.stream.Materializer
+import akka.stream.scaladsl.Source
 import akka.testkit.{ TestKit, TestProbe }
 import akka.util.{ ConstantFun, Timeout }
 import com.typesafe.config.ConfigFactory
@@ -21,7 +26,8 @@ import scala.concurrent.duration._
 import org.scalatest.matchers.should.Matchers
 import org.scalatest.wordspec.AnyWordSpecLike
 
-class MockKubernetesApi(system: ActorSystem, currentLease: ActorRef, updateLease: ActorRef) extends KubernetesApi {
+class MockKubernetesApi(system: ActorSystem, currentLease: ActorRef, updateLease: ActorRef, watchLease: ActorRef)
+    extends KubernetesApi {
 
   implicit val timeout: Timeout = Timeout(10.seconds)
 
@@ -36,6 +42,13 @@ class MockKubernetesApi(system: ActorSystem, currentLease: ActorRef, updateLease
       time: Long): Future[Either[LeaseResource, LeaseResource]] = {
     updateLease.ask((clientName, version)).mapTo[Either[LeaseResource, LeaseResource]]
   }
+
+  override def watchLeaseResource(name: String): Source[LeaseResource, NotUsed] = {
+    // the watch is driven by offering to the queue that is sent to watchLease
+    val (queue, source) = Source.queue[LeaseResource](16).preMaterialize()(Materializer(system))
+    watchLease ! queue
+    source
+  }
 }
 
 class LeaseActorSpec
@@ -196,6 +209,26 @@ class LeaseActorSpec
       updateProbe.expectMsg((ownerName, currentVersion))
     }
 
+    "heartbeat granted lease on shared ticks" in new Test {
+      override lazy val underTest = system.actorOf(
+        LeaseActor.props(
+          mockKubernetesApi,
+          leaseSettings,
+          leaseSettings.leaseName,
+          granted,
+          Some(new HeartbeatTicks(leaseSettings.timeoutSettings.heartbeatInterval, 1, system.scheduler)(system.dispatcher)),
+          watchLease = false))
+      acquireLease()
+
+      updateProbe.expectMsg((ownerName, currentVersion))
+      // ticks while the heartbeat is in progress don't send another update with the same version
+      updateProbe.expectNoMessage(leaseSettings.timeoutSettings.heartbeatInterval * 4)
+      incrementVersion()
+      updateProbe.reply(Right(LeaseResource(Some(ownerName), currentVersion, System.currentTimeMillis())))
+      expectHeartBeat()
+      updateProbe.expectMsg((ownerName, currentVersion))
+    }
+
     "remove lease from k8s when released" in new Test {
       acquireLease()
       underTest ! Release()
@@ -395,6 +428,52 @@ class LeaseActorSpec
       acquireLease()
     }
 
+    "answer acquire from the watched lease and take it over with one update when released" in new WatchTest {
+      failToGetTakenLease("other")
+      val watch = watchProbe.expectMsgType[BoundedSourceQueue[LeaseResource]]
+      watch.offer(LeaseResource(Some("other"), currentVersion, System.currentTimeMillis()))
+      leaseProbe.expectNoMessage(100.millis)
+
+      underTest ! Acquire()
+      senderProbe.expectMsg(LeaseTaken)
+      leaseProbe.expectNoMessage(100.millis)
+      updateProbe.expectNoMessage()
+
+      incrementVersion()
+      watch.offer(LeaseResource(None, currentVersion, System.currentTimeMillis()))
+      leaseProbe.expectNoMessage(100.millis)
+
+      acquireLeaseWithoutRead(ownerName)
+      leaseProbe.expectNoMessage()
+    }
+
+    "take over an expired watched lease with one update" in new WatchTest {
+      failToGetTakenLease("other")
+      val watch = watchProbe.expectMsgType[BoundedSourceQueue[LeaseResource]]
+      incrementVersion()
+      // crashed owner, no heartbeat for longer than the timeout
+      watch.offer(
+        LeaseResource(
+          Some("other"),
+          currentVersion,
+          System.currentTimeMillis() - leaseSettings.timeoutSettings.heartbeatTimeout.toMillis))
+      leaseProbe.expectNoMessage(100.millis)
+
+      acquireLeaseWithoutRead(ownerName)
+      leaseProbe.expectNoMessage()
+    }
+
+    "read the lease again when the watch ended and restart the watch" in new WatchTest {
+      failToGetTakenLease("other")
+      val watch = watchProbe.expectMsgType[BoundedSourceQueue[LeaseResource]]
+      watch.offer(LeaseResource(Some("other"), currentVersion, System.currentTimeMillis()))
+      watch.complete()
+      leaseProbe.expectNoMessage(100.millis)
+
+      failToGetTakenLease("other")
+      watchProbe.expectMsgType[BoundedSourceQueue[LeaseResource]](leaseSettings.timeoutSettings.operationTimeout * 2)
+    }
+
     "lease acquire in reading state" in new Test {
       // TODO this could accumulate senders and reply to all, atm it'll log saying
       // previous action hasn't finished
@@ -453,6 +532,64 @@ class LeaseActorSpec
       senderProbe.expectMsg(LeaseAcquired)
     }
 
+    "take over a lease that expired since the previous failed attempt with one update" in new Test {
+      val crashedClient = "crashedClient"
+      underTest ! LeaseActor.Acquire()
+      leaseProbe.expectMsg(leaseName)
+      // last heartbeat just before the timeout
+      val expiresIn = 200.millis
+      leaseProbe.reply(
+        LeaseResource(
+          Some(crashedClient),
+          currentVersion,
+          System.currentTimeMillis() - leaseSettings.timeoutSettings.heartbeatTimeout.toMillis +
+          (2 * leaseSettings.timeoutSettings.heartbeatInterval.toMillis) + expiresIn.toMillis))
+      senderProbe.expectMsg(LeaseTaken)
+
+      Thread.sleep((expiresIn + 50.millis).toMillis)
+      // the version from the failed attempt is used without reading
+      acquireLeaseWithoutRead(ownerName)
+      leaseProbe.expectNoMessage()
+    }
+
+    "read the lease again when it was taken and had not expired in the previous failed attempt" in new Test {
+      failToGetTakenLease("other")
+      underTest ! LeaseActor.Acquire()
+      leaseProbe.expectMsg(leaseName)
+      updateProbe.expectNoMessage()
+    }
+
+    "try again with the current version after a conflict with an expired lease" in new Test {
+      underTest ! LeaseActor.Acquire()
+      leaseProbe.expectMsg(leaseName)
+      leaseProbe.reply(LeaseResource(None, currentVersion, System.currentTimeMillis()))
+      updateProbe.expectMsg((ownerName, currentVersion))
+      incrementVersion()
+      updateProbe.reply(
+        Left(
+          LeaseResource(
+            Some("crashedClient"),
+            currentVersion,
+            System.currentTimeMillis() - (leaseSettings.timeoutSettings.heartbeatTimeout.toMillis * 2))))
+      updateProbe.expectMsg((ownerName, currentVersion))
+      incrementVersion()
+      updateProbe.reply(Right(LeaseResource(Some(ownerName), currentVersion, System.currentTimeMillis())))
+      senderProbe.expectMsg(LeaseAcquired)
+      leaseProbe.expectNoMessage()
+    }
+
+    "acquire without reading after a release conflict that removed the owner" in new Test {
+      acquireLease()
+      underTest ! Release()
+      updateProbe.expectMsg(("", currentVersion))
+      incrementVersion()
+      updateProbe.reply(Left(LeaseResource(None, currentVersion, System.currentTimeMillis())))
+      senderProbe.expectMsg(LeaseReleased)
+
+      acquireLeaseWithoutRead(ownerName)
+      leaseProbe.expectNoMessage()
+    }
+
     // If we crash and then come back and read our own client name back AND it hasn't timed out
     "allow lease to be taken if owned by same client name from IDLE" in new Test {
       underTest.tell(LeaseActor.Acquire(), senderProbe.ref)
@@ -497,7 +634,8 @@ class LeaseActorSpec
     def incrementVersion() = currentVersionCount += 1
     val leaseProbe = TestProbe()
     val updateProbe = TestProbe()
-    lazy val mockKubernetesApi = new MockKubernetesApi(system, leaseProbe.ref, updateProbe.ref)
+    val watchProbe = TestProbe()
+    lazy val mockKubernetesApi = new MockKubernetesApi(system, leaseProbe.ref, updateProbe.ref, watchProbe.ref)
     val granted = new AtomicBoolean(false)
     lazy val underTest =
       system.actorOf(LeaseActor.props(mockKubernetesApi, leaseSettings, leaseSettings.leaseName, granted))
@@ -617,6 +755,12 @@ class LeaseActorSpec
 
   }
 
+  trait WatchTest extends RetryTest {
+    override lazy val underTest =
+      system.actorOf(
+        LeaseActor.props(mockKubernetesApi, leaseSettings, leaseSettings.leaseName, granted, None, watchLease = true))
+  }
+
   // Test trait with realistic timeout ratios where retry budget is positive.
   // Generous timeouts to avoid flaky failures in CI where pauses of 500ms+ can occur.
   // heartbeatInterval=1s, heartbeatTimeout=20s, operationTimeout=2s (1:20 ratio)
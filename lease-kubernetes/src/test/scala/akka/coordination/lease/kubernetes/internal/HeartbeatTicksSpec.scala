@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.coordination.lease.kubernetes.internal
+
+import scala.concurrent.duration._
+
+import akka.actor.ActorSystem
+import akka.coordination.lease.kubernetes.LeaseActor
+import akka.testkit.TestKit
+import akka.testkit.TestProbe
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+
+class HeartbeatTicksSpec
+    extends TestKit(ActorSystem("HeartbeatTicksSpec"))
+    with AnyWordSpecLike
+    with Matchers
+    with BeforeAndAfterAll {
+
+  override def afterAll(): Unit = TestKit.shutdownActorSystem(system)
+
+  "HeartbeatTicks" should {
+
+    "only schedule the ticks while leases are registered" in {
+      val ticks = new HeartbeatTicks(100.millis, 2, system.scheduler)(system.dispatcher)
+      ticks.isRunning shouldBe false
+
+      val lease1 = TestProbe()
+      val lease2 = TestProbe()
+      ticks.register(lease1.ref)
+      ticks.register(lease2.ref)
+      ticks.isRunning shouldBe true
+      lease1.expectMsg(LeaseActor.Heartbeat)
+      lease2.expectMsg(LeaseActor.Heartbeat)
+
+      ticks.unregister(lease1.ref)
+      ticks.isRunning shouldBe true
+      ticks.unregister(lease2.ref)
+      ticks.isRunning shouldBe false
+
+      ticks.register(lease1.ref)
+      ticks.isRunning shouldBe true
+      lease1.fishForMessage() { case msg => msg == LeaseActor.Heartbeat }
+      ticks.unregister(lease1.ref)
+    }
+
+    "not schedule the ticks once stopped" in {
+      val ticks = new HeartbeatTicks(100.millis, 2, system.scheduler)(system.dispatcher)
+      val lease = TestProbe()
+      ticks.register(lease.ref)
+      ticks.stop()
+      ticks.isRunning shouldBe false
+      ticks.register(lease.ref)
+      ticks.isRunning shouldBe false
+    }
+  }
+}
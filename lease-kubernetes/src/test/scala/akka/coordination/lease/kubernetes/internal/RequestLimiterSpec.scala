@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.coordination.lease.kubernetes.internal
+
+import java.util.concurrent.atomic.AtomicInteger
+
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
+import scala.concurrent.Promise
+import scala.concurrent.duration._
+
+import akka.coordination.lease.LeaseTimeoutException
+import org.scalatest.concurrent.Eventually
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class RequestLimiterSpec extends AnyWordSpec with Matchers with ScalaFutures with Eventually {
+
+  implicit val ec: ExecutionContext = ExecutionContext.global
+
+  "RequestLimiter" should {
+    "limit the number of requests in flight" in {
+      val limiter = new RequestLimiter(2)
+      val started = new AtomicInteger
+      val responses = Vector.fill(4)(Promise[Int]())
+      val results = responses.map { response =>
+        limiter(10.seconds.fromNow, "Timed out") { () =>
+          started.incrementAndGet()
+          response.future
+        }
+      }
+      started.get() shouldEqual 2
+
+      responses(0).success(0)
+      results(0).futureValue shouldEqual 0
+      eventually(started.get() shouldEqual 3)
+
+      responses.drop(1).zipWithIndex.foreach { case (response, i) => response.success(i + 1) }
+      Future.sequence(results).futureValue shouldEqual Vector(0, 1, 2, 3)
+      started.get() shouldEqual 4
+    }
+
+    "fail a waiting request without sending it when its deadline is overdue" in {
+      val limiter = new RequestLimiter(1)
+      val first = Promise[Int]()
+      limiter(10.seconds.fromNow, "Timed out")(() => first.future)
+      val sent = new AtomicInteger
+      val waiting = limiter(Deadline.now, "Timed out waiting") { () =>
+        sent.incrementAndGet()
+        Future.successful(1)
+      }
+      first.success(0)
+      waiting.failed.futureValue shouldBe a[LeaseTimeoutException]
+      sent.get() shouldEqual 0
+    }
+  }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.kubernetes.client
+
+import scala.concurrent.duration.FiniteDuration
+
+import akka.annotation.InternalApi
+
+/**
+ * INTERNAL API
+ *
+ * How to reach and authenticate with a Kubernetes API server. The modules with the same settings share a
+ * [[KubernetesClient]] connection to it.
+ *
+ * @param secure whether to use TLS, with the CA from `apiCaPath`, and the token from `apiTokenPath`
+ * @param apiTokenTtl how long to cache the token for
+ * @param insecureTokens whether to send the token also when not `secure`, for testing
+ */
+@InternalApi
+private[akka] final case class ApiServerSettings(
+    host: String,
+    port: Int,
+    secure: Boolean,
+    apiCaPath: String,
+    apiTokenPath: String,
+    apiTokenTtl: FiniteDuration,
+    insecureTokens: Boolean = false)
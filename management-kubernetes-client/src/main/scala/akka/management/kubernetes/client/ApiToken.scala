@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.kubernetes.client
+
+import java.util.concurrent.atomic.AtomicReference
+
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
+import scala.concurrent.duration.Deadline
+import scala.concurrent.duration.FiniteDuration
+
+import akka.annotation.InternalApi
+
+/**
+ * INTERNAL API
+ *
+ * The API token, loaded again when it has been cached for `ttl`. The service account token is rotated by the kubelet,
+ * so it must not be cached for longer than it is valid.
+ */
+@InternalApi
+private[akka] final class ApiToken(load: () => Future[String], ttl: FiniteDuration)(implicit ec: ExecutionContext) {
+  private val cached = new AtomicReference[Option[(String, Deadline)]](None)
+
+  def apply(): Future[String] =
+    cached.get() match {
+      case Some((token, deadline)) if deadline.hasTimeLeft() =>
+        Future.successful(token)
+      case _ =>
+        load().map { token =>
+          cached.set(Some((token, ttl.fromNow)))
+          token
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.kubernetes.client
+
+import scala.concurrent.Future
+import scala.concurrent.Promise
+
+import akka.actor.ActorSystem
+import akka.annotation.InternalApi
+import akka.http.scaladsl.Http
+import akka.http.scaladsl.HttpsConnectionContext
+import akka.http.scaladsl.model.HttpRequest
+import akka.http.scaladsl.model.HttpResponse
+import akka.http.scaladsl.model.ResponsePromise
+import akka.stream.QueueOfferResult
+import akka.stream.scaladsl.Sink
+import akka.stream.scaladsl.Source
+
+/**
+ * INTERNAL API
+ *
+ * A single HTTP/2 connection to the API server that all requests are multiplexed over. It is reconnected when it
+ * fails or is closed by the API server.
+ */
+@InternalApi
+private[client] final class Http2Connection(
+    system: ActorSystem,
+    host: String,
+    port: Int,
+    httpsConnectionContext: HttpsConnectionContext,
+    maxPendingRequests: Int) {
+
+  private val queue = Source
+    .queue[HttpRequest](maxPendingRequests)
+    .via(
+      Http()(system)
+        .connectionTo(host)
+        .toPort(port)
+        .withCustomHttpsConnectionContext(httpsConnectionContext)
+        .managedPersistentHttp2())
+    .to(Sink.foreach { response =>
+      response.attribute(ResponsePromise.Key).foreach(_.promise.trySuccess(response))
+    })
+    .run()(akka.stream.Materializer(system))
+
+  def apply(request: HttpRequest): Future[HttpResponse] = {
+    val promise = Promise[HttpResponse]()
+    queue.offer(request.addAttribute(ResponsePromise.Key, ResponsePromise(promise))) match {
+      case QueueOfferResult.Enqueued => promise.future
+      case QueueOfferResult.Dropped =>
+        Future.failed(new IllegalStateException(s"Too many pending requests to the API server [$host:$port]"))
+      case QueueOfferResult.Failure(cause) => Future.failed(cause)
+      case QueueOfferResult.QueueClosed =>
+        Future.failed(new IllegalStateException(s"Connection to the API server [$host:$port] is closed"))
+    }
+  }
+
+  def close(): Unit = queue.complete()
+}
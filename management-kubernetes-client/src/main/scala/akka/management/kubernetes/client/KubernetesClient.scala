@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.kubernetes.client
+
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
+import scala.concurrent.Promise
+import scala.concurrent.duration._
+import scala.util.Failure
+import scala.util.Success
+import scala.util.control.NoStackTrace
+
+import akka.actor.ActorSystem
+import akka.annotation.InternalApi
+import akka.http.scaladsl.Http
+import akka.http.scaladsl.HttpsConnectionContext
+import akka.http.scaladsl.model.HttpRequest
+import akka.http.scaladsl.model.HttpResponse
+import akka.http.scaladsl.model.Uri
+import akka.http.scaladsl.model.headers.Authorization
+import akka.http.scaladsl.model.headers.OAuth2BearerToken
+import akka.management.metrics.ManagementMetrics
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] object KubernetesClient {
+
+  /**
+   * A client of its own, that doesn't share the token, the rate limit or the connection with other modules. For tests.
+   */
+  def apply(
+      system: ActorSystem,
+      name: String,
+      settings: ApiServerSettings,
+      loadApiToken: () => Future[String],
+      httpsConnectionContext: Option[HttpsConnectionContext]): KubernetesClient =
+    new KubernetesClient(
+      system,
+      name,
+      settings,
+      new ApiToken(loadApiToken, settings.apiTokenTtl)(system.dispatcher),
+      httpsConnectionContext,
+      rateLimiter = None,
+      http2Connection = None)
+
+  /**
+   * The request was not sent since it would have had to wait longer than its timeout for the rate limit.
+   */
+  final class RateLimitExceededException(message: String) extends RuntimeException(message) with NoStackTrace
+}
+
+/**
+ * INTERNAL API
+ *
+ * Sends requests to a Kubernetes API server, with the API token, within the rate limit shared by all clients of this
+ * node, over the connection pool or HTTP/2 connection that the clients with the same [[ApiServerSettings]] share. See
+ * [[KubernetesClients]] for how to get one.
+ *
+ * The duration of every request is recorded in the [[ManagementMetrics]], labelled with the `name` of the client.
+ */
+@InternalApi
+private[akka] final class KubernetesClient private[client] (
+    system: ActorSystem,
+    val name: String,
+    val settings: ApiServerSettings,
+    private[client] val apiToken: ApiToken,
+    val httpsConnectionContext: Option[HttpsConnectionContext],
+    private[client] val rateLimiter: Option[RateLimiter],
+    private[client] val http2Connection: Option[Http2Connection]) {
+  import KubernetesClient._
+
+  private implicit val sys: ActorSystem = system
+  private implicit val ec: ExecutionContext = system.dispatcher
+  private val http = Http()
+
+  val scheme: String = if (settings.secure) "https" else "http"
+
+  private val metrics = ManagementMetrics(system)
+  private def rateLimited(outcome: String) =
+    metrics.counter(
+      "akka_kubernetes_api_rate_limited",
+      "Requests to the Kubernetes API server that were delayed or rejected by the client side rate limit",
+      "client" -> name,
+      "outcome" -> outcome)
+  private val rateLimitDelayed = rateLimited("delayed")
+  private val rateLimitRejected = rateLimited("rejected")
+
+  private def requestCompleted(request: HttpRequest, result: String, startTime: Long): Unit =
+    metrics
+      .durationHistogram(
+        "akka_kubernetes_api_request_duration_seconds",
+        "Duration of the requests to the Kubernetes API server, by client, method and result",
+        "client" -> name,
+        "method" -> request.method.value,
+        "result" -> result)
+      .observeNanos(System.nanoTime() - startTime)
+
+  def uri(path: Uri.Path, query: Uri.Query = Uri.Query.Empty): Uri =
+    Uri.from(scheme = scheme, host = settings.host, port = settings.port).withPath(path).withQuery(query)
+
+  /**
+   * The request with the API token, when secure or with insecure tokens.
+   */
+  def withToken(request: HttpRequest): Future[HttpRequest] =
+    if (settings.secure || settings.insecureTokens)
+      apiToken().map(token => request.addHeader(Authorization(OAuth2BearerToken(token))))
+    else
+      Future.successful(request)
+
+  /**
+   * Sends the request and reads the whole response entity, failing with `timeoutException` when that didn't complete
+   * within `timeout`.
+   */
+  def request(request: HttpRequest, timeout: FiniteDuration, bodyReadTimeout: FiniteDuration)(
+      timeoutException: => Throwable): Future[HttpResponse] = {
+    val deadline = timeout.fromNow
+    withDeadline(deadline, send(request, deadline, bodyReadTimeout))(timeoutException)
+  }
+
+  /**
+   * Sends the request and reads the whole response entity. A request that would have to wait for the rate limit beyond
+   * the `deadline` fails with a [[RateLimitExceededException]] without being sent, but the exchange itself is not
+   * limited by the `deadline`: waiting for the response is only limited by the idle timeout of the connection, and
+   * reading the entity by `bodyReadTimeout`. Use `request`, or `withDeadline`, to limit the whole exchange.
+   */
+  def send(request: HttpRequest, deadline: Deadline, bodyReadTimeout: FiniteDuration): Future[HttpResponse] =
+    rateLimiter match {
+      case None => sendNow(request, bodyReadTimeout)
+      case Some(limiter) =>
+        val delay = limiter.reserve(math.max(0L, deadline.timeLeft.toNanos))
+        if (delay == 0L) sendNow(request, bodyReadTimeout)
+        else if (delay > 0L) {
+          rateLimitDelayed.increment()
+          akka.pattern.after(delay.nanos)(sendNow(request, bodyReadTimeout))
+        } else {
+          rateLimitRejected.increment()
+          Future.failed(
+            new RateLimitExceededException(
+              s"Request [${request.method.value} ${request.uri.path}] to the Kubernetes API server not sent, " +
+              "as it would have exceeded its timeout waiting for the rate limit"))
+        }
+    }
+
+  private def sendNow(rawRequest: HttpRequest, bodyReadTimeout: FiniteDuration): Future[HttpResponse] = {
+    val startTime = System.nanoTime()
+    val result = for {
+      request <- withToken(rawRequest)
+      response <- (http2Connection, httpsConnectionContext) match {
+        case (Some(connection), _)                => connection(request)
+        case (None, Some(httpsConnectionContext)) => http.singleRequest(request, httpsConnectionContext)
+        case (None, None)                         => http.singleRequest(request)
+      }
+      // make sure we always consume response body (in case of timeout)
+      strict <- response.toStrict(bodyReadTimeout)
+    } yield strict
+    result.onComplete {
+      case Success(response) => requestCompleted(rawRequest, s"${response.status.intValue / 100}xx", startTime)
+      case Failure(_)        => requestCompleted(rawRequest, "failed", startTime)
+    }
+    result
+  }
+
+  /**
+   * Fails with `timeoutException` when `f` doesn't complete before the deadline. The timer is cancelled when it does.
+   */
+  def withDeadline[T](deadline: Deadline, f: Future[T])(timeoutException: => Throwable): Future[T] = {
+    val timeout = Promise[T]()
+    val timer = system.scheduler.scheduleOnce(math.max(0L, deadline.timeLeft.toNanos).nanos) {
+      timeout.tryFailure(timeoutException)
+    }
+    f.onComplete(_ => timer.cancel())
+    Future.firstCompletedOf(List(f, timeout.future))
+  }
+}
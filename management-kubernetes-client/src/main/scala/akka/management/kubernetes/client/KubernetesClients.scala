@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.kubernetes.client
+
+import java.nio.file.Files
+import java.nio.file.Paths
+import java.util.concurrent.ConcurrentHashMap
+
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
+import scala.util.control.NonFatal
+
+import akka.Done
+import akka.actor.ActorSystem
+import akka.actor.ClassicActorSystemProvider
+import akka.actor.CoordinatedShutdown
+import akka.actor.ExtendedActorSystem
+import akka.actor.Extension
+import akka.actor.ExtensionId
+import akka.actor.ExtensionIdProvider
+import akka.annotation.InternalApi
+import akka.dispatch.Dispatchers.DefaultBlockingDispatcherId
+import akka.event.Logging
+import akka.http.scaladsl.ConnectionContext
+import akka.http.scaladsl.HttpsConnectionContext
+import akka.pki.kubernetes.TlsContexts
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] object KubernetesClients extends ExtensionId[KubernetesClients] with ExtensionIdProvider {
+
+  override def get(system: ActorSystem): KubernetesClients = super.get(system)
+
+  override def get(system: ClassicActorSystemProvider): KubernetesClients = super.get(system)
+
+  override def lookup: KubernetesClients.type = KubernetesClients
+
+  override def createExtension(system: ExtendedActorSystem): KubernetesClients = new KubernetesClients(system)
+}
+
+/**
+ * INTERNAL API
+ *
+ * The Kubernetes API clients of the Kubernetes API discovery, the Kubernetes lease and the rolling update support of
+ * an actor system. The clients of the same API server share the TLS context, and with that the connection pool, or
+ * the HTTP/2 connection, and the API token and the client side rate limit, so that a node doesn't open a connection
+ * pool and TLS sessions per module to the same API server.
+ */
+@InternalApi
+private[akka] final class KubernetesClients(system: ExtendedActorSystem) extends Extension {
+
+  private val log = Logging(system, classOf[KubernetesClients])
+
+  private val config = system.settings.config.getConfig("akka.management.kubernetes-client")
+  private val requestsPerSecond = config.getDouble("rate-limit.requests-per-second")
+  private val burst = config.getInt("rate-limit.burst")
+  private val http2Enabled = config.getBoolean("http2.enabled")
+  private val http2MaxPendingRequests = config.getInt("http2.max-pending-requests")
+
+  private val httpsConnectionContexts = new ConcurrentHashMap[String, Future[HttpsConnectionContext]]
+  private val apiTokens = new ConcurrentHashMap[String, ApiToken]
+  private val rateLimiters = new ConcurrentHashMap[(String, Int), RateLimiter]
+  private val http2Connections = new ConcurrentHashMap[(String, Int, String), Http2Connection]
+
+  private object Dispatchers {
+    implicit val blocking: ExecutionContext = system.dispatchers.lookup(DefaultBlockingDispatcherId)
+  }
+
+  // before the streams are torn down with the actor system, which would fail completing their queues
+  CoordinatedShutdown(system).addTask(CoordinatedShutdown.PhaseServiceStop, "close-kubernetes-api-connections") {
+    () =>
+      http2Connections.values.forEach(_.close())
+      Future.successful(Done)
+  }
+
+  /**
+   * A client for the API server, with the `name` of the module that uses it for its metrics. Creating the first client
+   * for a secure API server loads the CA certificate.
+   */
+  def client(name: String, settings: ApiServerSettings): Future[KubernetesClient] =
+    httpsConnectionContext(settings).map { httpsContext =>
+      log.debug("Creating Kubernetes API client [{}] for [{}:{}]", name, settings.host, settings.port)
+      new KubernetesClient(
+        system,
+        name,
+        settings,
+        apiToken(settings),
+        httpsContext,
+        rateLimiter(settings),
+        httpsContext.flatMap(http2Connection(settings, _)))
+    }(ExecutionContext.parasitic)
+
+  /**
+   * Reads e.g. the namespace from the file that Kubernetes mounts into the pod, on the blocking dispatcher.
+   */
+  def readFromFilesystem(path: String, name: String): Future[Option[String]] = {
+    import Dispatchers.blocking
+    Future(readConfigVarFromFilesystem(path, name))
+  }
+
+  // the first client of a token path decides the ttl, they are all the same unless configured otherwise
+  private def apiToken(settings: ApiServerSettings): ApiToken = {
+    implicit val ec: ExecutionContext = system.dispatcher
+    apiTokens.computeIfAbsent(
+      settings.apiTokenPath,
+      path => new ApiToken(() => readFromFilesystem(path, "api-token").map(_.getOrElse("")), settings.apiTokenTtl))
+  }
+
+  private def rateLimiter(settings: ApiServerSettings): Option[RateLimiter] =
+    if (requestsPerSecond > 0)
+      Some(rateLimiters.computeIfAbsent((settings.host, settings.port), _ => new RateLimiter(requestsPerSecond, burst)))
+    else None
+
+  private def http2Connection(
+      settings: ApiServerSettings,
+      httpsContext: HttpsConnectionContext): Option[Http2Connection] =
+    if (http2Enabled)
+      Some(
+        http2Connections.computeIfAbsent(
+          (settings.host, settings.port, settings.apiCaPath),
+          _ => new Http2Connection(system, settings.host, settings.port, httpsContext, http2MaxPendingRequests)))
+    else None
+
+  // the connection pool is per connection context, so sharing the context also shares the pool, the context is kept
+  // when the CA is rotated, see TlsContexts
+  private def httpsConnectionContext(settings: ApiServerSettings): Future[Option[HttpsConnectionContext]] =
+    if (settings.secure) {
+      import Dispatchers.blocking
+      val result = httpsConnectionContexts.computeIfAbsent(
+        settings.apiCaPath,
+        path => Future(ConnectionContext.httpsClient(TlsContexts(system).clientSslContext(path))))
+      // a failure is not cached, so that the next client tries again
+      result.failed.foreach(_ => httpsConnectionContexts.remove(settings.apiCaPath, result))(ExecutionContext.parasitic)
+      result.map(Some(_))(ExecutionContext.parasitic)
+    } else Future.successful(None)
+
+  /**
+   * This uses blocking IO, and so should only be used to read configuration from blocking dispatcher.
+   */
+  private def readConfigVarFromFilesystem(path: String, name: String): Option[String] = {
+    val file = Paths.get(path)
+    if (Files.exists(file)) {
+      try {
+        Some(new String(Files.readAllBytes(file), "utf-8"))
+      } catch {
+        case NonFatal(e) =>
+          log.error(e, "Error reading {} from {}", name, path)
+          None
+      }
+    } else {
+      log.warning("Unable to read {} from {} because it doesn't exist.", name, path)
+      None
+    }
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.kubernetes.client
+
+import java.util.concurrent.atomic.AtomicLong
+
+import scala.annotation.tailrec
+
+import akka.annotation.InternalApi
+
+/**
+ * INTERNAL API
+ *
+ * Limits the rate of requests to `requestsPerSecond`, allowing bursts of up to `burst` requests. A request reserves
+ * the earliest time it can be sent, so the requests are sent in the order they were made, at the limited rate.
+ *
+ * This is the generic cell rate algorithm, which keeps only the theoretical arrival time of the next request and so
+ * reserves with a compare-and-set, without locking.
+ */
+@InternalApi
+private[client] final class RateLimiter(requestsPerSecond: Double, burst: Int, nanoTime: () => Long) {
+  require(requestsPerSecond > 0, "requests-per-second must be greater than 0")
+  require(burst >= 1, "burst must be at least 1")
+
+  def this(requestsPerSecond: Double, burst: Int) = this(requestsPerSecond, burst, () => System.nanoTime())
+
+  private val interval = math.max(1L, (1e9 / requestsPerSecond).toLong)
+  private val burstTolerance = interval * (burst - 1)
+  // the time when the bucket is empty again, the next request can be sent burstTolerance before that
+  private val theoreticalArrivalTime = new AtomicLong(nanoTime() - interval)
+
+  /**
+   * Reserves the next slot, unless it is more than `maxDelayNanos` away.
+   *
+   * @return the delay in nanoseconds before the request can be sent, or -1 if nothing was reserved
+   */
+  @tailrec def reserve(maxDelayNanos: Long): Long = {
+    val now = nanoTime()
+    val tat = theoreticalArrivalTime.get()
+    val start = math.max(tat, now)
+    val delay = math.max(0L, start - burstTolerance - now)
+    if (delay > maxDelayNanos) -1L
+    else if (theoreticalArrivalTime.compareAndSet(tat, start + interval)) delay
+    else reserve(maxDelayNanos)
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.kubernetes.client
+
+import scala.concurrent.Future
+import scala.concurrent.duration._
+
+import akka.actor.ActorSystem
+import akka.http.scaladsl.model.HttpRequest
+import akka.http.scaladsl.model.Uri
+import akka.http.scaladsl.model.headers.Authorization
+import akka.http.scaladsl.model.headers.OAuth2BearerToken
+import akka.management.kubernetes.client.KubernetesClient.RateLimitExceededException
+import akka.testkit.TestKit
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+
+class KubernetesClientSpec
+    extends TestKit(ActorSystem("KubernetesClientSpec"))
+    with AnyWordSpecLike
+    with Matchers
+    with ScalaFutures
+    with BeforeAndAfterAll {
+
+  override def afterAll(): Unit = TestKit.shutdownActorSystem(system)
+
+  private def settings(secure: Boolean) =
+    ApiServerSettings("localhost", 8443, secure, "/ca.crt", "/token", apiTokenTtl = 1.second)
+
+  "KubernetesClient" should {
+
+    "address the API server of its settings" in {
+      val client = KubernetesClient(system, "test", settings(secure = true), () => Future.successful("token"), None)
+      client.uri(Uri.Path("/api/v1/pods"), Uri.Query("watch" -> "true")) shouldBe
+      Uri("https://localhost:8443/api/v1/pods?watch=true")
+      val insecure = KubernetesClient(system, "test", settings(secure = false), () => Future.successful("token"), None)
+      insecure.uri(Uri.Path("/api/v1/pods")) shouldBe Uri("http://localhost:8443/api/v1/pods")
+    }
+
+    "add the token only when secure or with insecure tokens" in {
+      val request = HttpRequest(uri = "/api/v1/pods")
+      val secure = KubernetesClient(system, "test", settings(secure = true), () => Future.successful("token"), None)
+      secure.withToken(request).futureValue.header[Authorization] shouldBe Some(
+        Authorization(OAuth2BearerToken("token")))
+      val insecure = KubernetesClient(system, "test", settings(secure = false), () => Future.successful("token"), None)
+      insecure.withToken(request).futureValue.header[Authorization] shouldBe None
+      val insecureTokens = KubernetesClient(
+        system,
+        "test",
+        settings(secure = false).copy(insecureTokens = true),
+        () => Future.successful("token"),
+        None)
+      insecureTokens.withToken(request).futureValue.header[Authorization] shouldBe Some(
+        Authorization(OAuth2BearerToken("token")))
+    }
+
+    "fail a request that would wait for the rate limit beyond its deadline, without sending it" in {
+      val apiToken = new ApiToken(() => Future.successful("token"), 1.second)(system.dispatcher)
+      val limiter = new RateLimiter(requestsPerSecond = 1, burst = 1)
+      val client = new KubernetesClient(
+        system,
+        "test",
+        settings(secure = false),
+        apiToken,
+        None,
+        Some(limiter),
+        http2Connection = None)
+      // takes the only slot of the next second
+      limiter.reserve(0L) shouldBe 0L
+      client
+        .send(HttpRequest(uri = client.uri(Uri.Path("/api"))), 100.millis.fromNow, 1.second)
+        .failed
+        .futureValue shouldBe a[RateLimitExceededException]
+    }
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.kubernetes.client
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Paths
+import java.security.KeyStore
+import java.security.SecureRandom
+import javax.net.ssl.KeyManagerFactory
+import javax.net.ssl.SSLContext
+
+import scala.concurrent.Future
+import scala.concurrent.duration._
+
+import akka.actor.ActorSystem
+import akka.http.scaladsl.ConnectionContext
+import akka.http.scaladsl.Http
+import akka.http.scaladsl.model.HttpRequest
+import akka.http.scaladsl.model.HttpResponse
+import akka.http.scaladsl.model.Uri
+import akka.http.scaladsl.model.headers.Authorization
+import akka.testkit.TestKit
+import com.typesafe.config.ConfigFactory
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.time.Millis
+import org.scalatest.time.Seconds
+import org.scalatest.time.Span
+import org.scalatest.wordspec.AnyWordSpecLike
+
+object KubernetesClientsSpec {
+  val config = ConfigFactory.parseString("""
+    akka.management.kubernetes-client {
+      rate-limit.requests-per-second = 100
+      http2.enabled = on
+    }
+    akka.http.server.enable-http2 = on
+    """)
+}
+
+class KubernetesClientsSpec
+    extends TestKit(ActorSystem("KubernetesClientsSpec", KubernetesClientsSpec.config))
+    with AnyWordSpecLike
+    with Matchers
+    with ScalaFutures
+    with BeforeAndAfterAll {
+
+  override implicit val patienceConfig: PatienceConfig =
+    PatienceConfig(timeout = Span(5, Seconds), interval = Span(50, Millis))
+
+  override def afterAll(): Unit = TestKit.shutdownActorSystem(system)
+
+  private val caPath = Paths.get(getClass.getResource("/tls/ca.crt").toURI).toString
+
+  private val tokenPath = {
+    val file = Files.createTempFile("KubernetesClientsSpec", "token")
+    file.toFile.deleteOnExit()
+    Files.write(file, "test-token".getBytes(StandardCharsets.UTF_8))
+    file.toString
+  }
+
+  // the server certificate is for localhost, signed by the CA in tls/ca.crt
+  private def serverSslContext(): SSLContext = {
+    val password = "changeit".toCharArray
+    val keyStore = KeyStore.getInstance("PKCS12")
+    val in = getClass.getResourceAsStream("/tls/server.p12")
+    try keyStore.load(in, password)
+    finally in.close()
+    val keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm)
+    keyManagerFactory.init(keyStore, password)
+    val context = SSLContext.getInstance("TLS")
+    context.init(keyManagerFactory.getKeyManagers, null, new SecureRandom)
+    context
+  }
+
+  private def settings(port: Int) =
+    ApiServerSettings("localhost", port, secure = true, caPath, tokenPath, apiTokenTtl = 1.minute)
+
+  "KubernetesClients" should {
+
+    "share the TLS context, the API token, the rate limit and the HTTP/2 connection between modules" in {
+      val clients = KubernetesClients(system)
+      val discovery = clients.client("discovery", settings(8443)).futureValue
+      val lease = clients.client("lease", settings(8443)).futureValue
+      val rollingUpdate = clients.client("rolling-update", settings(8443)).futureValue
+
+      discovery.name shouldBe "discovery"
+      lease.name shouldBe "lease"
+      rollingUpdate.name shouldBe "rolling-update"
+
+      for (client <- List(lease, rollingUpdate)) {
+        client.httpsConnectionContext.get should be theSameInstanceAs discovery.httpsConnectionContext.get
+        client.apiToken should be theSameInstanceAs discovery.apiToken
+        client.rateLimiter.get should be theSameInstanceAs discovery.rateLimiter.get
+        client.http2Connection.get should be theSameInstanceAs discovery.http2Connection.get
+      }
+
+      // another API server gets a connection and rate limit of its own
+      val other = clients.client("discovery", settings(8444)).futureValue
+      other.httpsConnectionContext.get should be theSameInstanceAs discovery.httpsConnectionContext.get
+      other.rateLimiter.get should not be theSameInstanceAs(discovery.rateLimiter.get)
+      other.http2Connection.get should not be theSameInstanceAs(discovery.http2Connection.get)
+    }
+
+    "send requests with the token over HTTP/2" in {
+      val binding = Http()
+        .newServerAt("localhost", 0)
+        .enableHttps(ConnectionContext.httpsServer(serverSslContext()))
+        .bind { (request: HttpRequest) =>
+          val token = request.header[Authorization].map(_.credentials.token()).getOrElse("")
+          Future.successful(HttpResponse(entity = s"${request.protocol.value} $token"))
+        }
+        .futureValue
+
+      try {
+        val client = KubernetesClients(system).client("discovery", settings(binding.localAddress.getPort)).futureValue
+        val response = client
+          .send(HttpRequest(uri = client.uri(Uri.Path("/api"))), 3.seconds.fromNow, 3.seconds)
+          .futureValue
+        response.status.intValue shouldBe 200
+        response.entity.toStrict(1.second).futureValue.data.utf8String shouldBe "HTTP/2.0 test-token"
+      } finally binding.unbind().futureValue
+    }
+  }
+}
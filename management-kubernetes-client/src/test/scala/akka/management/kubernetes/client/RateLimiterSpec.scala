@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.kubernetes.client
+
+import scala.concurrent.duration._
+
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class RateLimiterSpec extends AnyWordSpec with Matchers {
+
+  private val second = 1.second.toNanos
+
+  private class Clock {
+    var now: Long = 1000L * second
+  }
+
+  "RateLimiter" should {
+
+    "allow a burst without delay" in {
+      val clock = new Clock
+      val limiter = new RateLimiter(requestsPerSecond = 10, burst = 5, () => clock.now)
+      (1 to 5).map(_ => limiter.reserve(0L)) shouldBe Vector.fill(5)(0L)
+    }
+
+    "delay the requests after the burst to the rate" in {
+      val clock = new Clock
+      val limiter = new RateLimiter(requestsPerSecond = 10, burst = 2, () => clock.now)
+      limiter.reserve(second) shouldBe 0L
+      limiter.reserve(second) shouldBe 0L
+      limiter.reserve(second) shouldBe 100.millis.toNanos
+      limiter.reserve(second) shouldBe 200.millis.toNanos
+    }
+
+    "not reserve when the delay would exceed the max delay" in {
+      val clock = new Clock
+      val limiter = new RateLimiter(requestsPerSecond = 10, burst = 1, () => clock.now)
+      limiter.reserve(0L) shouldBe 0L
+      limiter.reserve(50.millis.toNanos) shouldBe -1L
+      // the rejected request didn't take the slot
+      limiter.reserve(100.millis.toNanos) shouldBe 100.millis.toNanos
+    }
+
+    "refill the burst over time" in {
+      val clock = new Clock
+      val limiter = new RateLimiter(requestsPerSecond = 10, burst = 3, () => clock.now)
+      (1 to 3).foreach(_ => limiter.reserve(0L) shouldBe 0L)
+      limiter.reserve(0L) shouldBe -1L
+      clock.now += 200.millis.toNanos
+      limiter.reserve(0L) shouldBe 0L
+      limiter.reserve(0L) shouldBe 0L
+      limiter.reserve(0L) shouldBe -1L
+      // idle for long doesn't allow more than the burst
+      clock.now += 10.seconds.toNanos
+      (1 to 3).foreach(_ => limiter.reserve(0L) shouldBe 0L)
+      limiter.reserve(0L) shouldBe -1L
+    }
+  }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.metrics
+
+import java.util.concurrent.atomic.LongAdder
+
+import akka.annotation.ApiMayChange
+import akka.annotation.InternalApi
+
+/**
+ * A count that only goes up, e.g. of requests or retries. Incrementing it doesn't lock and scales with the number of
+ * threads that update it.
+ */
+@ApiMayChange
+final class Counter @InternalApi private[akka] () extends Metric {
+  private val adder = new LongAdder
+
+  def increment(): Unit = adder.increment()
+
+  def add(n: Long): Unit = {
+    require(n >= 0, s"A counter can't be decreased, was [$n]")
+    adder.add(n)
+  }
+
+  def count: Long = adder.sum()
+
+  override private[metrics] def render(name: String, labels: String, out: java.lang.StringBuilder): Unit =
+    out.append(name).append("_total").append(labels).append(' ').append(count).append('\n')
+}
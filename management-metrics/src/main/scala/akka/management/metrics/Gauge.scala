@@ -0,0 +1,26 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.metrics
+
+import java.util.concurrent.atomic.AtomicLong
+
+import akka.annotation.ApiMayChange
+import akka.annotation.InternalApi
+
+/**
+ * A value that is set rather than counted, e.g. the time it took to join the cluster.
+ */
+@ApiMayChange
+final class Gauge @InternalApi private[akka] () extends Metric {
+  // the bits of the double, so that it is set without locking
+  private val bits = new AtomicLong(java.lang.Double.doubleToLongBits(0.0))
+
+  def set(value: Double): Unit = bits.set(java.lang.Double.doubleToLongBits(value))
+
+  def value: Double = java.lang.Double.longBitsToDouble(bits.get())
+
+  override private[metrics] def render(name: String, labels: String, out: java.lang.StringBuilder): Unit =
+    out.append(name).append(labels).append(' ').append(Metric.format(value)).append('\n')
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.metrics
+
+import java.util.concurrent.atomic.DoubleAdder
+import java.util.concurrent.atomic.LongAdder
+
+import scala.collection.immutable
+
+import akka.annotation.ApiMayChange
+import akka.annotation.InternalApi
+
+/**
+ * The distribution of observed values, e.g. of durations in seconds, counted in buckets with the given upper bounds.
+ * Observing a value doesn't lock, it increments the count of its bucket and adds to the sum.
+ */
+@ApiMayChange
+final class Histogram @InternalApi private[akka] (bucketBounds: immutable.Seq[Double]) extends Metric {
+  require(bucketBounds.nonEmpty, "A histogram needs at least one bucket")
+  require(
+    bucketBounds.zip(bucketBounds.tail).forall { case (a, b) => a < b },
+    s"The bucket bounds of a histogram must be increasing, were [${bucketBounds.mkString(", ")}]")
+
+  private val bounds: Array[Double] = bucketBounds.toArray
+  // one more for the values above the last bound, not cumulative, they are added up when rendered
+  private val buckets: Array[LongAdder] = Array.fill(bounds.length + 1)(new LongAdder)
+  private val total = new DoubleAdder
+
+  def observe(value: Double): Unit = {
+    // there are few buckets, a linear search is as fast as a binary search
+    var i = 0
+    while (i < bounds.length && value > bounds(i)) i += 1
+    buckets(i).increment()
+    total.add(value)
+  }
+
+  /**
+   * Observes a duration given in nanoseconds, as seconds.
+   */
+  def observeNanos(nanos: Long): Unit = observe(nanos / 1e9)
+
+  def count: Long = buckets.iterator.map(_.sum()).sum
+
+  def sum: Double = total.sum()
+
+  override private[metrics] def render(name: String, labels: String, out: java.lang.StringBuilder): Unit = {
+    var cumulative = 0L
+    var i = 0
+    while (i <= bounds.length) {
+      cumulative += buckets(i).sum()
+      val le = if (i < bounds.length) Metric.format(bounds(i)) else "+Inf"
+      out.append(name).append("_bucket").append(Metric.withLabel(labels, "le", le))
+      out.append(' ').append(cumulative).append('\n')
+      i += 1
+    }
+    out.append(name).append("_count").append(labels).append(' ').append(cumulative).append('\n')
+    out.append(name).append("_sum").append(labels).append(' ').append(Metric.format(sum)).append('\n')
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.metrics
+
+import java.util.concurrent.ConcurrentHashMap
+
+import scala.collection.immutable
+import scala.jdk.CollectionConverters._
+
+import akka.actor.ActorSystem
+import akka.actor.ClassicActorSystemProvider
+import akka.actor.ExtendedActorSystem
+import akka.actor.Extension
+import akka.actor.ExtensionId
+import akka.actor.ExtensionIdProvider
+import akka.annotation.ApiMayChange
+
+/**
+ * Metrics of the Akka Management modules, such as the durations of the health checks and of the discovery lookups,
+ * served in the OpenMetrics text format at the `/metrics` route of Akka Management.
+ *
+ * A metric is registered on first use and is then updated without locking, so the modules look up their metrics once
+ * and keep them. Looking up a metric with the same name and labels again returns the same instance.
+ */
+@ApiMayChange
+final class ManagementMetrics private () extends Extension {
+  import ManagementMetrics._
+
+  private val families = new ConcurrentHashMap[String, Family]()
+
+  def counter(name: String, help: String, labels: (String, String)*): Counter =
+    family(name, help, "counter").metric(labels.toList, () => new Counter)
+
+  def gauge(name: String, help: String, labels: (String, String)*): Gauge =
+    family(name, help, "gauge").metric(labels.toList, () => new Gauge)
+
+  /**
+   * A histogram with the given bucket bounds. The bounds of the first lookup of a metric are kept.
+   */
+  def histogram(
+      name: String,
+      help: String,
+      bucketBounds: immutable.Seq[Double],
+      labels: (String, String)*): Histogram =
+    family(name, help, "histogram").metric(labels.toList, () => new Histogram(bucketBounds))
+
+  /**
+   * A histogram of durations in seconds, with buckets from 5 milliseconds to 10 seconds.
+   */
+  def durationHistogram(name: String, help: String, labels: (String, String)*): Histogram =
+    histogram(name, help, DurationBuckets, labels: _*)
+
+  /**
+   * All metrics in the OpenMetrics text format.
+   */
+  def render(): String = {
+    val out = new java.lang.StringBuilder
+    families.values.asScala.toVector.sortBy(_.name).foreach(_.render(out))
+    out.append("# EOF\n")
+    out.toString
+  }
+
+  private def family(name: String, help: String, metricType: String): Family = {
+    val f = families.computeIfAbsent(name, _ => {
+      require(ValidName.matches(name), s"Invalid metric name [$name]")
+      new Family(name, help, metricType)
+    })
+    require(
+      f.metricType == metricType,
+      s"Metric [$name] is already registered as a ${f.metricType}, can't register it as a $metricType")
+    f
+  }
+}
+
+@ApiMayChange
+object ManagementMetrics extends ExtensionId[ManagementMetrics] with ExtensionIdProvider {
+  override def get(system: ActorSystem): ManagementMetrics = super.get(system)
+
+  override def get(system: ClassicActorSystemProvider): ManagementMetrics = super.get(system)
+
+  override def lookup: ManagementMetrics.type = ManagementMetrics
+
+  override def createExtension(system: ExtendedActorSystem): ManagementMetrics = new ManagementMetrics
+
+  val DurationBuckets: immutable.Seq[Double] = List(0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10)
+
+  private val ValidName = "[a-zA-Z_:][a-zA-Z0-9_:]*".r
+
+  private final class Family(val name: String, help: String, val metricType: String) {
+    private val metrics = new ConcurrentHashMap[immutable.Seq[(String, String)], Metric]()
+
+    def metric[M <: Metric](labels: immutable.Seq[(String, String)], create: () => M): M =
+      metrics.computeIfAbsent(labels, _ => create()).asInstanceOf[M]
+
+    def render(out: java.lang.StringBuilder): Unit = {
+      out.append("# TYPE ").append(name).append(' ').append(metricType).append('\n')
+      out.append("# HELP ").append(name).append(' ').append(Metric.escape(help)).append('\n')
+      metrics.asScala.toVector
+        .map { case (labels, metric) => Metric.labels(labels) -> metric }
+        .sortBy(_._1)
+        .foreach { case (labels, metric) => metric.render(name, labels, out) }
+    }
+  }
+}
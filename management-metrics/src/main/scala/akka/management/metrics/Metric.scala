@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.metrics
+
+import scala.collection.immutable
+
+import akka.annotation.ApiMayChange
+import akka.annotation.InternalApi
+
+/**
+ * A metric of a [[ManagementMetrics]] family, for one combination of label values.
+ */
+@ApiMayChange
+abstract class Metric private[metrics] () {
+
+  /**
+   * INTERNAL API
+   */
+  @InternalApi
+  private[metrics] def render(name: String, labels: String, out: java.lang.StringBuilder): Unit
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[metrics] object Metric {
+
+  def format(value: Double): String =
+    if (value.isNaN) "NaN"
+    else if (value == Double.PositiveInfinity) "+Inf"
+    else if (value == Double.NegativeInfinity) "-Inf"
+    else if (value == math.rint(value) && math.abs(value) < 1e15) value.toLong.toString
+    else java.math.BigDecimal.valueOf(value).toPlainString
+
+  def escape(value: String): String =
+    value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n")
+
+  def labels(labels: immutable.Seq[(String, String)]): String =
+    if (labels.isEmpty) ""
+    else labels.map { case (name, value) => s"""$name="${escape(value)}"""" }.mkString("{", ",", "}")
+
+  def withLabel(labels: String, name: String, value: String): String =
+    if (labels.isEmpty) s"""{$name="$value"}"""
+    else s"""${labels.dropRight(1)},$name="$value"}"""
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.metrics
+
+import akka.actor.ActorSystem
+import akka.testkit.TestKit
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+
+class ManagementMetricsSpec
+    extends TestKit(ActorSystem("ManagementMetricsSpec"))
+    with AnyWordSpecLike
+    with Matchers
+    with BeforeAndAfterAll {
+
+  override def afterAll(): Unit = TestKit.shutdownActorSystem(system)
+
+  private def lines(metrics: ManagementMetrics): Vector[String] =
+    metrics.render().split('\n').toVector
+
+  "ManagementMetrics" should {
+
+    "return the same metric for the same name and labels" in {
+      val metrics = ManagementMetrics(system)
+      metrics.counter("same_counter", "help", "a" -> "1") should be theSameInstanceAs
+      metrics.counter("same_counter", "help", "a" -> "1")
+      metrics.counter("same_counter", "help", "a" -> "1") should not be theSameInstanceAs(
+        metrics.counter("same_counter", "help", "a" -> "2"))
+    }
+
+    "render counters with the _total suffix and escaped labels" in {
+      val metrics = ManagementMetrics(system)
+      metrics.counter("render_counter", "Requests", "path" -> "a\"b").add(3)
+      metrics.counter("render_counter", "Requests", "path" -> "c").increment()
+      val rendered = lines(metrics)
+      rendered should contain inOrderElementsOf List(
+        "# TYPE render_counter counter",
+        "# HELP render_counter Requests",
+        "render_counter_total{path=\"a\\\"b\"} 3",
+        "render_counter_total{path=\"c\"} 1")
+      rendered.last shouldBe "# EOF"
+    }
+
+    "render gauges" in {
+      val metrics = ManagementMetrics(system)
+      metrics.gauge("render_gauge", "Seconds").set(1.5)
+      lines(metrics) should contain("render_gauge 1.5")
+    }
+
+    "render histograms with cumulative buckets, count and sum" in {
+      val metrics = ManagementMetrics(system)
+      val histogram = metrics.histogram("render_histogram", "Durations", List(0.1, 1.0), "kind" -> "x")
+      histogram.observe(0.05)
+      histogram.observe(0.5)
+      histogram.observe(2.0)
+      histogram.observeNanos(100000000L) // 0.1 second, on the bound
+      histogram.count shouldBe 4
+      lines(metrics) should contain inOrderElementsOf List(
+        "# TYPE render_histogram histogram",
+        "render_histogram_bucket{kind=\"x\",le=\"0.1\"} 2",
+        "render_histogram_bucket{kind=\"x\",le=\"1\"} 3",
+        "render_histogram_bucket{kind=\"x\",le=\"+Inf\"} 4",
+        "render_histogram_count{kind=\"x\"} 4",
+        "render_histogram_sum{kind=\"x\"} 2.65")
+    }
+
+    "not register the same name as another type" in {
+      val metrics = ManagementMetrics(system)
+      metrics.counter("conflicting_metric", "help")
+      intercept[IllegalArgumentException] {
+        metrics.gauge("conflicting_metric", "help")
+      }
+    }
+
+    "reject invalid names" in {
+      intercept[IllegalArgumentException] {
+        ManagementMetrics(system).counter("invalid-name", "help")
+      }
+    }
+
+    "reject decreasing a counter" in {
+      intercept[IllegalArgumentException] {
+        ManagementMetrics(system).counter("decreased_counter", "help").add(-1)
+      }
+    }
+
+    "count concurrent increments" in {
+      val counter = ManagementMetrics(system).counter("concurrent_counter", "help")
+      val threads = (1 to 4).map(_ => new Thread(() => (1 to 10000).foreach(_ => counter.increment())))
+      threads.foreach(_.start())
+      threads.foreach(_.join())
+      counter.count shouldBe 40000
+    }
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.pki.kubernetes
+
+import java.nio.file.FileSystems
+import java.nio.file.Path
+import java.nio.file.StandardWatchEventKinds.ENTRY_CREATE
+import java.nio.file.StandardWatchEventKinds.ENTRY_DELETE
+import java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY
+import java.nio.file.WatchService
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+
+import scala.annotation.tailrec
+import scala.jdk.CollectionConverters._
+import scala.util.control.NonFatal
+
+import akka.annotation.InternalApi
+import akka.event.LoggingAdapter
+
+/**
+ * INTERNAL API
+ *
+ * Watches the directories of files for changes, with the NIO [[WatchService]].
+ *
+ * The directory is watched rather than the file, since Kubernetes updates a mounted secret or config map by pointing
+ * the `..data` symlink of the mount to a new directory, which isn't an event on the file itself. Any change in the
+ * directory runs the callbacks of all files in it, which have to tell whether their file did change.
+ */
+@InternalApi
+private[kubernetes] final class FileWatcher(log: LoggingAdapter) {
+
+  private val watchService: Option[WatchService] =
+    try Some(FileSystems.getDefault.newWatchService())
+    catch {
+      case NonFatal(e) =>
+        log.warning("Unable to watch files, changed certificates will not be reloaded: {}", e.getMessage)
+        None
+    }
+
+  private val callbacks = new ConcurrentHashMap[Path, CopyOnWriteArrayList[() => Unit]]
+
+  /**
+   * Runs `onChange` when the directory of the `file` changes, from [[poll]].
+   */
+  def watch(file: Path)(onChange: () => Unit): Unit =
+    watchService.foreach { service =>
+      val directory = file.toAbsolutePath.getParent
+      try {
+        callbacks
+          .computeIfAbsent(directory, { dir =>
+            dir.register(service, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE)
+            new CopyOnWriteArrayList[() => Unit]
+          })
+          .add(onChange)
+      } catch {
+        case NonFatal(e) =>
+          log.warning("Unable to watch [{}], changes of [{}] will not be reloaded: {}", directory, file, e.getMessage)
+      }
+    }
+
+  /**
+   * Runs the callbacks of the directories that changed since the last poll, without waiting for changes.
+   */
+  def poll(): Unit =
+    watchService.foreach { service =>
+      @tailrec def changedDirectories(acc: Set[Path]): Set[Path] =
+        service.poll() match {
+          case null => acc
+          case key =>
+            key.pollEvents()
+            key.reset()
+            changedDirectories(acc + key.watchable().asInstanceOf[Path])
+        }
+
+      changedDirectories(Set.empty).foreach { directory =>
+        Option(callbacks.get(directory)).foreach(_.asScala.foreach { onChange =>
+          try onChange()
+          catch {
+            case NonFatal(e) => log.warning("Failed to reload changed file in [{}]: {}", directory, e.getMessage)
+          }
+        })
+      }
+    }
+
+  def close(): Unit =
+    watchService.foreach(_.close())
+}
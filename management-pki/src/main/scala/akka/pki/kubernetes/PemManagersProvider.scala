@@ -62,8 +62,13 @@ private[akka] object PemManagersProvider {
    * INTERNAL API
    */
   @InternalApi def loadCertificates(filename: String): Iterable[Certificate] = blocking {
-    val bytes = Files.readAllBytes(new File(filename).toPath)
-    certFactory.generateCertificates(new ByteArrayInputStream(bytes)).asScala
+    parseCertificates(Files.readAllBytes(new File(filename).toPath))
   }
 
+  /**
+   * INTERNAL API
+   */
+  @InternalApi def parseCertificates(pem: Array[Byte]): Iterable[Certificate] =
+    certFactory.generateCertificates(new ByteArrayInputStream(pem)).asScala
+
 }
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.pki.kubernetes
+
+import java.net.Socket
+import java.security.cert.X509Certificate
+import java.util.concurrent.atomic.AtomicReference
+
+import akka.annotation.InternalApi
+import javax.net.ssl.SSLEngine
+import javax.net.ssl.X509ExtendedTrustManager
+
+/**
+ * INTERNAL API
+ *
+ * A trust manager that delegates to the current trust manager, which is replaced when the certificates it trusts
+ * change. The `SSLContext` that it was initialized with can then be kept, and with that its TLS session cache and the
+ * connection pools that use it.
+ */
+@InternalApi
+private[kubernetes] final class ReloadingTrustManager(initial: X509ExtendedTrustManager)
+    extends X509ExtendedTrustManager {
+  private val current = new AtomicReference(initial)
+
+  def update(trustManager: X509ExtendedTrustManager): Unit = current.set(trustManager)
+
+  override def checkClientTrusted(chain: Array[X509Certificate], authType: String): Unit =
+    current.get().checkClientTrusted(chain, authType)
+
+  override def checkClientTrusted(chain: Array[X509Certificate], authType: String, socket: Socket): Unit =
+    current.get().checkClientTrusted(chain, authType, socket)
+
+  override def checkClientTrusted(chain: Array[X509Certificate], authType: String, engine: SSLEngine): Unit =
+    current.get().checkClientTrusted(chain, authType, engine)
+
+  override def checkServerTrusted(chain: Array[X509Certificate], authType: String): Unit =
+    current.get().checkServerTrusted(chain, authType)
+
+  override def checkServerTrusted(chain: Array[X509Certificate], authType: String, socket: Socket): Unit =
+    current.get().checkServerTrusted(chain, authType, socket)
+
+  override def checkServerTrusted(chain: Array[X509Certificate], authType: String, engine: SSLEngine): Unit =
+    current.get().checkServerTrusted(chain, authType, engine)
+
+  override def getAcceptedIssuers: Array[X509Certificate] =
+    current.get().getAcceptedIssuers
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.pki.kubernetes
+
+import java.nio.file.Files
+import java.nio.file.Paths
+import java.security.KeyStore
+import java.security.SecureRandom
+import java.security.cert.Certificate
+import java.util.Arrays
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicReference
+
+import scala.concurrent.ExecutionContext
+import scala.jdk.DurationConverters._
+
+import akka.actor.ActorSystem
+import akka.actor.ClassicActorSystemProvider
+import akka.actor.ExtendedActorSystem
+import akka.actor.Extension
+import akka.actor.ExtensionId
+import akka.actor.ExtensionIdProvider
+import akka.annotation.InternalApi
+import akka.dispatch.Dispatchers.DefaultBlockingDispatcherId
+import akka.event.Logging
+import javax.net.ssl.KeyManager
+import javax.net.ssl.KeyManagerFactory
+import javax.net.ssl.SSLContext
+import javax.net.ssl.X509ExtendedTrustManager
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] object TlsContexts extends ExtensionId[TlsContexts] with ExtensionIdProvider {
+
+  override def get(system: ActorSystem): TlsContexts = super.get(system)
+
+  override def get(system: ClassicActorSystemProvider): TlsContexts = super.get(system)
+
+  override def lookup: TlsContexts.type = TlsContexts
+
+  override def createExtension(system: ExtendedActorSystem): TlsContexts = new TlsContexts(system)
+
+  /**
+   * INTERNAL API
+   *
+   * The `SSLContext` of a CA file, and the trust manager that it was initialized with.
+   */
+  @InternalApi
+  private[kubernetes] final class ClientContext(val sslContext: SSLContext, val trustManager: ReloadingTrustManager)
+}
+
+/**
+ * INTERNAL API
+ *
+ * The TLS contexts built from the PEM files that Kubernetes mounts into the pod, shared by all modules of an actor
+ * system, so that the files are parsed once and the modules share the TLS session cache of a context.
+ *
+ * With `akka.management.pki.watch-files` the files are watched, and the trusted certificates of a context are replaced
+ * when its file changes, so that a rotated CA is used without restarting. The context itself stays the same, and so
+ * do the connection pools that use it.
+ */
+@InternalApi
+private[akka] final class TlsContexts(system: ExtendedActorSystem) extends Extension {
+  import TlsContexts.ClientContext
+
+  private val log = Logging(system, classOf[TlsContexts])
+
+  private val config = system.settings.config.getConfig("akka.management.pki")
+  private val watchFiles = config.getBoolean("watch-files")
+  private val watchInterval = config.getDuration("watch-interval").toScala
+
+  private val clientContexts = new ConcurrentHashMap[String, ClientContext]
+
+  private lazy val watcher: FileWatcher = {
+    val blocking: ExecutionContext = system.dispatchers.lookup(DefaultBlockingDispatcherId)
+    val watcher = new FileWatcher(log)
+    val task = system.scheduler.scheduleWithFixedDelay(watchInterval, watchInterval)(() => watcher.poll())(blocking)
+    system.registerOnTermination {
+      task.cancel()
+      watcher.close()
+    }
+    watcher
+  }
+
+  /**
+   * The `SSLContext` for clients that trust the CA certificates in the PEM file at `caPath`, the same for all callers.
+   *
+   * The first call for a path reads the file with blocking IO, and so should be made from the blocking dispatcher.
+   * A failure to read it is thrown, and not cached.
+   */
+  def clientSslContext(caPath: String): SSLContext =
+    clientContext(caPath).sslContext
+
+  private[kubernetes] def clientContext(caPath: String): ClientContext =
+    clientContexts.computeIfAbsent(caPath, createClientContext)
+
+  private def createClientContext(caPath: String): ClientContext = {
+    val file = Paths.get(caPath)
+    val content = new AtomicReference(Files.readAllBytes(file))
+    val trustManager = new ReloadingTrustManager(trustManagerFor(PemManagersProvider.parseCertificates(content.get())))
+
+    val factory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm)
+    val keyStore = KeyStore.getInstance("PKCS12")
+    keyStore.load(null)
+    factory.init(keyStore, Array.empty)
+    val km: Array[KeyManager] = factory.getKeyManagers
+    val sslContext = SSLContext.getInstance("TLSv1.2")
+    sslContext.init(km, Array(trustManager), new SecureRandom)
+
+    if (watchFiles) {
+      watcher.watch(file) { () =>
+        val bytes = Files.readAllBytes(file)
+        if (!Arrays.equals(bytes, content.get())) {
+          // a file that is still being written may not have a certificate yet, it is read again on the next change
+          val certificates = PemManagersProvider.parseCertificates(bytes)
+          if (certificates.isEmpty)
+            throw new IllegalArgumentException(s"No certificates in [$caPath]")
+          trustManager.update(trustManagerFor(certificates))
+          content.set(bytes)
+          log.info("Reloaded the CA certificates of [{}]", caPath)
+        }
+      }
+    }
+
+    new ClientContext(sslContext, trustManager)
+  }
+
+  private def trustManagerFor(certificates: Iterable[Certificate]): X509ExtendedTrustManager =
+    PemManagersProvider
+      .buildTrustManagers(certificates)
+      .collectFirst { case trustManager: X509ExtendedTrustManager => trustManager }
+      .getOrElse(throw new IllegalStateException("No X509 trust manager available"))
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.pki.kubernetes
+
+import java.nio.file.Files
+import java.nio.file.LinkOption.NOFOLLOW_LINKS
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.nio.file.StandardCopyOption.ATOMIC_MOVE
+import java.nio.file.StandardCopyOption.REPLACE_EXISTING
+
+import scala.concurrent.duration._
+
+import akka.actor.ActorSystem
+import akka.testkit.TestKit
+import com.typesafe.config.ConfigFactory
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.Eventually
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+
+class TlsContextsSpec
+    extends TestKit(
+      ActorSystem(
+        "TlsContextsSpec",
+        ConfigFactory.parseString("akka.management.pki.watch-interval = 50ms").withFallback(ConfigFactory.load())))
+    with AnyWordSpecLike
+    with Matchers
+    with Eventually
+    with BeforeAndAfterAll {
+
+  override implicit val patienceConfig: PatienceConfig = PatienceConfig(10.seconds, 100.millis)
+
+  override def afterAll(): Unit = TestKit.shutdownActorSystem(system)
+
+  private def resource(name: String): Path = Paths.get(getClass.getResource(s"/$name").toURI)
+
+  private def issuers(context: TlsContexts.ClientContext): Set[String] =
+    context.trustManager.getAcceptedIssuers.map(_.getSubjectX500Principal.getName).toSet
+
+  /**
+   * A directory with `ca.crt` the way Kubernetes mounts a secret: the file is a symlink into the `..data` symlink to
+   * a directory of the current version, and an update points `..data` to a new directory.
+   */
+  private class MountedSecret {
+    val directory: Path = Files.createTempDirectory("TlsContextsSpec")
+    private var version = 0
+
+    def update(ca: String): Unit = {
+      version += 1
+      val versionDirectory = Files.createDirectory(directory.resolve(s"..version-$version"))
+      Files.copy(resource(ca), versionDirectory.resolve("ca.crt"))
+      val tmp = Files.createSymbolicLink(directory.resolve("..data_tmp"), versionDirectory.getFileName)
+      Files.move(tmp, directory.resolve("..data"), ATOMIC_MOVE)
+      if (!Files.exists(caPath, NOFOLLOW_LINKS))
+        Files.createSymbolicLink(caPath, Paths.get("..data", "ca.crt"))
+    }
+
+    def caPath: Path = directory.resolve("ca.crt")
+  }
+
+  "TlsContexts" should {
+
+    "share the context of a CA file" in {
+      val path = resource("ca-1.crt").toString
+      val context = TlsContexts(system).clientSslContext(path)
+      TlsContexts(system).clientSslContext(path) should be theSameInstanceAs context
+      issuers(TlsContexts(system).clientContext(path)) shouldBe Set("CN=test-ca-1")
+    }
+
+    "not cache a failure to read the CA file" in {
+      val path = Files.createTempDirectory("TlsContextsSpec").resolve("ca.crt")
+      an[Exception] should be thrownBy TlsContexts(system).clientSslContext(path.toString)
+      Files.copy(resource("ca-1.crt"), path)
+      TlsContexts(system).clientSslContext(path.toString) should not be null
+    }
+
+    "trust the new certificates when the mounted CA file is updated" in {
+      val secret = new MountedSecret
+      secret.update("ca-1.crt")
+      val context = TlsContexts(system).clientContext(secret.caPath.toString)
+      issuers(context) shouldBe Set("CN=test-ca-1")
+
+      secret.update("ca-2.crt")
+      eventually {
+        issuers(context) shouldBe Set("CN=test-ca-2")
+      }
+      TlsContexts(system).clientSslContext(secret.caPath.toString) should be theSameInstanceAs context.sslContext
+    }
+
+    "keep the trusted certificates when the changed CA file has none" in {
+      val directory = Files.createTempDirectory("TlsContextsSpec")
+      val path = directory.resolve("ca.crt")
+      Files.copy(resource("ca-1.crt"), path)
+      val context = TlsContexts(system).clientContext(path.toString)
+
+      val tmp = directory.resolve("ca.tmp")
+      Files.write(tmp, Array.emptyByteArray)
+      Files.move(tmp, path, REPLACE_EXISTING, ATOMIC_MOVE)
+      Thread.sleep(500)
+      issuers(context) shouldBe Set("CN=test-ca-1")
+
+      Files.copy(resource("ca-2.crt"), tmp)
+      Files.move(tmp, path, REPLACE_EXISTING, ATOMIC_MOVE)
+      eventually {
+        issuers(context) shouldBe Set("CN=test-ca-2")
+      }
+    }
+  }
+}
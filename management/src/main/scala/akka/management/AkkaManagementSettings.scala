@@ -67,6 +67,27 @@ final class AkkaManagementSettings(val config: Config) {
     }
 
     val RouteProvidersReadOnly: Boolean = cc.getBoolean("route-providers-read-only")
+
+    object Isolation {
+      private val ic = cc.getConfig("isolation")
+
+      val Enabled: Boolean = ic.getBoolean("enabled")
+
+      val Dispatcher: String = ic.getString("dispatcher")
+
+      val MaxConnections: Int = ic.getInt("max-connections")
+      require(MaxConnections > 0, "akka.management.http.isolation.max-connections must be > 0")
+
+      val MaxConcurrentRequests: Int = ic.getInt("max-concurrent-requests")
+      require(MaxConcurrentRequests > 0, "akka.management.http.isolation.max-concurrent-requests must be > 0")
+
+      val PriorityPaths: immutable.Seq[String] = {
+        val healthChecks = managementConfig.getConfig("health-checks")
+        (ic.getStringList("priority-paths").asScala.toList :+
+        healthChecks.getString("readiness-path") :+
+        healthChecks.getString("liveness-path")).distinct
+      }
+    }
   }
 
   /** Java API */
@@ -9,8 +9,19 @@ import akka.annotation.InternalApi
 import akka.http.scaladsl.model._
 import akka.http.scaladsl.server.Directives._
 import akka.http.scaladsl.server.{ PathMatchers, Route }
-import akka.management.scaladsl.{ HealthChecks, ManagementRouteProvider, ManagementRouteProviderSettings }
+import akka.management.internal.HealthCheckSnapshot
+import akka.management.internal.ManagementIsolation
+import akka.management.scaladsl.{
+  HealthCheckResult,
+  HealthChecks,
+  ManagementRouteProvider,
+  ManagementRouteProviderSettings
+}
+import spray.json.{ JsArray, JsNumber, JsObject, JsString }
 
+import scala.collection.immutable
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
 import scala.util.{ Failure, Success, Try }
 
 /**
@@ -26,29 +37,90 @@ private[akka] class HealthCheckRoutes(system: ExtendedActorSystem) extends Manag
     system.settings.config.getConfig("akka.management.health-checks")
   )
 
+  private implicit val ec: ExecutionContext = ManagementIsolation.executionContext(system)
+
   // exposed for testing
   protected val healthChecks = HealthChecks(system, settings)
 
-  private val healthCheckResponse: Try[Either[String, Unit]] => Route = {
-    case Success(Right(())) => complete(StatusCodes.OK)
+  private val okResponse = HttpResponse(StatusCodes.OK, entity = StatusCodes.OK.defaultMessage)
+
+  private val healthCheckResponse: Try[Either[String, Unit]] => HttpResponse = {
+    case Success(Right(())) => okResponse
     case Success(Left(failingChecks)) =>
-      complete(StatusCodes.InternalServerError -> s"Not Healthy: $failingChecks")
+      HttpResponse(StatusCodes.InternalServerError, entity = s"Not Healthy: $failingChecks")
+    case Failure(t) =>
+      HttpResponse(StatusCodes.InternalServerError, entity = s"Health Check Failed: ${t.getMessage}")
+  }
+
+  private val detailedHealthCheckResponse: Try[immutable.Seq[HealthCheckResult]] => HttpResponse = {
+    case Success(results) =>
+      val status =
+        if (results.forall(_.isOk)) HealthCheckResult.Ok
+        else if (results.exists(r => r.status == HealthCheckResult.Failed || r.status == HealthCheckResult.TimedOut))
+          HealthCheckResult.Failed
+        else HealthCheckResult.NotOk
+      val json = JsObject(
+        "status" -> JsString(status),
+        "checks" -> JsArray(results.map { result =>
+          JsObject(
+            Map(
+              "name" -> JsString(result.name),
+              "status" -> JsString(result.status),
+              "latencyMillis" -> JsNumber(result.latency.toMillis)) ++
+            result.error.map(error => "error" -> JsString(error)))
+        }.toVector))
+      val statusCode = if (status == HealthCheckResult.Ok) StatusCodes.OK else StatusCodes.InternalServerError
+      HttpResponse(statusCode, entity = HttpEntity(ContentTypes.`application/json`, json.compactPrint))
     case Failure(t) =>
-      complete(
-        StatusCodes.InternalServerError -> s"Health Check Failed: ${t.getMessage}"
-      )
+      HttpResponse(StatusCodes.InternalServerError, entity = s"Health Check Failed: ${t.getMessage}")
   }
 
+  private def readyResponse(): Future[HttpResponse] = {
+    if (settings.detailedResponse)
+      healthChecks.readyCheckResults().transform(r => Success(detailedHealthCheckResponse(r)))
+    else
+      healthChecks.readyResult().transform(r => Success(healthCheckResponse(r)))
+  }
+
+  private def aliveResponse(): Future[HttpResponse] = {
+    if (settings.detailedResponse)
+      healthChecks.aliveCheckResults().transform(r => Success(detailedHealthCheckResponse(r)))
+    else
+      healthChecks.aliveResult().transform(r => Success(healthCheckResponse(r)))
+  }
+
+  // lazy since healthChecks is overridden in tests, started when the routes are first created
+  private lazy val snapshots: Option[(HealthCheckSnapshot, HealthCheckSnapshot)] =
+    settings.backgroundEvaluationInterval.map { interval =>
+      val maxAge = settings.backgroundEvaluationMaxAge
+      val ready = new HealthCheckSnapshot("readiness", () => readyResponse(), interval, maxAge, system.scheduler)
+      val alive = new HealthCheckSnapshot("liveness", () => aliveResponse(), interval, maxAge, system.scheduler)
+      ready.start()
+      alive.start()
+      system.registerOnTermination {
+        ready.stop()
+        alive.stop()
+      }
+      (ready, alive)
+    }
+
   override def routes(mrps: ManagementRouteProviderSettings): Route = {
+    val (readyRoute, aliveRoute) = snapshots match {
+      case Some((ready, alive)) =>
+        // only reads the latest result of the checks that run in the background
+        (complete(ready.response()), complete(alive.response()))
+      case None =>
+        (complete(readyResponse()), complete(aliveResponse()))
+    }
     concat(
       path(PathMatchers.separateOnSlashes(settings.readinessPath)) {
         get {
-          onComplete(healthChecks.readyResult())(healthCheckResponse)
+          readyRoute
         }
       },
       path(PathMatchers.separateOnSlashes(settings.livenessPath)) {
         get {
-          onComplete(healthChecks.aliveResult())(healthCheckResponse)
+          aliveRoute
         }
       }
     )
@@ -7,6 +7,7 @@ package akka.management
 import com.typesafe.config.Config
 
 import scala.collection.immutable
+import scala.concurrent.duration.Duration
 import scala.concurrent.duration.FiniteDuration
 import scala.jdk.CollectionConverters._
 import scala.jdk.DurationConverters._
@@ -42,7 +43,27 @@ object HealthCheckSettings {
         .toList,
       config.getString("readiness-path"),
       config.getString("liveness-path"),
-      config.getDuration("check-timeout").toScala
+      config.getDuration("check-timeout").toScala,
+      // the settings below were added later, so they are optional for configs that are built by hand
+      if (config.hasPath("result-max-age")) config.getDuration("result-max-age").toScala else Duration.Zero,
+      if (config.hasPath("result-max-age-by-name"))
+        config
+          .getConfig("result-max-age-by-name")
+          .root
+          .entrySet
+          .asScala
+          .map { entry =>
+            // check names are plain keys that may contain dots, so go through the value rather than a path
+            entry.getKey -> entry.getValue.atKey("max-age").getDuration("max-age").toScala
+          }
+          .toMap
+      else Map.empty,
+      config.hasPath("detailed-response") && config.getBoolean("detailed-response"),
+      if (config.hasPath("background-evaluation.enabled") && config.getBoolean("background-evaluation.enabled"))
+        Some(config.getDuration("background-evaluation.interval").toScala)
+      else None,
+      if (config.hasPath("background-evaluation.max-age")) config.getDuration("background-evaluation.max-age").toScala
+      else Duration.Zero
     )
   }
 
@@ -75,13 +96,88 @@ object HealthCheckSettings {
  * @param readinessPath The path to serve readiness on
  * @param livenessPath The path to serve liveness on
  * @param checkTimeout how long to wait for all health checks to complete
+ * @param resultMaxAge how long the result of a check is reused, zero to run the check for every request
+ * @param resultMaxAgeByName overrides of the resultMaxAge for individual checks, by the name of the check
+ * @param detailedResponse whether the routes respond with the result of each check in JSON
+ * @param backgroundEvaluationInterval when defined the routes respond with the latest result of the checks, that are
+ *                                     run in the background with this interval
+ * @param backgroundEvaluationMaxAge a result of the background evaluation that is older than this is considered failed
  */
 final class HealthCheckSettings(
     val readinessChecks: immutable.Seq[NamedHealthCheck],
     val livenessChecks: immutable.Seq[NamedHealthCheck],
     val readinessPath: String,
     val livenessPath: String,
-    val checkTimeout: FiniteDuration) {
+    val checkTimeout: FiniteDuration,
+    val resultMaxAge: FiniteDuration,
+    val resultMaxAgeByName: Map[String, FiniteDuration],
+    val detailedResponse: Boolean,
+    val backgroundEvaluationInterval: Option[FiniteDuration],
+    val backgroundEvaluationMaxAge: FiniteDuration) {
+
+  def this(
+      readinessChecks: immutable.Seq[NamedHealthCheck],
+      livenessChecks: immutable.Seq[NamedHealthCheck],
+      readinessPath: String,
+      livenessPath: String,
+      checkTimeout: FiniteDuration) =
+    this(
+      readinessChecks,
+      livenessChecks,
+      readinessPath,
+      livenessPath,
+      checkTimeout,
+      Duration.Zero,
+      Map.empty,
+      false,
+      None,
+      Duration.Zero)
+
+  /** The max age of the result of the check with the given name */
+  def resultMaxAge(name: String): FiniteDuration =
+    resultMaxAgeByName.getOrElse(name, resultMaxAge)
+
+  def withResultMaxAge(maxAge: FiniteDuration): HealthCheckSettings =
+    copy(resultMaxAge = maxAge)
+
+  /**
+   * Java API
+   */
+  def withResultMaxAge(maxAge: java.time.Duration): HealthCheckSettings =
+    withResultMaxAge(maxAge.toScala)
+
+  def withDetailedResponse(detailedResponse: Boolean): HealthCheckSettings =
+    copy(detailedResponse = detailedResponse)
+
+  /**
+   * Run the checks in the background with the given interval, and consider a result older than maxAge failed.
+   */
+  def withBackgroundEvaluation(interval: FiniteDuration, maxAge: FiniteDuration): HealthCheckSettings =
+    copy(backgroundEvaluationInterval = Some(interval), backgroundEvaluationMaxAge = maxAge)
+
+  /**
+   * Java API: Run the checks in the background with the given interval, and consider a result older than maxAge
+   * failed.
+   */
+  def withBackgroundEvaluation(interval: java.time.Duration, maxAge: java.time.Duration): HealthCheckSettings =
+    withBackgroundEvaluation(interval.toScala, maxAge.toScala)
+
+  private def copy(
+      resultMaxAge: FiniteDuration = resultMaxAge,
+      detailedResponse: Boolean = detailedResponse,
+      backgroundEvaluationInterval: Option[FiniteDuration] = backgroundEvaluationInterval,
+      backgroundEvaluationMaxAge: FiniteDuration = backgroundEvaluationMaxAge): HealthCheckSettings =
+    new HealthCheckSettings(
+      readinessChecks,
+      livenessChecks,
+      readinessPath,
+      livenessPath,
+      checkTimeout,
+      resultMaxAge,
+      resultMaxAgeByName,
+      detailedResponse,
+      backgroundEvaluationInterval,
+      backgroundEvaluationMaxAge)
 
   /**
    * Java API
@@ -97,4 +193,9 @@ final class HealthCheckSettings(
    * Java API
    */
   def getCheckTimeout(): java.time.Duration = checkTimeout.toJava
+
+  /**
+   * Java API
+   */
+  def getResultMaxAge(): java.time.Duration = resultMaxAge.toJava
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management
+
+import akka.actor.ExtendedActorSystem
+import akka.annotation.InternalApi
+import akka.http.scaladsl.model.ContentType
+import akka.http.scaladsl.model.HttpCharsets
+import akka.http.scaladsl.model.HttpEntity
+import akka.http.scaladsl.model.MediaType
+import akka.http.scaladsl.server.Directives._
+import akka.http.scaladsl.server.PathMatchers
+import akka.http.scaladsl.server.Route
+import akka.management.metrics.ManagementMetrics
+import akka.management.scaladsl.ManagementRouteProvider
+import akka.management.scaladsl.ManagementRouteProviderSettings
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] object MetricsRoutes {
+  val OpenMetricsContentType: ContentType.WithFixedCharset =
+    MediaType
+      .customWithFixedCharset(
+        "application",
+        "openmetrics-text",
+        HttpCharsets.`UTF-8`,
+        params = Map("version" -> "1.0.0"))
+      .toContentType
+}
+
+/**
+ * INTERNAL API
+ *
+ * Serves the [[ManagementMetrics]] in the OpenMetrics text format, for scraping by e.g. Prometheus.
+ */
+@InternalApi
+private[akka] class MetricsRoutes(system: ExtendedActorSystem) extends ManagementRouteProvider {
+  import MetricsRoutes._
+
+  private val metricsPath = system.settings.config.getString("akka.management.metrics.path")
+  private val metrics = ManagementMetrics(system)
+
+  override def routes(settings: ManagementRouteProviderSettings): Route =
+    path(PathMatchers.separateOnSlashes(metricsPath)) {
+      get {
+        complete(HttpEntity(OpenMetricsContentType, metrics.render()))
+      }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.internal
+
+import java.util.concurrent.atomic.AtomicReference
+
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
+import scala.concurrent.duration.FiniteDuration
+import scala.util.Failure
+import scala.util.Success
+import scala.util.Try
+import scala.util.control.NonFatal
+
+import akka.actor.Scheduler
+import akka.annotation.InternalApi
+import akka.http.scaladsl.model.HttpResponse
+import akka.http.scaladsl.model.StatusCodes
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] object HealthCheckSnapshot {
+
+  private final class Evaluated(val response: HttpResponse, val evaluatedAtNanos: Long)
+
+  private val NotEvaluatedYet =
+    HttpResponse(StatusCodes.InternalServerError, entity = "Health Check Failed: not evaluated yet")
+}
+
+/**
+ * INTERNAL API
+ *
+ * Runs `evaluate` in the background, `interval` after the previous evaluation completed, and keeps the response of the
+ * latest evaluation so that requests are answered without running any checks. A response that is older than `maxAge`
+ * is replaced by a failed response, so that checks that got stuck fail closed.
+ *
+ * The responses must have strict entities, since the same response is served to every request.
+ */
+@InternalApi
+private[akka] final class HealthCheckSnapshot(
+    name: String,
+    evaluate: () => Future[HttpResponse],
+    interval: FiniteDuration,
+    maxAge: FiniteDuration,
+    scheduler: Scheduler)(implicit ec: ExecutionContext) {
+  import HealthCheckSnapshot._
+
+  private val maxAgeNanos = maxAge.toNanos
+  private val stale = HttpResponse(
+    StatusCodes.InternalServerError,
+    entity = s"Health Check Failed: $name not evaluated within ${maxAge.toCoarsest}")
+  private val latest = new AtomicReference[Evaluated](null)
+  @volatile private var stopped = false
+
+  def start(): Unit = run()
+
+  def stop(): Unit = stopped = true
+
+  def response(): HttpResponse = {
+    val evaluated = latest.get()
+    if (evaluated eq null) NotEvaluatedYet
+    else if (System.nanoTime() - evaluated.evaluatedAtNanos > maxAgeNanos) stale
+    else evaluated.response
+  }
+
+  private def run(): Unit =
+    if (!stopped) {
+      val result =
+        try evaluate()
+        catch { case NonFatal(e) => Future.failed(e) }
+      result.onComplete(completed)
+    }
+
+  private def completed(result: Try[HttpResponse]): Unit = {
+    val response = result match {
+      case Success(r) => r
+      case Failure(e) =>
+        HttpResponse(StatusCodes.InternalServerError, entity = s"Health Check Failed: ${e.getMessage}")
+    }
+    latest.set(new Evaluated(response, System.nanoTime()))
+    try scheduler.scheduleOnce(interval)(run())
+    catch {
+      // the scheduler is shut down with the actor system
+      case _: IllegalStateException => stopped = true
+    }
+  }
+}
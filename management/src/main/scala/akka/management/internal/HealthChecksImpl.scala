@@ -8,22 +8,32 @@ import java.util.concurrent.CompletionStage
 import java.util.function.Supplier
 import java.util.{ List => JList }
 import java.lang.{ Boolean => JBoolean }
+import java.util.concurrent.atomic.AtomicReference
 
+import akka.Done
 import akka.actor.{ ActorSystem, ExtendedActorSystem }
 import akka.annotation.InternalApi
 import akka.event.Logging
 import akka.management.{ HealthCheckSettings, InvalidHealthCheckException, NamedHealthCheck }
+import akka.management.scaladsl.HealthCheckResult
 import akka.management.scaladsl.HealthChecks
 import scala.collection.immutable
+import scala.concurrent.ExecutionContext
 import scala.concurrent.Future
+import scala.concurrent.Promise
+import scala.concurrent.duration._
 import scala.jdk.CollectionConverters._
 import scala.jdk.FutureConverters._
 import scala.util.control.NonFatal
 import scala.util.{ Failure, Success, Try }
 
 import akka.management.ManagementLogMarker
+import akka.management.metrics.Counter
+import akka.management.metrics.ManagementMetrics
+import akka.management.scaladsl.HealthCheckRegistrySetup
 import akka.management.scaladsl.LivenessCheckSetup
 import akka.management.scaladsl.ReadinessCheckSetup
+import akka.management.javadsl.{ HealthCheckRegistrySetup => JHealthCheckRegistrySetup }
 import akka.management.javadsl.{ LivenessCheckSetup => JLivenessCheckSetup }
 import akka.management.javadsl.{ ReadinessCheckSetup => JReadinessCheckSetup }
 
@@ -38,9 +48,11 @@ final case class CheckTimeoutException(msg: String) extends RuntimeException(msg
 final private[akka] class HealthChecksImpl(system: ExtendedActorSystem, settings: HealthCheckSettings)
     extends HealthChecks {
   import HealthChecks._
-  import system.dispatcher
+
+  private implicit val ec: ExecutionContext = ManagementIsolation.executionContext(system)
 
   private val log = Logging.withMarker(system, classOf[HealthChecksImpl])
+  private val metrics = ManagementMetrics(system)
 
   log.info(
     "Loading readiness checks [{}]",
@@ -49,7 +61,25 @@ final private[akka] class HealthChecksImpl(system: ExtendedActorSystem, settings
     "Loading liveness checks [{}]",
     settings.livenessChecks.map(a => a.name -> a.fullyQualifiedClassName).mkString(", "))
 
-  private val readiness: immutable.Seq[HealthCheck] = {
+  // the checks that are created without reflection, by the class name they are configured with
+  private val registered: Map[String, ActorSystem => HealthCheck] = {
+    val fromScaladslSetup: Map[String, ActorSystem => HealthCheck] =
+      system.settings.setup.get[HealthCheckRegistrySetup] match {
+        case None        => Map.empty
+        case Some(setup) => setup.checks
+      }
+    val fromJavadslSetup: Map[String, ActorSystem => HealthCheck] =
+      system.settings.setup.get[JHealthCheckRegistrySetup] match {
+        case None => Map.empty
+        case Some(setup) =>
+          setup.checks.asScala.iterator.map {
+            case (fqcn, create) => fqcn -> ((sys: ActorSystem) => convertSupplierToScala(create.apply(sys)))
+          }.toMap
+      }
+    fromScaladslSetup ++ fromJavadslSetup
+  }
+
+  private val readiness: CheckGroup = {
     val fromScaladslSetup = system.settings.setup.get[ReadinessCheckSetup] match {
       case None        => Nil
       case Some(setup) => setup.createHealthChecks(system)
@@ -58,11 +88,11 @@ final private[akka] class HealthChecksImpl(system: ExtendedActorSystem, settings
       case None        => Nil
       case Some(setup) => convertSuppliersToScala(setup.createHealthChecks(system))
     }
-    val fromConfig = load(settings.readinessChecks)
-    fromConfig ++ fromScaladslSetup ++ fromJavadslSetup
+    val fromConfig = settings.readinessChecks.map(_.name).zip(load(settings.readinessChecks))
+    new CheckGroup(runners("readiness", fromConfig ++ unnamed(fromScaladslSetup ++ fromJavadslSetup)))
   }
 
-  private val liveness: immutable.Seq[HealthCheck] = {
+  private val liveness: CheckGroup = {
     val fromScaladslSetup = system.settings.setup.get[LivenessCheckSetup] match {
       case None        => Nil
       case Some(setup) => setup.createHealthChecks(system)
@@ -71,10 +101,17 @@ final private[akka] class HealthChecksImpl(system: ExtendedActorSystem, settings
       case None        => Nil
       case Some(setup) => convertSuppliersToScala(setup.createHealthChecks(system))
     }
-    val fromConfig = load(settings.livenessChecks)
-    fromConfig ++ fromScaladslSetup ++ fromJavadslSetup
+    val fromConfig = settings.livenessChecks.map(_.name).zip(load(settings.livenessChecks))
+    new CheckGroup(runners("liveness", fromConfig ++ unnamed(fromScaladslSetup ++ fromJavadslSetup)))
   }
 
+  // checks from the ActorSystem Setup are named by their class
+  private def unnamed(checks: immutable.Seq[HealthCheck]): immutable.Seq[(String, HealthCheck)] =
+    checks.map(check => check.getClass.getName -> check)
+
+  private def runners(kind: String, checks: immutable.Seq[(String, HealthCheck)]): immutable.Seq[CheckRunner] =
+    checks.map { case (name, check) => new CheckRunner(kind, name, check, settings.resultMaxAge(name)) }
+
   private def convertSuppliersToScala(
       suppliers: JList[Supplier[CompletionStage[JBoolean]]]): immutable.Seq[HealthCheck] = {
     suppliers.asScala.toList.map(convertSupplierToScala)
@@ -84,46 +121,38 @@ final private[akka] class HealthChecksImpl(system: ExtendedActorSystem, settings
     supplier.get().asScala.map(_.booleanValue)
   }
 
-  private def tryLoadScalaHealthCheck(fqcn: String): Try[HealthCheck] = {
-    system.dynamicAccess
-      .createInstanceFor[HealthCheck](
-        fqcn,
-        immutable.Seq((classOf[ActorSystem], system))
-      )
-      .recoverWith {
-        case _: NoSuchMethodException =>
-          system.dynamicAccess.createInstanceFor[HealthCheck](fqcn, Nil)
-        // Can be removed when 2.13.0-RC1 is out (https://github.com/scala/bug/issues/7390)
-        case o =>
-          Failure(o)
-      }
-  }
+  private def create(fqcn: String): Try[HealthCheck] =
+    registered.get(fqcn) match {
+      case Some(create) => Try(create(system))
+      case None         => createWithReflection(fqcn)
+    }
 
-  private def tryLoadJavaHealthCheck(fqcn: String): Try[HealthCheck] = {
-    system.dynamicAccess
-      .createInstanceFor[Supplier[CompletionStage[JBoolean]]](
-        fqcn,
-        immutable.Seq((classOf[ActorSystem], system))
-      )
-      .recoverWith {
-        case _: NoSuchMethodException =>
-          system.dynamicAccess.createInstanceFor[Supplier[CompletionStage[JBoolean]]](fqcn, Nil)
+  private def createWithReflection(fqcn: String): Try[HealthCheck] =
+    system.dynamicAccess.getClassFor[AnyRef](fqcn).flatMap { clazz =>
+      val parameterTypes = clazz.getDeclaredConstructors.map(_.getParameterTypes.toList)
+      val args =
+        if (parameterTypes.contains(List(classOf[ActorSystem]))) Some(List(classOf[ActorSystem] -> system))
+        else if (parameterTypes.contains(Nil)) Some(Nil)
+        else None
+      args match {
+        case None =>
+          Failure(new NoSuchMethodException(s"No suitable constructor for health check [$fqcn]"))
+        case Some(args) if classOf[HealthCheck].isAssignableFrom(clazz) =>
+          system.dynamicAccess.createInstanceFor[HealthCheck](clazz, args)
+        case Some(args) if classOf[Supplier[_]].isAssignableFrom(clazz) =>
+          system.dynamicAccess
+            .createInstanceFor[Supplier[CompletionStage[JBoolean]]](clazz, args)
+            .map(convertSupplierToScala)
+        case Some(_) =>
+          Failure(new ClassCastException(s"Health check [$fqcn] is not a HealthCheck"))
       }
-      .map(convertSupplierToScala)
-  }
+    }
 
   private def load(
       checks: immutable.Seq[NamedHealthCheck]
   ): immutable.Seq[HealthCheck] = {
     checks
-      .map(namedHealthCheck =>
-        tryLoadScalaHealthCheck(namedHealthCheck.fullyQualifiedClassName).recoverWith {
-          case _: ClassCastException =>
-            tryLoadJavaHealthCheck(namedHealthCheck.fullyQualifiedClassName)
-          // Can be removed when 2.13.0-RC1 is out (https://github.com/scala/bug/issues/7390)
-          case o =>
-            Failure(o)
-        })
+      .map(namedHealthCheck => create(namedHealthCheck.fullyQualifiedClassName))
       .map {
         case Success(c) => c
         case Failure(_: NoSuchMethodException) =>
@@ -147,7 +176,7 @@ final private[akka] class HealthChecksImpl(system: ExtendedActorSystem, settings
   }
 
   def readyResult(): Future[Either[String, Unit]] = {
-    val result = check(readiness)
+    val result = readiness.results().flatMap(toEither)
     result.onComplete {
       case Success(Right(())) =>
       case Success(Left(reason)) =>
@@ -160,8 +189,11 @@ final private[akka] class HealthChecksImpl(system: ExtendedActorSystem, settings
 
   def ready(): Future[Boolean] = readyResult().map(_.isRight)
 
+  override def readyCheckResults(): Future[immutable.Seq[HealthCheckResult]] =
+    readiness.results().map(_.map(_.result))
+
   def aliveResult(): Future[Either[String, Unit]] = {
-    val result = check(liveness)
+    val result = liveness.results().flatMap(toEither)
     result.onComplete {
       case Success(Right(())) =>
       case Success(Left(reason)) =>
@@ -174,46 +206,147 @@ final private[akka] class HealthChecksImpl(system: ExtendedActorSystem, settings
 
   def alive(): Future[Boolean] = aliveResult().map(_.isRight)
 
-  private def runCheck(check: HealthCheck): Future[Boolean] = {
-    try {
-      check()
-    } catch {
-      case NonFatal(e) => Future.failed(e)
+  override def aliveCheckResults(): Future[immutable.Seq[HealthCheckResult]] =
+    liveness.results().map(_.map(_.result))
+
+  private def toEither(outcomes: immutable.Seq[CheckOutcome]): Future[Either[String, Unit]] = {
+    val checkFailure = outcomes.collectFirst {
+      case CheckOutcome(_, checkClass, HealthCheckResult(_, HealthCheckResult.Failed, _, _), Some(cause)) =>
+        CheckFailedException(s"Check [$checkClass] failed: ${cause.getMessage}", cause)
+      case CheckOutcome(_, checkClass, HealthCheckResult(_, HealthCheckResult.TimedOut, _, _), _) =>
+        CheckTimeoutException(s"Check [$checkClass] timed out after ${settings.checkTimeout}")
+    }
+    checkFailure match {
+      case Some(exception) => Future.failed(exception)
+      case None =>
+        Future.successful(outcomes.collectFirst {
+          case outcome if !outcome.result.isOk => Left(s"Check [${outcome.checkClass}] not ok")
+        }.getOrElse(Right(())))
     }
   }
 
-  private def check(checks: immutable.Seq[HealthCheck]): Future[Either[String, Unit]] = {
-    val timeout = akka.pattern.after(settings.checkTimeout, system.scheduler)(
-      Future.failed(new RuntimeException) // will be enriched with which check timed out below
-    )
-
-    val spawnedChecks = checks.map { check =>
-      val checkName = check.getClass.getName
-      Future.firstCompletedOf(
-        Seq(
-          timeout.recoverWith {
-            case _ =>
-              Future.failed[Either[String, Unit]](
-                CheckTimeoutException(s"Check [$checkName] timed out after ${settings.checkTimeout}")
-              )
-          },
-          runCheck(check)
-            .map {
-              case true  => Right(())
-              case false => Left(s"Check [$checkName] not ok")
-            }
-            .recoverWith {
-              case t => Future.failed(CheckFailedException(s"Check [$checkName] failed: ${t.getMessage}", t))
+  /**
+   * Runs one check, sharing the run between the callers while it is running and for the max age of its result.
+   */
+  private final class CheckRunner(kind: String, val name: String, check: HealthCheck, maxAge: FiniteDuration) {
+    val checkClass: String = check.getClass.getName
+
+    private val maxAgeNanos = maxAge.toNanos
+
+    private val duration = metrics.durationHistogram(
+      "akka_management_health_check_duration_seconds",
+      "Duration of the runs of a health check",
+      "kind" -> kind,
+      "check" -> name)
+    private val results: Map[String, Counter] =
+      List(HealthCheckResult.Ok, HealthCheckResult.NotOk, HealthCheckResult.Failed, HealthCheckResult.TimedOut).map {
+        status =>
+          status -> metrics.counter(
+            "akka_management_health_check_results",
+            "Results of a health check by status",
+            "kind" -> kind,
+            "check" -> name,
+            "status" -> status)
+      }.toMap
+
+    // the running or the last completed run
+    private val current = new AtomicReference[Future[CheckOutcome]]()
+
+    def run(): Future[CheckOutcome] = {
+      val previous = current.get()
+      val reusable =
+        (previous ne null) && (previous.value match {
+          case None                     => true // still running
+          case Some(Success(completed)) => System.nanoTime() - completed.completedAt < maxAgeNanos
+          case Some(Failure(_))         => false
+        })
+
+      if (reusable) previous
+      else {
+        val promise = Promise[CheckOutcome]()
+        if (current.compareAndSet(previous, promise.future)) {
+          val startedAt = System.nanoTime()
+          runCheck(check).onComplete { result =>
+            val completedAt = System.nanoTime()
+            val latency = (completedAt - startedAt).nanos
+            val (status, cause) = result match {
+              case Success(true)  => (HealthCheckResult.Ok, None)
+              case Success(false) => (HealthCheckResult.NotOk, None)
+              case Failure(e)     => (HealthCheckResult.Failed, Some(e))
             }
-        )
-      )
+            duration.observeNanos(completedAt - startedAt)
+            results(status).increment()
+            val checkResult = HealthCheckResult(name, status, latency, cause.flatMap(e => Option(e.getMessage)))
+            promise.success(CheckOutcome(completedAt, checkClass, checkResult, cause))
+          }(ExecutionContext.parasitic)
+          promise.future
+        } else run()
+      }
+    }
+
+    def timedOut(): CheckOutcome = {
+      results(HealthCheckResult.TimedOut).increment()
+      CheckOutcome(
+        System.nanoTime(),
+        checkClass,
+        HealthCheckResult(
+          name,
+          HealthCheckResult.TimedOut,
+          settings.checkTimeout,
+          Some(s"Timed out after ${settings.checkTimeout}")),
+        None)
     }
+  }
+
+  /**
+   * Runs the checks of one kind, readiness or liveness, sharing the evaluation between the callers while it is running.
+   * All checks of an evaluation share one timeout.
+   */
+  private final class CheckGroup(runners: immutable.Seq[CheckRunner]) {
+    private val inFlight = new AtomicReference[Future[immutable.Seq[CheckOutcome]]]()
 
-    Future.sequence(spawnedChecks).map { completedChecks =>
-      completedChecks.collectFirst { case Left(failure) => failure } match {
-        case Some(notOk) => Left(notOk)
-        case None        => Right(())
+    def results(): Future[immutable.Seq[CheckOutcome]] =
+      if (runners.isEmpty) Future.successful(Nil)
+      else {
+        val running = inFlight.get()
+        if (running ne null) running
+        else {
+          val promise = Promise[immutable.Seq[CheckOutcome]]()
+          if (inFlight.compareAndSet(null, promise.future)) {
+            promise.completeWith(evaluate())
+            promise.future.onComplete(_ => inFlight.compareAndSet(promise.future, null))(ExecutionContext.parasitic)
+            promise.future
+          } else results()
+        }
       }
+
+    private def evaluate(): Future[immutable.Seq[CheckOutcome]] = {
+      val timeout = Promise[Done]()
+      val timer = system.scheduler.scheduleOnce(settings.checkTimeout)(timeout.trySuccess(Done))
+      val outcomes = runners.map { runner =>
+        Future.firstCompletedOf(List(runner.run(), timeout.future.map(_ => runner.timedOut())))
+      }
+      val all = Future.sequence(outcomes)
+      all.onComplete(_ => timer.cancel())
+      all
+    }
+  }
+
+  private def runCheck(check: HealthCheck): Future[Boolean] = {
+    try {
+      check()
+    } catch {
+      case NonFatal(e) => Future.failed(e)
     }
   }
 }
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] final case class CheckOutcome(
+    completedAt: Long,
+    checkClass: String,
+    result: HealthCheckResult,
+    cause: Option[Throwable])
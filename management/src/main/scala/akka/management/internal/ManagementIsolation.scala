@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management.internal
+
+import java.util.concurrent.atomic.AtomicInteger
+
+import scala.collection.immutable
+import scala.concurrent.ExecutionContext
+import scala.concurrent.ExecutionContextExecutor
+import scala.concurrent.Future
+import scala.util.control.NonFatal
+
+import akka.actor.ActorSystem
+import akka.annotation.InternalApi
+import akka.http.scaladsl.model.HttpResponse
+import akka.http.scaladsl.model.StatusCodes
+import akka.http.scaladsl.model.Uri
+import akka.http.scaladsl.model.headers.`Retry-After`
+import akka.http.scaladsl.server.Route
+import akka.http.scaladsl.server.RouteResult
+import akka.management.metrics.ManagementMetrics
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] object ManagementIsolation {
+
+  /**
+   * The dispatcher that the management routes and health checks run on: the dispatcher of
+   * `akka.management.http.isolation` when enabled, else the default dispatcher.
+   */
+  def executionContext(system: ActorSystem): ExecutionContextExecutor = {
+    val isolation = system.settings.config.getConfig("akka.management.http.isolation")
+    if (isolation.getBoolean("enabled")) system.dispatchers.lookup(isolation.getString("dispatcher"))
+    else system.dispatcher
+  }
+}
+
+/**
+ * INTERNAL API
+ *
+ * Handles at most `maxConcurrentRequests` requests at the same time, and responds to the requests beyond that with
+ * 503 Service Unavailable without handling them. Requests to the `priorityPaths`, relative to the `basePath`, are
+ * always handled, and don't count towards the limit, so that slow or frequent requests to heavy routes can't delay
+ * the health checks. A request is done when the route's `Future` completes, which is before a streamed response
+ * entity has been sent, so streaming routes are not effectively limited.
+ */
+@InternalApi
+private[akka] final class ManagementAdmission(
+    system: ActorSystem,
+    maxConcurrentRequests: Int,
+    basePath: Option[String],
+    priorityPaths: immutable.Seq[String]) {
+
+  private val inFlight = new AtomicInteger
+
+  private val prefixes: immutable.Seq[Uri.Path] =
+    priorityPaths.map(path => Uri.Path(basePath.fold("")("/" + _) + "/" + path))
+
+  private val rejected = ManagementMetrics(system).counter(
+    "akka_management_http_requests_rejected",
+    "Requests to the management endpoint that were rejected since it was at its max number of concurrent requests")
+
+  private val serviceUnavailable =
+    HttpResponse(StatusCodes.ServiceUnavailable, headers = List(`Retry-After`(1)))
+
+  def isPriority(path: Uri.Path): Boolean =
+    prefixes.exists(prefix => path == prefix || path.startsWith(prefix ++ Uri.Path.SingleSlash))
+
+  def apply(route: Route): Route = { ctx =>
+    if (isPriority(ctx.request.uri.path)) route(ctx)
+    else if (inFlight.incrementAndGet() > maxConcurrentRequests) {
+      inFlight.decrementAndGet()
+      rejected.increment()
+      Future.successful(RouteResult.Complete(serviceUnavailable))
+    } else {
+      val result =
+        try route(ctx)
+        catch {
+          case NonFatal(e) => Future.failed(e)
+        }
+      result.onComplete(_ => inFlight.decrementAndGet())(ExecutionContext.parasitic)
+      result
+    }
+  }
+}
@@ -7,7 +7,7 @@ package akka.management.javadsl
 import java.util.concurrent.CompletionStage
 import java.util.function.Supplier
 import java.util.function.{ Function => JFunction }
-import java.util.{ Optional, List => JList }
+import java.util.{ Optional, List => JList, Map => JMap }
 
 import scala.jdk.FunctionConverters._
 import scala.jdk.FutureConverters._
@@ -73,6 +73,28 @@ final class ReadinessCheckSetup private (
     val createHealthChecks: JFunction[ActorSystem, JList[Supplier[CompletionStage[java.lang.Boolean]]]]
 ) extends Setup
 
+object HealthCheckRegistrySetup {
+
+  /**
+   * Programmatic creation of the readiness and liveness checks that are configured in
+   * `akka.management.health-checks`, by their fully qualified class name as configured. A configured check that is
+   * registered here is created with its function rather than with reflection, which starts faster and doesn't need
+   * reflection configuration in a GraalVM native image. Checks that are not registered are still loaded with
+   * reflection.
+   */
+  def create(checks: JMap[String, JFunction[ActorSystem, Supplier[CompletionStage[java.lang.Boolean]]]])
+      : HealthCheckRegistrySetup =
+    new HealthCheckRegistrySetup(checks)
+
+}
+
+/**
+ * Setup for configured health checks, constructor is *Internal API*, use factories in [[HealthCheckRegistrySetup]]
+ */
+final class HealthCheckRegistrySetup private (
+    val checks: JMap[String, JFunction[ActorSystem, Supplier[CompletionStage[java.lang.Boolean]]]]
+) extends Setup
+
 object LivenessCheckSetup {
 
   /**
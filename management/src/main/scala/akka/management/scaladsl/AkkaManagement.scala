@@ -6,9 +6,12 @@ package akka.management.scaladsl
 
 import java.util.concurrent.atomic.AtomicReference
 
+import scala.annotation.nowarn
 import scala.collection.immutable
+import scala.concurrent.ExecutionContext
 import scala.concurrent.Future
 import scala.concurrent.Promise
+import scala.jdk.CollectionConverters._
 import scala.util.Failure
 import scala.util.Success
 import scala.util.control.NonFatal
@@ -22,6 +25,7 @@ import akka.actor.ExtensionId
 import akka.actor.ExtensionIdProvider
 import akka.event.Logging
 import akka.http.scaladsl.Http
+import akka.http.scaladsl.ServerBuilder
 import akka.http.scaladsl.model.Uri
 import akka.http.scaladsl.server.Directive
 import akka.http.scaladsl.server.Directives
@@ -30,11 +34,22 @@ import akka.http.scaladsl.server.Directives.pathPrefix
 import akka.http.scaladsl.server.Directives.rawPathPrefix
 import akka.http.scaladsl.server.PathMatchers
 import akka.http.scaladsl.server.Route
+import akka.http.scaladsl.server.RoutingLog
+import akka.http.scaladsl.settings.ParserSettings
+import akka.http.scaladsl.settings.RoutingSettings
 import akka.http.scaladsl.settings.ServerSettings
 import akka.management.AkkaManagementSettings
+import akka.management.HealthCheckRoutes
 import akka.management.ManagementLogMarker
+import akka.management.MetricsRoutes
 import akka.management.NamedRouteProvider
+import akka.management.internal.ManagementAdmission
 import akka.management.javadsl
+import akka.stream.ActorMaterializer
+import akka.stream.ActorMaterializerSettings
+import akka.stream.Materializer
+import akka.stream.scaladsl.Keep
+import akka.stream.scaladsl.Sink
 import akka.util.ManifestInfo
 
 object AkkaManagement extends ExtensionId[AkkaManagement] with ExtensionIdProvider {
@@ -56,11 +71,14 @@ final class AkkaManagement(implicit private[akka] val system: ExtendedActorSyste
       "akka-discovery-aws-api",
       "akka-discovery-marathon-api",
       "akka-discovery-aws-api-async",
+      "akka-discovery-cache",
       "akka-discovery-kubernetes-api",
       "akka-lease-kubernetes",
       "akka-management",
       "akka-management-cluster-bootstrap",
       "akka-management-cluster-http",
+      "akka-management-kubernetes-client",
+      "akka-management-metrics",
       "akka-rolling-update-kubernetes"
     ),
     logWarning = true
@@ -75,6 +93,8 @@ final class AkkaManagement(implicit private[akka] val system: ExtendedActorSyste
   private val routeProviders: immutable.Seq[ManagementRouteProvider] = loadRouteProviders()
 
   private val bindingFuture = new AtomicReference[Future[Http.ServerBinding]]()
+  private val isolatedMaterializer = new AtomicReference[Materializer]()
+  system.registerOnTermination(shutdownIsolatedMaterializer())
   private val selfUriPromise = Promise[Uri]() // TODO has to keep config as well as the Uri, so we can reject 2nd calls with diff uri
 
   private def providerSettings: ManagementRouteProviderSettings = {
@@ -147,7 +167,9 @@ final class AkkaManagement(implicit private[akka] val system: ExtendedActorSyste
           case Some(httpsContext) => baseBuilder.enableHttps(httpsContext)
           case None               => baseBuilder
         }
-        val serverFutureBinding = securedBuilder.bind(combinedRoutes)
+        val serverFutureBinding =
+          if (settings.Http.Isolation.Enabled) bindIsolated(securedBuilder, combinedRoutes)
+          else securedBuilder.bind(combinedRoutes)
 
         serverBindingPromise.completeWith(serverFutureBinding).future.flatMap { binding =>
           val boundPort = binding.localAddress.getPort
@@ -167,6 +189,64 @@ final class AkkaManagement(implicit private[akka] val system: ExtendedActorSyste
     } else selfUriPromise.future
   }
 
+  // The materializer of the system starts the actors of every stream, and with that of every connection, from its
+  // supervisor on the default dispatcher. ActorMaterializerSettings is deprecated, but the only way to have another.
+  // It is created for each binding, and shut down when the endpoint is stopped, so that its supervisor doesn't leak.
+  @nowarn("msg=deprecated")
+  private def newIsolatedMaterializer(): Materializer =
+    ActorMaterializer(
+      ActorMaterializerSettings(system).withDispatcher(settings.Http.Isolation.Dispatcher),
+      "akka-management-http")
+
+  private def shutdownIsolatedMaterializer(): Unit = {
+    val materializer = isolatedMaterializer.getAndSet(null)
+    if (materializer ne null) materializer.shutdown()
+  }
+
+  /**
+   * Binds the routes with the server, the routes and the health checks running on the dispatcher of
+   * `akka.management.http.isolation`, serving at most `max-connections` connections and handling at most
+   * `max-concurrent-requests` requests to other than the priority paths at the same time.
+   */
+  @nowarn("msg=deprecated") // handlerFlow is the only way to run the routes on another than the default dispatcher
+  private def bindIsolated(builder: ServerBuilder, routes: Route): Future[Http.ServerBinding] = {
+    val isolation = settings.Http.Isolation
+    val executionContext = system.dispatchers.lookup(isolation.Dispatcher)
+    implicit val materializer: Materializer = newIsolatedMaterializer()
+    isolatedMaterializer.set(materializer)
+
+    val admission = new ManagementAdmission(
+      system,
+      isolation.MaxConcurrentRequests,
+      settings.Http.BasePath,
+      isolation.PriorityPaths)
+    val handler = Route.handlerFlow(admission(routes))(
+      RoutingSettings(system),
+      ParserSettings.forServer(system),
+      materializer,
+      RoutingLog(system.log),
+      executionContext)
+
+    log.info(
+      "Serving Akka Management (HTTP) endpoint on dispatcher [{}], priority paths [{}]",
+      isolation.Dispatcher,
+      isolation.PriorityPaths.mkString(", "))
+
+    builder
+      .connectionSource()
+      .mapAsyncUnordered(isolation.MaxConnections) { connection =>
+        connection.flow
+          .joinMat(handler.watchTermination()(Keep.right))(Keep.right)
+          .run()
+          .recover { case NonFatal(_) => Done }(ExecutionContext.parasitic)
+      }
+      .to(Sink.ignore)
+      .run()
+      .andThen {
+        case Failure(_) => shutdownIsolatedMaterializer()
+      }(ExecutionContext.parasitic)
+  }
+
   private def prepareCombinedRoutes(providerSettings: ManagementRouteProviderSettings): Route = {
     val basePath: Directive[Unit] = {
       val pathPrefixName = settings.Http.BasePath.getOrElse("")
@@ -207,68 +287,91 @@ final class AkkaManagement(implicit private[akka] val system: ExtendedActorSyste
     if (binding == null) {
       Future.successful(Done)
     } else if (bindingFuture.compareAndSet(binding, null)) {
-      binding.flatMap(_.unbind()).map((_: Any) => Done)
+      binding
+        .flatMap(_.unbind())
+        .map((_: Any) => Done)
+        .andThen {
+          case _ => shutdownIsolatedMaterializer()
+        }(ExecutionContext.parasitic)
     } else stop() // retry, CAS was not successful, someone else completed the stop()
   }
 
   private def loadRouteProviders(): immutable.Seq[ManagementRouteProvider] = {
-    val dynamicAccess = system.dynamicAccess
+    // the providers that are created without reflection, by the class name they are configured with
+    val registered: Map[String, ExtendedActorSystem => ManagementRouteProvider] = {
+      val builtIn = Map[String, ExtendedActorSystem => ManagementRouteProvider](
+        classOf[HealthCheckRoutes].getName -> (new HealthCheckRoutes(_)),
+        classOf[MetricsRoutes].getName -> (new MetricsRoutes(_)))
+      val fromScaladslSetup = system.settings.setup.get[RouteProviderRegistrySetup] match {
+        case None        => Map.empty[String, ExtendedActorSystem => ManagementRouteProvider]
+        case Some(setup) => setup.providers
+      }
+      val fromJavadslSetup = system.settings.setup.get[javadsl.RouteProviderRegistrySetup] match {
+        case None => Map.empty[String, ExtendedActorSystem => ManagementRouteProvider]
+        case Some(setup) =>
+          setup.providers.asScala.iterator.map {
+            case (fqcn, create) =>
+              fqcn -> ((sys: ExtendedActorSystem) => new ManagementRouteProviderAdapter(create.apply(sys)))
+          }.toMap
+      }
+      (builtIn ++ fromScaladslSetup ++ fromJavadslSetup).map { case (fqcn, create) => fqcn.stripSuffix("$") -> create }
+    }
 
-    // since often the providers are akka extensions, we initialize them here as the ActorSystem would otherwise
     settings.Http.RouteProviders.map {
       case NamedRouteProvider(name, fqcn) =>
-        dynamicAccess
-          .getObjectFor[ExtensionIdProvider](fqcn)
-          .recoverWith {
-            case _ => dynamicAccess.createInstanceFor[ExtensionIdProvider](fqcn, Nil)
-          }
-          .recoverWith {
-            case _: ClassCastException | _: NoSuchMethodException =>
-              dynamicAccess.createInstanceFor[ExtensionIdProvider](fqcn, (classOf[ExtendedActorSystem], system) :: Nil)
-          }
-          .recoverWith {
-            case _: ClassCastException | _: NoSuchMethodException =>
-              dynamicAccess.createInstanceFor[ManagementRouteProvider](fqcn, Nil)
-          }
-          .recoverWith {
-            case _: ClassCastException | _: NoSuchMethodException =>
-              dynamicAccess.createInstanceFor[ManagementRouteProvider](
-                fqcn,
-                (classOf[ExtendedActorSystem], system) :: Nil)
-          }
-          .recoverWith {
-            case _: ClassCastException | _: NoSuchMethodException =>
-              dynamicAccess.createInstanceFor[javadsl.ManagementRouteProvider](fqcn, Nil)
-          }
-          .recoverWith {
-            case _: ClassCastException | _: NoSuchMethodException =>
-              dynamicAccess
-                .createInstanceFor[javadsl.ManagementRouteProvider](fqcn, (classOf[ExtendedActorSystem], system) :: Nil)
-          } match {
-          case Success(p: ExtensionIdProvider) =>
-            system.registerExtension(p.lookup) match {
-              case provider: ManagementRouteProvider         => provider
-              case provider: javadsl.ManagementRouteProvider => new ManagementRouteProviderAdapter(provider)
-              case other =>
-                throw new RuntimeException(
-                  s"Extension [$fqcn] should create a 'ManagementRouteProvider' but was " +
-                  s"[${other.getClass.getName}]")
-            }
-
-          case Success(provider: ManagementRouteProvider) =>
-            provider
-
-          case Success(provider: javadsl.ManagementRouteProvider) =>
-            new ManagementRouteProviderAdapter(provider)
-
-          case Success(_) =>
-            throw new RuntimeException(
-              s"[$fqcn] is not an 'ExtensionIdProvider', 'ExtensionId' or 'ManagementRouteProvider'")
+        registered.get(fqcn.stripSuffix("$")) match {
+          case Some(create) => create(system)
+          case None         => loadRouteProvider(name, fqcn)
+        }
+    }
+  }
+
+  private def loadRouteProvider(name: String, fqcn: String): ManagementRouteProvider = {
+    val dynamicAccess = system.dynamicAccess
 
-          case Failure(problem) =>
-            throw new RuntimeException(s"While trying to load route provider extension [$name = $fqcn]", problem)
+    // an object that is an extension id, or else an instance of the class
+    val instance = dynamicAccess.getObjectFor[AnyRef](fqcn) match {
+      case Success(p: ExtensionIdProvider) => Success(p)
+      case _ =>
+        dynamicAccess.getClassFor[AnyRef](fqcn).flatMap { clazz =>
+          val parameterTypes = clazz.getDeclaredConstructors.map(_.getParameterTypes.toList)
+          if (parameterTypes.contains(Nil))
+            dynamicAccess.createInstanceFor[AnyRef](clazz, Nil)
+          else if (parameterTypes.contains(List(classOf[ExtendedActorSystem])))
+            dynamicAccess.createInstanceFor[AnyRef](clazz, (classOf[ExtendedActorSystem], system) :: Nil)
+          else
+            Failure(
+              new NoSuchMethodException(
+                s"[$fqcn] must have a no args constructor or a single argument constructor that takes an " +
+                "ExtendedActorSystem"))
         }
     }
+
+    // since often the providers are akka extensions, we initialize them here as the ActorSystem would otherwise
+    instance match {
+      case Success(p: ExtensionIdProvider) =>
+        system.registerExtension(p.lookup) match {
+          case provider: ManagementRouteProvider         => provider
+          case provider: javadsl.ManagementRouteProvider => new ManagementRouteProviderAdapter(provider)
+          case other =>
+            throw new RuntimeException(
+              s"Extension [$fqcn] should create a 'ManagementRouteProvider' but was " +
+              s"[${other.getClass.getName}]")
+        }
+
+      case Success(provider: ManagementRouteProvider) =>
+        provider
+
+      case Success(provider: javadsl.ManagementRouteProvider) =>
+        new ManagementRouteProviderAdapter(provider)
+
+      case Success(_) =>
+        throw new RuntimeException(
+          s"[$fqcn] is not an 'ExtensionIdProvider', 'ExtensionId' or 'ManagementRouteProvider'")
+
+      case Failure(problem) =>
+        throw new RuntimeException(s"While trying to load route provider extension [$name = $fqcn]", problem)
+    }
   }
 
 }
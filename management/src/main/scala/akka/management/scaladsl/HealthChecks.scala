@@ -4,11 +4,17 @@
 
 package akka.management.scaladsl
 import scala.collection.immutable
+import scala.concurrent.ExecutionContext
 import scala.concurrent.Future
+import scala.concurrent.duration._
+import scala.util.Failure
+import scala.util.Success
+import scala.util.control.NonFatal
 
 import akka.actor.ActorSystem
 import akka.actor.ExtendedActorSystem
 import akka.actor.setup.Setup
+import akka.annotation.ApiMayChange
 import akka.annotation.DoNotInherit
 import akka.management.HealthCheckSettings
 import akka.management.internal.HealthChecksImpl
@@ -22,6 +28,24 @@ object HealthChecks {
 
   type HealthCheck = () => Future[Boolean]
 
+  private def asCheckResults(
+      name: String,
+      result: => Future[Either[String, Unit]]): Future[immutable.Seq[HealthCheckResult]] = {
+    val startedAt = System.nanoTime()
+    val outcome =
+      try result
+      catch {
+        case NonFatal(e) => Future.failed(e)
+      }
+    outcome.transform { r =>
+      val (status, error) = r match {
+        case Success(Right(_))     => (HealthCheckResult.Ok, None)
+        case Success(Left(reason)) => (HealthCheckResult.NotOk, Some(reason))
+        case Failure(e)            => (HealthCheckResult.Failed, Option(e.getMessage))
+      }
+      Success(HealthCheckResult(name, status, (System.nanoTime() - startedAt).nanos, error) :: Nil)
+    }(ExecutionContext.parasitic)
+  }
 }
 
 /**
@@ -51,6 +75,44 @@ abstract class HealthChecks {
    * Returns Future(result) containing the system's liveness result
    */
   def aliveResult(): Future[Either[String, Unit]]
+
+  /**
+   * Returns Future(results) containing the result of each readiness check. When the individual checks are not
+   * known this is a single result named `readiness`, of [[readyResult]].
+   */
+  @ApiMayChange
+  def readyCheckResults(): Future[immutable.Seq[HealthCheckResult]] =
+    HealthChecks.asCheckResults("readiness", readyResult())
+
+  /**
+   * Returns Future(results) containing the result of each liveness check. When the individual checks are not
+   * known this is a single result named `liveness`, of [[aliveResult]].
+   */
+  @ApiMayChange
+  def aliveCheckResults(): Future[immutable.Seq[HealthCheckResult]] =
+    HealthChecks.asCheckResults("liveness", aliveResult())
+}
+
+@ApiMayChange
+object HealthCheckResult {
+  val Ok = "ok"
+  val NotOk = "not-ok"
+  val Failed = "failed"
+  val TimedOut = "timed-out"
+}
+
+/**
+ * The result of one health check.
+ *
+ * @param name the configured name of the check, or its class name when it was defined via ActorSystem Setup
+ * @param status one of [[HealthCheckResult.Ok]], [[HealthCheckResult.NotOk]], [[HealthCheckResult.Failed]] or
+ *               [[HealthCheckResult.TimedOut]]
+ * @param latency how long the check took, or the check timeout when it timed out
+ * @param error why the check failed or timed out
+ */
+@ApiMayChange
+final case class HealthCheckResult(name: String, status: String, latency: FiniteDuration, error: Option[String]) {
+  def isOk: Boolean = status == HealthCheckResult.Ok
 }
 
 object ReadinessCheckSetup {
@@ -71,6 +133,27 @@ final class ReadinessCheckSetup private (
     val createHealthChecks: ActorSystem => immutable.Seq[HealthChecks.HealthCheck]
 ) extends Setup
 
+object HealthCheckRegistrySetup {
+
+  /**
+   * Programmatic creation of the readiness and liveness checks that are configured in
+   * `akka.management.health-checks`, by their fully qualified class name as configured. A configured check that is
+   * registered here is created with its function rather than with reflection, which starts faster and doesn't need
+   * reflection configuration in a GraalVM native image. Checks that are not registered are still loaded with
+   * reflection.
+   */
+  def apply(checks: Map[String, ActorSystem => HealthChecks.HealthCheck]): HealthCheckRegistrySetup =
+    new HealthCheckRegistrySetup(checks)
+
+}
+
+/**
+ * Setup for configured health checks, constructor is *Internal API*, use factories in [[HealthCheckRegistrySetup]]
+ */
+final class HealthCheckRegistrySetup private (
+    val checks: Map[String, ActorSystem => HealthChecks.HealthCheck]
+) extends Setup
+
 object LivenessCheckSetup {
 
   /**
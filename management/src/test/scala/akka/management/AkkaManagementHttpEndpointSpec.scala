@@ -13,6 +13,9 @@ import scala.concurrent.Future
 import scala.concurrent.duration._
 
 import akka.actor.ActorSystem
+import akka.actor.BootstrapSetup
+import akka.actor.ExtendedActorSystem
+import akka.actor.setup.ActorSystemSetup
 import akka.http.javadsl.server.directives.RouteAdapter
 import akka.http.scaladsl.ConnectionContext
 import akka.http.scaladsl.Http
@@ -27,6 +30,7 @@ import akka.http.scaladsl.server.directives.Credentials
 import akka.management.scaladsl.AkkaManagement
 import akka.management.scaladsl.ManagementRouteProvider
 import akka.management.scaladsl.ManagementRouteProviderSettings
+import akka.management.scaladsl.RouteProviderRegistrySetup
 import akka.testkit.SocketUtil
 import com.typesafe.config.ConfigFactory
 import javax.net.ssl.KeyManagerFactory
@@ -298,6 +302,45 @@ class AkkaManagementHttpEndpointSpec extends AnyWordSpecLike with Matchers {
         try Await.ready(management.stop(), 5.seconds)
         finally system.terminate()
       }
+
+      "providers registered via ActorSystem Setup are used" in {
+        val httpPort = SocketUtil.temporaryLocalPort()
+        val configClusterHttpManager = ConfigFactory.parseString(
+          s"""
+            akka.management.http.hostname = "127.0.0.1"
+            akka.management.http.port = $httpPort
+            akka.management.http.routes {
+              test6 = "com.example.NotOnClasspath"
+              test7 = "com.example.NotOnClasspathJavadsl"
+            }
+          """
+        )
+        val routeProviders = RouteProviderRegistrySetup(
+          Map("com.example.NotOnClasspath" -> (_ => new HttpManagementEndpointSpecRoutesScaladsl)))
+        val javaRouteProviders = javadsl.RouteProviderRegistrySetup.create(
+          java.util.Map.of(
+            "com.example.NotOnClasspathJavadsl",
+            (_ => new HttpManagementEndpointSpecRoutesJavadsl): java.util.function.Function[
+              ExtendedActorSystem,
+              javadsl.ManagementRouteProvider]))
+        val setup = ActorSystemSetup(
+          BootstrapSetup(config.withFallback(configClusterHttpManager).resolve()),
+          routeProviders,
+          javaRouteProviders)
+
+        implicit val system: ActorSystem = ActorSystem("test", setup)
+
+        val management = AkkaManagement(system)
+        Await.result(management.start(), 10.seconds)
+
+        List("scaladsl", "javadsl", "ready").foreach { path =>
+          val request = HttpRequest(uri = s"http://127.0.0.1:$httpPort/$path")
+          Await.result(Http().singleRequest(request), 5.seconds).status shouldEqual StatusCodes.OK
+        }
+
+        try Await.ready(management.stop(), 5.seconds)
+        finally system.terminate()
+      }
     }
 
     "not start" when {
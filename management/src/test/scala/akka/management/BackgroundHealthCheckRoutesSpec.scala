@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management
+
+import java.util.concurrent.atomic.AtomicInteger
+
+import scala.concurrent.Future
+import scala.concurrent.Promise
+import scala.concurrent.duration._
+
+import akka.actor.ExtendedActorSystem
+import akka.http.scaladsl.model.{ StatusCodes, Uri }
+import akka.http.scaladsl.server._
+import akka.http.scaladsl.testkit.ScalatestRouteTest
+import akka.management.scaladsl.{ HealthChecks, ManagementRouteProviderSettings }
+import org.scalatest.concurrent.Eventually
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.time.{ Millis, Seconds, Span }
+import org.scalatest.wordspec.AnyWordSpec
+
+class BackgroundHealthCheckRoutesSpec extends AnyWordSpec with Matchers with ScalatestRouteTest with Eventually {
+
+  override def testConfigSource: String =
+    """
+    akka.management.health-checks.background-evaluation {
+      enabled = on
+      interval = 100ms
+      max-age = 500ms
+    }
+    """
+
+  implicit override val patienceConfig: PatienceConfig =
+    PatienceConfig(timeout = Span(3, Seconds), interval = Span(50, Millis))
+
+  private val eas = system.asInstanceOf[ExtendedActorSystem]
+
+  private def testRoute(readyResults: () => Future[Either[String, Unit]]): Route = {
+    new HealthCheckRoutes(eas) {
+      override protected val healthChecks: HealthChecks = new HealthChecks {
+        override def readyResult(): Future[Either[String, Unit]] = readyResults()
+        override def ready(): Future[Boolean] = Future.successful(true)
+        override def aliveResult(): Future[Either[String, Unit]] = Future.successful(Right(()))
+        override def alive(): Future[Boolean] = Future.successful(true)
+      }
+    }.routes(ManagementRouteProviderSettings(Uri("http://whocares"), readOnly = false))
+  }
+
+  "Health check endpoints with background evaluation" should {
+    "respond with the latest result without running the checks per request" in {
+      val evaluations = new AtomicInteger
+      @volatile var result: Either[String, Unit] = Right(())
+      val route = testRoute { () =>
+        evaluations.incrementAndGet()
+        Future.successful(result)
+      }
+      eventually {
+        Get("/ready") ~> route ~> check {
+          status shouldEqual StatusCodes.OK
+        }
+      }
+      val before = evaluations.get()
+      (1 to 100).foreach { _ =>
+        Get("/ready") ~> route ~> check {
+          status shouldEqual StatusCodes.OK
+        }
+      }
+      // a handful of background evaluations at most, independent of the 100 requests
+      evaluations.get() - before should be < 20
+
+      result = Left("Check [db] not ok")
+      eventually {
+        Get("/ready") ~> route ~> check {
+          status shouldEqual StatusCodes.InternalServerError
+          responseAs[String] shouldEqual "Not Healthy: Check [db] not ok"
+        }
+      }
+    }
+    "fail closed when the latest result is older than the max age" in {
+      val stuck = Promise[Either[String, Unit]]()
+      val evaluations = new AtomicInteger
+      val route = testRoute { () =>
+        if (evaluations.incrementAndGet() == 1) Future.successful(Right(())) else stuck.future
+      }
+      eventually {
+        Get("/ready") ~> route ~> check {
+          status shouldEqual StatusCodes.OK
+        }
+      }
+      eventually {
+        Get("/ready") ~> route ~> check {
+          status shouldEqual StatusCodes.InternalServerError
+          responseAs[String] should include("not evaluated within 500 milliseconds")
+        }
+      }
+      Get("/alive") ~> route ~> check {
+        status shouldEqual StatusCodes.OK
+      }
+    }
+    "fail closed until the checks have been evaluated" in {
+      val route = testRoute(() => Promise[Either[String, Unit]]().future)
+      Get("/ready") ~> route ~> check {
+        status shouldEqual StatusCodes.InternalServerError
+        responseAs[String] shouldEqual "Health Check Failed: not evaluated yet"
+      }
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management
+
+import scala.collection.immutable
+import scala.concurrent.Future
+import scala.concurrent.duration._
+
+import akka.actor.ExtendedActorSystem
+import akka.http.scaladsl.model.{ ContentTypes, StatusCodes, Uri }
+import akka.http.scaladsl.server._
+import akka.http.scaladsl.testkit.ScalatestRouteTest
+import akka.management.scaladsl.{ HealthCheckResult, HealthChecks, ManagementRouteProviderSettings }
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+import spray.json._
+
+class DetailedHealthCheckRoutesSpec extends AnyWordSpec with Matchers with ScalatestRouteTest {
+
+  override def testConfigSource: String = "akka.management.health-checks.detailed-response = on"
+
+  private val eas = system.asInstanceOf[ExtendedActorSystem]
+
+  private def testRoute(results: immutable.Seq[HealthCheckResult]): Route = {
+    new HealthCheckRoutes(eas) {
+      override protected val healthChecks: HealthChecks = new HealthChecks {
+        override def readyResult(): Future[Either[String, Unit]] = Future.successful(Right(()))
+        override def ready(): Future[Boolean] = Future.successful(true)
+        override def aliveResult(): Future[Either[String, Unit]] = Future.successful(Right(()))
+        override def alive(): Future[Boolean] = Future.successful(true)
+        override def readyCheckResults(): Future[immutable.Seq[HealthCheckResult]] = Future.successful(results)
+      }
+    }.routes(ManagementRouteProviderSettings(Uri("http://whocares"), readOnly = false))
+  }
+
+  "Health check endpoint with detailed response" should {
+    "return 200 and the result of each check when all checks are ok" in {
+      val results = List(HealthCheckResult("cluster-membership", HealthCheckResult.Ok, 3.millis, None))
+      Get("/ready") ~> testRoute(results) ~> check {
+        status shouldEqual StatusCodes.OK
+        contentType shouldEqual ContentTypes.`application/json`
+        responseAs[String].parseJson shouldEqual
+        """{"checks":[{"latencyMillis":3,"name":"cluster-membership","status":"ok"}],"status":"ok"}""".parseJson
+      }
+    }
+    "return 500 and the result of each check when a check failed" in {
+      val results = List(
+        HealthCheckResult("cluster-membership", HealthCheckResult.NotOk, 3.millis, None),
+        HealthCheckResult("database", HealthCheckResult.TimedOut, 1.second, Some("Timed out after 1 second")))
+      Get("/ready") ~> testRoute(results) ~> check {
+        status shouldEqual StatusCodes.InternalServerError
+        responseAs[String].parseJson shouldEqual
+        ("""{"checks":[{"latencyMillis":3,"name":"cluster-membership","status":"not-ok"},""" +
+        """{"error":"Timed out after 1 second","latencyMillis":1000,"name":"database","status":"timed-out"}],""" +
+        """"status":"failed"}""").parseJson
+      }
+    }
+    "derive a single result from readyResult for custom health checks without detailed results" in {
+      val route = new HealthCheckRoutes(eas) {
+        override protected val healthChecks: HealthChecks = new HealthChecks {
+          override def readyResult(): Future[Either[String, Unit]] = Future.successful(Left("not ready yet"))
+          override def ready(): Future[Boolean] = Future.successful(false)
+          override def aliveResult(): Future[Either[String, Unit]] = Future.successful(Right(()))
+          override def alive(): Future[Boolean] = Future.successful(true)
+        }
+      }.routes(ManagementRouteProviderSettings(Uri("http://whocares"), readOnly = false))
+
+      Get("/ready") ~> route ~> check {
+        status shouldEqual StatusCodes.InternalServerError
+        val checks = responseAs[String].parseJson.asJsObject.fields("checks").asInstanceOf[JsArray].elements
+        checks.map(_.asJsObject.fields - "latencyMillis") shouldEqual Vector(
+          Map("name" -> JsString("readiness"), "status" -> JsString("not-ok"), "error" -> JsString("not ready yet")))
+      }
+      Get("/alive") ~> route ~> check {
+        status shouldEqual StatusCodes.OK
+        val checks = responseAs[String].parseJson.asJsObject.fields("checks").asInstanceOf[JsArray].elements
+        checks.map(_.asJsObject.fields - "latencyMillis") shouldEqual Vector(
+          Map("name" -> JsString("liveness"), "status" -> JsString("ok")))
+      }
+    }
+  }
+}
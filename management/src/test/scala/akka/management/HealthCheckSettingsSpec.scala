@@ -7,6 +7,8 @@ import com.typesafe.config.ConfigFactory
 import org.scalatest.matchers.should.Matchers
 import org.scalatest.wordspec.AnyWordSpec
 
+import scala.concurrent.duration._
+
 class HealthCheckSettingsSpec extends AnyWordSpec with Matchers {
 
   "Health Check Settings" should {
@@ -30,6 +32,26 @@ class HealthCheckSettingsSpec extends AnyWordSpec with Matchers {
          check-timeout = 1s
         """)).readinessChecks shouldEqual Nil
     }
+
+    "read result max age overrides for check names containing dots" in {
+      val settings = HealthCheckSettings(ConfigFactory.parseString("""
+         readiness-checks {
+          "db.primary" = "com.example.DbCheck"
+         }
+         liveness-checks {}
+         readiness-path = ""
+         liveness-path = ""
+         check-timeout = 1s
+         result-max-age = 1s
+         result-max-age-by-name {
+          "db.primary" = 2s
+          cluster-membership = 3s
+         }
+        """))
+      settings.resultMaxAgeByName shouldEqual Map("db.primary" -> 2.seconds, "cluster-membership" -> 3.seconds)
+      settings.resultMaxAge("db.primary") shouldEqual 2.seconds
+      settings.resultMaxAge("other") shouldEqual 1.second
+    }
   }
 
 }
@@ -4,20 +4,24 @@
 
 package akka.management
 
+import java.util.concurrent.atomic.AtomicInteger
+
 import akka.actor.{ ActorSystem, ExtendedActorSystem }
 import akka.testkit.TestKit
 import org.scalatest.concurrent.ScalaFutures
 import org.scalatest.BeforeAndAfterAll
 import HealthChecksSpec._
 import akka.management.internal.CheckTimeoutException
+import akka.management.scaladsl.HealthCheckResult
 import akka.management.scaladsl.HealthChecks
-import scala.concurrent.{ Await, Future }
+import scala.concurrent.{ Await, Future, Promise }
 import scala.collection.{ immutable => im }
 import scala.util.control.NoStackTrace
 import scala.concurrent.duration._
 
 import akka.actor.BootstrapSetup
 import akka.actor.setup.ActorSystemSetup
+import akka.management.scaladsl.HealthCheckRegistrySetup
 import akka.management.scaladsl.LivenessCheckSetup
 import akka.management.scaladsl.ReadinessCheckSetup
 import com.typesafe.config.ConfigFactory
@@ -27,6 +31,9 @@ import org.scalatest.wordspec.AnyWordSpecLike
 object HealthChecksSpec {
   val failedCause = new TE()
   val ctxException = new TE()
+
+  val countingRuns = new AtomicInteger()
+  @volatile var countingResult: Promise[Boolean] = Promise.successful(true)
 }
 
 class TE extends RuntimeException with NoStackTrace
@@ -70,6 +77,13 @@ class Slow(system: ActorSystem) extends (() => Future[Boolean]) {
   }
 }
 
+class Counting() extends (() => Future[Boolean]) {
+  override def apply(): Future[Boolean] = {
+    countingRuns.incrementAndGet()
+    countingResult.future
+  }
+}
+
 class Naughty() extends (() => Future[Boolean]) {
   override def apply(): Future[Boolean] = {
     throw new RuntimeException("bad")
@@ -106,6 +120,7 @@ class HealthChecksSpec
   val WrongTypeCheck = NamedHealthCheck("WrongType", "akka.management.WrongType")
   val DoesNotExist = NamedHealthCheck("DoesNotExist", "akka.management.DoesNotExist")
   val CtrExceptionCheck = NamedHealthCheck("CtrExceptionCheck", "akka.management.CtrException")
+  val CountingCheck = NamedHealthCheck("Counting", "akka.management.Counting")
 
   def settings(readiness: im.Seq[NamedHealthCheck], liveness: im.Seq[NamedHealthCheck]) =
     new HealthCheckSettings(readiness, liveness, "ready", "alive", 500.millis)
@@ -215,6 +230,38 @@ class HealthChecksSpec
       Await.result(hc.alive().failed, 1.second) shouldEqual CheckTimeoutException(
         "Check [akka.management.Slow] timed out after 500 milliseconds")
     }
+    "share a running check between concurrent callers" in {
+      countingRuns.set(0)
+      countingResult = Promise()
+      val hc = HealthChecks(eas, settings(im.Seq(CountingCheck), Nil))
+      val results = (1 to 10).map(_ => hc.readyResult())
+      countingRuns.get shouldEqual 1
+
+      countingResult.success(true)
+      results.foreach(_.futureValue shouldEqual Right(()))
+      hc.readyResult().futureValue shouldEqual Right(())
+      countingRuns.get shouldEqual 2
+    }
+    "reuse the result of a check within its max age" in {
+      countingRuns.set(0)
+      countingResult = Promise.successful(false)
+      val hc = HealthChecks(eas, settings(im.Seq(CountingCheck), Nil).withResultMaxAge(1.minute))
+      hc.readyResult().futureValue shouldEqual Left("Check [akka.management.Counting] not ok")
+      hc.readyResult().futureValue shouldEqual Left("Check [akka.management.Counting] not ok")
+      countingRuns.get shouldEqual 1
+    }
+    "report the name, status and latency of each check" in {
+      val checks = im.Seq(OkCheck, FalseCheck, ThrowsCheck, SlowCheck)
+      val hc = HealthChecks(eas, settings(checks, checks))
+      val results = Await.result(hc.readyCheckResults(), 2.seconds)
+      results.map(r => r.name -> r.status) shouldEqual List(
+        "Ok" -> HealthCheckResult.Ok,
+        "False" -> HealthCheckResult.NotOk,
+        "Throws" -> HealthCheckResult.Failed,
+        "Slow" -> HealthCheckResult.TimedOut)
+      results.last.latency shouldEqual 500.millis
+      results.last.error shouldEqual Some("Timed out after 500 milliseconds")
+    }
     "provide useful error if user's ctr is invalid" in {
       intercept[InvalidHealthCheckException] {
         val checks = im.Seq(InvalidCtrCheck)
@@ -261,5 +308,22 @@ class HealthChecksSpec
         TestKit.shutdownActorSystem(sys2)
       }
     }
+    "create the configured checks that are registered via ActorSystem Setup without reflection" in {
+      val NotOnClasspath = NamedHealthCheck("NotOnClasspath", "com.example.NotOnClasspath")
+      val registrySetup = HealthCheckRegistrySetup(
+        Map(
+          "com.example.NotOnClasspath" -> (system => new False(system)),
+          "akka.management.Ok" -> (_ => new NoArgsCtr)))
+      val bootstrapSetup = BootstrapSetup(ConfigFactory.parseString("some=thing"))
+      val sys3 = ActorSystem("HealthCheckSpec3", ActorSystemSetup(bootstrapSetup, registrySetup))
+        .asInstanceOf[ExtendedActorSystem]
+      try {
+        val checks = HealthChecks(sys3, settings(im.Seq(OkCheck, NotOnClasspath), im.Seq(OkCheck, FalseCheck)))
+        checks.readyResult().futureValue shouldEqual Left("Check [akka.management.False] not ok")
+        checks.aliveResult().futureValue shouldEqual Left("Check [akka.management.False] not ok")
+      } finally {
+        TestKit.shutdownActorSystem(sys3)
+      }
+    }
   }
 }
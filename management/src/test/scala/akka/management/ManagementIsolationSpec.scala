@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management
+
+import java.net.HttpURLConnection
+import java.net.URI
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+import scala.concurrent.Await
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
+import scala.concurrent.Promise
+import scala.concurrent.duration._
+
+import akka.Done
+import akka.actor.ActorIdentity
+import akka.actor.ActorSystem
+import akka.actor.Identify
+import akka.http.scaladsl.server.Directives
+import akka.http.scaladsl.server.Route
+import akka.management.scaladsl.AkkaManagement
+import akka.management.scaladsl.ManagementRouteProvider
+import akka.management.scaladsl.ManagementRouteProviderSettings
+import akka.testkit.SocketUtil
+import akka.testkit.TestKit
+import akka.testkit.TestProbe
+import com.typesafe.config.ConfigFactory
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+
+object ManagementIsolationSpec {
+  val slowRouteAdmitted = new CountDownLatch(1)
+  val slowRouteRelease = Promise[Done]()
+
+  class ReadyCheck extends (() => Future[Boolean]) {
+    override def apply(): Future[Boolean] = Future.successful(true)
+  }
+
+  class SlowRoutes extends ManagementRouteProvider with Directives {
+    override def routes(settings: ManagementRouteProviderSettings): Route =
+      path("slow") {
+        get {
+          extractRequest { _ =>
+            slowRouteAdmitted.countDown()
+            complete(slowRouteRelease.future.map(_ => "done")(ExecutionContext.parasitic))
+          }
+        }
+      }
+  }
+}
+
+class ManagementIsolationSpec extends AnyWordSpecLike with Matchers with BeforeAndAfterAll {
+  import ManagementIsolationSpec._
+
+  private val httpPort = SocketUtil.temporaryLocalPort()
+
+  private val system = ActorSystem(
+    "ManagementIsolationSpec",
+    ConfigFactory.parseString(s"""
+      akka.actor.default-dispatcher.fork-join-executor {
+        parallelism-min = 2
+        parallelism-max = 2
+      }
+      akka.management.http {
+        hostname = "127.0.0.1"
+        port = $httpPort
+        routes.slow = "akka.management.ManagementIsolationSpec$$SlowRoutes"
+        isolation {
+          enabled = on
+          max-concurrent-requests = 1
+        }
+      }
+      akka.management.health-checks.readiness-checks {
+        ready = "akka.management.ManagementIsolationSpec$$ReadyCheck"
+      }
+      """).withFallback(ConfigFactory.load()))
+
+  // the client doesn't use the dispatchers of the actor system, so that it isn't delayed when they are
+  private val clientThreads = Executors.newCachedThreadPool()
+  private implicit val clientEc: ExecutionContext = ExecutionContext.fromExecutor(clientThreads)
+
+  override def beforeAll(): Unit =
+    Await.result(AkkaManagement(system).start(), 10.seconds)
+
+  override def afterAll(): Unit = {
+    slowRouteRelease.trySuccess(Done)
+    TestKit.shutdownActorSystem(system)
+    clientThreads.shutdown()
+  }
+
+  private def get(path: String): (Int, FiniteDuration) = {
+    val start = System.nanoTime()
+    val connection =
+      URI.create(s"http://127.0.0.1:$httpPort/$path").toURL.openConnection().asInstanceOf[HttpURLConnection]
+    connection.setConnectTimeout(5000)
+    connection.setReadTimeout(5000)
+    try {
+      val status = connection.getResponseCode
+      val stream = if (status < 400) connection.getInputStream else connection.getErrorStream
+      if (stream ne null) stream.readAllBytes()
+      (status, (System.nanoTime() - start).nanos)
+    } finally connection.disconnect()
+  }
+
+  private def probeLatencies(): Seq[FiniteDuration] =
+    (1 to 50).flatMap(_ => List("ready", "alive")).map { path =>
+      val (status, latency) = get(path)
+      status shouldBe 200
+      latency
+    }
+
+  private def percentile(latencies: Seq[FiniteDuration], p: Double): FiniteDuration =
+    latencies.sorted.apply(math.min(latencies.size - 1, (latencies.size * p).toInt))
+
+  "The isolated management endpoint" should {
+
+    "keep the probe latency flat while the default dispatcher is saturated" in {
+      probeLatencies() // warm up
+      val baseline = probeLatencies()
+
+      // block all threads of the default dispatcher, and queue work behind them
+      val unblock = new CountDownLatch(1)
+      (1 to 100).foreach(_ => system.dispatcher.execute(() => unblock.await()))
+      try {
+        val defaultDispatcherRan = Future(Done)(system.dispatcher)
+        Thread.sleep(200)
+        defaultDispatcherRan.isCompleted shouldBe false
+
+        val saturated = probeLatencies()
+        def summary(latencies: Seq[FiniteDuration]) =
+          s"p50 ${percentile(latencies, 0.5).toMicros}us, p99 ${percentile(latencies, 0.99).toMicros}us"
+        info(s"probe latency before: ${summary(baseline)}, with a saturated default dispatcher: ${summary(saturated)}")
+        // some slack for the scheduling noise of the test machine, which matters most when the baseline is tiny
+        percentile(saturated, 0.99) should be <= (percentile(baseline, 0.99) * 10).max(50.millis)
+        defaultDispatcherRan.isCompleted shouldBe false
+      } finally unblock.countDown()
+    }
+
+    "respond with 503 to other routes beyond the max concurrent requests, but not to the probes" in {
+      val first = Future(get("slow"))
+      slowRouteAdmitted.await(5, TimeUnit.SECONDS) shouldBe true
+
+      val (status, _) = get("slow")
+      status shouldBe 503
+      get("ready")._1 shouldBe 200
+      get("alive")._1 shouldBe 200
+
+      slowRouteRelease.success(Done)
+      Await.result(first, 5.seconds)._1 shouldBe 200
+      get("slow")._1 shouldBe 200
+    }
+
+    "shut down its materializer when stopped" in {
+      def streamSupervisors(): Int = {
+        val probe = TestProbe()(system)
+        system.actorSelection("/system/Materializers/StreamSupervisor-*").tell(Identify(None), probe.ref)
+        probe.receiveWhile(500.millis) { case ActorIdentity(_, Some(ref)) => ref }.size
+      }
+      val running = streamSupervisors()
+      Await.result(AkkaManagement(system).stop(), 5.seconds)
+      new TestKit(system).awaitAssert(streamSupervisors() shouldBe running - 1, 5.seconds)
+    }
+  }
+}
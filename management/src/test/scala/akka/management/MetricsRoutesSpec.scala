@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2017-2025 Lightbend Inc. <https://akka.io>
+ */
+
+package akka.management
+
+import akka.actor.ExtendedActorSystem
+import akka.http.scaladsl.model.{ StatusCodes, Uri }
+import akka.http.scaladsl.testkit.ScalatestRouteTest
+import akka.management.metrics.ManagementMetrics
+import akka.management.scaladsl.ManagementRouteProviderSettings
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class MetricsRoutesSpec extends AnyWordSpec with Matchers with ScalatestRouteTest {
+
+  private val route = new MetricsRoutes(system.asInstanceOf[ExtendedActorSystem])
+    .routes(ManagementRouteProviderSettings(Uri("http://whocares"), readOnly = true))
+
+  "The /metrics endpoint" should {
+    "return the metrics in the OpenMetrics format" in {
+      ManagementMetrics(system).counter("test_requests", "Test requests").add(2)
+      Get("/metrics") ~> route ~> check {
+        status shouldEqual StatusCodes.OK
+        contentType shouldEqual MetricsRoutes.OpenMetricsContentType
+        val body = responseAs[String]
+        body should include("# TYPE test_requests counter\n")
+        body should include("test_requests_total 2\n")
+        body should endWith("# EOF\n")
+      }
+    }
+  }
+}
@@ -1,7 +1,14 @@
 package com.lightbend
 
+import java.net.HttpURLConnection
+import java.net.URI
+import java.time.Duration
+import java.time.Instant
+
+import akka.actor.BootstrapSetup
 import akka.actor.ExtendedActorSystem
 import akka.actor.ExtensionId
+import akka.actor.setup.ActorSystemSetup
 import akka.actor.typed.ActorSystem
 import akka.actor.typed.Behavior
 import akka.actor.typed.scaladsl.Behaviors
@@ -9,9 +16,16 @@ import akka.cluster.typed.Cluster
 import akka.cluster.typed.SelfUp
 import akka.cluster.typed.Subscribe
 import akka.coordination.lease.LeaseSettings
+import akka.http.scaladsl.model.Uri
+import akka.management.cluster.bootstrap.ClusterBootstrap
 import akka.management.scaladsl.AkkaManagement
+import akka.management.scaladsl.HealthCheckRegistrySetup
+import akka.management.scaladsl.RouteProviderRegistrySetup
 
+import scala.concurrent.Future
 import scala.concurrent.duration.DurationInt
+import scala.util.Failure
+import scala.util.Success
 
 object RootBehavior {
 
@@ -37,10 +51,44 @@ object RootBehavior {
     system.dynamicAccess.getObjectFor[ExtensionId[_]](extensionClazzName).get
   }
 
-  def apply(): Behavior[AnyRef] = Behaviors.setup { context =>
+  private final case class Bound(uri: Uri)
+  private case object Ready
+
+  /**
+   * Polls the readiness endpoint on its own thread, so that the polling doesn't compete with the actor system for
+   * its threads, and tells the root actor when it first responds with 200.
+   */
+  private def pollReady(uri: Uri, notify: AnyRef => Unit): Unit = {
+    val ready = URI.create(uri.withPath(Uri.Path("/ready")).toString).toURL
+    val poller = new Thread(
+      () => {
+        def ok(): Boolean =
+          try {
+            val connection = ready.openConnection().asInstanceOf[HttpURLConnection]
+            try connection.getResponseCode == 200
+            finally connection.disconnect()
+          } catch {
+            case _: java.io.IOException => false
+          }
+        while (!ok()) Thread.sleep(10)
+        notify(Ready)
+      },
+      "ready-poller")
+    poller.setDaemon(true)
+    poller.start()
+  }
+
+  def apply(startedAt: Instant): Behavior[AnyRef] = Behaviors.setup { context =>
     Behaviors.withTimers { timers =>
+      // the run mode is included in the timings, as the point is to compare the JVM and native startup
+      val mode = if (System.getProperty("org.graalvm.nativeimage.imagecode") eq null) "jvm" else "native"
+      def sinceStart(): Long = Duration.between(startedAt, Instant.now()).toMillis
+
       // Note that some exceptions in the log from k8 api discovery is expected, see application.conf
-      AkkaManagement(context.system).start()
+      context.pipeToSelf(AkkaManagement(context.system).start()) {
+        case Success(uri) => Bound(uri)
+        case Failure(e)   => throw e
+      }
       timers.startSingleTimer("Timeout", 30.seconds)
       Cluster(context.system).subscriptions ! Subscribe(context.self, classOf[SelfUp])
 
@@ -48,22 +96,58 @@ object RootBehavior {
       checkK8RollingUpdate(context.system)
       checkK8Lease(context.system)
 
-      Behaviors.receiveMessagePartial {
-        case SelfUp(_) =>
+      def waiting(selfUp: Boolean, ready: Boolean): Behavior[AnyRef] =
+        if (selfUp && ready) {
           context.log.info("Managed to bootstrap cluster, shutting down")
           Behaviors.stopped
+        } else
+          Behaviors.receiveMessagePartial {
+            case Bound(uri) =>
+              context.log.info("Startup [{}]: management endpoint bound after [{}] ms", mode, sinceStart())
+              pollReady(uri, context.self ! _)
+              Behaviors.same
 
-        case "Timeout" =>
-          context.log.error("Didn't manage to bootstrap within 30s, something is off")
-          System.exit(1)
-          Behaviors.same
-      }
+            case Ready =>
+              context.log.info("Startup [{}]: first ready after [{}] ms", mode, sinceStart())
+              waiting(selfUp, ready = true)
+
+            case SelfUp(_) =>
+              waiting(selfUp = true, ready)
+
+            case "Timeout" =>
+              context.log.error("Didn't manage to bootstrap within 30s, something is off")
+              System.exit(1)
+              Behaviors.same
+          }
+
+      waiting(selfUp = false, ready = false)
     }
   }
 }
 
+/**
+ * Liveness check that is only ever created through the registry, see `Main`.
+ */
+object StartedCheck extends (() => Future[Boolean]) {
+  override def apply(): Future[Boolean] = Future.successful(true)
+}
+
 object Main extends App {
 
-  val system: ActorSystem[AnyRef] = ActorSystem(RootBehavior(), "ManagementNativeImageTests")
+  // measured from the start of the process when available, so that the timings include the JVM startup
+  private val startedAt: Instant = {
+    val processStart = ProcessHandle.current().info().startInstant()
+    if (processStart.isPresent) processStart.get() else Instant.now()
+  }
+
+  // create some of the route providers and health checks without reflection, the configured class names are the keys,
+  // the cluster management routes and the cluster membership check are left to be loaded with reflection to cover
+  // the reflection fallback and its reflect-config
+  private val setup = ActorSystemSetup(
+    BootstrapSetup(),
+    RouteProviderRegistrySetup(Map("akka.management.cluster.bootstrap.ClusterBootstrap" -> (ClusterBootstrap(_)))),
+    HealthCheckRegistrySetup(Map("com.lightbend.StartedCheck" -> (_ => StartedCheck))))
+
+  val system: ActorSystem[AnyRef] = ActorSystem(RootBehavior(startedAt), "ManagementNativeImageTests", setup)
 
 }
@@ -44,7 +44,7 @@ final class AppVersionRevision(implicit system: ExtendedActorSystem) extends Ext
         versionPromise.failure(new MissingPodNameException(msg))
       } else {
         Cluster(system).setAppVersionLater(getRevision())
-        KubernetesApiImpl(log, k8sSettings).foreach { kubernetesApi =>
+        KubernetesApiImpl(k8sSettings).foreach { kubernetesApi =>
           versionPromise.completeWith(kubernetesApi.readRevision().map(Version(_)))
         }
       }
@@ -5,17 +5,11 @@
 package akka.rollingupdate.kubernetes
 
 import scala.collection.immutable
-import scala.concurrent.ExecutionContext
 import scala.concurrent.Future
 import akka.Done
 import akka.actor.ActorSystem
 import akka.annotation.InternalApi
-import akka.dispatch.Dispatchers.DefaultBlockingDispatcherId
 import akka.event.Logging
-import akka.event.LoggingAdapter
-import akka.http.scaladsl.ConnectionContext
-import akka.http.scaladsl.Http
-import akka.http.scaladsl.HttpsConnectionContext
 import akka.http.scaladsl.marshalling.Marshal
 import akka.http.scaladsl.model.HttpEntity
 import akka.http.scaladsl.model.HttpMethods.PATCH
@@ -24,25 +18,11 @@ import akka.http.scaladsl.model.MediaTypes
 import akka.http.scaladsl.model.StatusCodes.ClientError
 import akka.http.scaladsl.model.Uri
 import akka.http.scaladsl.model._
-import akka.http.scaladsl.model.headers.Authorization
-import akka.http.scaladsl.model.headers.OAuth2BearerToken
 import akka.http.scaladsl.unmarshalling.Unmarshal
-import akka.pattern.after
-import akka.pki.kubernetes.PemManagersProvider
+import akka.management.kubernetes.client.KubernetesClient
+import akka.management.kubernetes.client.KubernetesClients
 import akka.util.ByteString
 
-import java.nio.file.Files
-import java.nio.file.Paths
-import java.security.KeyStore
-import java.security.SecureRandom
-import java.util.concurrent.atomic.AtomicReference
-import javax.net.ssl.KeyManager
-import javax.net.ssl.KeyManagerFactory
-import javax.net.ssl.SSLContext
-import javax.net.ssl.TrustManager
-import scala.concurrent.duration.Deadline
-import scala.util.control.NonFatal
-
 /**
  * INTERNAL API
  */
@@ -50,8 +30,7 @@ import scala.util.control.NonFatal
     system: ActorSystem,
     settings: KubernetesSettings,
     override val namespace: String,
-    loadApiToken: () => Future[String],
-    clientHttpsConnectionContext: Option[HttpsConnectionContext])
+    client: KubernetesClient)
     extends KubernetesApi
     with KubernetesJsonSupport {
 
@@ -59,20 +38,14 @@ import scala.util.control.NonFatal
 
   override val revisionAnnotation = settings.revisionAnnotation
 
-  private val apiToken = new AtomicReference[Option[(String, Deadline)]](None)
-
   private implicit val sys: ActorSystem = system
   private val log = Logging(system, classOf[KubernetesApiImpl])
-  private val http = Http()(system)
-
-  private val scheme = if (settings.secure) "https" else "http"
 
   log.debug("kubernetes access namespace: {}. Secure: {}", namespace, settings.secure)
 
   override def updatePodDeletionCostAnnotation(podName: String, cost: Int): Future[Done] = {
     val path = Uri.Path.Empty / "api" / "v1" / "namespaces" / namespace / "pods" / podName
-    val scheme = if (settings.secure) "https" else "http"
-    val uri = Uri.from(scheme, host = settings.apiServiceHost, port = settings.apiServicePort).withPath(path)
+    val uri = client.uri(path)
 
     val httpRequest = HttpRequest(
       method = PATCH,
@@ -315,44 +288,12 @@ PUTs must contain resourceVersions. Response:
       path: Uri.Path,
       method: HttpMethod = HttpMethods.GET,
       entity: RequestEntity = HttpEntity.Empty): HttpRequest = {
-    val uri = Uri.from(scheme = scheme, host = settings.apiServiceHost, port = settings.apiServicePort).withPath(path)
-    HttpRequest(uri = uri, method = method, entity = entity)
-  }
-
-  private def addHeadersToRequest(request: HttpRequest): Future[HttpRequest] = {
-    def requestWithToken(token: String) = request.addHeader(Authorization(OAuth2BearerToken(token)))
-
-    if (settings.secure || settings.insecureTokens) {
-      apiToken.get() match {
-        case Some((token, deadline)) if deadline.hasTimeLeft() =>
-          Future.successful(requestWithToken(token))
-        case _ =>
-          loadApiToken().map { token =>
-            apiToken.set(Some((token, settings.apiTokenTtl.fromNow)))
-            requestWithToken(token)
-          }
-      }
-    } else {
-      Future.successful(request)
-    }
+    HttpRequest(uri = client.uri(path), method = method, entity = entity)
   }
 
-  private def makeRequest(rawRequest: HttpRequest, timeoutMsg: String): Future[HttpResponse] = {
-    val strictResponse = for {
-      request <- addHeadersToRequest(rawRequest)
-      response <- clientHttpsConnectionContext match {
-        case None                         => http.singleRequest(request)
-        case Some(httpsConnectionContext) => http.singleRequest(request, httpsConnectionContext)
-      }
-      // make sure we always consume response body (in case of timeout)
-      strict <- response.toStrict(settings.bodyReadTimeout)
-    } yield strict
-
-    val timeout = after(settings.apiServiceRequestTimeout, using = system.scheduler)(
-      Future.failed(new PodCostTimeoutException(s"$timeoutMsg. Is the API server up?")))
-
-    Future.firstCompletedOf(Seq(strictResponse, timeout))
-  }
+  private def makeRequest(request: HttpRequest, timeoutMsg: String): Future[HttpResponse] =
+    client.request(request, settings.apiServiceRequestTimeout, settings.bodyReadTimeout)(
+      new PodCostTimeoutException(s"$timeoutMsg. Is the API server up?"))
 
   private def toPodCostResource(cr: PodCostCustomResource) = {
     log.debug("Converting {}", cr)
@@ -457,62 +398,17 @@ PUTs must contain resourceVersions. Response:
  * INTERNAL API
  */
 @InternalApi private[akka] object KubernetesApiImpl {
-  def apply(log: LoggingAdapter, k8sSettings: KubernetesSettings)(implicit system: ActorSystem) = {
-    implicit val blockingDispatcher: ExecutionContext = system.dispatchers.lookup(DefaultBlockingDispatcherId)
-    def loadApiToken =
-      () =>
-        Future {
-          readConfigVarFromFilesystem(k8sSettings.apiTokenPath, "api-token", log).getOrElse("")
-        }
+  def apply(k8sSettings: KubernetesSettings)(implicit system: ActorSystem): Future[KubernetesApiImpl] = {
+    import system.dispatcher
+    val clients = KubernetesClients(system)
     for {
-      podNamespace: String <- Future {
-        k8sSettings.namespace
-          .orElse(readConfigVarFromFilesystem(k8sSettings.namespacePath, "namespace", log))
-          .getOrElse("default")
+      podNamespace: String <- k8sSettings.namespace match {
+        case Some(namespace) => Future.successful(namespace)
+        case None => clients.readFromFilesystem(k8sSettings.namespacePath, "namespace").map(_.getOrElse("default"))
       }
-      httpsContext <- Future(clientHttpsConnectionContext(k8sSettings))
+      client <- clients.client("rolling-update", k8sSettings.apiServerSettings)
     } yield {
-      new KubernetesApiImpl(system, k8sSettings, podNamespace, loadApiToken, httpsContext)
+      new KubernetesApiImpl(system, k8sSettings, podNamespace, client)
     }
   }
-
-  /**
-   * This uses blocking IO, and so should only be used to read configuration at startup from blocking dispatcher.
-   */
-  private def readConfigVarFromFilesystem(path: String, name: String, log: LoggingAdapter): Option[String] = {
-    val file = Paths.get(path)
-    if (Files.exists(file)) {
-      try {
-        Some(new String(Files.readAllBytes(file), "utf-8"))
-      } catch {
-        case NonFatal(e) =>
-          log.error(e, "Error reading {} from {}", name, path)
-          None
-      }
-    } else {
-      log.warning("Unable to read {} from {} because it doesn't exist.", name, path)
-      None
-    }
-  }
-
-  /**
-   * This uses blocking IO, and so should only be used at startup from blocking dispatcher.
-   */
-  private def clientHttpsConnectionContext(k8sSettings: KubernetesSettings): Option[HttpsConnectionContext] = {
-    if (k8sSettings.secure) {
-      val certificates = PemManagersProvider.loadCertificates(k8sSettings.apiCaPath)
-      val factory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm)
-      val keyStore = KeyStore.getInstance("PKCS12")
-      keyStore.load(null)
-      factory.init(keyStore, Array.empty)
-      val km: Array[KeyManager] = factory.getKeyManagers
-      val tm: Array[TrustManager] =
-        PemManagersProvider.buildTrustManagers(certificates)
-      val random: SecureRandom = new SecureRandom
-      val sslContext = SSLContext.getInstance("TLSv1.2")
-      sslContext.init(km, tm, random)
-      Some(ConnectionContext.httpsClient(sslContext))
-    } else
-      None
-  }
 }
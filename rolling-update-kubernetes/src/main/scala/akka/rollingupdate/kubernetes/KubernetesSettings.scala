@@ -5,6 +5,7 @@
 package akka.rollingupdate.kubernetes
 
 import akka.annotation.InternalApi
+import akka.management.kubernetes.client.ApiServerSettings
 import com.typesafe.config.Config
 
 import scala.concurrent.duration._
@@ -75,7 +76,11 @@ private[kubernetes] class KubernetesSettings(
     val bodyReadTimeout: FiniteDuration = 1.second,
     // Note: for token testability
     val insecureTokens: Boolean = false
-)
+) {
+
+  def apiServerSettings: ApiServerSettings =
+    ApiServerSettings(apiServiceHost, apiServicePort, secure, apiCaPath, apiTokenPath, apiTokenTtl, insecureTokens)
+}
 
 /**
  * INTERNAL API
@@ -35,7 +35,7 @@ final class PodDeletionCost(implicit system: ExtendedActorSystem) extends Extens
         s"Be sure to provide the pod name with `$configPath.pod-name` " +
         "or by setting ENV variable `KUBERNETES_POD_NAME`.")
     } else if (startStep.compareAndSet(false, true)) {
-      val props = KubernetesApiImpl(log, k8sSettings).map { kubernetesApi =>
+      val props = KubernetesApiImpl(k8sSettings).map { kubernetesApi =>
         val crName =
           if (k8sSettings.customResourceSettings.enabled) {
             val name =
@@ -11,6 +11,7 @@ import scala.collection.immutable
 import scala.collection.immutable.SortedSet
 import scala.concurrent.ExecutionContext
 import scala.concurrent.Future
+import scala.concurrent.duration.Duration
 import scala.concurrent.duration.DurationLong
 import scala.concurrent.duration.FiniteDuration
 import scala.util.control.NonFatal
@@ -29,6 +30,7 @@ import akka.cluster.Member
 import akka.cluster.UniqueAddress
 import akka.event.Logging.InfoLevel
 import akka.event.Logging.WarningLevel
+import akka.management.metrics.ManagementMetrics
 import akka.pattern.pipe
 import akka.rollingupdate.OlderCostsMore
 import com.typesafe.config.Config
@@ -55,30 +57,44 @@ import com.typesafe.config.Config
 
   private val cluster = Cluster(context.system)
 
+  private def updates(result: String) =
+    ManagementMetrics(context.system).counter(
+      "akka_rolling_update_pod_deletion_cost_updates",
+      "Updates of the pod-deletion-cost annotation or PodCost CR, by result",
+      "result" -> result)
+  private val succeededUpdates = updates("succeeded")
+  private val retriedUpdates = updates("retried")
+  private val abandonedUpdates = updates("gave-up")
+
   Cluster(context.system).subscribe(context.self, classOf[ClusterEvent.MemberUp], classOf[ClusterEvent.MemberRemoved])
 
-  def receive: Receive = idle(0, SortedSet.empty(Member.ageOrdering), 0)
+  def receive: Receive = idle(NothingWritten, SortedSet.empty(Member.ageOrdering), 0)
 
-  private def idle(deletionCost: Int, membersByAgeDesc: SortedSet[Member], retryNr: Int): Receive = {
+  private def idle(written: Written, membersByAgeDesc: SortedSet[Member], retryNr: Int): Receive = {
     case cs @ ClusterEvent.CurrentClusterState(members, _, _, _, _) =>
       log.debug("Received CurrentClusterState {}", cs)
-      updateIfNewCost(deletionCost, membersByAgeDesc ++ members, retryNr) // ordering used is from the first operand (so, by age)
+      membershipChanged(written, membersByAgeDesc ++ members, retryNr) // ordering used is from the first operand (so, by age)
 
     case ClusterEvent.MemberUp(m) =>
       log.debug("Received MemberUp {}", m)
-      updateIfNewCost(deletionCost, membersByAgeDesc + m, retryNr)
+      membershipChanged(written, membersByAgeDesc + m, retryNr)
 
     case ClusterEvent.MemberRemoved(m, _) =>
       log.debug("Received MemberRemoved {}", m)
-      updateIfNewCost(deletionCost, membersByAgeDesc - m, retryNr)
+      membershipChanged(written, membersByAgeDesc - m, retryNr)
+
+    case DebounceElapsed =>
+      updateIfChanged(written, membersByAgeDesc, retryNr)
 
     case PodAnnotated =>
-      log.debug("{} updated successfully to [{}]", resourceLogDescription, deletionCost)
+      succeededUpdates.increment()
+      log.debug("{} updated successfully to [{}]", resourceLogDescription, written)
       // cancelling an eventual retry in case the operation succeeded in the meantime
       timers.cancel(RetryTimerId)
-      context.become(idle(deletionCost, membersByAgeDesc, 0))
+      context.become(idle(written, membersByAgeDesc, 0))
 
     case ScheduleRetry(ex) =>
+      retriedUpdates.increment()
       val ll = if (retryNr < 3) InfoLevel else WarningLevel
       log.log(
         ll,
@@ -95,6 +111,7 @@ import com.typesafe.config.Config
       context.become(underRetryBackoff(membersByAgeDesc, retryNr))
 
     case GiveUp(er: String) =>
+      abandonedUpdates.increment()
       log.error(
         "There was a client error when trying to set {}. " +
         "Not retrying, check configuration. Error: {}",
@@ -120,7 +137,9 @@ import com.typesafe.config.Config
       context.become(underRetryBackoff(membersByAgeDesc - m, retryNr))
 
     case RetryAnnotate =>
-      updateIfNewCost(Int.MinValue, membersByAgeDesc, retryNr + 1)
+      // the retry writes the latest membership, so a pending debounced update is not needed
+      timers.cancel(DebounceTimerId)
+      updateIfChanged(NothingWritten, membersByAgeDesc, retryNr + 1)
 
     case Status.Failure(exc) =>
       throw new IllegalStateException(
@@ -131,18 +150,42 @@ import com.typesafe.config.Config
     case msg => log.debug("Under retry backoff, ignoring message {}", msg)
   }
 
-  private def updateIfNewCost(existingCost: Int, membersByAgeDesc: immutable.SortedSet[Member], retryNr: Int): Unit = {
+  /**
+   * Membership changes within the debounce window are collapsed into one update at the end of the window. The window
+   * is not extended by further changes, so that continuous churn still results in an update per window.
+   */
+  private def membershipChanged(written: Written, membersByAgeDesc: SortedSet[Member], retryNr: Int): Unit = {
+    if (costSettings.debounce <= Duration.Zero)
+      updateIfChanged(written, membersByAgeDesc, retryNr)
+    else {
+      if (!timers.isTimerActive(DebounceTimerId))
+        timers.startSingleTimer(DebounceTimerId, DebounceElapsed, costSettings.debounce)
+      context.become(idle(written, membersByAgeDesc, retryNr))
+    }
+  }
+
+  private def updateIfChanged(written: Written, membersByAgeDesc: immutable.SortedSet[Member], retryNr: Int): Unit = {
 
     val podsToAnnotate = membersByAgeDesc.take(costSettings.annotatedPodsNr)
     val newCost: Int = OlderCostsMore.costOf(cluster.selfMember, podsToAnnotate).getOrElse(0)
     log.debug(
       "Calculated cost={} (previously {}) for member={} in members by age (desc): {}",
       newCost,
-      existingCost,
+      written,
       cluster.selfMember,
       membersByAgeDesc)
 
-    if (newCost != existingCost) {
+    val toWrite: Written = crName match {
+      case None => OwnCost(newCost)
+      // the cost is not known before this member has been seen in the membership
+      case Some(_) if !membersByAgeDesc.exists(_.uniqueAddress == cluster.selfUniqueAddress) => written
+      // the oldest member writes the costs of all members, the others only add their own entry once
+      case Some(_) if membersByAgeDesc.headOption.exists(_.uniqueAddress == cluster.selfUniqueAddress) =>
+        AllCosts(membersByAgeDesc.toList.map(_.uniqueAddress))
+      case Some(_) => OwnEntry
+    }
+
+    if (toWrite != written) {
       log.info(
         "Updating {} for pod: [{}] with cost: [{}]. Namespace: [{}]",
         resourceLogDescription,
@@ -157,13 +200,15 @@ import com.typesafe.config.Config
         crName,
         podName,
         newCost,
+        writeAllCosts = toWrite.isInstanceOf[AllCosts],
         cluster.selfUniqueAddress,
         membersByAgeDesc,
+        podsToAnnotate,
         settings.customResourceSettings.cleanupAfter)(context.system).pipeTo(self)
 
-      context.become(idle(newCost, membersByAgeDesc, retryNr))
+      context.become(idle(toWrite, membersByAgeDesc, retryNr))
     } else {
-      context.become(idle(existingCost, membersByAgeDesc, retryNr))
+      context.become(idle(written, membersByAgeDesc, retryNr))
     }
   }
 
@@ -173,10 +218,12 @@ import com.typesafe.config.Config
  * INTERNAL API
  * @param annotatedPodsNr the number of members of the cluster that need to be annotated
  * @param retryDelay fixed time delay before next attempt to annotate in case the previous one failed
+ * @param debounce membership changes within this window are collapsed into one update, zero to update on each change
  */
 @InternalApi private[kubernetes] final case class PodDeletionCostSettings(
     annotatedPodsNr: Int,
-    retryDelay: FiniteDuration)
+    retryDelay: FiniteDuration,
+    debounce: FiniteDuration = Duration.Zero)
 
 /**
  * INTERNAL API
@@ -186,7 +233,8 @@ import com.typesafe.config.Config
   def apply(config: Config): PodDeletionCostSettings =
     PodDeletionCostSettings(
       config.getInt(s"$configPath.annotated-pods-nr"),
-      config.getDuration(s"$configPath.retry-delay", TimeUnit.SECONDS).seconds
+      config.getDuration(s"$configPath.retry-delay", TimeUnit.SECONDS).seconds,
+      config.getDuration(s"$configPath.debounce", TimeUnit.MILLISECONDS).millis
     )
 }
 
@@ -196,6 +244,21 @@ import com.typesafe.config.Config
 @InternalApi private[kubernetes] object PodDeletionCostAnnotator {
   case object RetryTimerId
   case object RetryAnnotate
+  case object DebounceTimerId
+  case object DebounceElapsed
+
+  // conflicting updates of the PodCost CR that are applied again on the returned resource, before scheduling a retry
+  private val MaxConflictRetries = 3
+
+  /**
+   * What was last written, an update is only made when it changes.
+   */
+  sealed trait Written
+  case object NothingWritten extends Written
+  final case class OwnCost(cost: Int) extends Written
+  case object OwnEntry extends Written
+  final case class AllCosts(membersByAgeDesc: List[UniqueAddress]) extends Written
+
   sealed trait RequestResult
   case object PodAnnotated extends RequestResult
   case class ScheduleRetry(cause: String) extends RequestResult
@@ -214,28 +277,65 @@ import com.typesafe.config.Config
       crNameOpt: Option[String],
       podName: String,
       newCost: Int,
+      writeAllCosts: Boolean,
       selfUniqueAddress: UniqueAddress,
       membersByAgeDesc: immutable.SortedSet[Member],
+      podsToAnnotate: immutable.SortedSet[Member],
       cleanupAfter: FiniteDuration)(implicit system: ActorSystem): Future[RequestResult] = {
     import system.dispatcher
     crNameOpt match {
       case Some(crName) =>
-        val response =
-          kubernetesApi.readOrCreatePodCostResource(crName).flatMap { cr =>
-            val now = System.currentTimeMillis()
-            val newPodCost =
-              PodCost(podName, newCost, selfUniqueAddress.address.toString, selfUniqueAddress.longUid, now)
-            val newPods = cr.pods.filterNot { podCost =>
-                // remove entry that is to be added for this podName
-                podCost.podName == podName ||
-                // remove entries that don't exist in the cluster membership any more
-                (podCost.uniqueAddress.address.system == selfUniqueAddress.address.system && // only same cluster
-                now - podCost.time > cleanupAfter.toMillis && // in case new member hasn't been seen yet
-                !membersByAgeDesc.exists(_.uniqueAddress == podCost.uniqueAddress) // removed, not in cluster membership
-                )
-              } :+ newPodCost
-            kubernetesApi.updatePodCostResource(crName, cr.version, newPods)
+        def newPods(cr: PodCostResource): Option[immutable.Seq[PodCost]] = {
+          val now = System.currentTimeMillis()
+          val newPodCost =
+            PodCost(podName, newCost, selfUniqueAddress.address.toString, selfUniqueAddress.longUid, now)
+          def sameCluster(podCost: PodCost) =
+            podCost.uniqueAddress.address.system == selfUniqueAddress.address.system
+          val kept = cr.pods.filterNot { podCost =>
+            // remove entry that is to be added for this podName
+            podCost.podName == podName ||
+            // remove entries that don't exist in the cluster membership any more
+            (sameCluster(podCost) &&
+            now - podCost.time > cleanupAfter.toMillis && // in case new member hasn't been seen yet
+            !membersByAgeDesc.exists(_.uniqueAddress == podCost.uniqueAddress) // removed, not in cluster membership
+            )
           }
+
+          if (writeAllCosts) {
+            val costs = kept.map { podCost =>
+              membersByAgeDesc.find(_.uniqueAddress == podCost.uniqueAddress) match {
+                case Some(member) if sameCluster(podCost) =>
+                  podCost.copy(cost = OlderCostsMore.costOf(member, podsToAnnotate).getOrElse(0))
+                case _ => podCost
+              }
+            } :+ newPodCost
+            // the time of the own entry doesn't matter for the comparison
+            def withoutTime(pods: immutable.Seq[PodCost]) = pods.map(_.copy(time = 0L)).toSet
+            if (withoutTime(costs) == withoutTime(cr.pods)) None else Some(costs)
+          } else if (cr.pods.exists(p => p.podName == podName && p.uniqueAddress == selfUniqueAddress)) {
+            // the oldest member keeps the cost up to date
+            None
+          } else Some(kept :+ newPodCost)
+        }
+
+        val conflictRetries = ManagementMetrics(system).counter(
+          "akka_rolling_update_pod_cost_conflicts",
+          "Conflicting updates of the PodCost CR that were applied again on the current resource")
+
+        // a conflict returns the current resource, so the update can be applied again without reading it
+        def update(cr: PodCostResource, conflicts: Int): Future[Either[PodCostResource, PodCostResource]] =
+          newPods(cr) match {
+            case None => Future.successful(Right(cr))
+            case Some(pods) =>
+              kubernetesApi.updatePodCostResource(crName, cr.version, pods).flatMap {
+                case Left(latest) if conflicts < MaxConflictRetries =>
+                  conflictRetries.increment()
+                  update(latest, conflicts + 1)
+                case result => Future.successful(result)
+              }
+          }
+
+        val response = kubernetesApi.readOrCreatePodCostResource(crName).flatMap(update(_, 0))
         updatePodCostResourceResult(response)
       case None =>
         val response = kubernetesApi.updatePodDeletionCostAnnotation(podName, newCost)
@@ -5,6 +5,7 @@
 package akka.rollingupdate.kubernetes
 
 import akka.actor.ActorSystem
+import akka.management.kubernetes.client.KubernetesClient
 import akka.testkit.EventFilter
 import akka.testkit.ImplicitSender
 import akka.testkit.TestKit
@@ -94,8 +95,12 @@ class KubernetesApiSpec
       system,
       settings(podName1),
       namespace,
-      () => Future.successful("apiToken"),
-      clientHttpsConnectionContext = None)
+      KubernetesClient(
+        system,
+        "rolling-update",
+        settings(podName1).apiServerSettings,
+        () => Future.successful("apiToken"),
+        None))
 
   override implicit val patienceConfig: PatienceConfig =
     PatienceConfig(timeout = Span(5, Seconds), interval = Span(100, Millis))
@@ -198,8 +203,12 @@ class KubernetesApiSpec
           system,
           customSettings,
           namespace,
-          () => Future.successful("apiToken"),
-          clientHttpsConnectionContext = None)
+          KubernetesClient(
+            system,
+            "rolling-update",
+            customSettings.apiServerSettings,
+            () => Future.successful("apiToken"),
+            None))
 
       EventFilter
         .info(pattern = "Reading revision from Kubernetes: akka.cluster.app-version was set to 1", occurrences = 1)
@@ -277,7 +286,16 @@ class KubernetesApiSpec
       val secondVersion = "2"
 
       val token = new AtomicReference[String](firstToken)
-      val api = new KubernetesApiImpl(system, settings(podName1), namespace, () => Future.successful(token.get), None)
+      val api = new KubernetesApiImpl(
+        system,
+        settings(podName1),
+        namespace,
+        KubernetesClient(
+          system,
+          "rolling-update",
+          settings(podName1).apiServerSettings,
+          () => Future.successful(token.get),
+          None))
 
       stubPodResponse()
 
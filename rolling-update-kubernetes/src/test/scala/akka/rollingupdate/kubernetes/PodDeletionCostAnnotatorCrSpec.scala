@@ -121,10 +121,11 @@ class PodDeletionCostAnnotatorCrSpec
     )
   }
 
-  private def annotatorProps(pod: String, kubernetesApi: KubernetesApi) =
+  private def annotatorProps(pod: String, kubernetesApi: KubernetesApi, debounce: FiniteDuration = Duration.Zero) =
     PodDeletionCostAnnotator.props(
       settings(pod),
-      PodDeletionCostSettings(system.settings.config.getConfig("akka.rollingupdate.kubernetes")),
+      PodDeletionCostSettings(system.settings.config.getConfig("akka.rollingupdate.kubernetes"))
+        .copy(debounce = debounce),
       kubernetesApi,
       crName = Some("poddeletioncostannotatorcrspec")
     )
@@ -299,6 +300,80 @@ class PodDeletionCostAnnotatorCrSpec
     }
   }
 
+  "The pod-deletion-cost annotator, when batching updates" should {
+
+    "write the costs of all pods from the oldest member" in {
+      val member2 = Cluster(system2).selfUniqueAddress
+      val kubernetesApi = new TestKubernetesApi
+      // entry added by the second pod, with a cost that is out of date
+      kubernetesApi.updatePodCostResource(
+        "poddeletioncostannotatorcrspec",
+        "1",
+        Vector(PodCost(podName2, 0, member2.address.toString, member2.longUid, System.currentTimeMillis())))
+
+      system.actorOf(annotatorProps(podName1, kubernetesApi))
+      eventually {
+        val podCosts = kubernetesApi.getPodCosts().sortBy(_.podName)
+        podCosts.map(p => p.podName -> p.cost) shouldBe Vector(podName1 -> 10000, podName2 -> 9900)
+      }
+    }
+
+    "only add the own entry from other members" in {
+      val member2 = Cluster(system2).selfUniqueAddress
+      val updates = TestProbe()
+      val kubernetesApi = new TestKubernetesApi {
+        override def updatePodCostResource(
+            crName: String,
+            v: String,
+            pods: immutable.Seq[PodCost]): Future[Either[PodCostResource, PodCostResource]] = {
+          updates.ref ! pods.map(_.uniqueAddress)
+          super.updatePodCostResource(crName, v, pods)
+        }
+      }
+
+      val underTest = system2.actorOf(annotatorProps(podName2, kubernetesApi))
+      updates.expectMsg(Vector(member2))
+
+      // a membership change is written by the oldest member
+      underTest ! MemberUp(
+        Member(
+          UniqueAddress(Address("akka", system.name, Cluster(system).selfAddress.host.get, 2553), 3L),
+          Cluster(system).selfRoles,
+          Cluster(system).selfMember.appVersion
+        ).copyUp(upNumber = 100))
+      updates.expectNoMessage(300.millis)
+    }
+
+    "collapse membership changes within the debounce window into one update" in {
+      val updates = TestProbe()
+      val kubernetesApi = new TestKubernetesApi {
+        override def updatePodCostResource(
+            crName: String,
+            v: String,
+            pods: immutable.Seq[PodCost]): Future[Either[PodCostResource, PodCostResource]] = {
+          updates.ref ! pods.map(_.podName)
+          super.updatePodCostResource(crName, v, pods)
+        }
+      }
+
+      val underTest = system.actorOf(annotatorProps(podName1, kubernetesApi, debounce = 1.second))
+      (1 to 5).foreach { n =>
+        underTest ! MemberUp(
+          Member(
+            UniqueAddress(Address("akka", system.name, Cluster(system).selfAddress.host.get, 2560 + n), n.toLong),
+            Cluster(system).selfRoles,
+            Cluster(system).selfMember.appVersion
+          ).copyUp(upNumber = 100 + n))
+      }
+      // nothing is written within the window
+      updates.expectNoMessage(500.millis)
+
+      updates.expectMsg(Vector(podName1))
+      // and the changes of the window are not written again
+      updates.expectNoMessage(1500.millis)
+    }
+  }
+
   def expectLogInfo[T](pattern: String = null)(block: => T): T =
     EventFilter.info(pattern = pattern, occurrences = 1).intercept(block)(system)
 
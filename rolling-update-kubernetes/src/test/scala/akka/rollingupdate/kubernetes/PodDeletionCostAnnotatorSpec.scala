@@ -13,6 +13,7 @@ import akka.cluster.ClusterEvent.MemberUp
 import akka.cluster.Member
 import akka.cluster.MemberStatus
 import akka.cluster.UniqueAddress
+import akka.management.kubernetes.client.KubernetesClient
 import akka.testkit.EventFilter
 import akka.testkit.ImplicitSender
 import akka.testkit.TestKit
@@ -101,8 +102,12 @@ class PodDeletionCostAnnotatorSpec
       system,
       settings(podName1),
       namespace,
-      () => Future.successful("apiToken"),
-      clientHttpsConnectionContext = None)
+      KubernetesClient(
+        system,
+        "rolling-update",
+        settings(podName1).apiServerSettings,
+        () => Future.successful("apiToken"),
+        None))
 
   private def annotatorProps(pod: String) =
     PodDeletionCostAnnotator.props(